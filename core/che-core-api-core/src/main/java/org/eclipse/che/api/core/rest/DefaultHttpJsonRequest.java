@@ -252,29 +252,7 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
                 try (Reader reader = new InputStreamReader(in)) {
                     str = CharStreams.toString(reader);
                 }
-                final String contentType = conn.getContentType();
-                if (contentType != null && contentType.startsWith(MediaType.APPLICATION_JSON)) {
-                    final ServiceError serviceError = DtoFactory.getInstance().createDtoFromJson(str, ServiceError.class);
-                    if (serviceError.getMessage() != null) {
-                        if (responseCode == Response.Status.FORBIDDEN.getStatusCode()) {
-                            throw new ForbiddenException(serviceError);
-                        } else if (responseCode == Response.Status.NOT_FOUND.getStatusCode()) {
-                            throw new NotFoundException(serviceError);
-                        } else if (responseCode == Response.Status.UNAUTHORIZED.getStatusCode()) {
-                            throw new UnauthorizedException(serviceError);
-                        } else if (responseCode == Response.Status.CONFLICT.getStatusCode()) {
-                            throw new ConflictException(serviceError);
-                        } else if (responseCode == Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()) {
-                            throw new ServerException(serviceError);
-                        } else if (responseCode == Response.Status.BAD_REQUEST.getStatusCode()) {
-                            throw new BadRequestException(serviceError);
-                        }
-                        throw new ServerException(serviceError);
-                    }
-                }
-                // Can't parse content as json or content has format other we expect for error.
-                throw new IOException(String.format("Failed access: %s, method: %s, response code: %d, message: %s",
-                                                    UriBuilder.fromUri(url).replaceQuery("token").build(), method, responseCode, str));
+                throwResponseError(responseCode, conn.getContentType(), str, url, method);
             }
             final String contentType = conn.getContentType();
             if (contentType != null && !contentType.startsWith(MediaType.APPLICATION_JSON)) {
@@ -289,7 +267,70 @@ public class DefaultHttpJsonRequest implements HttpJsonRequest {
         }
     }
 
-    private String getAuthenticationToken() {
+    /**
+     * Throws an exception which corresponds to the response code of unsuccessful response.
+     *
+     * @param responseCode
+     *         response code, must not be 2xx
+     * @param contentType
+     *         content type of the response, may be null
+     * @param responseBody
+     *         body of the response
+     * @param url
+     *         request url
+     * @param method
+     *         request method
+     * @throws IOException
+     *         when response body is not a json service error
+     * @throws ServerException
+     *         when response code is 500 or it is different from 400, 401, 403, 404, 409
+     * @throws ForbiddenException
+     *         when response code is 403
+     * @throws NotFoundException
+     *         when response code is 404
+     * @throws UnauthorizedException
+     *         when response code is 401
+     * @throws ConflictException
+     *         when response code is 409
+     * @throws BadRequestException
+     *         when response code is 400
+     */
+    static void throwResponseError(int responseCode,
+                                   String contentType,
+                                   String responseBody,
+                                   String url,
+                                   String method) throws IOException,
+                                                         ServerException,
+                                                         ForbiddenException,
+                                                         NotFoundException,
+                                                         UnauthorizedException,
+                                                         ConflictException,
+                                                         BadRequestException {
+        if (contentType != null && contentType.startsWith(MediaType.APPLICATION_JSON)) {
+            final ServiceError serviceError = DtoFactory.getInstance().createDtoFromJson(responseBody, ServiceError.class);
+            if (serviceError.getMessage() != null) {
+                if (responseCode == Response.Status.FORBIDDEN.getStatusCode()) {
+                    throw new ForbiddenException(serviceError);
+                } else if (responseCode == Response.Status.NOT_FOUND.getStatusCode()) {
+                    throw new NotFoundException(serviceError);
+                } else if (responseCode == Response.Status.UNAUTHORIZED.getStatusCode()) {
+                    throw new UnauthorizedException(serviceError);
+                } else if (responseCode == Response.Status.CONFLICT.getStatusCode()) {
+                    throw new ConflictException(serviceError);
+                } else if (responseCode == Response.Status.INTERNAL_SERVER_ERROR.getStatusCode()) {
+                    throw new ServerException(serviceError);
+                } else if (responseCode == Response.Status.BAD_REQUEST.getStatusCode()) {
+                    throw new BadRequestException(serviceError);
+                }
+                throw new ServerException(serviceError);
+            }
+        }
+        // Can't parse content as json or content has format other we expect for error.
+        throw new IOException(String.format("Failed access: %s, method: %s, response code: %d, message: %s",
+                                            UriBuilder.fromUri(url).replaceQuery("token").build(), method, responseCode, responseBody));
+    }
+
+    static String getAuthenticationToken() {
         final Subject subject = EnvironmentContext.getCurrent().getSubject();
         if (subject != null) {
             return subject.getToken();
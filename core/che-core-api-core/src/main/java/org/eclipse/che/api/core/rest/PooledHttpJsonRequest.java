@@ -0,0 +1,390 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CharStreams;
+
+import org.eclipse.che.api.core.ApiException;
+import org.eclipse.che.api.core.BadRequestException;
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.UnauthorizedException;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.commons.lang.Pair;
+import org.eclipse.che.commons.lang.concurrent.ThreadLocalPropagateContext;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.eclipse.che.dto.server.JsonArrayImpl;
+import org.eclipse.che.dto.server.JsonStringMapImpl;
+
+import javax.validation.constraints.NotNull;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.UriBuilder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPInputStream;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementation of {@link HttpJsonRequest} which reuses HTTP/1.1 connections.
+ *
+ * <p>Connection is never disconnected explicitly, response is read till the end instead, so
+ * {@link HttpURLConnection} returns connection to its keep-alive cache and next request to the same host reuses it.
+ * Connection is disconnected only when request fails with I/O error, since it may be broken.
+ * Responses compressed with gzip are accepted.
+ *
+ * <p>Besides {@link #request()}, which buffers response body as {@link DefaultHttpJsonRequest} does, the request can
+ * decode response body into dto while it is being read, see {@link #requestDto(Class)} and {@link #requestDtoList(Class)},
+ * and it can be executed asynchronously, see {@link #requestAsync()}.
+ *
+ * <p>The implementation is not thread-safe, but it is reusable as well as {@link DefaultHttpJsonRequest}.
+ *
+ * @see PooledHttpJsonRequestFactory
+ */
+public class PooledHttpJsonRequest implements HttpJsonRequest {
+
+    private static final int      DEFAULT_TIMEOUT_MS             = 60000;
+    private static final int      DEFAULT_QUERY_PARAMS_LIST_SIZE = 5;
+    private static final Object[] EMPTY_ARRAY                    = new Object[0];
+    private static final String   GZIP                           = "gzip";
+
+    private final PooledHttpJsonRequestFactory factory;
+    private final String                       url;
+
+    private int                   timeout;
+    private String                method;
+    private Object                body;
+    private List<Pair<String, ?>> queryParams;
+    private String                authorizationHeaderValue;
+
+    PooledHttpJsonRequest(PooledHttpJsonRequestFactory factory, String url) {
+        this.factory = factory;
+        this.url = requireNonNull(url, "Required non-null url");
+    }
+
+    PooledHttpJsonRequest(PooledHttpJsonRequestFactory factory, Link link) {
+        this(factory, requireNonNull(link, "Required non-null link").getHref());
+        this.method = link.getMethod();
+    }
+
+    @Override
+    public PooledHttpJsonRequest setMethod(@NotNull String method) {
+        this.method = requireNonNull(method, "Required non-null http method");
+        return this;
+    }
+
+    @Override
+    public PooledHttpJsonRequest setBody(@NotNull Object body) {
+        this.body = requireNonNull(body, "Required non-null body");
+        return this;
+    }
+
+    @Override
+    public PooledHttpJsonRequest setBody(@NotNull Map<String, String> map) {
+        this.body = new JsonStringMapImpl<>(requireNonNull(map, "Required non-null body"));
+        return this;
+    }
+
+    @Override
+    public PooledHttpJsonRequest setBody(@NotNull List<?> list) {
+        this.body = new JsonArrayImpl<>(requireNonNull(list, "Required non-null body"));
+        return this;
+    }
+
+    @Override
+    public PooledHttpJsonRequest addQueryParam(@NotNull String name, @NotNull Object value) {
+        requireNonNull(name, "Required non-null query parameter name");
+        requireNonNull(value, "Required non-null query parameter value");
+        if (queryParams == null) {
+            queryParams = new ArrayList<>(DEFAULT_QUERY_PARAMS_LIST_SIZE);
+        }
+        queryParams.add(Pair.of(name, value));
+        return this;
+    }
+
+    @Override
+    public PooledHttpJsonRequest setAuthorizationHeader(@NotNull String value) {
+        requireNonNull(value, "Required non-null header value");
+        authorizationHeaderValue = value;
+        return this;
+    }
+
+    @Override
+    public PooledHttpJsonRequest setTimeout(int timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    @Override
+    public String getUrl() {
+        final UriBuilder ub = UriBuilder.fromUri(url);
+        if (queryParams != null) {
+            for (Pair<String, ?> parameter : queryParams) {
+                ub.queryParam(parameter.first, parameter.second);
+            }
+        }
+        return ub.build().toString();
+    }
+
+    @Override
+    public HttpJsonResponse request() throws IOException,
+                                             ServerException,
+                                             UnauthorizedException,
+                                             ForbiddenException,
+                                             NotFoundException,
+                                             ConflictException,
+                                             BadRequestException {
+        return doRequest((in, responseCode) -> new DefaultHttpJsonResponse(CharStreams.toString(new InputStreamReader(in, UTF_8)),
+                                                                           responseCode));
+    }
+
+    /**
+     * Makes this request and decodes response body into dto while it is being read.
+     *
+     * @param dtoInterface
+     *         dto interface class
+     * @return response as a dto instance, or {@code null} if response has no body, e.g. 204 No Content
+     * @see #request()
+     */
+    public <T> T requestDto(@NotNull Class<T> dtoInterface) throws IOException,
+                                                                   ServerException,
+                                                                   UnauthorizedException,
+                                                                   ForbiddenException,
+                                                                   NotFoundException,
+                                                                   ConflictException,
+                                                                   BadRequestException {
+        requireNonNull(dtoInterface, "Required non-null dto interface");
+        return doRequest((in, responseCode) -> {
+            final InputStream body = nonEmpty(in);
+            return body == null ? null : DtoFactory.getInstance().createDtoFromJson(new InputStreamReader(body, UTF_8), dtoInterface);
+        });
+    }
+
+    /**
+     * Makes this request and decodes response body into list of dto while it is being read.
+     *
+     * @param dtoInterface
+     *         dto interface class
+     * @return response as list of dto instances
+     * @throws IOException
+     *         if response has no body, e.g. 204 No Content
+     * @see #request()
+     */
+    public <T> List<T> requestDtoList(@NotNull Class<T> dtoInterface) throws IOException,
+                                                                             ServerException,
+                                                                             UnauthorizedException,
+                                                                             ForbiddenException,
+                                                                             NotFoundException,
+                                                                             ConflictException,
+                                                                             BadRequestException {
+        requireNonNull(dtoInterface, "Required non-null dto interface");
+        return doRequest((in, responseCode) -> {
+            final InputStream body = nonEmpty(in);
+            if (body == null) {
+                throw new IOException(format("Response of %s has no body, list of %s is expected", getUrl(), dtoInterface.getName()));
+            }
+            return DtoFactory.getInstance().createListDtoFromJson(new InputStreamReader(body, UTF_8), dtoInterface);
+        });
+    }
+
+    /**
+     * Makes this request in a separate thread, current {@link org.eclipse.che.commons.env.EnvironmentContext}
+     * is propagated to that thread.
+     *
+     * <p>This request must not be modified until returned future is completed.
+     *
+     * @return future which is completed with response or completed exceptionally with
+     * one of the exceptions thrown by {@link #request()}
+     */
+    public CompletableFuture<HttpJsonResponse> requestAsync() {
+        return async(this::request);
+    }
+
+    /**
+     * Makes this request in a separate thread and decodes response body into dto.
+     *
+     * @see #requestAsync()
+     * @see #requestDto(Class)
+     */
+    public <T> CompletableFuture<T> requestDtoAsync(@NotNull Class<T> dtoInterface) {
+        requireNonNull(dtoInterface, "Required non-null dto interface");
+        return async(() -> requestDto(dtoInterface));
+    }
+
+    private <T> CompletableFuture<T> async(Request<T> request) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        factory.getAsyncExecutor().execute(ThreadLocalPropagateContext.wrap(() -> {
+            try {
+                result.complete(request.execute());
+            } catch (ApiException | IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }));
+        return result;
+    }
+
+    /**
+     * Makes this request using connection from the keep-alive cache of {@link HttpURLConnection}.
+     *
+     * <p>Headers, encoding of query parameters and handling of error responses are the same as
+     * in {@link DefaultHttpJsonRequest#doRequest(int, String, String, Object, List, String)}.
+     *
+     * @param responseReader
+     *         reads successful response body, it must not close the stream,
+     *         body is drained after reading, so reader doesn't have to read it fully
+     */
+    <T> T doRequest(ResponseReader<T> responseReader) throws IOException,
+                                                             ServerException,
+                                                             ForbiddenException,
+                                                             NotFoundException,
+                                                             UnauthorizedException,
+                                                             ConflictException,
+                                                             BadRequestException {
+        if (method == null) {
+            throw new IllegalStateException("Could not perform request, request method wasn't set");
+        }
+        final String authToken = DefaultHttpJsonRequest.getAuthenticationToken();
+        String requestUrl = url;
+        final boolean hasQueryParams = queryParams != null && !queryParams.isEmpty();
+        if (hasQueryParams || authToken != null) {
+            final UriBuilder ub = UriBuilder.fromUri(url);
+            //remove sensitive information from url.
+            ub.replaceQueryParam("token", EMPTY_ARRAY);
+
+            if (hasQueryParams) {
+                for (Pair<String, ?> parameter : queryParams) {
+                    ub.queryParam(parameter.first, parameter.second);
+                }
+            }
+            requestUrl = ub.build().toString();
+        }
+        final int requestTimeout = timeout > 0 ? timeout : DEFAULT_TIMEOUT_MS;
+        final URL target = new URL(requestUrl);
+        final Semaphore connections = factory.acquireConnection(target, requestTimeout);
+        HttpURLConnection conn = null;
+        try {
+            conn = (HttpURLConnection)target.openConnection();
+            conn.setConnectTimeout(requestTimeout);
+            conn.setReadTimeout(requestTimeout);
+            conn.setRequestMethod(method);
+            conn.addRequestProperty(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+            conn.addRequestProperty(HttpHeaders.ACCEPT_ENCODING, GZIP);
+            if (!isNullOrEmpty(authorizationHeaderValue)) {
+                conn.setRequestProperty(HttpHeaders.AUTHORIZATION, authorizationHeaderValue);
+            } else if (authToken != null) {
+                conn.setRequestProperty(HttpHeaders.AUTHORIZATION, authToken);
+            }
+            if (body != null) {
+                final byte[] content = DtoFactory.getInstance().toJson(body).getBytes(UTF_8);
+                conn.addRequestProperty(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+                conn.setDoOutput(true);
+                conn.setFixedLengthStreamingMode(content.length);
+
+                if (HttpMethod.DELETE.equals(method)) { //to avoid jdk bug described here http://bugs.java.com/view_bug.do?bug_id=7157360
+                    conn.setRequestMethod(HttpMethod.POST);
+                    conn.setRequestProperty("X-HTTP-Method-Override", HttpMethod.DELETE);
+                }
+
+                try (OutputStream output = conn.getOutputStream()) {
+                    output.write(content);
+                }
+            }
+
+            final int responseCode = conn.getResponseCode();
+            if ((responseCode / 100) != 2) {
+                InputStream errorStream = conn.getErrorStream();
+                if (errorStream == null) {
+                    errorStream = conn.getInputStream();
+                }
+                final String str;
+                try (Reader reader = new InputStreamReader(decode(conn, errorStream), UTF_8)) {
+                    str = CharStreams.toString(reader);
+                }
+                DefaultHttpJsonRequest.throwResponseError(responseCode, conn.getContentType(), str, requestUrl, method);
+            }
+            try (InputStream in = decode(conn, conn.getInputStream())) {
+                final String contentType = conn.getContentType();
+                if (contentType != null && !contentType.startsWith(MediaType.APPLICATION_JSON)) {
+                    ByteStreams.copy(in, ByteStreams.nullOutputStream());
+                    throw new IOException(conn.getResponseMessage());
+                }
+                final T response = responseReader.read(in, responseCode);
+                // connection is returned to the keep-alive cache only when response is read till the end
+                ByteStreams.copy(in, ByteStreams.nullOutputStream());
+                return response;
+            }
+        } catch (IOException e) {
+            if (conn != null) {
+                conn.disconnect();
+            }
+            throw e;
+        } finally {
+            connections.release();
+        }
+    }
+
+    private static InputStream decode(HttpURLConnection conn, InputStream in) throws IOException {
+        if (GZIP.equalsIgnoreCase(conn.getContentEncoding())) {
+            return new GZIPInputStream(in);
+        }
+        return in;
+    }
+
+    /** Returns stream of response body, or {@code null} if body is empty. */
+    private static InputStream nonEmpty(InputStream in) throws IOException {
+        final PushbackInputStream body = new PushbackInputStream(in, 1);
+        final int first = body.read();
+        if (first == -1) {
+            return null;
+        }
+        body.unread(first);
+        return body;
+    }
+
+    @Override
+    public String toString() {
+        return "PooledHttpJsonRequest{" +
+               "url='" + url + '\'' +
+               ", timeout=" + timeout +
+               ", method='" + method + '\'' +
+               ", body=" + body +
+               ", queryParams=" + queryParams +
+               '}';
+    }
+
+    /** Reads body of successful response. */
+    interface ResponseReader<T> {
+        T read(InputStream in, int responseCode) throws IOException;
+    }
+
+    private interface Request<T> {
+        T execute() throws ApiException, IOException;
+    }
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates {@link PooledHttpJsonRequest} instances.
+ *
+ * <p>Unlike {@link DefaultHttpJsonRequestFactory} requests created by this factory keep HTTP/1.1 connections alive,
+ * so subsequent requests to the same host reuse connections from the keep-alive cache of {@link java.net.HttpURLConnection}.
+ * Number of idle connections kept per host is limited by {@code http.maxConnections} system property (5 by default).
+ * Number of concurrent requests per host is limited by this factory, request waits for
+ * free connection at most its timeout.
+ *
+ * <p>Factory is not bound by default, it can be bound instead of {@link DefaultHttpJsonRequestFactory} with
+ * <pre>{@code
+ *     bind(HttpJsonRequestFactory.class).to(PooledHttpJsonRequestFactory.class);
+ * }</pre>
+ *
+ * @see PooledHttpJsonRequest
+ */
+@Singleton
+public class PooledHttpJsonRequestFactory implements HttpJsonRequestFactory {
+    static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
+
+    private final int                              maxConnectionsPerHost;
+    private final ConcurrentMap<String, Semaphore> hostConnections;
+    private final ExecutorService                  asyncExecutor;
+
+    @Inject
+    public PooledHttpJsonRequestFactory() {
+        this(DEFAULT_MAX_CONNECTIONS_PER_HOST);
+    }
+
+    public PooledHttpJsonRequestFactory(int maxConnectionsPerHost) {
+        if (maxConnectionsPerHost < 1) {
+            throw new IllegalArgumentException("Max connections per host must be positive, but was " + maxConnectionsPerHost);
+        }
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.hostConnections = new ConcurrentHashMap<>();
+        this.asyncExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("HttpJsonRequest-%d")
+                                                                                     .setDaemon(true)
+                                                                                     .build());
+    }
+
+    @Override
+    public PooledHttpJsonRequest fromUrl(@NotNull String url) {
+        return new PooledHttpJsonRequest(this, url);
+    }
+
+    @Override
+    public PooledHttpJsonRequest fromLink(@NotNull Link link) {
+        return new PooledHttpJsonRequest(this, link);
+    }
+
+    @PreDestroy
+    public void stop() {
+        asyncExecutor.shutdownNow();
+    }
+
+    /** Returns executor of asynchronous requests. */
+    ExecutorService getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Acquires connection to the host of given url, returned semaphore must be released when request is completed.
+     *
+     * @throws IOException
+     *         when there is no free connection in given time or thread is interrupted
+     */
+    Semaphore acquireConnection(URL url, long timeoutMs) throws IOException {
+        final Semaphore connections = hostConnections.computeIfAbsent(url.getProtocol() + "://" + url.getAuthority(),
+                                                                      host -> new Semaphore(maxConnectionsPerHost, true));
+        try {
+            if (!connections.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IOException(String.format("No free connection to %s in %d ms, max connections per host is %d",
+                                                    url.getAuthority(), timeoutMs, maxConnectionsPerHost));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for connection to " + url.getAuthority(), e);
+        }
+        return connections;
+    }
+}
@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpServer;
+
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares {@link DefaultHttpJsonRequestFactory} with {@link PooledHttpJsonRequestFactory}
+ * by requesting list of links from the local embedded server sequentially and concurrently.
+ *
+ * <p>It is not a test, run it manually with optional arguments:
+ * number of requests per thread, number of concurrent threads and number of links in response.
+ */
+public class HttpJsonRequestBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        final int requests = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        final int links = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+
+        final HttpServer server = startServer(links);
+        final String url = "http://" + server.getAddress().getHostString() + ':' + server.getAddress().getPort() + "/links";
+        final PooledHttpJsonRequestFactory pooledFactory = new PooledHttpJsonRequestFactory(threads);
+        try {
+            final HttpJsonRequestFactory defaultFactory = new DefaultHttpJsonRequestFactory();
+            // warm up JIT and keep-alive cache
+            run(defaultFactory, url, requests / 10, 1);
+            run(pooledFactory, url, requests / 10, 1);
+
+            System.out.printf("%d requests per thread, %d links per response%n", requests, links);
+            report("default, 1 thread", run(defaultFactory, url, requests, 1), requests);
+            report("pooled,  1 thread", run(pooledFactory, url, requests, 1), requests);
+            report("default, " + threads + " threads", run(defaultFactory, url, requests, threads), requests * threads);
+            report("pooled,  " + threads + " threads", run(pooledFactory, url, requests, threads), requests * threads);
+        } finally {
+            pooledFactory.stop();
+            server.stop(0);
+        }
+    }
+
+    private static long run(HttpJsonRequestFactory factory, String url, int requests, int threads) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final long start = System.nanoTime();
+            final List<Future<?>> futures = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < requests; j++) {
+                        factory.fromUrl(url).useGetMethod().request().asList(Link.class);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void report(String name, long nanos, int requests) {
+        System.out.printf("%-20s %8d ms %10.1f requests/s%n", name, nanos / 1_000_000, requests * 1e9 / nanos);
+    }
+
+    private static HttpServer startServer(int links) throws Exception {
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < links; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"href\":\"http://localhost/api/link/").append(i).append("\",\"rel\":\"link\",\"method\":\"GET\"}");
+        }
+        final byte[] plain = json.append(']').toString().getBytes(UTF_8);
+        final ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(gzipped)) {
+            gzip.write(plain);
+        }
+
+        // otherwise headers and body of response are delayed by Nagle's algorithm and client measurements are meaningless
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/links", exchange -> {
+            ByteStreams.copy(exchange.getRequestBody(), ByteStreams.nullOutputStream());
+            final String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            byte[] body = plain;
+            if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+                body = gzipped.toByteArray();
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.core.rest;
+
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.rest.shared.dto.Link;
+import org.eclipse.che.commons.env.EnvironmentContext;
+import org.eclipse.che.commons.subject.SubjectImpl;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.ws.rs.HttpMethod.GET;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests of {@link PooledHttpJsonRequest}.
+ */
+public class PooledHttpJsonRequestTest {
+    private static final String LINK_JSON = "{\"href\":\"http://localhost/api\",\"rel\":\"self\",\"method\":\"GET\"}";
+
+    private HttpServer                   server;
+    private String                       serverUrl;
+    private Set<Integer>                 clientPorts;
+    private Set<String>                  authorizationHeaders;
+    private PooledHttpJsonRequestFactory factory;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        clientPorts = ConcurrentHashMap.newKeySet();
+        authorizationHeaders = ConcurrentHashMap.newKeySet();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/link", exchange -> respond(exchange, 200, LINK_JSON));
+        server.createContext("/links", exchange -> respond(exchange, 200, '[' + LINK_JSON + ',' + LINK_JSON + ']'));
+        server.createContext("/missing", exchange -> respond(exchange, 404, "{\"message\":\"not found\"}"));
+        server.createContext("/empty", exchange -> {
+            ByteStreams.copy(exchange.getRequestBody(), ByteStreams.nullOutputStream());
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        serverUrl = "http://" + server.getAddress().getHostString() + ':' + server.getAddress().getPort();
+        factory = new PooledHttpJsonRequestFactory(2);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        factory.stop();
+        server.stop(0);
+        EnvironmentContext.reset();
+    }
+
+    @Test
+    public void shouldReuseConnectionForSubsequentRequests() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(factory.fromUrl(serverUrl + "/link").setMethod(GET).request().asDto(Link.class).getRel(), "self");
+        }
+
+        assertEquals(clientPorts.size(), 1, "Connection is not reused, client ports: " + clientPorts);
+    }
+
+    @Test
+    public void shouldDecodeGzippedResponseToDtoWhileReadingIt() throws Exception {
+        final Link link = factory.fromUrl(serverUrl + "/link").setMethod(GET).requestDto(Link.class);
+
+        assertEquals(link.getHref(), "http://localhost/api");
+        assertEquals(link.getMethod(), "GET");
+    }
+
+    @Test
+    public void shouldDecodeResponseToListOfDto() throws Exception {
+        final List<Link> links = factory.fromUrl(serverUrl + "/links").setMethod(GET).requestDtoList(Link.class);
+
+        assertEquals(links.size(), 2);
+        assertEquals(links.get(1).getRel(), "self");
+    }
+
+    @Test
+    public void shouldReturnNullDtoWhenResponseHasNoBody() throws Exception {
+        assertNull(factory.fromUrl(serverUrl + "/empty").setMethod(GET).requestDto(Link.class));
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Response of .*/empty has no body, .*")
+    public void shouldThrowExceptionWhenListOfDtoIsRequestedButResponseHasNoBody() throws Exception {
+        factory.fromUrl(serverUrl + "/empty").setMethod(GET).requestDtoList(Link.class);
+    }
+
+    @Test(expectedExceptions = NotFoundException.class, expectedExceptionsMessageRegExp = "not found")
+    public void shouldThrowExceptionWhichCorrespondsToErrorResponse() throws Exception {
+        factory.fromUrl(serverUrl + "/missing").setMethod(GET).request();
+    }
+
+    @Test
+    public void shouldReuseConnectionAfterErrorResponse() throws Exception {
+        try {
+            factory.fromUrl(serverUrl + "/missing").setMethod(GET).request();
+            fail("Request must fail");
+        } catch (NotFoundException ignored) {
+        }
+        factory.fromUrl(serverUrl + "/link").setMethod(GET).request();
+
+        assertEquals(clientPorts.size(), 1, "Connection is not reused, client ports: " + clientPorts);
+    }
+
+    @Test(timeOut = 5000)
+    public void shouldLimitConcurrentRequestsPerHost() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        server.createContext("/slow", exchange -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException ignored) {
+            }
+            respond(exchange, 200, LINK_JSON);
+        });
+        factory.fromUrl(serverUrl + "/slow").setMethod(GET).requestAsync();
+        factory.fromUrl(serverUrl + "/slow").setMethod(GET).requestAsync();
+        Thread.sleep(200);
+
+        try {
+            factory.fromUrl(serverUrl + "/link").setMethod(GET).setTimeout(200).request();
+            fail("Number of concurrent requests must be limited");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("No free connection"), e.getMessage());
+        } finally {
+            release.countDown();
+        }
+        factory.fromUrl(serverUrl + "/link").setMethod(GET).setTimeout(2000).request();
+    }
+
+    @Test(timeOut = 5000)
+    public void shouldExecuteRequestAsynchronouslyWithCurrentEnvironmentContext() throws Exception {
+        EnvironmentContext.getCurrent().setSubject(new SubjectImpl("name", "id", "token123", false));
+
+        final Link link = factory.fromUrl(serverUrl + "/link").setMethod(GET).requestDtoAsync(Link.class).get();
+
+        assertEquals(link.getRel(), "self");
+        assertTrue(authorizationHeaders.contains("token123"), "Authorization headers: " + authorizationHeaders);
+    }
+
+    @Test(timeOut = 5000)
+    public void shouldCompleteAsyncRequestExceptionallyWhenRequestFails() throws Exception {
+        try {
+            factory.fromUrl(serverUrl + "/missing").setMethod(GET).requestAsync().get();
+            fail("Request must fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NotFoundException, "Unexpected cause " + e.getCause());
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String json) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        final String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization != null) {
+            authorizationHeaders.add(authorization);
+        }
+        ByteStreams.copy(exchange.getRequestBody(), ByteStreams.nullOutputStream());
+        byte[] body = json.getBytes(UTF_8);
+        final String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            final ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+            try (OutputStream gzip = new GZIPOutputStream(gzipped)) {
+                gzip.write(body);
+            }
+            body = gzipped.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -16,6 +16,8 @@ import com.google.common.cache.LoadingCache;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonSyntaxException;
 
 import org.eclipse.che.commons.lang.reflect.ParameterizedTypeImpl;
@@ -23,7 +25,6 @@ import org.eclipse.che.dto.shared.DTO;
 import org.eclipse.che.dto.shared.JsonArray;
 import org.eclipse.che.dto.shared.JsonStringMap;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -191,16 +192,23 @@ public final class DtoFactory {
      *         if can't provide any implementation for specified interface
      * @throws IOException
      *         if an i/o error occurs
+     * @throws JsonSyntaxException
+     *         if JSON data is malformed
      */
     public <T> T createDtoFromJson(Reader json, Class<T> dtoInterface) throws IOException {
-        DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
-        StringBuilder sb = new StringBuilder();
-        BufferedReader br = new BufferedReader(json);
-        String line;
-        while ((line = br.readLine()) != null) {
-            sb.append(line);
+        final DtoProvider<T> dtoProvider = getDtoProvider(dtoInterface);
+        final JsonElement element;
+        try {
+            // parse json tree directly from the reader instead of reading whole json to a string first
+            element = new JsonParser().parse(json);
+        } catch (JsonIOException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            throw e;
         }
-        return dtoProvider.fromJson(sb.toString());
+        return dtoProvider.fromJson(element);
     }
 
     /**
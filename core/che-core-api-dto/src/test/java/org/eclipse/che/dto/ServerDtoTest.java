@@ -15,6 +15,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
 
 import org.eclipse.che.dto.definitions.ComplicatedDto;
 import org.eclipse.che.dto.definitions.DTOHierarchy;
@@ -29,6 +30,9 @@ import org.eclipse.che.dto.server.DtoFactory;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -92,6 +96,48 @@ public class ServerDtoTest {
         checkSimpleDto(dto, fooString, fooId, _default);
     }
 
+    @Test
+    public void testSimpleDtoDeserializerFromReader() throws Exception {
+        final String fooString = "Something";
+        final int fooId = 1;
+        final String _default = "test_default_keyword";
+
+        JsonObject json = new JsonObject();
+        json.add("name", new JsonPrimitive(fooString));
+        json.add("id", new JsonPrimitive(fooId));
+        json.add("default", new JsonPrimitive(_default));
+
+        SimpleDto dto = dtoFactory.createDtoFromJson(new StringReader(json.toString()), SimpleDto.class);
+
+        checkSimpleDto(dto, fooString, fooId, _default);
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void testDeserializerFromReaderFailsOnMalformedJson() throws Exception {
+        dtoFactory.createDtoFromJson(new StringReader("{\"name\":\"Something\" \"id\":1}"), SimpleDto.class);
+    }
+
+    @Test(expectedExceptions = JsonSyntaxException.class)
+    public void testDeserializerFromReaderFailsOnTruncatedJson() throws Exception {
+        dtoFactory.createDtoFromJson(new StringReader("{\"name\":\"Something\","), SimpleDto.class);
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "connection reset")
+    public void testDeserializerFromReaderRethrowsErrorOfReader() throws Exception {
+        final Reader reader = new Reader() {
+            @Override
+            public int read(char[] buffer, int off, int len) throws IOException {
+                throw new IOException("connection reset");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        dtoFactory.createDtoFromJson(reader, SimpleDto.class);
+    }
+
     @Test
     public void testSerializerWithFieldNames() throws Exception {
         final String fooString = "Something";
@@ -214,6 +260,11 @@ public class ServerDtoTest {
         assertEquals(listDtoFromJson.get(1).getDefault(), _default_2);
     }
 
+    @Test(expectedExceptions = IOException.class)
+    public void testListDeserializerFromReaderFailsOnMalformedJson() throws Exception {
+        dtoFactory.createListDtoFromJson(new StringReader("[{\"name\":\"Something\"}"), SimpleDto.class);
+    }
+
     @Test
     public void testComplicatedDtoSerializer() throws Exception {
         final String fooString = "Something";
@@ -22,6 +22,7 @@ import org.eclipse.che.inject.lifecycle.DestroyErrorHandler;
 import org.eclipse.che.inject.lifecycle.DestroyModule;
 import org.eclipse.che.inject.lifecycle.Destroyer;
 import org.eclipse.che.inject.lifecycle.InitModule;
+import org.everrest.core.impl.EverrestApplication;
 import org.everrest.guice.servlet.EverrestGuiceContextListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +44,9 @@ import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 /**
  * CheBootstrap is entry point of Che application implemented as ServletContextListener.
  * <ul>
@@ -106,6 +110,35 @@ public class CheBootstrap extends EverrestGuiceContextListener {
 
     private final List<Module> modules = new ArrayList<>();
 
+    private final InitModule initModule = new InitModule(PostConstruct.class);
+
+    private long startNanos;
+    private long modulesNanos;
+    private long injectorNanos;
+
+    @Override
+    public void contextInitialized(ServletContextEvent sce) {
+        startNanos = System.nanoTime();
+        super.contextInitialized(sce);
+        final long totalNanos = System.nanoTime() - startNanos;
+        LOG.info("Application started in {} ms: finding {} modules {} ms, creating injector {} ms (@PostConstruct {} ms in {} methods), " +
+                 "binding REST components {} ms",
+                 NANOSECONDS.toMillis(totalNanos),
+                 modules.size(),
+                 NANOSECONDS.toMillis(modulesNanos),
+                 NANOSECONDS.toMillis(injectorNanos - modulesNanos),
+                 initModule.getInvocationTime(MILLISECONDS),
+                 initModule.getInvocationCount(),
+                 NANOSECONDS.toMillis(totalNanos - injectorNanos));
+    }
+
+    @Override
+    protected void processBindings(Injector injector, EverrestApplication everrest) {
+        // injector is created at this point, all eager singletons are initialized
+        injectorNanos = System.nanoTime() - startNanos;
+        super.processBindings(injector, everrest);
+    }
+
     @Override
     public void contextDestroyed(ServletContextEvent sce) {
         final ServletContext ctx = sce.getServletContext();
@@ -119,7 +152,7 @@ public class CheBootstrap extends EverrestGuiceContextListener {
     @Override
     protected List<Module> getModules() {
         // based on logic that getServletModule() is called BEFORE getModules() in the EverrestGuiceContextListener
-        modules.add(new InitModule(PostConstruct.class));
+        modules.add(initModule);
         modules.add(new DestroyModule(PreDestroy.class, DestroyErrorHandler.DUMMY));
         modules.add(new URIConverter());
         modules.add(new URLConverter());
@@ -129,6 +162,7 @@ public class CheBootstrap extends EverrestGuiceContextListener {
         modules.add(new PairArrayConverter());
         modules.addAll(ModuleScanner.findModules());
         modules.add(Modules.override(new WebInfConfiguration()).with(new ExtConfiguration()));
+        modulesNanos = System.nanoTime() - startNanos;
         return modules;
     }
 
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.inject;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Annotation processor which writes names of classes annotated with &#064DynaModule to the {@link #INDEX_RESOURCE}
+ * file of the compiled module, so {@link ModuleScanner} may find modules without class path scanning.
+ * <p>
+ * Processor is registered as a service and is run by javac for every module which has this jar on the compilation
+ * class path. Entries of the index written by previous incremental compilation are kept while their classes exist.
+ */
+@SupportedAnnotationTypes("org.eclipse.che.inject.DynaModule")
+public class DynaModuleIndexProcessor extends AbstractProcessor {
+    /** Location of index file in jar. Each line of index is binary name of module class. */
+    public static final String INDEX_RESOURCE = "META-INF/che/dynamodules";
+
+    private final Set<String> modules = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (!modules.isEmpty()) {
+                writeIndex();
+            }
+            return false;
+        }
+        final TypeElement moduleType = processingEnv.getElementUtils().getTypeElement("com.google.inject.Module");
+        for (Element element : roundEnv.getElementsAnnotatedWith(DynaModule.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            final TypeElement type = (TypeElement)element;
+            if (!type.getModifiers().contains(Modifier.PUBLIC) || type.getModifiers().contains(Modifier.ABSTRACT)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                                                         "Class annotated with @DynaModule must be public and not abstract",
+                                                         type);
+                continue;
+            }
+            if (moduleType != null && !processingEnv.getTypeUtils().isAssignable(type.asType(), moduleType.asType())) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                                                         "Class annotated with @DynaModule must implement com.google.inject.Module",
+                                                         type);
+                continue;
+            }
+            modules.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        readPreviousIndex();
+        try {
+            final FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+            try (Writer writer = index.openWriter()) {
+                for (String module : modules) {
+                    writer.write(module);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + INDEX_RESOURCE + ": " + e.getMessage());
+        }
+    }
+
+    private void readPreviousIndex() {
+        try {
+            final FileObject index = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+            try (BufferedReader reader = new BufferedReader(index.openReader(true))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (!line.isEmpty()) {
+                        final TypeElement type = processingEnv.getElementUtils().getTypeElement(line.replace('$', '.'));
+                        if (type != null && type.getAnnotation(DynaModule.class) != null) {
+                            modules.add(line);
+                        }
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // there is no index of previous compilation
+        }
+    }
+}
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.che.inject;
 
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Bytes;
 import com.google.inject.Module;
 
 import org.slf4j.Logger;
@@ -19,15 +21,47 @@ import javax.servlet.ServletContainerInitializer;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.annotation.HandlesTypes;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.CodeSource;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
 
-/** Utility for finding Guice modules annotated with &#064DynaModule. */
+/**
+ * Utility for finding Guice modules annotated with &#064DynaModule.
+ * <p>
+ * By default modules are found by the servlet container which scans classes of web application for types declared in
+ * {@link HandlesTypes}. If context parameter {@value #USE_INDEX_PARAMETER} is {@code true}, modules are loaded from
+ * {@value DynaModuleIndexProcessor#INDEX_RESOURCE} files written by {@link DynaModuleIndexProcessor} at build time.
+ * In this mode container should be configured to not scan jars, e.g. with {@code <JarScanFilter pluginSkip="*.jar"/>}
+ * in Tomcat's context.xml. Modules which are still found by container but are not listed in any index are loaded as
+ * well and reported, since their jars are built without index. If there is no index at all, classes and jars of web
+ * application are scanned for modules by this class.
+ */
 @HandlesTypes({DynaModule.class})
 public class ModuleScanner implements ServletContainerInitializer {
     private static final Logger LOG = LoggerFactory.getLogger(ModuleScanner.class);
 
+    /** Name of context parameter which enables loading of modules from index instead of class path scanning. */
+    public static final String USE_INDEX_PARAMETER = "org.eclipse.che.inject.dynamodule.index";
+
+    private static final String CLASSES_PATH = "/WEB-INF/classes/";
+    private static final String LIB_PATH     = "/WEB-INF/lib/";
+    /** Descriptor of &#064DynaModule, it is present in constant pool of each annotated class. */
+    private static final byte[] DYNA_MODULE_DESCRIPTOR = ('L' + DynaModule.class.getName().replace('.', '/') + ';')
+            .getBytes(StandardCharsets.UTF_8);
+
     private static final List<Module> modules = new ArrayList<>();
 
     public static List<Module> findModules() {
@@ -36,18 +70,174 @@ public class ModuleScanner implements ServletContainerInitializer {
 
     @Override
     public void onStartup(Set<Class<?>> c, ServletContext ctx) throws ServletException {
-        if (c != null) {
+        if (Boolean.parseBoolean(ctx.getInitParameter(USE_INDEX_PARAMETER))) {
+            final ClassLoader classLoader = getClass().getClassLoader();
+            final List<URL> indexes;
+            try {
+                indexes = Collections.list(classLoader.getResources(DynaModuleIndexProcessor.INDEX_RESOURCE));
+            } catch (IOException e) {
+                throw new ServletException("Unable to find index of modules: " + e.getMessage(), e);
+            }
+            if (indexes.isEmpty()) {
+                LOG.warn("There is no {} index of modules, classes and jars of web application are scanned for modules",
+                         DynaModuleIndexProcessor.INDEX_RESOURCE);
+                final Set<Class<?>> found = new LinkedHashSet<>();
+                if (c != null) {
+                    found.addAll(c);
+                }
+                found.addAll(scanModules(ctx, classLoader));
+                for (Class<?> clazz : found) {
+                    addModule(clazz);
+                }
+            } else {
+                final Set<String> indexed = loadIndexedModules(indexes, classLoader);
+                if (c != null) {
+                    addNotIndexedModules(c, indexed);
+                }
+            }
+        } else if (c != null) {
             for (Class<?> clazz : c) {
-                if (Module.class.isAssignableFrom(clazz)) {
-                    try {
-                        modules.add((Module)clazz.newInstance());
-                    } catch (Exception e) {
-                        LOG.error("Problem with instantiating Module {} : {}", clazz, e.getMessage());
+                addModule(clazz);
+            }
+            LOG.info("Found {} modules annotated with {} by class path scanning", modules.size(), DynaModule.class.getName());
+        }
+    }
+
+    /** Loads modules listed in indexes and returns names of their classes. */
+    private static Set<String> loadIndexedModules(List<URL> indexes, ClassLoader classLoader) throws ServletException {
+        final long start = System.nanoTime();
+        final Set<String> indexed = new HashSet<>();
+        try {
+            for (URL index : indexes) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+                        if (line.isEmpty() || !indexed.add(line)) {
+                            continue;
+                        }
+                        try {
+                            addModule(Class.forName(line, false, classLoader));
+                        } catch (ClassNotFoundException | LinkageError e) {
+                            LOG.error("Problem with loading Module {} listed in {} : {}", line, index, e.getMessage());
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new ServletException("Unable to read index of modules: " + e.getMessage(), e);
+        }
+        LOG.info("Loaded {} modules from {} indexes in {} ms",
+                 modules.size(), indexes.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return indexed;
+    }
+
+    /**
+     * Adds modules which are found by container but are not listed in any index, e.g. their jar is built without
+     * {@link DynaModuleIndexProcessor}. Such modules are lost as soon as container stops scanning their jar.
+     */
+    private static void addNotIndexedModules(Set<Class<?>> found, Set<String> indexed) {
+        for (Class<?> clazz : found) {
+            if (!indexed.contains(clazz.getName())) {
+                LOG.warn("Module {} from {} is not listed in any {} index, it is found only by class path scanning",
+                         clazz.getName(), getLocation(clazz), DynaModuleIndexProcessor.INDEX_RESOURCE);
+                addModule(clazz);
+            }
+        }
+    }
+
+    /**
+     * Finds classes annotated with &#064DynaModule in classes and jars of web application. Classes are read as bytes
+     * and only classes which refer to the annotation are loaded.
+     */
+    private static Set<Class<?>> scanModules(ServletContext ctx, ClassLoader classLoader) throws ServletException {
+        final long start = System.nanoTime();
+        final List<String> candidates = new ArrayList<>();
+        try {
+            scanClasses(ctx, CLASSES_PATH, candidates);
+            final Set<String> jars = ctx.getResourcePaths(LIB_PATH);
+            if (jars != null) {
+                for (String jar : jars) {
+                    if (jar.endsWith(".jar")) {
+                        scanJar(ctx, jar, candidates);
                     }
-                } else {
-                    LOG.warn("Ignored non {} class annotated with {}", Module.class.getName(), DynaModule.class.getName());
                 }
             }
+        } catch (IOException e) {
+            throw new ServletException("Unable to scan web application for modules: " + e.getMessage(), e);
+        }
+        final Set<Class<?>> found = new LinkedHashSet<>();
+        for (String candidate : candidates) {
+            try {
+                final Class<?> clazz = Class.forName(candidate, false, classLoader);
+                if (clazz.isAnnotationPresent(DynaModule.class)) {
+                    found.add(clazz);
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                LOG.error("Problem with loading class {} : {}", candidate, e.getMessage());
+            }
+        }
+        LOG.info("Found {} modules annotated with {} by scanning of web application in {} ms",
+                 found.size(), DynaModule.class.getName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return found;
+    }
+
+    private static void scanClasses(ServletContext ctx, String path, List<String> candidates) throws IOException {
+        final Set<String> paths = ctx.getResourcePaths(path);
+        if (paths == null) {
+            return;
+        }
+        for (String child : paths) {
+            if (child.endsWith("/")) {
+                scanClasses(ctx, child, candidates);
+            } else if (child.endsWith(".class")) {
+                try (InputStream in = ctx.getResourceAsStream(child)) {
+                    if (in != null && refersDynaModule(ByteStreams.toByteArray(in))) {
+                        candidates.add(toClassName(child.substring(CLASSES_PATH.length())));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void scanJar(ServletContext ctx, String jar, List<String> candidates) throws IOException {
+        final InputStream in = ctx.getResourceAsStream(jar);
+        if (in == null) {
+            return;
+        }
+        try (JarInputStream jarIn = new JarInputStream(in)) {
+            JarEntry entry;
+            while ((entry = jarIn.getNextJarEntry()) != null) {
+                if (entry.getName().endsWith(".class") && refersDynaModule(ByteStreams.toByteArray(jarIn))) {
+                    candidates.add(toClassName(entry.getName()));
+                }
+            }
+        }
+    }
+
+    private static boolean refersDynaModule(byte[] classBytes) {
+        return Bytes.indexOf(classBytes, DYNA_MODULE_DESCRIPTOR) >= 0;
+    }
+
+    /** Converts path of class file relative to class path root to binary name of class. */
+    private static String toClassName(String classFile) {
+        return classFile.substring(0, classFile.length() - ".class".length()).replace('/', '.');
+    }
+
+    private static String getLocation(Class<?> clazz) {
+        final CodeSource source = clazz.getProtectionDomain().getCodeSource();
+        return source == null || source.getLocation() == null ? "unknown location" : source.getLocation().toString();
+    }
+
+    private static void addModule(Class<?> clazz) {
+        if (Module.class.isAssignableFrom(clazz)) {
+            try {
+                modules.add((Module)clazz.newInstance());
+            } catch (Exception e) {
+                LOG.error("Problem with instantiating Module {} : {}", clazz, e.getMessage());
+            }
+        } else {
+            LOG.warn("Ignored non {} class annotated with {}", Module.class.getName(), DynaModule.class.getName());
         }
     }
 }
@@ -17,16 +17,45 @@ import com.google.inject.spi.InjectionListener;
 import com.google.inject.spi.TypeEncounter;
 import com.google.inject.spi.TypeListener;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
-/** @author andrew00x */
+/**
+ * Invokes methods annotated with the specified annotation after injection. Time spent in such methods is measured, so
+ * slow initialization of components is visible at startup.
+ *
+ * @author andrew00x
+ */
 public final class InitModule extends LifecycleModule {
+    private static final Logger LOG = LoggerFactory.getLogger(InitModule.class);
+
+    /** Invocations which take longer than this number of milliseconds are logged. */
+    private static final long SLOW_INVOCATION_MILLIS = 1000;
+
     private final Class<? extends Annotation> annotationType;
+    private final AtomicLong                  invocations;
+    private final AtomicLong                  invocationNanos;
 
     public InitModule(Class<? extends Annotation> annotationType) {
         this.annotationType = annotationType;
+        this.invocations = new AtomicLong();
+        this.invocationNanos = new AtomicLong();
+    }
+
+    /** Number of invoked methods. */
+    public long getInvocationCount() {
+        return invocations.get();
+    }
+
+    /** Total time spent in invoked methods. */
+    public long getInvocationTime(TimeUnit unit) {
+        return unit.convert(invocationNanos.get(), TimeUnit.NANOSECONDS);
     }
 
     @Override
@@ -40,6 +69,7 @@ public final class InitModule extends LifecycleModule {
                         final Method[] methods = get(injectee.getClass(), annotationType);
                         if (methods.length > 0) {
                             for (Method method : methods) {
+                                final long start = System.nanoTime();
                                 try {
                                     method.invoke(injectee);
                                 } catch (IllegalArgumentException e) {
@@ -51,6 +81,14 @@ public final class InitModule extends LifecycleModule {
                                     final Throwable cause = e.getTargetException();
                                     throw new ProvisionException(String.format("Invocation error of method %s on %s", method, injectee),
                                                                  cause);
+                                } finally {
+                                    final long nanos = System.nanoTime() - start;
+                                    invocations.incrementAndGet();
+                                    invocationNanos.addAndGet(nanos);
+                                    if (TimeUnit.NANOSECONDS.toMillis(nanos) >= SLOW_INVOCATION_MILLIS) {
+                                        LOG.info("@{} method {} took {} ms",
+                                                 annotationType.getSimpleName(), method, TimeUnit.NANOSECONDS.toMillis(nanos));
+                                    }
                                 }
                             }
                         }
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.inject;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
+import static org.testng.Assert.assertEquals;
+
+/** Tests for {@link DynaModuleIndexProcessor}. */
+public class DynaModuleIndexProcessorTest {
+    private Path sources;
+    private Path classes;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        sources = Files.createTempDirectory("dynamodule-sources");
+        classes = Files.createTempDirectory("dynamodule-classes");
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        deleteRecursive(sources.toFile());
+        deleteRecursive(classes.toFile());
+    }
+
+    @Test
+    public void shouldWriteIndexOfModulesAnnotatedWithDynaModule() throws Exception {
+        compile(source("a/FirstModule.java",
+                       "package a;\n" +
+                       "@org.eclipse.che.inject.DynaModule\n" +
+                       "public class FirstModule extends com.google.inject.AbstractModule {\n" +
+                       "    protected void configure() {}\n" +
+                       "    @org.eclipse.che.inject.DynaModule\n" +
+                       "    public static class Nested extends com.google.inject.AbstractModule {\n" +
+                       "        protected void configure() {}\n" +
+                       "    }\n" +
+                       "}\n"),
+                source("a/NotModule.java",
+                       "package a;\n" +
+                       "@org.eclipse.che.inject.DynaModule\n" +
+                       "public class NotModule {}\n"),
+                source("a/NotAnnotatedModule.java",
+                       "package a;\n" +
+                       "public class NotAnnotatedModule extends com.google.inject.AbstractModule {\n" +
+                       "    protected void configure() {}\n" +
+                       "}\n"));
+
+        assertEquals(readIndex(), asList("a.FirstModule", "a.FirstModule$Nested"));
+    }
+
+    @Test
+    public void shouldKeepModulesIndexedByPreviousCompilation() throws Exception {
+        compile(source("a/FirstModule.java",
+                       "package a;\n" +
+                       "@org.eclipse.che.inject.DynaModule\n" +
+                       "public class FirstModule extends com.google.inject.AbstractModule {\n" +
+                       "    protected void configure() {}\n" +
+                       "}\n"));
+        compile(source("b/SecondModule.java",
+                       "package b;\n" +
+                       "@org.eclipse.che.inject.DynaModule\n" +
+                       "public class SecondModule extends com.google.inject.AbstractModule {\n" +
+                       "    protected void configure() {}\n" +
+                       "}\n"));
+
+        assertEquals(readIndex(), asList("a.FirstModule", "b.SecondModule"));
+    }
+
+    private File source(String path, String content) throws IOException {
+        final Path file = sources.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+
+    private void compile(File... files) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final String[] args = new String[files.length + 6];
+        args[0] = "-classpath";
+        args[1] = System.getProperty("java.class.path") + File.pathSeparator + classes;
+        args[2] = "-processor";
+        args[3] = DynaModuleIndexProcessor.class.getName();
+        args[4] = "-d";
+        args[5] = classes.toString();
+        for (int i = 0; i < files.length; i++) {
+            args[i + 6] = files[i].getPath();
+        }
+        assertEquals(compiler.run(null, null, null, args), 0);
+    }
+
+    private List<String> readIndex() throws IOException {
+        return Files.readAllLines(classes.resolve(DynaModuleIndexProcessor.INDEX_RESOURCE), StandardCharsets.UTF_8);
+    }
+}
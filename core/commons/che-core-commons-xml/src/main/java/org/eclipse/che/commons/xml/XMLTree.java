@@ -10,6 +10,9 @@
  *******************************************************************************/
 package org.eclipse.che.commons.xml;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -21,7 +24,7 @@ import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
-import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathExpression;
 import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 import javax.xml.xpath.XPathFactoryConfigurationException;
@@ -37,6 +40,9 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 
 import static javax.xml.XMLConstants.FEATURE_SECURE_PROCESSING;
 import static javax.xml.stream.XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES;
@@ -46,15 +52,10 @@ import static org.eclipse.che.commons.xml.XMLTreeUtil.UTF_8;
 import static org.eclipse.che.commons.xml.XMLTreeUtil.asElement;
 import static org.eclipse.che.commons.xml.XMLTreeUtil.asElements;
 import static org.eclipse.che.commons.xml.XMLTreeUtil.closeTagLength;
-import static org.eclipse.che.commons.xml.XMLTreeUtil.indexOf;
-import static org.eclipse.che.commons.xml.XMLTreeUtil.indexOfAttributeName;
 import static org.eclipse.che.commons.xml.XMLTreeUtil.replaceAll;
 import static org.eclipse.che.commons.xml.XMLTreeUtil.rootStart;
 import static org.eclipse.che.commons.xml.XMLTreeUtil.single;
 import static org.eclipse.che.commons.xml.XMLTreeUtil.level;
-import static org.eclipse.che.commons.xml.XMLTreeUtil.insertBetween;
-import static org.eclipse.che.commons.xml.XMLTreeUtil.insertInto;
-import static org.eclipse.che.commons.xml.XMLTreeUtil.lastIndexOf;
 import static org.eclipse.che.commons.xml.XMLTreeUtil.openTagLength;
 import static org.eclipse.che.commons.xml.XMLTreeUtil.tabulate;
 import static com.google.common.collect.Maps.newHashMapWithExpectedSize;
@@ -174,6 +175,17 @@ public final class XMLTree {
     private static final XPathFactory           XPATH_FACTORY            = XPathFactory.newInstance();
     private static final String                 ROOT_TEMPLATE            = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<%s>\n</%s>";
     private static final int                    EXPECTED_NAMESPACES_SIZE = 2;
+    private static final int                    MAX_CACHED_XPATHS        = 256;
+    private static final int                    MAX_POOLED_EXPRESSIONS   = 8;
+
+    /**
+     * Bounded cache of pools of compiled xpath expressions shared by all threads,
+     * expressions don't depend on tree as they are evaluated without namespace context.
+     * Compiled expression is not thread-safe, so it is borrowed from the pool for the time of evaluation.
+     */
+    private static final Cache<String, Queue<XPathExpression>> XPATH_CACHE = CacheBuilder.newBuilder()
+                                                                                         .maximumSize(MAX_CACHED_XPATHS)
+                                                                                         .build();
 
     /** Factories configuration. */
     static {
@@ -202,7 +214,7 @@ public final class XMLTree {
     private Document            document;
     private Map<String, String> namespaces;
     private List<Element>       elements;
-    private byte[]              xml;
+    private XMLTreeBuffer       xml;
 
     private XMLTree(byte[] xml) {
         if (xml.length == 0) {
@@ -210,12 +222,13 @@ public final class XMLTree {
         }
         elements = new LinkedList<>();
         namespaces = newHashMapWithExpectedSize(EXPECTED_NAMESPACES_SIZE);
-        this.xml = normalizeLineEndings(xml);
+        final byte[] source = normalizeLineEndings(xml);
         //reason: parser is going to replace all '\r\n' sequences with single '\n'
         //which will affect elements position in source xml and produce incorrect XMLTree behaviour
         //it comes from spec http://www.w3.org/TR/2004/REC-xml11-20040204/
-        document = parseQuietly(this.xml);
-        constructTreeQuietly();
+        this.xml = new XMLTreeBuffer(source);
+        document = parseQuietly(source);
+        constructTreeQuietly(source);
     }
 
     /**
@@ -380,10 +393,11 @@ public final class XMLTree {
      */
     public byte[] getBytes() {
         final String separator = System.getProperty("line.separator");
+        final byte[] bytes = xml.toByteArray();
         if (!"\n".equals(separator)) {
-            return replaceAll(xml, "\n".getBytes(), separator.getBytes());
+            return replaceAll(bytes, "\n".getBytes(), separator.getBytes());
         }
-        return Arrays.copyOf(xml, xml.length);
+        return bytes;
     }
 
     /**
@@ -414,14 +428,32 @@ public final class XMLTree {
      */
     @SuppressWarnings("unchecked")
     private Object evaluateXPath(String expression, QName returnType) {
-        final XPath xpath = XPATH_FACTORY.newXPath();
         try {
-            return xpath.evaluate(expression, document, returnType);
+            final Queue<XPathExpression> pool = XPATH_CACHE.get(expression, ConcurrentLinkedQueue::new);
+            XPathExpression compiled = pool.poll();
+            if (compiled == null) {
+                compiled = compileXPath(expression);
+            }
+            final Object result = compiled.evaluate(document, returnType);
+            if (pool.size() < MAX_POOLED_EXPRESSIONS) {
+                pool.offer(compiled);
+            }
+            return result;
         } catch (XPathExpressionException xpathEx) {
             throw XMLTreeException.wrap(xpathEx);
+        } catch (ExecutionException ex) {
+            throw XMLTreeException.wrap(ex);
         }
     }
 
+    /**
+     * Compiles xpath expression which is not pooled yet
+     * or all pooled instances of which are evaluated by other threads.
+     */
+    private static XPathExpression compileXPath(String expression) throws XPathExpressionException {
+        return XPATH_FACTORY.newXPath().compile(expression);
+    }
+
     /**
      * Parses document using {@link DocumentBuilder}
      * Rethrows all exceptions as {@link XMLTreeException}
@@ -455,11 +487,11 @@ public final class XMLTree {
      * start of source array bytes, so we can fetch position of elements and text.
      * Each created element associated with related {@link Node} and vise-versa.
      */
-    private void constructTree() throws XMLStreamException {
-        final XMLStreamReader reader = newXMLStreamReader();
+    private void constructTree(byte[] source) throws XMLStreamException {
+        final XMLStreamReader reader = newXMLStreamReader(source);
         final LinkedList<Element> stack = new LinkedList<>();
         //before element open tag index
-        int beforeStart = rootStart(xml) - 1;
+        int beforeStart = rootStart(source) - 1;
         //used to associate each element with document node
         Node node = document.getDocumentElement();
         //used to hold previous reader event
@@ -515,7 +547,7 @@ public final class XMLTree {
                 case PROCESSING_INSTRUCTION:
                     if (!stack.isEmpty()) {
                         node = deepNext(node, true);
-                        beforeStart = lastIndexOf(xml, '>', reader.getLocation().getCharacterOffset());
+                        beforeStart = xml.lastIndexOf('>', reader.getLocation().getCharacterOffset());
                     }
                     break;
                 default:
@@ -586,11 +618,11 @@ public final class XMLTree {
      * TODO respect element attributes text content while checking '<'
      */
     private int elementRight(int left, XMLStreamReader reader) {
-        int rightIdx = lastIndexOf(xml, '>', reader.getLocation().getCharacterOffset());
-        int leftIdx = lastIndexOf(xml, '<', rightIdx);
+        int rightIdx = xml.lastIndexOf('>', reader.getLocation().getCharacterOffset());
+        int leftIdx = xml.lastIndexOf('<', rightIdx);
         while (leftIdx > left) {
-            rightIdx = lastIndexOf(xml, '>', rightIdx - 1);
-            leftIdx = lastIndexOf(xml, '<', rightIdx);
+            rightIdx = xml.lastIndexOf('>', rightIdx - 1);
+            leftIdx = xml.lastIndexOf('<', rightIdx);
         }
         return rightIdx;
     }
@@ -609,12 +641,12 @@ public final class XMLTree {
     }
 
     /**
-     * Same as {@link #constructTree()}, only difference
+     * Same as {@link #constructTree(byte[])}, only difference
      * that it wraps {@link XMLStreamException} to {@link XMLTreeException}
      */
-    private void constructTreeQuietly() {
+    private void constructTreeQuietly(byte[] source) {
         try {
-            constructTree();
+            constructTree(source);
         } catch (XMLStreamException xmlEx) {
             throw XMLTreeException.wrap(xmlEx);
         }
@@ -635,9 +667,9 @@ public final class XMLTree {
     /**
      * Creates new stream reader instance
      */
-    private XMLStreamReader newXMLStreamReader() {
+    private XMLStreamReader newXMLStreamReader(byte[] source) {
         try {
-            return XML_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(xml), "UTF-8");
+            return XML_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(source), "UTF-8");
         } catch (Exception xmlEx) {
             throw XMLTreeException.wrap(xmlEx);
         }
@@ -679,14 +711,12 @@ public final class XMLTree {
      */
     void appendChild(NewElement newElement, Element relatedToNew, Element parent) {
         final int level = level(parent) + 1;
-        final int lengthBefore = xml.length;
-        final int insertHere = lastIndexOf(xml, '>', parent.end.left) + 1;
+        final int lengthBefore = xml.length();
+        final int insertHere = xml.lastIndexOf('>', parent.end.left) + 1;
         //inserting new element bytes to tree bytes
-        xml = insertInto(xml,
-                         insertHere,
-                         '\n' + tabulate(newElement.asString(), level));
+        xml.insertInto(insertHere, '\n' + tabulate(newElement.asString(), level));
         //shift existing segments which are after parent start
-        shiftSegments(insertHere, xml.length - lengthBefore);
+        shiftSegments(insertHere, xml.length() - lengthBefore);
         //create and set up start, end, text segments to created element
         applySegments(newElement, relatedToNew, insertHere - 1, level);
         //let tree know about added element
@@ -698,13 +728,11 @@ public final class XMLTree {
      */
     void insertAfter(NewElement newElement, Element relatedToNew, Element refElement) {
         final int level = level(refElement);
-        final int lengthBefore = xml.length;
+        final int lengthBefore = xml.length();
         //inserting new element bytes to tree bytes
-        xml = insertInto(xml,
-                         refElement.end.right + 1,
-                         '\n' + tabulate(newElement.asString(), level));
+        xml.insertInto(refElement.end.right + 1, '\n' + tabulate(newElement.asString(), level));
         //shift existing segments which are after parent start
-        shiftSegments(refElement.end.right, xml.length - lengthBefore);
+        shiftSegments(refElement.end.right, xml.length() - lengthBefore);
         //create and set up start, end, text segments to created element
         //+1 because of \n
         applySegments(newElement, relatedToNew, refElement.end.right, level);
@@ -722,13 +750,11 @@ public final class XMLTree {
      */
     void insertAfterParent(NewElement newElement, Element relatedToNew, Element parent) {
         final int level = level(parent) + 1;
-        final int lengthBefore = xml.length;
+        final int lengthBefore = xml.length();
         //inserting after parent
-        xml = insertInto(xml,
-                         parent.start.right + 1,
-                         '\n' + tabulate(newElement.asString(), level));
+        xml.insertInto(parent.start.right + 1, '\n' + tabulate(newElement.asString(), level));
         //shift existing segments which are after parent start
-        shiftSegments(parent.start.right, xml.length - lengthBefore);
+        shiftSegments(parent.start.right, xml.length() - lengthBefore);
         //create and set up start, end, text segments to created element
         applySegments(newElement, relatedToNew, parent.start.right, level);
         //let tree know about inserted element
@@ -760,20 +786,17 @@ public final class XMLTree {
      * good and pretty formatted before document.
      */
     void removeElement(Element element) {
-        final int leftBound = lastIndexOf(xml, '>', element.start.left) + 1;
-        final int lengthBefore = xml.length;
+        final int leftBound = xml.lastIndexOf('>', element.start.left) + 1;
+        final int lengthBefore = xml.length();
         //if text segment before removal element
         //exists it should go to hell with removal
         if (leftBound != element.start.left - 1) {
             removeSegmentFromElement(element.getParent(), leftBound);
         }
         //replacing content with nothing
-        xml = insertBetween(xml,
-                            leftBound,
-                            element.end.right,
-                            "");
+        xml.insertBetween(leftBound, element.end.right, "");
         //shift all elements which are right from removed element
-        shiftSegments(element.end.right, xml.length - lengthBefore);
+        shiftSegments(element.end.right, xml.length() - lengthBefore);
         //let tree know that element is not a family member
         unregisterElement(element);
     }
@@ -782,13 +805,11 @@ public final class XMLTree {
      * Inserts new attribute value content to tree bytes
      */
     void insertAttribute(NewAttribute attribute, Element owner) {
-        final int len = xml.length;
+        final int len = xml.length();
         //inserting new attribute content
-        xml = insertInto(xml,
-                         owner.start.right,
-                         ' ' + attribute.asString());
+        xml.insertInto(owner.start.right, ' ' + attribute.asString());
         //shift all elements which are right from removed element
-        shiftSegments(owner.start.left - 1, xml.length - len);
+        shiftSegments(owner.start.left - 1, xml.length() - len);
     }
 
     /**
@@ -796,15 +817,12 @@ public final class XMLTree {
      */
     void removeAttribute(Attribute attribute) {
         final Element element = attribute.getElement();
-        final int lengthBefore = xml.length;
+        final int lengthBefore = xml.length();
         final Segment segment = attributeSegment(attribute);
         //replacing attribute segment with nothing
-        xml = insertBetween(xml,
-                            segment.left - 1,
-                            segment.right,
-                            "");
+        xml.insertBetween(segment.left - 1, segment.right, "");
         //shift all elements which are left from owner left
-        shiftSegments(element.start.left, xml.length - lengthBefore);
+        shiftSegments(element.start.left, xml.length() - lengthBefore);
     }
 
     //TODO should it be public?
@@ -869,9 +887,9 @@ public final class XMLTree {
      * on offset equal to removal segment length
      */
     private void removeSegment(Segment segment) {
-        final int lengthBefore = xml.length;
-        xml = insertBetween(xml, segment.left, segment.right, "");
-        shiftSegments(segment.left, xml.length - lengthBefore);
+        final int lengthBefore = xml.length();
+        xml.insertBetween(segment.left, segment.right, "");
+        shiftSegments(segment.left, xml.length() - lengthBefore);
     }
 
     /**
@@ -880,9 +898,9 @@ public final class XMLTree {
      * source bytes length
      */
     private void updateSegmentContent(Segment segment, String content) {
-        final int lengthBefore = xml.length;
-        xml = insertBetween(xml, segment.left, segment.right, content);
-        shiftSegments(segment.left, xml.length - lengthBefore);
+        final int lengthBefore = xml.length();
+        xml.insertBetween(segment.left, segment.right, content);
+        shiftSegments(segment.left, xml.length() - lengthBefore);
         segment.right = segment.left + content.length() - 1;
     }
 
@@ -915,8 +933,8 @@ public final class XMLTree {
         final byte[] name = attribute.getName().getBytes();
         final byte[] value = attribute.getValue().getBytes();
 
-        final int attrLeft = indexOfAttributeName(xml, name, owner.start.left + owner.getName().length());
-        final int valueLeft = indexOf(xml, value, attrLeft + name.length);
+        final int attrLeft = xml.indexOfAttributeName(name, owner.start.left + owner.getName().length());
+        final int valueLeft = xml.indexOf(value, attrLeft + name.length);
 
         return new Segment(attrLeft, valueLeft + value.length);
     }
@@ -930,8 +948,8 @@ public final class XMLTree {
         final byte[] name = attribute.getName().getBytes();
         final byte[] value = oldValue.getBytes();
 
-        final int attrLeft = indexOfAttributeName(xml, name, owner.start.left + owner.getName().length());
-        final int valueLeft = indexOf(xml, value, attrLeft + name.length);
+        final int attrLeft = xml.indexOfAttributeName(name, owner.start.left + owner.getName().length());
+        final int valueLeft = xml.indexOf(value, attrLeft + name.length);
 
         return new Segment(valueLeft, valueLeft + value.length - 1);
     }
@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.xml;
+
+import static java.lang.Character.isWhitespace;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.System.arraycopy;
+
+/**
+ * Source bytes of {@link XMLTree} stored in gap buffer.
+ * <p>
+ * Free space (gap) is kept at the position of the last modification, so sequential modifications
+ * of the same region of document, e.g. appending of several children to the same element,
+ * move only bytes between modifications instead of copying the whole document each time.
+ * Positions are logical positions in the document, they don't depend on the gap.
+ * <p>
+ * Search methods have the same contract as corresponding methods of {@link XMLTreeUtil}.
+ *
+ * <b>NOTE: buffer is not thread-safe!</b>
+ */
+final class XMLTreeBuffer {
+
+    private static final int MIN_GAP_LENGTH = 256;
+
+    private byte[] bytes;
+    private int    gapStart;
+    private int    gapEnd;
+
+    XMLTreeBuffer(byte[] content) {
+        bytes = new byte[content.length + MIN_GAP_LENGTH];
+        arraycopy(content, 0, bytes, 0, content.length);
+        gapStart = content.length;
+        gapEnd = bytes.length;
+    }
+
+    /** Returns length of the document. */
+    int length() {
+        return bytes.length - (gapEnd - gapStart);
+    }
+
+    /** Returns byte at the given position of the document. */
+    byte byteAt(int pos) {
+        return pos < gapStart ? bytes[pos] : bytes[pos + gapEnd - gapStart];
+    }
+
+    /**
+     * Replaces bytes of the document in range {@code [from, to)} with given content.
+     * If {@code from == to} content is inserted at the position {@code from}.
+     */
+    void replace(int from, int to, byte[] content) {
+        if (from < 0 || to < from || to > length()) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") is out of document bounds");
+        }
+        moveGap(from);
+        // removal just extends gap
+        gapEnd += to - from;
+        ensureGap(content.length);
+        arraycopy(content, 0, bytes, gapStart, content.length);
+        gapStart += content.length;
+    }
+
+    /**
+     * Replaces bytes in the range {@code [left, right]} with given content,
+     * the same as {@link XMLTreeUtil#insertBetween(byte[], int, int, String)} does.
+     */
+    void insertBetween(int left, int right, String content) {
+        replace(left, right + 1, content.getBytes(XMLTreeUtil.UTF_8));
+    }
+
+    /**
+     * Inserts content at the given position,
+     * the same as {@link XMLTreeUtil#insertInto(byte[], int, String)} does.
+     */
+    void insertInto(int pos, String content) {
+        replace(pos, pos, content.getBytes(XMLTreeUtil.UTF_8));
+    }
+
+    /** @see XMLTreeUtil#lastIndexOf(byte[], char, int) */
+    int lastIndexOf(char c, int fromIdx) {
+        for (int i = min(fromIdx, length() - 1); i >= 0; i--) {
+            if (byteAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** @see XMLTreeUtil#indexOf(byte[], byte[], int) */
+    int indexOf(byte[] target, int fromIdx) {
+        final int to = length() - target.length + 1;
+        for (int i = fromIdx; i < to; i++) {
+            int j = 0;
+            while (j < target.length && byteAt(i + j) == target[j]) {
+                j++;
+            }
+            if (j == target.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** @see XMLTreeUtil#indexOfAttributeName(byte[], byte[], int) */
+    int indexOfAttributeName(byte[] target, int fromIdx) {
+        int idx = indexOf(target, fromIdx);
+        while (idx != -1) {
+            final int next = idx + target.length;
+            if (next == length() || isWhitespace(byteAt(next)) || byteAt(next) == '=') {
+                return idx;
+            }
+            idx = indexOf(target, idx + 1);
+        }
+        return -1;
+    }
+
+    /** Returns copy of the document bytes. */
+    byte[] toByteArray() {
+        final byte[] result = new byte[length()];
+        arraycopy(bytes, 0, result, 0, gapStart);
+        arraycopy(bytes, gapEnd, result, gapStart, bytes.length - gapEnd);
+        return result;
+    }
+
+    private void moveGap(int pos) {
+        if (pos < gapStart) {
+            final int count = gapStart - pos;
+            arraycopy(bytes, pos, bytes, gapEnd - count, count);
+            gapStart -= count;
+            gapEnd -= count;
+        } else if (pos > gapStart) {
+            final int count = pos - gapStart;
+            arraycopy(bytes, gapEnd, bytes, gapStart, count);
+            gapStart += count;
+            gapEnd += count;
+        }
+    }
+
+    private void ensureGap(int required) {
+        if (gapEnd - gapStart >= required) {
+            return;
+        }
+        // grows geometrically to make sequence of insertions linear
+        final int length = length();
+        final int newGap = max(required, max(MIN_GAP_LENGTH, length / 2));
+        final byte[] newBytes = new byte[length + newGap];
+        arraycopy(bytes, 0, newBytes, 0, gapStart);
+        final int tail = bytes.length - gapEnd;
+        arraycopy(bytes, gapEnd, newBytes, newBytes.length - tail, tail);
+        bytes = newBytes;
+        gapEnd = newBytes.length - tail;
+    }
+}
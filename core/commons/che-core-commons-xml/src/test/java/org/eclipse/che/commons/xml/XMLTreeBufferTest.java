@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.commons.xml;
+
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static org.eclipse.che.commons.xml.XMLTreeUtil.UTF_8;
+import static org.eclipse.che.commons.xml.XMLTreeUtil.indexOf;
+import static org.eclipse.che.commons.xml.XMLTreeUtil.indexOfAttributeName;
+import static org.eclipse.che.commons.xml.XMLTreeUtil.insertBetween;
+import static org.eclipse.che.commons.xml.XMLTreeUtil.insertInto;
+import static org.eclipse.che.commons.xml.XMLTreeUtil.lastIndexOf;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests for {@link XMLTreeBuffer}
+ */
+public class XMLTreeBufferTest {
+
+    @Test
+    public void shouldInsertAndRemoveContent() {
+        final XMLTreeBuffer buffer = new XMLTreeBuffer("<a></a>".getBytes(UTF_8));
+
+        buffer.insertInto(3, "<b/>");
+        buffer.insertBetween(0, 2, "<root>");
+        buffer.insertInto(buffer.length(), "\n");
+
+        assertEquals(new String(buffer.toByteArray(), UTF_8), "<root><b/></a>\n");
+        assertEquals(buffer.length(), 15);
+        assertEquals(buffer.byteAt(6), '<');
+    }
+
+    @Test
+    public void shouldSearchAcrossGap() {
+        final XMLTreeBuffer buffer = new XMLTreeBuffer("<a attr1=\"x\" attr=\"y\"></a>".getBytes(UTF_8));
+        // moves gap inside of searched content
+        buffer.insertInto(15, "");
+
+        assertEquals(buffer.indexOfAttributeName("attr".getBytes(), 0), 13);
+        assertEquals(buffer.indexOf("</a>".getBytes(), 0), 22);
+        assertEquals(buffer.lastIndexOf('>', 24), 21);
+        assertEquals(buffer.indexOf("missing".getBytes(), 0), -1);
+    }
+
+    @Test
+    public void shouldBehaveTheSameAsByteArrayUtilities() {
+        final Random random = new Random(7);
+        byte[] expected = "<project>\n    <name>test</name>\n</project>".getBytes(UTF_8);
+        final XMLTreeBuffer buffer = new XMLTreeBuffer(expected);
+
+        for (int i = 0; i < 2000; i++) {
+            final String content = random.nextBoolean() ? "" : "<e" + i + "/>";
+            final int left = random.nextInt(expected.length);
+            if (random.nextBoolean()) {
+                expected = insertInto(expected, left, content);
+                buffer.insertInto(left, content);
+            } else {
+                final int right = left + random.nextInt(Math.min(8, expected.length - left));
+                expected = insertBetween(expected, left, right, content);
+                buffer.insertBetween(left, right, content);
+            }
+            final int from = random.nextInt(expected.length);
+            assertEquals(buffer.lastIndexOf('>', from), lastIndexOf(expected, '>', from));
+            assertEquals(buffer.indexOf("<e".getBytes(), from), indexOf(expected, "<e".getBytes(), from));
+            assertEquals(buffer.indexOfAttributeName("e1".getBytes(), from), indexOfAttributeName(expected, "e1".getBytes(), from));
+        }
+
+        assertEquals(buffer.toByteArray(), expected);
+    }
+}
@@ -24,7 +24,12 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static com.google.common.io.Files.toByteArray;
 import static java.nio.file.Files.delete;
@@ -1712,6 +1717,55 @@ public class XMLTreeTest {
         }
     }
 
+    @Test
+    public void shouldKeepTreeConsistentAfterManyModifications() {
+        final XMLTree tree = XMLTree.from(XML_CONTENT);
+        final Element dependencies = tree.getSingleElement("/project/dependencies");
+
+        for (int i = 0; i < 2000; i++) {
+            dependencies.appendChild(NewElement.createElement("dependency",
+                                                              NewElement.createElement("artifactId", "artifact-" + i),
+                                                              NewElement.createElement("groupId", "group")));
+        }
+        for (Element dependency : tree.getElements("/project/dependencies/dependency[groupId='group']")) {
+            if (dependency.getChildText("artifactId").endsWith("0")) {
+                dependency.remove();
+            } else {
+                dependency.getSingleChild("groupId").setText("new-group");
+            }
+        }
+
+        final XMLTree reparsed = XMLTree.from(tree.getBytes());
+        assertEquals(reparsed.getElements("/project/dependencies/dependency[groupId='new-group']").size(), 1800);
+        assertEquals(reparsed.getBytes(), tree.getBytes());
+        assertEquals(tree.getSingleText("/project/dependencies/dependency[artifactId='artifact-1999']/groupId"), "new-group");
+    }
+
+    @Test
+    public void shouldEvaluateSameXPathsOnDifferentTreesConcurrently() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final String artifactId = "artifact-" + i;
+                futures.add(executor.submit(() -> {
+                    final XMLTree tree = XMLTree.create("project");
+                    tree.getRoot().appendChild(NewElement.createElement("artifactId", artifactId));
+                    for (int j = 0; j < 500; j++) {
+                        assertEquals(tree.getSingleText("/project/artifactId"), artifactId);
+                        assertEquals(tree.getElements("/project/*").size(), 1);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @DataProvider(name = "custom-xml-files")
     public Object[][] getCustomXMLFiles() throws Exception {
         final URL url = Thread.currentThread().getContextClassLoader().getResource(".");
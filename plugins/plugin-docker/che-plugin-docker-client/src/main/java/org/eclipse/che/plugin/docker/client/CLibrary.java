@@ -14,6 +14,8 @@ import com.sun.jna.Library;
 import com.sun.jna.Structure;
 import com.sun.jna.ptr.LongByReference;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.List;
 
@@ -69,8 +71,78 @@ public interface CLibrary extends Library {
 
     int eventfd_read(int fd, LongByReference val);
 
+    int eventfd_write(int fd, long val);
+
     int open(String path, int mode);
 
+    int pread(int fd, byte[] buf, int count, long offset);
+
     int O_RDONLY = 0x00;
     int O_WRONLY = 0x01;
+
+    int EFD_SEMAPHORE = 0x01;    // Defined in 'sys/eventfd.h'
+    int EFD_NONBLOCK  = 0x800;   // Defined in 'sys/eventfd.h'
+    int EFD_CLOEXEC   = 0x80000; // Defined in 'sys/eventfd.h'
+
+    int EINTR  = 4;  // Defined in 'errno.h'
+    int EAGAIN = 11; // Defined in 'errno.h'
+
+    // Defined in 'sys/epoll.h', see http://man7.org/linux/man-pages/man7/epoll.7.html
+    int EPOLL_CLOEXEC = 0x80000;
+    int EPOLL_CTL_ADD = 1;
+    int EPOLL_CTL_DEL = 2;
+    int EPOLLIN       = 0x001;
+
+    int epoll_create1(int flags);
+
+    /**
+     * Event is passed as raw bytes of 'struct epoll_event', its layout depends on architecture, see {@link EpollEvents}.
+     */
+    int epoll_ctl(int epfd, int op, int fd, byte[] event);
+
+    int epoll_wait(int epfd, byte[] events, int maxevents, int timeout);
+
+    /**
+     * Encodes and decodes array of 'struct epoll_event'. The struct is packed on x86 and x86_64, so it takes 12 bytes
+     * there and 16 bytes on other architectures.
+     */
+    class EpollEvents {
+        private static final boolean PACKED;
+        private static final int     SIZE;
+        private static final int     DATA_OFFSET;
+
+        static {
+            final String arch = System.getProperty("os.arch");
+            PACKED = "amd64".equals(arch) || "x86_64".equals(arch) || "x86".equals(arch) || "i386".equals(arch);
+            SIZE = PACKED ? 12 : 16;
+            DATA_OFFSET = PACKED ? 4 : 8;
+        }
+
+        private final ByteBuffer buffer;
+
+        public EpollEvents(int capacity) {
+            buffer = ByteBuffer.wrap(new byte[capacity * SIZE]).order(ByteOrder.nativeOrder());
+        }
+
+        /** Single event with the specified events mask and file descriptor stored in its data. */
+        public static byte[] of(int events, int fd) {
+            final EpollEvents event = new EpollEvents(1);
+            event.buffer.putInt(0, events);
+            event.buffer.putInt(DATA_OFFSET, fd);
+            return event.array();
+        }
+
+        public int capacity() {
+            return buffer.capacity() / SIZE;
+        }
+
+        public byte[] array() {
+            return buffer.array();
+        }
+
+        /** File descriptor stored in data of event with the specified index. */
+        public int fd(int index) {
+            return buffer.getInt(index * SIZE + DATA_OFFSET);
+        }
+    }
 }
@@ -11,6 +11,7 @@
 package org.eclipse.che.plugin.docker.client;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.jna.Native;
 import com.sun.jna.ptr.LongByReference;
 
 import org.eclipse.che.api.core.util.SystemInfo;
@@ -18,6 +19,7 @@ import org.eclipse.che.commons.lang.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -25,25 +27,49 @@ import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.eclipse.che.plugin.docker.client.CLibraryFactory.getCLibrary;
 
 /**
- * Docker container OOM detector based on cgroup usage
+ * Docker container OOM detector based on cgroup usage.
+ * <p/>
+ * OOM event file descriptors of all containers are multiplexed with single 'epoll' instance, so the only thread waits
+ * for OOM events regardless of number of containers. Containers are registered and deregistered with this thread
+ * through the queue of pending changes, the thread is woken up for them with a separate 'eventfd'. All file
+ * descriptors are opened, polled and closed by this thread only, so descriptor of removed container can't be reused
+ * while its events are still handled. If polling fails, descriptors are closed and polling thread is started again
+ * with the next change, all the containers which are still watched are registered once again.
  *
  * @author Alexander Garagatyi
  */
 public class CgroupOOMDetector implements DockerOOMDetector {
     private static final Logger LOG = LoggerFactory.getLogger(CgroupOOMDetector.class);
 
+    private static final int MAX_EVENTS = 64;
+
     private final Map<String, OOMDetector> oomDetectors;
     private final URI                      dockerDaemonUri;
     private final DockerConnector          dockerConnector;
     private final ExecutorService          executor;
+    private final String                   cgroupMount;
+    private final boolean                  systemd;
+    private final Queue<Runnable>          pendingChanges;
+    /** Detectors by their eventfd, used by polling thread only. */
+    private final Map<Integer, OOMDetector> registered;
+
+    private int              epfd   = -1;
+    private int              wakefd = -1;
+    private volatile boolean stopped;
 
     @Inject
     public CgroupOOMDetector(DockerConnectorConfiguration connectorConfiguration, DockerConnector dockerConnector) {
@@ -51,19 +77,27 @@ public class CgroupOOMDetector implements DockerOOMDetector {
     }
 
     public CgroupOOMDetector(URI dockerDaemonUri, DockerConnector dockerConnector) {
+        this(dockerDaemonUri, dockerConnector, hostCgroupMount, hostSystemd);
+    }
+
+    CgroupOOMDetector(URI dockerDaemonUri, DockerConnector dockerConnector, String cgroupMount, boolean systemd) {
         this.dockerDaemonUri = dockerDaemonUri;
         this.dockerConnector = dockerConnector;
+        this.cgroupMount = cgroupMount;
+        this.systemd = systemd;
         this.oomDetectors = new ConcurrentHashMap<>();
-        this.executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("CgroupOOMDetector-%d")
-                                                                                .setDaemon(true)
-                                                                                .build());
+        this.pendingChanges = new ConcurrentLinkedQueue<>();
+        this.registered = new HashMap<>();
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("CgroupOOMDetector-%d")
+                                                                                    .setDaemon(true)
+                                                                                    .build());
     }
 
     @Override
     public void stopDetection(String container) {
         final OOMDetector oomDetector = oomDetectors.remove(container);
         if (oomDetector != null) {
-            oomDetector.stop();
+            submit(() -> unregister(oomDetector));
         }
     }
 
@@ -76,16 +110,37 @@ public class CgroupOOMDetector implements DockerOOMDetector {
             }
             try {
                 final long memory = dockerConnector.inspectContainer(container).getConfig().getHostConfig().getMemory();
-                OOMDetector oomDetector = new OOMDetector(container, containerLogProcessor, memory);
-                oomDetectors.putIfAbsent(container, oomDetector);
-                oomDetector = oomDetectors.get(container);
-                oomDetector.start();
+                final OOMDetector oomDetector = new OOMDetector(container, containerLogProcessor, memory);
+                if (oomDetectors.putIfAbsent(container, oomDetector) == null && !submit(() -> register(oomDetector))) {
+                    oomDetectors.remove(container, oomDetector);
+                    LOG.error("Unable start OOM detection of container '{}'", container);
+                }
             } catch (IOException e) {
                 LOG.error(e.getLocalizedMessage(), e);
             }
         }
     }
 
+    /** Stops polling thread and closes file descriptors of all registered containers. */
+    @PreDestroy
+    public void stop() {
+        synchronized (this) {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+            if (wakefd != -1) {
+                getCLibrary().eventfd_write(wakefd, 1);
+            }
+        }
+        executor.shutdown();
+    }
+
+    /** Number of containers which OOM events are being polled, for tests. */
+    int getRegisteredCount() {
+        return submitAndWait(registered::size);
+    }
+
     private boolean needStartOOMDetector(String container) {
         if (! oomDetectors.containsKey(container)) {
             if (DockerConnectorConfiguration.isUnixSocketUri(dockerDaemonUri)) {
@@ -101,6 +156,158 @@ public class CgroupOOMDetector implements DockerOOMDetector {
         return false;
     }
 
+    /**
+     * Passes change to polling thread, starts it if needed. Returns {@code false} if change can't be applied.
+     * Package-private for tests.
+     */
+    synchronized boolean submit(Runnable change) {
+        if (stopped) {
+            return false;
+        }
+        if (epfd == -1 && !startPolling()) {
+            return false;
+        }
+        pendingChanges.add(change);
+        getCLibrary().eventfd_write(wakefd, 1);
+        return true;
+    }
+
+    /**
+     * Creates epoll instance and starts polling thread. Containers which are watched already, e.g. before failure of
+     * the previous polling thread, are registered by new thread. Must be called with lock held.
+     */
+    private boolean startPolling() {
+        final CLibrary cLib = getCLibrary();
+        if ((epfd = cLib.epoll_create1(CLibrary.EPOLL_CLOEXEC)) == -1) {
+            LOG.error("Unable create epoll instance, error {}", Native.getLastError());
+            return false;
+        }
+        if ((wakefd = cLib.eventfd(0, CLibrary.EFD_NONBLOCK | CLibrary.EFD_CLOEXEC)) == -1
+            || cLib.epoll_ctl(epfd, CLibrary.EPOLL_CTL_ADD, wakefd, CLibrary.EpollEvents.of(CLibrary.EPOLLIN, wakefd)) == -1) {
+            LOG.error("Unable create wake up event for epoll, error {}", Native.getLastError());
+            close(cLib, wakefd);
+            close(cLib, epfd);
+            wakefd = epfd = -1;
+            return false;
+        }
+        for (OOMDetector oomDetector : oomDetectors.values()) {
+            pendingChanges.add(() -> register(oomDetector));
+        }
+        executor.execute(this::poll);
+        return true;
+    }
+
+    private int submitAndWait(Supplier<Integer> query) {
+        final int[] result = new int[1];
+        final CountDownLatch latch = new CountDownLatch(1);
+        if (!submit(() -> {
+            result[0] = query.get();
+            latch.countDown();
+        })) {
+            return 0;
+        }
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result[0];
+    }
+
+    private void poll() {
+        final CLibrary cLib = getCLibrary();
+        final CLibrary.EpollEvents events = new CLibrary.EpollEvents(MAX_EVENTS);
+        final LongByReference eventHolder = new LongByReference();
+        try {
+            while (!stopped) {
+                Runnable change;
+                while ((change = pendingChanges.poll()) != null) {
+                    change.run();
+                }
+                final int ready = cLib.epoll_wait(epfd, events.array(), events.capacity(), -1);
+                if (ready == -1) {
+                    final int errno = Native.getLastError();
+                    if (errno == CLibrary.EINTR) {
+                        continue;
+                    }
+                    LOG.error("Waiting for OOM events failed, error {}", errno);
+                    return;
+                }
+                for (int i = 0; i < ready; i++) {
+                    final int fd = events.fd(i);
+                    if (fd == wakefd) {
+                        cLib.eventfd_read(wakefd, eventHolder);
+                        continue;
+                    }
+                    final OOMDetector oomDetector = registered.get(fd);
+                    if (oomDetector != null) {
+                        cLib.eventfd_read(fd, eventHolder);
+                        // detection is stopped after the first event, the same as cgroup is removed with container
+                        if (oomDetectors.remove(oomDetector.container, oomDetector)) {
+                            oomDetector.onOOM();
+                        }
+                        unregister(oomDetector);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+        } finally {
+            synchronized (this) {
+                for (OOMDetector oomDetector : registered.values()) {
+                    oomDetector.close();
+                }
+                registered.clear();
+                close(cLib, wakefd);
+                close(cLib, epfd);
+                wakefd = epfd = -1;
+                if (stopped) {
+                    oomDetectors.clear();
+                    pendingChanges.clear();
+                } else if (!pendingChanges.isEmpty()) {
+                    // changes which are submitted while polling failed are applied by new thread
+                    startPolling();
+                }
+            }
+        }
+    }
+
+    private void register(OOMDetector oomDetector) {
+        if (oomDetectors.get(oomDetector.container) != oomDetector) {
+            // detection is already stopped
+            return;
+        }
+        if (oomDetector.efd != -1) {
+            // registered once again after restart of polling
+            return;
+        }
+        if (!oomDetector.open()) {
+            oomDetectors.remove(oomDetector.container, oomDetector);
+            return;
+        }
+        final CLibrary cLib = getCLibrary();
+        if (cLib.epoll_ctl(epfd, CLibrary.EPOLL_CTL_ADD, oomDetector.efd, CLibrary.EpollEvents.of(CLibrary.EPOLLIN, oomDetector.efd)) == -1) {
+            LOG.error("Unable watch OOM events of container '{}', error {}", oomDetector.container, Native.getLastError());
+            oomDetector.close();
+            oomDetectors.remove(oomDetector.container, oomDetector);
+            return;
+        }
+        registered.put(oomDetector.efd, oomDetector);
+    }
+
+    private void unregister(OOMDetector oomDetector) {
+        if (oomDetector.efd != -1 && registered.remove(oomDetector.efd, oomDetector)) {
+            getCLibrary().epoll_ctl(epfd, CLibrary.EPOLL_CTL_DEL, oomDetector.efd, CLibrary.EpollEvents.of(0, oomDetector.efd));
+        }
+        oomDetector.close();
+    }
+
+    private static void close(CLibrary cLib, int fd) {
+        if (fd != -1) {
+            cLib.close(fd);
+        }
+    }
+
     /*
      * Need detect OOM errors and notify users about them. Without such notification if application is killed by oom-killer client often can
      * see message "Killed" and there is no any why to see why. Unfortunately for now docker doesn't provide clear mechanism how to control
@@ -129,8 +336,8 @@ public class CgroupOOMDetector implements DockerOOMDetector {
      *     2. Usage of cgroup notification mechanism.
      * Good article about this: https://access.redhat.com/documentation/en-US/Red_Hat_Enterprise_Linux/6/html/Resource_Management_Guide/sec-Using_the_Notification_API.html
      */
-    private static String  cgroupMount;
-    private static boolean systemd;
+    private static String  hostCgroupMount;
+    private static boolean hostSystemd;
 
     static {
         if (SystemInfo.isLinux()) {
@@ -149,9 +356,9 @@ public class CgroupOOMDetector implements DockerOOMDetector {
                             || path.endsWith("memory")
                             || path.endsWith("devices")
                             || path.endsWith("freezer")) {
-                            cgroupMount = Paths.get(path).getParent().toString();
+                            hostCgroupMount = Paths.get(path).getParent().toString();
                         } else if (path.endsWith("systemd")) {
-                            systemd = true;
+                            hostSystemd = true;
                         }
                     }
                 }
@@ -165,16 +372,20 @@ public class CgroupOOMDetector implements DockerOOMDetector {
      * Detects OOM with cgroup notification mechanism.
      * <p/>
      * https://access.redhat.com/documentation/en-US/Red_Hat_Enterprise_Linux/6/html/Resource_Management_Guide/sec-Using_the_Notification_API.html
+     * <p/>
+     * Keeps descriptors of OOM eventfd, 'memory.oom_control' and 'memory.failcnt' of container. All methods are called by
+     * polling thread only.
      */
-    private class OOMDetector implements Runnable {
+    private class OOMDetector {
         private final String                       container;
         private final MessageProcessor<LogMessage> containerLogProcessor;
         private final long                         memory;
         private final CLibrary                     cLib;
         private final String                       containerCgroup;
 
-        private volatile boolean stopped = false;
-        private boolean started = false;
+        private int efd       = -1;
+        private int oomfd     = -1;
+        private int failcntfd = -1;
 
         OOMDetector(String container, MessageProcessor<LogMessage> containerLogProcessor, long memory) {
             this.container = container;
@@ -189,90 +400,80 @@ public class CgroupOOMDetector implements DockerOOMDetector {
             }
         }
 
-        @Override
-        public void run() {
+        /** Creates eventfd and binds it to OOM notifications of container cgroup. */
+        boolean open() {
             final String cf = containerCgroup + "cgroup.event_control";
             final String oomf = containerCgroup + "memory.oom_control";
-            int efd = -1;
-            int oomfd = -1;
-            try {
-                if ((efd = cLib.eventfd(0, 1)) == -1) {
-                    LOG.error("Unable create a file descriptor for event notification");
-                    return;
-                }
-                int cfd;
-                if ((cfd = cLib.open(cf, CLibrary.O_WRONLY)) == -1) {
-                    LOG.error("Unable open event control file '{}' for write", cf);
-                    return;
-                }
-                if ((oomfd = cLib.open(oomf, CLibrary.O_RDONLY)) == -1) {
-                    LOG.error("Unable open OOM event file '{}' for read", oomf);
-                    return;
-                }
-                final byte[] data = String.format("%d %d", efd, oomfd).getBytes();
-                if (cLib.write(cfd, data, data.length) != data.length) {
-                    LOG.error("Unable write event control data to file '{}'", cf);
-                    return;
-                }
-                if (cLib.close(cfd) == -1) {
-                    LOG.error("Error closing of event control file '{}'", cf);
-                    return;
-                }
-                final LongByReference eventHolder = new LongByReference();
-                if (cLib.eventfd_read(efd, eventHolder) == 0) {
-                    if (stopped) {
-                        return;
-                    }
-                    LOG.warn("OOM event received for container '{}'", container);
-                    if (readCgroupValue("memory.failcnt") > 0) {
-                        try {
-                            containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
-                                                                         "[ERROR] The processes in this machine need more RAM. This machine started with " +
-                                                                         Size.toHumanSize(memory)));
-                            containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
-                                                                         "[ERROR] Create a new machine configuration that allocates additional RAM or increase" +
-                                                                         " the workspace RAM limit in the user dashboard."));
-                        } catch (/*IOException*/ Exception e) {
-                            LOG.warn(e.getMessage(), e);
-                        }
-                    }
-                }
-            } finally {
-                if (!stopped) {
-                    stopDetection(container);
-                }
-                close(oomfd);
-                close(efd);
+            final String failcntf = containerCgroup + "memory.failcnt";
+            if ((efd = cLib.eventfd(0, CLibrary.EFD_SEMAPHORE | CLibrary.EFD_CLOEXEC)) == -1) {
+                LOG.error("Unable create a file descriptor for event notification");
+                return false;
+            }
+            if ((oomfd = cLib.open(oomf, CLibrary.O_RDONLY)) == -1) {
+                LOG.error("Unable open OOM event file '{}' for read", oomf);
+                close();
+                return false;
+            }
+            if ((failcntfd = cLib.open(failcntf, CLibrary.O_RDONLY)) == -1) {
+                LOG.warn("Unable open file '{}' for read", failcntf);
             }
+            final int cfd;
+            if ((cfd = cLib.open(cf, CLibrary.O_WRONLY)) == -1) {
+                LOG.error("Unable open event control file '{}' for write", cf);
+                close();
+                return false;
+            }
+            final byte[] data = String.format("%d %d", efd, oomfd).getBytes();
+            final boolean written = cLib.write(cfd, data, data.length) == data.length;
+            if (cLib.close(cfd) == -1 || !written) {
+                LOG.error("Unable write event control data to file '{}'", cf);
+                close();
+                return false;
+            }
+            return true;
         }
 
-        private void close(int fd) {
-            if (fd != -1) {
-                cLib.close(fd);
+        void onOOM() {
+            LOG.warn("OOM event received for container '{}'", container);
+            if (readFailCount() > 0) {
+                try {
+                    containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
+                                                                 "[ERROR] The processes in this machine need more RAM. This machine started with " +
+                                                                 Size.toHumanSize(memory)));
+                    containerLogProcessor.process(new LogMessage(LogMessage.Type.DOCKER,
+                                                                 "[ERROR] Create a new machine configuration that allocates additional RAM or increase" +
+                                                                 " the workspace RAM limit in the user dashboard."));
+                } catch (/*IOException*/ Exception e) {
+                    LOG.warn(e.getMessage(), e);
+                }
             }
         }
 
-        long readCgroupValue(String cgroupFile) {
-            final String failCntf = containerCgroup + cgroupFile;
-            try (BufferedReader reader = Files.newBufferedReader(Paths.get(failCntf), Charset.forName("UTF-8"))) {
-                return Long.parseLong(reader.readLine().trim());
-            } catch (IOException e) {
+        /** Reads 'memory.failcnt' through the descriptor opened at registration, no need to open file again. */
+        long readFailCount() {
+            final String failCntf = containerCgroup + "memory.failcnt";
+            if (failcntfd == -1) {
+                return 0;
+            }
+            final byte[] buf = new byte[32];
+            final int read = cLib.pread(failcntfd, buf, buf.length, 0);
+            if (read <= 0) {
                 LOG.warn("Unable read content of file '{}'", failCntf);
+                return 0;
+            }
+            try {
+                return Long.parseLong(new String(buf, 0, read, UTF_8).trim());
             } catch (NumberFormatException e) {
                 LOG.error("Unable parse content of file '{}'", failCntf);
             }
             return 0;
         }
 
-        synchronized void start() {
-            if (!started) {
-                started = true;
-                executor.execute(this);
-            }
-        }
-
-        void stop() {
-            stopped = true;
+        void close() {
+            CgroupOOMDetector.close(cLib, failcntfd);
+            CgroupOOMDetector.close(cLib, oomfd);
+            CgroupOOMDetector.close(cLib, efd);
+            failcntfd = oomfd = efd = -1;
         }
     }
 }
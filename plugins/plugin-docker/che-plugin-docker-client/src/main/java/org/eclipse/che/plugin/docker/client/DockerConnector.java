@@ -76,7 +76,6 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.ws.rs.core.MediaType;
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -86,8 +85,6 @@ import java.lang.reflect.Type;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -934,34 +931,20 @@ public class DockerConnector {
      * @apiNote this method implements 1.20 docker API and requires docker not less than 1.8 version
      */
     public void putResource(final PutResourceParams params) throws IOException {
-        File tarFile;
-        long length;
-        try (InputStream sourceData = params.getSourceStream()) {
-            // TODO according to http spec http://www.w3.org/Protocols/rfc2616/rfc2616-sec4.html#sec4.4,
-            // it is possible to send request without specifying content length if chunked encoding header is set
-            // Investigate is it possible to write the stream to request directly
-
-            // we save stream to file, because we have to know its length
-            Path tarFilePath = Files.createTempFile("compressed-resources", ".tar");
-            tarFile = tarFilePath.toFile();
-            length = Files.copy(sourceData, tarFilePath, StandardCopyOption.REPLACE_EXISTING);
-        }
-
-        try (InputStream tarStream = new BufferedInputStream(new FileInputStream(tarFile));
+        // stream is sent with chunked transfer encoding as it is read, so its length doesn't have to be known
+        try (InputStream sourceData = params.getSourceStream();
              DockerConnection connection = connectionFactory.openConnection(dockerDaemonUri)
                                                             .method("PUT")
                                                             .path("/containers/" + params.getContainer() + "/archive")
                                                             .query("path", params.getTargetPath())
                                                             .header("Content-Type", ExtMediaType.APPLICATION_X_TAR)
-                                                            .header("Content-Length", length)
-                                                            .entity(tarStream)) {
+                                                            .header(DockerConnection.TRANSFER_ENCODING, DockerConnection.CHUNKED)
+                                                            .entity(sourceData)) {
             addQueryParamIfNotNull(connection, "noOverwriteDirNonDir", params.isNoOverwriteDirNonDir());
             final DockerResponse response = connection.request();
             if (response.getStatus() != OK.getStatusCode()) {
                 throw getDockerException(response);
             }
-        } finally {
-            FileCleaner.addFile(tarFile);
         }
     }
 
@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.plugin.docker.client.json.Event;
+import org.eclipse.che.plugin.docker.client.json.Filters;
+import org.eclipse.che.plugin.docker.client.params.GetEventsParams;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single stream of docker container lifecycle events shared by all components which need them.
+ * <p/>
+ * Stream keeps a cursor, time of the latest received event, and keys of events received at that second. When connection
+ * to docker is lost, e.g. by timeout, stream reconnects asking events since the cursor, so nothing is lost, and events
+ * which were already received are skipped. Reconnects after failures are delayed with exponential backoff, backoff is
+ * reset when connection was alive long enough.
+ * <p/>
+ * Listeners are called one by one from the thread which reads the stream, so they must not block, long work should be
+ * passed to other threads.
+ */
+@Singleton
+public class DockerEventStream {
+    private static final Logger LOG = LoggerFactory.getLogger(DockerEventStream.class);
+
+    /** Statuses of container events the stream follows. */
+    public static final String[] CONTAINER_EVENTS = {"create", "start", "restart", "die", "oom", "kill", "stop", "pause",
+                                                     "unpause", "destroy"};
+
+    private static final long MIN_BACKOFF_MS        = 1000;
+    private static final long MAX_BACKOFF_MS        = 60_000;
+    /** Connection which was alive longer than this is considered healthy, e.g. it was closed by idle timeout. */
+    private static final long HEALTHY_CONNECTION_MS = 10_000;
+
+    private final DockerConnector               dockerConnector;
+    private final List<MessageProcessor<Event>> listeners;
+    private final ExecutorService               executor;
+    private final long                          minBackoff;
+    private final long                          maxBackoff;
+
+    private boolean          started;
+    private volatile boolean stopped;
+
+    /** Time in seconds of the latest received event, accessed by reading thread only. */
+    private long        cursor;
+    /** Keys of events received at the cursor second, used to skip them when they are sent again after reconnect. */
+    private Set<String> eventsAtCursor;
+
+    @Inject
+    public DockerEventStream(DockerConnector dockerConnector) {
+        this(dockerConnector, MIN_BACKOFF_MS, MAX_BACKOFF_MS);
+    }
+
+    DockerEventStream(DockerConnector dockerConnector, long minBackoff, long maxBackoff) {
+        this.dockerConnector = dockerConnector;
+        this.minBackoff = minBackoff;
+        this.maxBackoff = maxBackoff;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.eventsAtCursor = new HashSet<>();
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("DockerEventStream-%d")
+                                                                                    .setDaemon(true)
+                                                                                    .build());
+    }
+
+    /**
+     * Adds listener of container events. Reading of events starts when the first listener is added.
+     *
+     * @param listener
+     *         listener which is called with each event, must not block
+     */
+    public void addListener(MessageProcessor<Event> listener) {
+        listeners.add(listener);
+        start();
+    }
+
+    /** Removes listener of container events. */
+    public void removeListener(MessageProcessor<Event> listener) {
+        listeners.remove(listener);
+    }
+
+    /** Stops reading of events. */
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        executor.shutdownNow();
+    }
+
+    private synchronized void start() {
+        if (!started && !stopped) {
+            started = true;
+            executor.execute(this::readEvents);
+        }
+    }
+
+    private void readEvents() {
+        final Filters filters = new Filters().withFilter("event", CONTAINER_EVENTS);
+        long backoff = minBackoff;
+        while (!stopped) {
+            final long connectedAt = System.currentTimeMillis();
+            final GetEventsParams params = GetEventsParams.create().withFilters(filters);
+            if (cursor > 0) {
+                params.withSinceSecond(cursor);
+            }
+            try {
+                dockerConnector.getEvents(params, this::dispatch);
+            } catch (IOException e) {
+                // usually connection timeout
+                LOG.debug(e.getLocalizedMessage(), e);
+            } catch (RuntimeException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+            if (cursor == 0) {
+                // no events were received yet, don't lose ones which happen till reconnect
+                cursor = TimeUnit.MILLISECONDS.toSeconds(connectedAt);
+            }
+            if (System.currentTimeMillis() - connectedAt >= HEALTHY_CONNECTION_MS) {
+                backoff = minBackoff;
+                continue;
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoff = Math.min(backoff * 2, maxBackoff);
+        }
+    }
+
+    private void dispatch(Event event) {
+        final long time = event.getTime();
+        if (time < cursor) {
+            return;
+        }
+        if (time > cursor) {
+            cursor = time;
+            eventsAtCursor = new HashSet<>();
+        }
+        if (!eventsAtCursor.add(event.getStatus() + ' ' + event.getId() + ' ' + event.getTimeNano())) {
+            LOG.debug("Skip already processed event {}", event);
+            return;
+        }
+        for (MessageProcessor<Event> listener : listeners) {
+            try {
+                listener.process(event);
+            } catch (RuntimeException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Writes data in HTTP chunked transfer encoding. Each write is sent as a separate chunk, so underlying stream should
+ * be buffered. {@link #close()} writes the last chunk but doesn't close underlying stream.
+ */
+public class ChunkedOutputStream extends OutputStream {
+    private static final byte[] CRLF       = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK = {'0', '\r', '\n', '\r', '\n'};
+
+    private final OutputStream output;
+    private       boolean      closed;
+
+    ChunkedOutputStream(OutputStream output) {
+        this.output = output;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte)b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            // zero length chunk means end of stream
+            return;
+        }
+        output.write(Integer.toHexString(len).getBytes(US_ASCII));
+        output.write(CRLF);
+        output.write(b, off, len);
+        output.write(CRLF);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            output.write(LAST_CHUNK);
+            output.flush();
+        }
+    }
+}
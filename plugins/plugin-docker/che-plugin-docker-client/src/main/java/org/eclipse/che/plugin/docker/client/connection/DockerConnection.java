@@ -27,6 +27,9 @@ import java.util.List;
  * @author Mykola Morhun
  */
 public abstract class DockerConnection implements Closeable {
+    public static final String TRANSFER_ENCODING = "Transfer-Encoding";
+    public static final String CHUNKED           = "chunked";
+
     private String    method;
     private String    path;
     private Entity<?> entity;
@@ -103,6 +106,12 @@ public abstract class DockerConnection implements Closeable {
 
     public abstract void close();
 
+    /** Checks whether entity should be sent with chunked transfer encoding, e.g. when its length is unknown. */
+    protected static boolean isChunked(List<Pair<String, ?>> headers) {
+        return headers.stream()
+                      .anyMatch(header -> TRANSFER_ENCODING.equalsIgnoreCase(header.first) && CHUNKED.equals(header.second));
+    }
+
     static abstract class Entity<T> {
         final T entity;
 
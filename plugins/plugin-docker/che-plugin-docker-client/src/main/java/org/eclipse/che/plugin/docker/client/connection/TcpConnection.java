@@ -65,13 +65,20 @@ public class TcpConnection extends DockerConnection {
         // needed to fix bug https://github.com/docker/docker/issues/12845
         connection.setRequestProperty("Connection", "close");
         for (Pair<String, ?> header : headers) {
-            connection.setRequestProperty(header.first, String.valueOf(header.second));
+            // transfer encoding header is restricted, connection sets it itself in chunked streaming mode
+            if (!TRANSFER_ENCODING.equalsIgnoreCase(header.first)) {
+                connection.setRequestProperty(header.first, String.valueOf(header.second));
+            }
+        }
+        if (isChunked(headers)) {
+            connection.setChunkedStreamingMode(0);
         }
         if (entity != null) {
             connection.setDoOutput(true);
-            try (OutputStream output = connection.getOutputStream()) {
-                entity.writeTo(output);
-            }
+            final OutputStream output = connection.getOutputStream();
+            entity.writeTo(output);
+            // stream is not closed if entity is broken, so the last chunk of chunked request is not sent
+            output.close();
         }
         return new TcpDockerResponse(connection);
     }
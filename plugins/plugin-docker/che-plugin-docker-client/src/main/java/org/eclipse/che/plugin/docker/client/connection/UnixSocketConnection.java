@@ -50,7 +50,14 @@ public class UnixSocketConnection extends DockerConnection {
         final OutputStream output = new BufferedOutputStream(openOutputStream(fd));
         writeHttpHeaders(output, method, path, query, headers);
         if (entity != null) {
-            entity.writeTo(output);
+            if (isChunked(headers)) {
+                final OutputStream chunked = new ChunkedOutputStream(output);
+                entity.writeTo(chunked);
+                // the last chunk is not sent if entity is broken, so docker doesn't consider request as complete
+                chunked.close();
+            } else {
+                entity.writeTo(output);
+            }
         }
         return new UnixSocketDockerResponse(new BufferedInputStream(openInputStream(fd)));
     }
@@ -42,6 +42,7 @@ public class ContainerInfo {
     private String[]        execIDs;
     private int             restartCount;
     private String          logPath;
+    private GraphDriver     graphDriver;
     /** Node is used for Docker Swarm */
     private Node            node;
 
@@ -232,6 +233,14 @@ public class ContainerInfo {
         this.logPath = logPath;
     }
 
+    public GraphDriver getGraphDriver() {
+        return graphDriver;
+    }
+
+    public void setGraphDriver(GraphDriver graphDriver) {
+        this.graphDriver = graphDriver;
+    }
+
     public Node getNode() {
         return node;
     }
@@ -264,6 +273,7 @@ public class ContainerInfo {
                ", execIDs=" + Arrays.toString(execIDs) +
                ", restartCount=" + restartCount +
                ", logPath='" + logPath + '\'' +
+               ", graphDriver=" + graphDriver +
                ", volumes=" + volumes +
                ", volumesRW=" + volumesRW +
                ", node=" + node +
@@ -296,6 +306,7 @@ public class ContainerInfo {
                Objects.equals(processLabel, that.processLabel) &&
                Arrays.equals(execIDs, that.execIDs) &&
                Objects.equals(logPath, that.logPath) &&
+               Objects.equals(graphDriver, that.graphDriver) &&
                Objects.equals(node, that.node) &&
                Objects.equals(volumes, that.volumes) &&
                Objects.equals(volumesRW, that.volumesRW);
@@ -306,6 +317,6 @@ public class ContainerInfo {
         return Objects
                 .hash(id, created, appArmorProfile, path, Arrays.hashCode(args), config, state, image, networkSettings, resolvConfPath,
                       hostConfig, driver, execDriver, hostnamePath, hostsPath, mountLabel, name, processLabel, Arrays.hashCode(execIDs),
-                      restartCount, logPath, node, volumes, volumesRW);
+                      restartCount, logPath, graphDriver, node, volumes, volumesRW);
     }
 }
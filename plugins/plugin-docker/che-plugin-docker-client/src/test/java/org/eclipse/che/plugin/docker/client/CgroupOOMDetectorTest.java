@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.eclipse.che.api.core.util.SystemInfo;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.plugin.docker.client.json.ContainerConfig;
+import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
+import org.eclipse.che.plugin.docker.client.json.HostConfig;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link CgroupOOMDetector}.
+ * <p>
+ * Cgroup of container is faked with regular files in tmpfs directory. Detector writes numbers of its eventfd and
+ * 'memory.oom_control' descriptors to 'cgroup.event_control' like for real cgroup, test reads them and signals
+ * the eventfd of the same process the way kernel does on OOM.
+ */
+public class CgroupOOMDetectorTest {
+    private static final URI DOCKER_URI = URI.create("unix:///var/run/docker.sock");
+
+    private Path              cgroupMount;
+    private DockerConnector   dockerConnector;
+    private CgroupOOMDetector detector;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        if (!SystemInfo.isLinux()) {
+            throw new SkipException("Cgroup OOM detection works on linux only");
+        }
+        final Path shm = Paths.get("/dev/shm");
+        cgroupMount = Files.isDirectory(shm) && Files.isWritable(shm) ? Files.createTempDirectory(shm, "cgroup")
+                                                                        : Files.createTempDirectory("cgroup");
+        dockerConnector = mock(DockerConnector.class);
+        detector = new CgroupOOMDetector(DOCKER_URI, dockerConnector, cgroupMount.toString(), false);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        if (detector != null) {
+            detector.stop();
+        }
+        if (cgroupMount != null) {
+            IoUtil.deleteRecursive(cgroupMount.toFile());
+        }
+    }
+
+    @Test
+    public void shouldReportOOMOfContainer() throws Exception {
+        final MessageProcessor<LogMessage> processor = startDetection("container1", 3);
+
+        signalOOM("container1");
+
+        verify(processor, timeout(5000).times(2)).process(any(LogMessage.class));
+        assertEquals(detector.getRegisteredCount(), 0);
+    }
+
+    @Test
+    public void shouldNotReportOOMIfMemoryLimitWasNotReached() throws Exception {
+        final MessageProcessor<LogMessage> processor = startDetection("container1", 0);
+
+        signalOOM("container1");
+
+        assertEquals(detector.getRegisteredCount(), 0);
+        verify(processor, never()).process(any(LogMessage.class));
+    }
+
+    @Test
+    public void shouldWatchManyContainersWithSingleThread() throws Exception {
+        final int containers = 100;
+        final MessageProcessor[] processors = new MessageProcessor[containers];
+        for (int i = 0; i < containers; i++) {
+            processors[i] = startDetection("container" + i, 1);
+        }
+
+        assertEquals(detector.getRegisteredCount(), containers);
+        final Set<String> threads = Thread.getAllStackTraces()
+                                          .keySet()
+                                          .stream()
+                                          .map(Thread::getName)
+                                          .filter(name -> name.startsWith("CgroupOOMDetector"))
+                                          .collect(Collectors.toSet());
+        assertEquals(threads.size(), 1);
+
+        signalOOM("container42");
+
+        verify(processors[42], timeout(5000).times(2)).process(any(LogMessage.class));
+        assertEquals(detector.getRegisteredCount(), containers - 1);
+        verify(processors[41], never()).process(any(LogMessage.class));
+    }
+
+    @Test
+    public void shouldStopWatchingContainerWhenDetectionIsStopped() throws Exception {
+        startDetection("container1", 1);
+        startDetection("container2", 1);
+
+        detector.stopDetection("container1");
+
+        assertEquals(detector.getRegisteredCount(), 1);
+    }
+
+    @Test
+    public void shouldWatchContainerAgainAfterDetectionIsRestarted() throws Exception {
+        startDetection("container1", 1);
+        detector.stopDetection("container1");
+        final MessageProcessor<LogMessage> processor = startDetection("container1", 1);
+
+        signalOOM("container1");
+
+        verify(processor, timeout(5000).times(2)).process(any(LogMessage.class));
+    }
+
+    @Test(timeOut = 10_000)
+    public void shouldRestartPollingAndWatchContainersAgainAfterPollingFailure() throws Exception {
+        final MessageProcessor<LogMessage> processor = startDetection("container1", 1);
+
+        detector.submit(() -> {
+            throw new IllegalStateException("polling failure");
+        });
+        startDetection("container2", 1);
+
+        assertEquals(detector.getRegisteredCount(), 2);
+        signalOOM("container1");
+        verify(processor, timeout(5000).times(2)).process(any(LogMessage.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private MessageProcessor<LogMessage> startDetection(String container, long failCount) throws Exception {
+        final Path cgroup = cgroupMount.resolve("memory/docker/" + container);
+        Files.createDirectories(cgroup);
+        Files.write(cgroup.resolve("cgroup.event_control"), new byte[0]);
+        Files.write(cgroup.resolve("memory.oom_control"), "oom_kill_disable 0\nunder_oom 0\n".getBytes(UTF_8));
+        Files.write(cgroup.resolve("memory.failcnt"), (failCount + "\n").getBytes(UTF_8));
+
+        final ContainerInfo info = new ContainerInfo();
+        final ContainerConfig config = new ContainerConfig();
+        config.setHostConfig(new HostConfig().withMemory(512 * 1024 * 1024));
+        info.setConfig(config);
+        when(dockerConnector.inspectContainer(container)).thenReturn(info);
+
+        final MessageProcessor<LogMessage> processor = mock(MessageProcessor.class);
+        detector.startDetection(container, processor);
+        // registration is done by polling thread, wait for it
+        detector.getRegisteredCount();
+        return processor;
+    }
+
+    private void signalOOM(String container) throws Exception {
+        final Path eventControl = cgroupMount.resolve("memory/docker/" + container + "/cgroup.event_control");
+        final String content = new String(Files.readAllBytes(eventControl), UTF_8);
+        assertTrue(!content.isEmpty(), "Eventfd is not registered in cgroup of " + container);
+        final int efd = Integer.parseInt(content.split(" ")[0]);
+        CLibraryFactory.getCLibrary().eventfd_write(efd, 1);
+        // the event is handled by polling thread, wait for it
+        detector.getRegisteredCount();
+    }
+}
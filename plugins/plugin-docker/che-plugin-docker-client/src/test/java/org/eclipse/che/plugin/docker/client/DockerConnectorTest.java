@@ -826,7 +826,7 @@ public class DockerConnectorTest {
         verify(dockerConnection).path("/containers/" + putResourceParams.getContainer() + "/archive");
         verify(dockerConnection).query(eq("path"), eq(PATH_TO_FILE));
         verify(dockerConnection).header("Content-Type", ExtMediaType.APPLICATION_X_TAR);
-        verify(dockerConnection).header(eq("Content-Length"), anyInt());
+        verify(dockerConnection).header(DockerConnection.TRANSFER_ENCODING, DockerConnection.CHUNKED);
         verify(dockerConnection).entity(any(InputStream.class));
         verify(dockerConnection).request();
         verify(dockerResponse).getStatus();
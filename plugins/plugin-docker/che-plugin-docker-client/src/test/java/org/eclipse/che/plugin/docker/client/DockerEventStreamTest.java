@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client;
+
+import org.eclipse.che.plugin.docker.client.json.Event;
+import org.eclipse.che.plugin.docker.client.params.GetEventsParams;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link DockerEventStream}.
+ */
+public class DockerEventStreamTest {
+
+    private DockerConnector   dockerConnector;
+    private DockerEventStream eventStream;
+    private List<Event>       received;
+
+    @BeforeMethod
+    public void setUp() {
+        dockerConnector = mock(DockerConnector.class);
+        eventStream = new DockerEventStream(dockerConnector, 50, 400);
+        received = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        eventStream.stop();
+    }
+
+    @Test
+    public void shouldResumeFromCursorAndSkipReplayedEvents() throws Exception {
+        final Event die1 = event("die", "c1", 100);
+        final Event die2 = event("die", "c2", 101);
+        final Event oom3 = event("oom", "c3", 101);
+        final Event die3 = event("die", "c3", 102);
+        final CountDownLatch done = new CountDownLatch(1);
+        doAnswer(new StreamAnswer(asList(die1, die2))).doAnswer(new StreamAnswer(asList(die2, oom3, die3)))
+                                                      .doAnswer(invocation -> {
+                                                          done.countDown();
+                                                          throw new IOException("timeout");
+                                                      })
+                                                      .when(dockerConnector)
+                                                      .getEvents(any(GetEventsParams.class), any());
+
+        eventStream.addListener(received::add);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(received, asList(die1, die2, oom3, die3));
+        final ArgumentCaptor<GetEventsParams> captor = ArgumentCaptor.forClass(GetEventsParams.class);
+        verify(dockerConnector, atLeast(3)).getEvents(captor.capture(), any());
+        assertNull(captor.getAllValues().get(0).getSinceSecond());
+        assertEquals(captor.getAllValues().get(1).getSinceSecond(), Long.valueOf(101));
+        assertEquals(captor.getAllValues().get(2).getSinceSecond(), Long.valueOf(102));
+    }
+
+    @Test
+    public void shouldReconnectWithBackoffWhenDockerIsNotAvailable() throws Exception {
+        final List<Long> attempts = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(5);
+        doAnswer(invocation -> {
+            attempts.add(System.nanoTime());
+            done.countDown();
+            throw new IOException("connection refused");
+        }).when(dockerConnector).getEvents(any(GetEventsParams.class), any());
+
+        eventStream.addListener(received::add);
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        // 50, 100, 200, 400 ms
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(attempts.get(4) - attempts.get(0));
+        assertTrue(elapsed >= 750, "Reconnects are not delayed, elapsed " + elapsed + " ms");
+    }
+
+    @Test
+    public void shouldDeliverEventsToAllListenersEvenIfOneFails() throws Exception {
+        final Event die = event("die", "c1", 100);
+        final CountDownLatch listenersAdded = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            listenersAdded.await();
+            return new StreamAnswer(asList(die)).answer(invocation);
+        }).doAnswer(invocation -> {
+            done.countDown();
+            throw new IOException("timeout");
+        }).when(dockerConnector).getEvents(any(GetEventsParams.class), any());
+
+        eventStream.addListener(event -> {
+            throw new IllegalStateException("listener failure");
+        });
+        eventStream.addListener(received::add);
+        listenersAdded.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(received, asList(die));
+    }
+
+    private static Event event(String status, String id, long time) {
+        return new Event().withStatus(status).withId(id).withTime(time).withTimeNano(TimeUnit.SECONDS.toNanos(time));
+    }
+
+    /** Sends events to processor and then breaks connection. */
+    private static class StreamAnswer implements Answer<Void> {
+        private final List<Event> events;
+
+        StreamAnswer(List<Event> events) {
+            this.events = events;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Void answer(InvocationOnMock invocation) throws Throwable {
+            final MessageProcessor<Event> processor = (MessageProcessor<Event>)invocation.getArguments()[1];
+            events.forEach(processor::process);
+            throw new IOException("connection reset");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.client.connection;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests for {@link ChunkedOutputStream}.
+ */
+public class ChunkedOutputStreamTest {
+
+    @Test
+    public void shouldWriteChunksAndLastChunk() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (OutputStream chunked = new ChunkedOutputStream(out)) {
+            chunked.write("hello".getBytes(US_ASCII));
+            chunked.write(new byte[0]);
+            chunked.write(", chunked world".getBytes(US_ASCII));
+        }
+
+        assertEquals(new String(out.toByteArray(), US_ASCII), "5\r\nhello\r\nf\r\n, chunked world\r\n0\r\n\r\n");
+    }
+
+    @Test
+    public void shouldBeReadableWithChunkedInputStream() throws Exception {
+        final byte[] data = new byte[100_000];
+        new Random(7).nextBytes(data);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream chunked = new ChunkedOutputStream(out)) {
+            for (int off = 0; off < data.length; off += 8192) {
+                chunked.write(data, off, Math.min(8192, data.length - off));
+            }
+        }
+
+        final ChunkedInputStream in = new ChunkedInputStream(new ByteArrayInputStream(out.toByteArray()));
+        final ByteArrayOutputStream read = new ByteArrayOutputStream();
+        final byte[] buf = new byte[1000];
+        int n;
+        while ((n = in.read(buf)) != -1) {
+            read.write(buf, 0, n);
+        }
+
+        assertEquals(read.toByteArray(), data);
+    }
+}
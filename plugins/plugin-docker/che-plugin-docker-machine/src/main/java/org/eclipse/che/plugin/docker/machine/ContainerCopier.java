@@ -0,0 +1,672 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.eclipse.che.api.core.util.LineConsumer;
+import org.eclipse.che.commons.lang.Size;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.Exec;
+import org.eclipse.che.plugin.docker.client.LogMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+/**
+ * Copies files between docker containers.
+ * <p/>
+ * Archive of source path is streamed from source container into target container as it is read, so it is not held in
+ * memory or on disk of this host, and reading slows down when target container doesn't keep up. When files are
+ * filtered archive is rewritten on the fly, rewritten archive is passed to the target through a pipe with bounded
+ * buffer.
+ * <p/>
+ * When directory is copied, its top level entries are independent subtrees which are transferred in parallel, each one
+ * with its own pair of requests to docker. Excluded top level entries are not requested from docker at all, excluded
+ * entries which are deeper in the tree are read from the archive of their subtree and dropped. Progress and throughput
+ * of copying are reported to the machine logs.
+ * <p/>
+ * Transfers and uploads of all the copy operations share two thread pools of {@link #MAX_THREADS} threads each,
+ * transfers which don't fit wait in the queue of pool. Uploads are executed by separate pool since each transfer waits
+ * for its upload, so they can't starve each other.
+ */
+@Singleton
+public class ContainerCopier {
+    private static final Logger LOG = LoggerFactory.getLogger(ContainerCopier.class);
+
+    /** Lists entries of directory, prints nothing to stdout and error to stderr if path is not a directory. */
+    private static final String LIST_DIRECTORY_COMMAND = "cd \"$1\" && ls -A1";
+
+    private static final int  PARALLEL_TRANSFERS = 4;
+    private static final int  MAX_THREADS        = 16;
+    private static final int  CHUNK_SIZE         = 64 * 1024;
+    /** With default chunk size pipe of each transfer holds up to 1MB. */
+    private static final int  PIPE_CHUNKS        = 16;
+    private static final long PROGRESS_PERIOD_MS = 5000;
+
+    private final DockerConnector docker;
+    private final ExecutorService transferExecutor;
+    private final ExecutorService uploadExecutor;
+    private final int             parallelTransfers;
+    private final int             chunkSize;
+    private final int             pipeChunks;
+    private final long            progressPeriod;
+
+    @Inject
+    public ContainerCopier(DockerConnector docker) {
+        this(docker, PARALLEL_TRANSFERS, CHUNK_SIZE, PIPE_CHUNKS, PROGRESS_PERIOD_MS);
+    }
+
+    ContainerCopier(DockerConnector docker, int parallelTransfers, int chunkSize, int pipeChunks, long progressPeriod) {
+        this.docker = docker;
+        this.parallelTransfers = parallelTransfers;
+        this.chunkSize = chunkSize;
+        this.pipeChunks = pipeChunks;
+        this.progressPeriod = progressPeriod;
+        this.transferExecutor = createExecutor("ContainerCopier-transfer-%d");
+        this.uploadExecutor = createExecutor("ContainerCopier-upload-%d");
+    }
+
+    /**
+     * Copies file or directory from one container to another.
+     *
+     * @param sourceContainer
+     *         id of container to copy files from
+     * @param sourcePath
+     *         path of file or directory in source container
+     * @param targetContainer
+     *         id of container to copy files to
+     * @param targetPath
+     *         path of existing directory in target container
+     * @param noOverwriteDirNonDir
+     *         passed to docker as is, see {@link DockerConnector#putResource(String, String, InputStream, boolean)}
+     * @param includes
+     *         glob patterns of paths relative to {@code sourcePath} of files which should be copied,
+     *         if empty all files are copied
+     * @param excludes
+     *         glob patterns of paths relative to {@code sourcePath} of files and directories which should not be copied
+     * @param logger
+     *         machine logs consumer to report progress to
+     * @throws IOException
+     *         if any error occurs when files are being copied
+     */
+    public void copy(String sourceContainer,
+                     String sourcePath,
+                     String targetContainer,
+                     String targetPath,
+                     boolean noOverwriteDirNonDir,
+                     List<String> includes,
+                     List<String> excludes,
+                     LineConsumer logger) throws IOException {
+        final Filter filter = new Filter(includes, excludes);
+        final Progress progress = new Progress(sourcePath, logger);
+        final List<String> children = listDirectory(sourceContainer, sourcePath);
+        final TarArchiveEntry root = children == null ? null : readRootEntry(sourceContainer, sourcePath);
+        if (root == null || !root.isDirectory()) {
+            // file, link, or directory which can't be listed
+            progress.start(1);
+            transfer(sourceContainer, sourcePath, targetContainer, targetPath, noOverwriteDirNonDir, filter, true, progress);
+        } else {
+            // create directory with attributes of the source one, then fill it with subtrees
+            final String rootName = root.getName().endsWith("/") ? root.getName().substring(0, root.getName().length() - 1)
+                                                                : root.getName();
+            final ByteArrayOutputStream rootArchive = new ByteArrayOutputStream();
+            try (TarArchiveOutputStream out = createTarOutputStream(rootArchive)) {
+                out.putArchiveEntry(root);
+                out.closeArchiveEntry();
+            }
+            docker.putResource(targetContainer, targetPath, new ByteArrayInputStream(rootArchive.toByteArray()), noOverwriteDirNonDir);
+            final String sourceDir = sourcePath.endsWith("/") ? sourcePath : sourcePath + '/';
+            final String targetDir = (targetPath.endsWith("/") ? targetPath : targetPath + '/') + rootName;
+            final List<String> subtrees = children.stream()
+                                                  .filter(child -> filter.acceptPath(child, true))
+                                                  .collect(Collectors.toList());
+            progress.start(subtrees.size());
+            transferInParallel(sourceContainer, sourceDir, subtrees, targetContainer, targetDir, noOverwriteDirNonDir, filter,
+                               progress);
+        }
+        progress.done();
+    }
+
+    /** Stops transfers which are in progress. */
+    @PreDestroy
+    public void stop() {
+        transferExecutor.shutdownNow();
+        uploadExecutor.shutdownNow();
+    }
+
+    private void transferInParallel(String sourceContainer,
+                                    String sourceDir,
+                                    List<String> subtrees,
+                                    String targetContainer,
+                                    String targetDir,
+                                    boolean noOverwriteDirNonDir,
+                                    Filter filter,
+                                    Progress progress) throws IOException {
+        final ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>(subtrees);
+        final List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < Math.min(parallelTransfers, subtrees.size()); i++) {
+            workers.add(transferExecutor.submit(() -> {
+                String subtree;
+                while ((subtree = queue.poll()) != null) {
+                    transfer(sourceContainer, sourceDir + subtree, targetContainer, targetDir, noOverwriteDirNonDir, filter,
+                             false, progress);
+                }
+                return null;
+            }));
+        }
+        IOException failure = null;
+        for (Future<?> worker : workers) {
+            try {
+                await(worker);
+            } catch (InterruptedIOException e) {
+                // caller doesn't wait for workers anymore, so they are stopped right away
+                queue.clear();
+                workers.forEach(future -> future.cancel(true));
+                throw e;
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                    // don't start transfers of other subtrees
+                    queue.clear();
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Transfers archive of single path from source to target container.
+     *
+     * @param rootIsCopied
+     *         whether archive entries start with name of the copied path, otherwise they start with name of subtree
+     *         of the copied directory, used to find paths relative to the copied directory
+     */
+    private void transfer(String sourceContainer,
+                          String sourcePath,
+                          String targetContainer,
+                          String targetPath,
+                          boolean noOverwriteDirNonDir,
+                          Filter filter,
+                          boolean rootIsCopied,
+                          Progress progress) throws IOException {
+        final InputStream source = new CountingInputStream(docker.getResource(sourceContainer, sourcePath), progress);
+        if (filter.isEmpty()) {
+            // archive is passed as is, docker connector sends it as it is read and closes it
+            docker.putResource(targetContainer, targetPath, source, noOverwriteDirNonDir);
+        } else {
+            try (TarArchiveInputStream tar = new TarArchiveInputStream(source)) {
+                transferFiltered(tar, targetContainer, targetPath, noOverwriteDirNonDir, filter, rootIsCopied);
+            }
+        }
+        progress.subtreeCopied();
+    }
+
+    private void transferFiltered(TarArchiveInputStream source,
+                                  String targetContainer,
+                                  String targetPath,
+                                  boolean noOverwriteDirNonDir,
+                                  Filter filter,
+                                  boolean rootIsCopied) throws IOException {
+        final Pipe pipe = new Pipe(chunkSize, pipeChunks);
+        final Future<?> upload = upload(targetContainer, targetPath, noOverwriteDirNonDir, pipe.getInputStream());
+        try (TarArchiveOutputStream out = createTarOutputStream(pipe.getOutputStream())) {
+            final Set<String> excludedDirs = new HashSet<>();
+            TarArchiveEntry entry;
+            while ((entry = source.getNextTarEntry()) != null) {
+                if (!filter.acceptEntry(entry, rootIsCopied, excludedDirs)) {
+                    continue;
+                }
+                out.putArchiveEntry(entry);
+                if (entry.isFile()) {
+                    ByteStreams.copy(source, out);
+                }
+                out.closeArchiveEntry();
+            }
+        } catch (IOException | RuntimeException e) {
+            // pipe is closed by reader when upload fails, its failure is the cause then
+            final boolean uploadFailed = pipe.isClosed();
+            pipe.abort(e);
+            if (uploadFailed) {
+                await(upload);
+            }
+            throw e;
+        }
+        await(upload);
+    }
+
+    private Future<?> upload(String targetContainer, String targetPath, boolean noOverwriteDirNonDir, InputStream archive) {
+        return uploadExecutor.submit(() -> {
+            docker.putResource(targetContainer, targetPath, archive, noOverwriteDirNonDir);
+            return null;
+        });
+    }
+
+    /** Returns entries of directory, or {@code null} if path is not a directory or can't be listed. */
+    private List<String> listDirectory(String container, String path) {
+        final List<String> children = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+        try {
+            final Exec exec = docker.createExec(container, false, "/bin/sh", "-c", LIST_DIRECTORY_COMMAND, "sh", path);
+            docker.startExec(exec.getId(), message -> {
+                if (message.getType() == LogMessage.Type.STDOUT) {
+                    children.addAll(Arrays.stream(message.getContent().split("\n"))
+                                          .filter(name -> !name.isEmpty())
+                                          .collect(Collectors.toList()));
+                } else if (message.getType() == LogMessage.Type.STDERR) {
+                    errors.add(message.getContent());
+                }
+            });
+        } catch (IOException e) {
+            LOG.debug(e.getLocalizedMessage(), e);
+            return null;
+        }
+        return errors.isEmpty() ? children : null;
+    }
+
+    /** Reads the first entry of archive of path, stream is closed right after that, so rest of archive is not sent. */
+    private TarArchiveEntry readRootEntry(String container, String path) throws IOException {
+        try (TarArchiveInputStream tar = new TarArchiveInputStream(docker.getResource(container, path))) {
+            return tar.getNextTarEntry();
+        }
+    }
+
+    private static ExecutorService createExecutor(String nameFormat) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS,
+                                                                   60, TimeUnit.SECONDS,
+                                                                   new LinkedBlockingQueue<>(),
+                                                                   new ThreadFactoryBuilder().setNameFormat(nameFormat)
+                                                                                             .setDaemon(true)
+                                                                                             .build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static TarArchiveOutputStream createTarOutputStream(OutputStream output) {
+        final TarArchiveOutputStream tar = new TarArchiveOutputStream(output);
+        tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+        tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+        return tar;
+    }
+
+    private static void await(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new InterruptedIOException("Copying is interrupted");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            }
+            throw new IOException(cause.getLocalizedMessage(), cause);
+        }
+    }
+
+    /** Filters archive entries by paths relative to the copied directory. */
+    private static class Filter {
+        private final List<PathMatcher> includes;
+        private final List<PathMatcher> excludes;
+
+        Filter(List<String> includes, List<String> excludes) {
+            this.includes = toMatchers(includes);
+            this.excludes = toMatchers(excludes);
+        }
+
+        boolean isEmpty() {
+            return includes.isEmpty() && excludes.isEmpty();
+        }
+
+        /**
+         * Checks archive entry, directories which are not accepted are added to {@code excludedDirs}
+         * so their content is not accepted either.
+         */
+        boolean acceptEntry(TarArchiveEntry entry, boolean rootIsCopied, Set<String> excludedDirs) {
+            final String name = entry.getName().endsWith("/") ? entry.getName().substring(0, entry.getName().length() - 1)
+                                                             : entry.getName();
+            final String path = relativePath(name, rootIsCopied);
+            if (path.isEmpty()) {
+                // copied file or directory itself
+                return true;
+            }
+            for (String parent = parentPath(path); parent != null; parent = parentPath(parent)) {
+                if (excludedDirs.contains(parent)) {
+                    return false;
+                }
+            }
+            if (!acceptPath(path, entry.isDirectory())) {
+                if (entry.isDirectory()) {
+                    excludedDirs.add(path);
+                }
+                return false;
+            }
+            // hard link can't be extracted without its target
+            return !entry.isLink() || acceptPath(relativePath(entry.getLinkName(), rootIsCopied), false);
+        }
+
+        /** Includes are applied to files only, parent directories of included files are created by docker. */
+        boolean acceptPath(String path, boolean isDirectory) {
+            if (excludes.stream().anyMatch(matcher -> matcher.matches(Paths.get(path)))) {
+                return false;
+            }
+            return isDirectory || includes.isEmpty() || includes.stream().anyMatch(matcher -> matcher.matches(Paths.get(path)));
+        }
+
+        private static String relativePath(String name, boolean rootIsCopied) {
+            if (!rootIsCopied) {
+                return name;
+            }
+            final int slash = name.indexOf('/');
+            return slash == -1 ? "" : name.substring(slash + 1);
+        }
+
+        private static String parentPath(String path) {
+            final int slash = path.lastIndexOf('/');
+            return slash == -1 ? null : path.substring(0, slash);
+        }
+
+        private static List<PathMatcher> toMatchers(List<String> patterns) {
+            if (patterns == null) {
+                return new ArrayList<>();
+            }
+            return patterns.stream()
+                           .filter(pattern -> pattern != null && !pattern.isEmpty())
+                           .map(pattern -> FileSystems.getDefault().getPathMatcher("glob:" + pattern))
+                           .collect(Collectors.toList());
+        }
+    }
+
+    /** Reports amount of copied data and throughput to machine logs. */
+    private class Progress {
+        private final String        sourcePath;
+        private final LineConsumer  logger;
+        private final AtomicLong    bytes;
+        private final AtomicInteger copiedSubtrees;
+
+        private long started;
+        private long reported;
+        private int  subtrees;
+
+        Progress(String sourcePath, LineConsumer logger) {
+            this.sourcePath = sourcePath;
+            this.logger = logger;
+            this.bytes = new AtomicLong();
+            this.copiedSubtrees = new AtomicInteger();
+        }
+
+        synchronized void start(int subtrees) {
+            this.subtrees = subtrees;
+            this.started = this.reported = System.currentTimeMillis();
+        }
+
+        void add(long read) {
+            bytes.addAndGet(read);
+            final long now = System.currentTimeMillis();
+            synchronized (this) {
+                if (now - reported >= progressPeriod) {
+                    reported = now;
+                    write(format("[DOCKER] Copying %s: %s, %d of %d parts done, %s/s", sourcePath, Size.toHumanSize(bytes.get()),
+                                 copiedSubtrees.get(), subtrees, Size.toHumanSize(throughput(now))));
+                }
+            }
+        }
+
+        void subtreeCopied() {
+            copiedSubtrees.incrementAndGet();
+        }
+
+        synchronized void done() {
+            final long now = System.currentTimeMillis();
+            write(format("[DOCKER] Copied %s: %s in %.1f s, %s/s", sourcePath, Size.toHumanSize(bytes.get()),
+                         (now - started) / 1000.0, Size.toHumanSize(throughput(now))));
+        }
+
+        private long throughput(long now) {
+            return bytes.get() * 1000 / Math.max(now - started, 1);
+        }
+
+        private void write(String line) {
+            try {
+                logger.writeLine(line);
+            } catch (IOException e) {
+                LOG.warn(e.getLocalizedMessage());
+            }
+        }
+    }
+
+    /** Counts bytes read from source container. */
+    private static class CountingInputStream extends FilterInputStream {
+        private final Progress progress;
+
+        CountingInputStream(InputStream in, Progress progress) {
+            super(in);
+            this.progress = progress;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b != -1) {
+                progress.add(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int read = super.read(b, off, len);
+            if (read > 0) {
+                progress.add(read);
+            }
+            return read;
+        }
+    }
+
+    /**
+     * In-memory pipe which holds at most the given number of chunks, writer is blocked while pipe is full.
+     * <p/>
+     * If reader closes pipe before the end of data, writer fails instead of waiting forever. If writer aborts pipe,
+     * reader fails instead of treating incomplete data as complete.
+     */
+    static class Pipe {
+        private static final byte[] END = new byte[0];
+
+        private final BlockingQueue<byte[]> chunks;
+        private final int                   chunkSize;
+        private final OutputStream          output;
+        private final InputStream           input;
+
+        private volatile boolean   readerClosed;
+        private volatile Exception writerFailure;
+
+        Pipe(int chunkSize, int capacity) {
+            this.chunkSize = chunkSize;
+            this.chunks = new ArrayBlockingQueue<>(capacity);
+            this.output = new PipeOutputStream();
+            this.input = new PipeInputStream();
+        }
+
+        OutputStream getOutputStream() {
+            return output;
+        }
+
+        InputStream getInputStream() {
+            return input;
+        }
+
+        /** Called by writer to notify reader that data is incomplete. */
+        void abort(Exception failure) {
+            writerFailure = failure;
+            chunks.clear();
+            chunks.offer(END);
+        }
+
+        /** Called by reader, writer which waits for free space in pipe fails. */
+        void close() {
+            readerClosed = true;
+            chunks.clear();
+        }
+
+        boolean isClosed() {
+            return readerClosed;
+        }
+
+        private void put(byte[] chunk) throws IOException {
+            try {
+                while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                    if (readerClosed) {
+                        throw new IOException("Pipe is closed by reader");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Writing to pipe is interrupted");
+            }
+        }
+
+        private class PipeOutputStream extends OutputStream {
+            private final byte[] buffer = new byte[chunkSize];
+
+            private int     position;
+            private boolean closed;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte)b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (closed) {
+                    throw new IOException("Stream closed");
+                }
+                while (len > 0) {
+                    final int n = Math.min(len, chunkSize - position);
+                    System.arraycopy(b, off, buffer, position, n);
+                    position += n;
+                    off += n;
+                    len -= n;
+                    if (position == chunkSize) {
+                        flush();
+                    }
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (position > 0) {
+                    put(Arrays.copyOf(buffer, position));
+                    position = 0;
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    flush();
+                    put(END);
+                }
+            }
+        }
+
+        private class PipeInputStream extends InputStream {
+            private byte[]  chunk = new byte[0];
+            private int     position;
+            private boolean eof;
+
+            @Override
+            public int read() throws IOException {
+                final byte[] b = new byte[1];
+                return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                if (position == chunk.length) {
+                    if (eof || !nextChunk()) {
+                        return -1;
+                    }
+                }
+                final int n = Math.min(len, chunk.length - position);
+                System.arraycopy(chunk, position, b, off, n);
+                position += n;
+                return n;
+            }
+
+            @Override
+            public void close() {
+                Pipe.this.close();
+            }
+
+            private boolean nextChunk() throws IOException {
+                try {
+                    chunk = chunks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Reading from pipe is interrupted");
+                }
+                position = 0;
+                if (chunk == END) {
+                    eof = true;
+                    if (writerFailure != null) {
+                        throw new IOException("Copied archive is incomplete: " + writerFailure.getLocalizedMessage(), writerFailure);
+                    }
+                    return false;
+                }
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,428 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.DockerException;
+import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
+import org.eclipse.che.plugin.docker.client.json.GraphDriver;
+import org.eclipse.che.plugin.docker.client.json.HostConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SecureDirectoryStream;
+import java.nio.file.attribute.BasicFileAttributeView;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+import static java.nio.file.StandardOpenOption.READ;
+import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+
+/**
+ * Reads lines of files located in docker container.
+ * <p/>
+ * When file is located in a bind mount or in the overlay filesystem of the container and that directory is accessible
+ * on this host, file is read directly from the host filesystem. Otherwise file is fetched with docker archive API.
+ * <p/>
+ * Reader keeps index of line offsets (offset of each {@link #INDEX_STEP}th line) for recently read files. So reading
+ * of the next page of a large file seeks to the nearest indexed line instead of scanning file from the beginning,
+ * when file is fetched with archive API bytes before that line are skipped without parsing. Index of file is dropped
+ * when size or modification time of the file changes.
+ */
+class ContainerFileReader {
+    private static final Logger LOG = LoggerFactory.getLogger(ContainerFileReader.class);
+
+    static final int INDEX_STEP = 256;
+
+    private static final int MAX_INDEXES  = 64;
+    private static final int MAX_SYMLINKS = 8;
+    private static final int BUFFER_SIZE  = 8192;
+
+    private static final Set<OpenOption> READ_NOFOLLOW_LINKS = ImmutableSet.of(READ, NOFOLLOW_LINKS);
+
+    private final DockerConnector          docker;
+    private final String                   container;
+    private final Cache<String, LineIndex> indexes;
+
+    /** Mounts of container which are accessible on this host, the most specific first. Resolved on first read. */
+    private volatile List<HostMount> mounts;
+
+    ContainerFileReader(DockerConnector docker, String container) {
+        this.docker = docker;
+        this.container = container;
+        this.indexes = CacheBuilder.newBuilder().maximumSize(MAX_INDEXES).build();
+    }
+
+    /**
+     * Reads lines of file from line {@code from} to line {@code to} inclusively, numbering of lines starts from 1.
+     *
+     * @return lines separated by '\n', or empty string if file contains less lines than {@code from}
+     * @throws NotFoundException
+     *         if file doesn't exist
+     * @throws IOException
+     *         if file is not a regular file or any other error occurs on reading
+     */
+    String readLines(String filePath, int from, int to) throws NotFoundException, IOException {
+        final HostFile hostFile = resolveOnHost(filePath);
+        if (hostFile != null) {
+            try {
+                return readFromHost(filePath, hostFile, from, to);
+            } catch (IOException e) {
+                // file may be removed or container stopped since path was resolved, or path contains symbolic link
+                LOG.debug(e.getLocalizedMessage(), e);
+            }
+        }
+        return readFromArchive(filePath, from, to, 0);
+    }
+
+    @VisibleForTesting
+    LineIndex getIndex(String filePath) {
+        return indexes.getIfPresent(filePath);
+    }
+
+    /**
+     * Reads file of container mount from this host.
+     * <p/>
+     * Processes of container may replace any directory or file of the path with symbolic link at any moment, and link
+     * is resolved by this host, so the path is never resolved at once. Each directory of the path is opened relatively
+     * to its parent without following symbolic links, then the file is opened in the same way. File is read only if it
+     * is a regular file and it is the same file before and after opening.
+     */
+    private String readFromHost(String filePath, HostFile hostFile, int from, int to) throws IOException {
+        SecureDirectoryStream<Path> dir = openDirectory(hostFile.mount.hostPath);
+        try {
+            final Path relative = hostFile.relativePath;
+            for (int i = 0; i < relative.getNameCount() - 1; i++) {
+                final SecureDirectoryStream<Path> child = dir.newDirectoryStream(relative.getName(i), NOFOLLOW_LINKS);
+                dir.close();
+                dir = child;
+            }
+            final Path name = relative.getFileName();
+            final BasicFileAttributeView view = dir.getFileAttributeView(name, BasicFileAttributeView.class, NOFOLLOW_LINKS);
+            final BasicFileAttributes attributes = view.readAttributes();
+            if (!attributes.isRegularFile()) {
+                throw new IOException(format("%s is not a regular file on host", filePath));
+            }
+            try (SeekableByteChannel channel = dir.newByteChannel(name, READ_NOFOLLOW_LINKS)) {
+                if (attributes.fileKey() == null || !attributes.fileKey().equals(view.readAttributes().fileKey())) {
+                    throw new IOException(format("%s was replaced while it was being opened", filePath));
+                }
+                final LineIndex index = getIndex(filePath, attributes.size(), attributes.lastModifiedTime().toMillis());
+                final int checkpoint = index.nearestCheckpoint(from);
+                final long offset = index.getOffset(checkpoint);
+                channel.position(offset);
+                return readLines(Channels.newInputStream(channel), index, checkpoint * INDEX_STEP + 1, offset, from, to);
+            }
+        } finally {
+            dir.close();
+        }
+    }
+
+    private static SecureDirectoryStream<Path> openDirectory(Path dir) throws IOException {
+        final DirectoryStream<Path> stream = Files.newDirectoryStream(dir);
+        if (stream instanceof SecureDirectoryStream) {
+            return (SecureDirectoryStream<Path>)stream;
+        }
+        stream.close();
+        throw new IOException("Files of container can't be safely read on this host, secure directory stream is not supported");
+    }
+
+    private String readFromArchive(String filePath, int from, int to, int symlinks) throws NotFoundException, IOException {
+        try (TarArchiveInputStream tar = new TarArchiveInputStream(docker.getResource(container, filePath))) {
+            final TarArchiveEntry entry = tar.getNextTarEntry();
+            if (entry == null) {
+                throw new NotFoundException(format("File with path %s not found", filePath));
+            }
+            if (entry.isSymbolicLink()) {
+                // archive contains link itself, not the file link points to
+                if (symlinks == MAX_SYMLINKS) {
+                    throw new IOException(format("Too many levels of symbolic links in path %s", filePath));
+                }
+                return readFromArchive(resolveLink(filePath, entry.getLinkName()), from, to, symlinks + 1);
+            }
+            if (!entry.isFile()) {
+                throw new IOException(format("%s is not a file", filePath));
+            }
+            final LineIndex index = getIndex(filePath, entry.getSize(), entry.getModTime().getTime());
+            final int checkpoint = index.nearestCheckpoint(from);
+            final long offset = index.getOffset(checkpoint);
+            long toSkip = offset;
+            while (toSkip > 0) {
+                final long skipped = tar.skip(toSkip);
+                if (skipped <= 0) {
+                    // file is shorter than index says, it was changed while it was being archived
+                    return "";
+                }
+                toSkip -= skipped;
+            }
+            return readLines(tar, index, checkpoint * INDEX_STEP + 1, offset, from, to);
+        } catch (DockerException e) {
+            if (e.getStatus() == NOT_FOUND.getStatusCode()) {
+                throw new NotFoundException(format("File with path %s not found", filePath));
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Reads lines from stream and adds offsets of passed lines to index.
+     *
+     * @param line
+     *         number of line which starts at the current position of stream
+     * @param offset
+     *         offset in file of the current position of stream
+     */
+    private static String readLines(InputStream in, LineIndex index, int line, long offset, int from, int to) throws IOException {
+        final List<String> lines = new LinkedList<>();
+        final ByteArrayOutputStream current = new ByteArrayOutputStream();
+        final byte[] buf = new byte[BUFFER_SIZE];
+        long position = offset;
+        int read;
+        while (line <= to && (read = in.read(buf)) != -1) {
+            int start = 0;
+            for (int i = 0; i < read && line <= to; i++) {
+                if (buf[i] == '\n') {
+                    if (line >= from) {
+                        current.write(buf, start, i - start);
+                        lines.add(new String(current.toByteArray(), UTF_8));
+                        current.reset();
+                    }
+                    line++;
+                    index.addLine(line, position + i + 1);
+                    start = i + 1;
+                }
+            }
+            if (line >= from && line <= to) {
+                current.write(buf, start, read - start);
+            }
+            position += read;
+        }
+        if (current.size() > 0) {
+            // the last line of file without line separator
+            lines.add(new String(current.toByteArray(), UTF_8));
+        }
+        return String.join("\n", lines);
+    }
+
+    private LineIndex getIndex(String filePath, long size, long modified) {
+        LineIndex index = indexes.getIfPresent(filePath);
+        if (index == null || index.size != size || index.modified != modified) {
+            index = new LineIndex(size, modified);
+            indexes.put(filePath, index);
+        }
+        return index;
+    }
+
+    /** Returns file on this host if it may be accessible directly, otherwise returns {@code null}. */
+    private HostFile resolveOnHost(String filePath) {
+        if (!filePath.startsWith("/")) {
+            return null;
+        }
+        final String path = normalize(filePath);
+        for (HostMount mount : getMounts()) {
+            if (mount.contains(path)) {
+                // only the most specific mount is visible at this path in container
+                if (path.equals(mount.containerPath)) {
+                    return null;
+                }
+                // strip exactly one separator, container path of the root mount already ends with it
+                final String relative = path.substring("/".equals(mount.containerPath) ? 1 : mount.containerPath.length() + 1);
+                return new HostFile(mount, Paths.get(relative));
+            }
+        }
+        return null;
+    }
+
+    private List<HostMount> getMounts() {
+        if (mounts == null) {
+            synchronized (this) {
+                if (mounts == null) {
+                    try {
+                        mounts = findHostMounts(docker.inspectContainer(container));
+                    } catch (IOException e) {
+                        LOG.warn("Unable to find mounts of container {}: {}", container, e.getLocalizedMessage());
+                        return new ArrayList<>();
+                    }
+                }
+            }
+        }
+        return mounts;
+    }
+
+    @VisibleForTesting
+    static List<HostMount> findHostMounts(ContainerInfo info) {
+        final List<HostMount> mounts = new ArrayList<>();
+        if (info == null || info.getNode() != null) {
+            // container of swarm cluster may be located on other host
+            return mounts;
+        }
+        final HostConfig hostConfig = info.getHostConfig();
+        if (hostConfig != null && hostConfig.getBinds() != null) {
+            for (String bind : hostConfig.getBinds()) {
+                // host-src:container-dest[:options], host-src is either absolute path or name of volume
+                final String[] parts = bind.split(":");
+                if (parts.length >= 2 && parts[0].startsWith("/")) {
+                    addMount(mounts, parts[1], parts[0]);
+                }
+            }
+        }
+        if (info.getVolumes() != null) {
+            for (Map.Entry<String, String> volume : info.getVolumes().entrySet()) {
+                addMount(mounts, volume.getKey(), volume.getValue());
+            }
+        }
+        final GraphDriver graphDriver = info.getGraphDriver();
+        if (graphDriver != null && graphDriver.getName() != null && graphDriver.getName().startsWith("overlay")) {
+            addMount(mounts, "/", graphDriver.getData().get("MergedDir"));
+        }
+        mounts.sort((m1, m2) -> m2.containerPath.length() - m1.containerPath.length());
+        return mounts;
+    }
+
+    private static void addMount(List<HostMount> mounts, String containerPath, String hostPath) {
+        if (containerPath == null || !containerPath.startsWith("/") || hostPath == null || !hostPath.startsWith("/")) {
+            return;
+        }
+        final String path = normalize(containerPath);
+        if (mounts.stream().anyMatch(mount -> mount.containerPath.equals(path))) {
+            return;
+        }
+        try {
+            final Path source = Paths.get(hostPath).toRealPath();
+            if (Files.isDirectory(source)) {
+                mounts.add(new HostMount(path, source));
+            }
+        } catch (IOException | RuntimeException e) {
+            // not accessible on this host
+            LOG.debug("Host path {} of container path {} is not accessible", hostPath, containerPath);
+        }
+    }
+
+    private static String resolveLink(String filePath, String linkName) {
+        if (linkName.startsWith("/")) {
+            return linkName;
+        }
+        return filePath.substring(0, filePath.lastIndexOf('/') + 1) + linkName;
+    }
+
+    /** Removes '.', '..' and empty segments from absolute unix path. */
+    private static String normalize(String path) {
+        final LinkedList<String> segments = new LinkedList<>();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty() || ".".equals(segment)) {
+                continue;
+            }
+            if ("..".equals(segment)) {
+                segments.pollLast();
+            } else {
+                segments.add(segment);
+            }
+        }
+        return "/" + String.join("/", segments);
+    }
+
+    /** Directory of container which is accessible on this host. */
+    static class HostMount {
+        final String containerPath;
+        final Path   hostPath;
+
+        HostMount(String containerPath, Path hostPath) {
+            this.containerPath = containerPath;
+            this.hostPath = hostPath;
+        }
+
+        boolean contains(String path) {
+            return "/".equals(containerPath) || path.equals(containerPath) || path.startsWith(containerPath + '/');
+        }
+
+        @Override
+        public String toString() {
+            return containerPath + " -> " + hostPath;
+        }
+    }
+
+    /** File of container mount, path of file is relative to the mount. */
+    private static class HostFile {
+        final HostMount mount;
+        final Path      relativePath;
+
+        HostFile(HostMount mount, Path relativePath) {
+            this.mount = mount;
+            this.relativePath = relativePath;
+        }
+    }
+
+    /** Offsets of each {@link #INDEX_STEP}th line of file, checkpoint {@code k} is the start of line {@code k * INDEX_STEP + 1}. */
+    static class LineIndex {
+        final long size;
+        final long modified;
+
+        private long[] offsets;
+        private int    checkpoints;
+
+        LineIndex(long size, long modified) {
+            this.size = size;
+            this.modified = modified;
+            this.offsets = new long[16];
+            this.checkpoints = 1;
+        }
+
+        /** Returns the latest known checkpoint which is not after the given line. */
+        synchronized int nearestCheckpoint(int line) {
+            return Math.min((line - 1) / INDEX_STEP, checkpoints - 1);
+        }
+
+        synchronized long getOffset(int checkpoint) {
+            return offsets[checkpoint];
+        }
+
+        synchronized int getCheckpoints() {
+            return checkpoints;
+        }
+
+        /** Remembers offset of line if it is the next checkpoint. */
+        synchronized void addLine(int line, long offset) {
+            if ((line - 1) % INDEX_STEP != 0 || (line - 1) / INDEX_STEP != checkpoints) {
+                return;
+            }
+            if (checkpoints == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[checkpoints++] = offset;
+        }
+    }
+}
@@ -18,7 +18,6 @@ import org.eclipse.che.api.core.model.machine.Command;
 import org.eclipse.che.api.core.model.machine.Machine;
 import org.eclipse.che.api.core.model.machine.MachineSource;
 import org.eclipse.che.api.core.util.LineConsumer;
-import org.eclipse.che.api.core.util.ListLineConsumer;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.model.impl.MachineRuntimeInfoImpl;
 import org.eclipse.che.api.machine.server.spi.Instance;
@@ -28,7 +27,6 @@ import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
 import org.eclipse.che.plugin.docker.client.Exec;
-import org.eclipse.che.plugin.docker.client.LogMessage;
 import org.eclipse.che.plugin.docker.client.ProgressLineFormatterImpl;
 import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
 import org.eclipse.che.plugin.docker.client.params.CommitParams;
@@ -41,7 +39,6 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import javax.inject.Named;
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
@@ -50,6 +47,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static java.lang.String.format;
+import static java.util.Collections.emptyList;
 
 /**
  * Docker implementation of {@link Instance}
@@ -95,6 +93,8 @@ public class DockerInstance extends AbstractInstance {
     private final DockerInstanceProcessesCleaner              processesCleaner;
     private final ConcurrentHashMap<Integer, InstanceProcess> machineProcesses;
     private final boolean                                     snapshotUseRegistry;
+    private final ContainerFileReader                         fileReader;
+    private final ContainerCopier                             containerCopier;
 
     private MachineRuntimeInfoImpl machineRuntime;
 
@@ -110,6 +110,7 @@ public class DockerInstance extends AbstractInstance {
                           @Assisted LineConsumer outputConsumer,
                           DockerInstanceStopDetector dockerInstanceStopDetector,
                           DockerInstanceProcessesCleaner processesCleaner,
+                          ContainerCopier containerCopier,
                           @Named("machine.docker.snapshot_use_registry") boolean snapshotUseRegistry) {
         super(machine);
         this.dockerMachineFactory = dockerMachineFactory;
@@ -125,6 +126,8 @@ public class DockerInstance extends AbstractInstance {
         this.machineProcesses = new ConcurrentHashMap<>();
         processesCleaner.trackProcesses(this);
         this.snapshotUseRegistry = snapshotUseRegistry;
+        this.fileReader = new ContainerFileReader(docker, container);
+        this.containerCopier = containerCopier;
     }
 
     @Override
@@ -315,38 +318,40 @@ public class DockerInstance extends AbstractInstance {
             throw new MachineException("Impossible to read file " + limit + " lines from " + startFrom + " line");
         }
 
-        // command sed getting file content from startFrom line to (startFrom + limit)
-        String bashCommand = format("sed -n \'%1$2s, %2$2sp\' %3$2s", startFrom, startFrom + limit, filePath);
-
-        final String[] command = {"/bin/bash", "-c", bashCommand};
-
-        ListLineConsumer lines = new ListLineConsumer();
         try {
-            Exec exec = docker.createExec(container, false, command);
-            docker.startExec(exec.getId(), new LogMessagePrinter(lines, LogMessage::getContent));
-        } catch (IOException e) {
-            throw new MachineException(format("Error occurs while initializing command %s in docker container %s: %s",
-                                              Arrays.toString(command), container, e.getLocalizedMessage()), e);
-        }
-
-        String content = lines.getText();
-        if (content.contains("sed: can't read " + filePath + ": No such file or directory") ||
-            content.contains("cat: " + filePath + ": No such file or directory")) {
+            return fileReader.readLines(filePath, startFrom, startFrom + limit);
+        } catch (NotFoundException e) {
             throw new MachineException("File with path " + filePath + " not found");
+        } catch (IOException e) {
+            throw new MachineException(format("Error occurs while reading file %s in docker container %s: %s",
+                                              filePath, container, e.getLocalizedMessage()), e);
         }
-        return content;
     }
 
     @Override
     public void copy(Instance sourceMachine, String sourcePath, String targetPath, boolean overwriteDirNonDir) throws MachineException {
+        copy(sourceMachine, sourcePath, targetPath, overwriteDirNonDir, emptyList(), emptyList());
+    }
+
+    @Override
+    public void copy(Instance sourceMachine,
+                     String sourcePath,
+                     String targetPath,
+                     boolean overwriteDirNonDir,
+                     List<String> includes,
+                     List<String> excludes) throws MachineException {
         if (!(sourceMachine instanceof DockerInstance)) {
             throw new MachineException("Unsupported copying between not docker machines");
         }
         try {
-            docker.putResource(container,
-                               targetPath,
-                               docker.getResource(((DockerInstance)sourceMachine).container, sourcePath),
-                               overwriteDirNonDir);
+            containerCopier.copy(((DockerInstance)sourceMachine).container,
+                                 sourcePath,
+                                 container,
+                                 targetPath,
+                                 overwriteDirNonDir,
+                                 includes,
+                                 excludes,
+                                 outputConsumer);
         } catch (IOException e) {
             throw new MachineException(e.getLocalizedMessage());
         }
@@ -16,25 +16,31 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.machine.server.event.InstanceStateEvent;
-import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.DockerEventStream;
 import org.eclipse.che.plugin.docker.client.MessageProcessor;
 import org.eclipse.che.plugin.docker.client.json.Event;
-import org.eclipse.che.plugin.docker.client.json.Filters;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Track docker containers events to detect containers stop or failure.
+ * <p/>
+ * Events are received from the shared {@link DockerEventStream}. State changes are published to {@link EventService}
+ * by a small pool of threads through per-machine queues, so events of each machine are published in order, and slow
+ * subscriber of one machine's events doesn't delay detection for other machines.
  *
  * @author Alexander Garagatyi
  */
@@ -42,10 +48,14 @@ import java.util.concurrent.TimeUnit;
 public class DockerInstanceStopDetector {
     private static final Logger LOG = LoggerFactory.getLogger(DockerInstanceStopDetector.class);
 
-    private final EventService          eventService;
-    private final DockerConnector       dockerConnector;
-    private final ExecutorService       executorService;
-    private final Map<String, String>   instances;
+    private static final int PUBLISHER_THREADS = 4;
+
+    private final EventService                           eventService;
+    private final DockerEventStream                      eventStream;
+    private final MessageProcessor<Event>                eventsProcessor;
+    private final ThreadPoolExecutor                     publisher;
+    private final ConcurrentMap<String, Queue<Runnable>> machineQueues;
+    private final Map<String, String>                    instances;
     /*
        Helps differentiate container main process OOM from other processes OOM
        Algorithm:
@@ -60,20 +70,25 @@ public class DockerInstanceStopDetector {
     */
     private final Cache<String, String> containersOomTimestamps;
 
-    private long lastProcessedEventDate = 0;
-
     @Inject
-    public DockerInstanceStopDetector(EventService eventService, DockerConnector dockerConnector) {
+    public DockerInstanceStopDetector(EventService eventService, DockerEventStream eventStream) {
         this.eventService = eventService;
-        this.dockerConnector = dockerConnector;
+        this.eventStream = eventStream;
+        this.eventsProcessor = new EventsProcessor();
         this.instances = new ConcurrentHashMap<>();
+        this.machineQueues = new ConcurrentHashMap<>();
         this.containersOomTimestamps = CacheBuilder.newBuilder()
                                                    .expireAfterWrite(10, TimeUnit.SECONDS)
                                                    .build();
-        this.executorService = Executors.newSingleThreadExecutor(
-                new ThreadFactoryBuilder().setNameFormat("DockerInstanceStopDetector-%d")
-                                          .setDaemon(true)
-                                          .build());
+        this.publisher = new ThreadPoolExecutor(PUBLISHER_THREADS,
+                                                PUBLISHER_THREADS,
+                                                60,
+                                                TimeUnit.SECONDS,
+                                                new LinkedBlockingQueue<>(),
+                                                new ThreadFactoryBuilder().setNameFormat("DockerInstanceStopDetector-%d")
+                                                                          .setDaemon(true)
+                                                                          .build());
+        this.publisher.allowCoreThreadTimeOut(true);
     }
 
     /**
@@ -99,21 +114,48 @@ public class DockerInstanceStopDetector {
     }
 
     @PostConstruct
-    private void detectContainersEvents() {
-        executorService.execute(() -> {
-            //noinspection InfiniteLoopStatement
-            while (true) {
+    void detectContainersEvents() {
+        eventStream.addListener(eventsProcessor);
+    }
+
+    @PreDestroy
+    void stop() {
+        eventStream.removeListener(eventsProcessor);
+        publisher.shutdown();
+    }
+
+    /** Adds publishing of event to the queue of machine, starts draining of the queue if it is not running. */
+    private void publish(InstanceStateEvent event) {
+        final boolean[] idle = new boolean[1];
+        machineQueues.compute(event.getMachineId(), (machineId, queue) -> {
+            if (queue == null) {
+                queue = new ArrayDeque<>();
+                idle[0] = true;
+            }
+            queue.add(() -> eventService.publish(event));
+            return queue;
+        });
+        if (idle[0]) {
+            publisher.execute(() -> drain(event.getMachineId()));
+        }
+    }
+
+    private void drain(String machineId) {
+        final Runnable[] next = new Runnable[1];
+        do {
+            // queue is removed atomically when it is empty, so the next event starts draining again
+            machineQueues.computeIfPresent(machineId, (id, queue) -> {
+                next[0] = queue.poll();
+                return next[0] == null ? null : queue;
+            });
+            if (next[0] != null) {
                 try {
-                    dockerConnector.getEvents(lastProcessedEventDate,
-                                              0,
-                                              new Filters().withFilter("event", "die", "oom"),
-                                              new EventsProcessor());
-                } catch (IOException e) {
-                    // usually connection timeout
-                    LOG.debug(e.getLocalizedMessage(), e);
+                    next[0].run();
+                } catch (RuntimeException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
                 }
             }
-        });
+        } while (next[0] != null);
     }
 
     private class EventsProcessor implements MessageProcessor<Event> {
@@ -135,8 +177,7 @@ public class DockerInstanceStopDetector {
                     }
                     final String instanceId = instances.get(message.getId());
                     if (instanceId != null) {
-                        eventService.publish(new InstanceStateEvent(instanceId, instanceStateChangeType));
-                        lastProcessedEventDate = message.getTime();
+                        publish(new InstanceStateEvent(instanceId, instanceStateChangeType));
                     }
                     break;
                 default:
@@ -0,0 +1,404 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import com.google.common.io.ByteStreams;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.eclipse.che.api.core.util.ListLineConsumer;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.DockerException;
+import org.eclipse.che.plugin.docker.client.Exec;
+import org.eclipse.che.plugin.docker.client.LogMessage;
+import org.eclipse.che.plugin.docker.client.MessageProcessor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyVararg;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests for {@link ContainerCopier}.
+ * <p/>
+ * Source container filesystem is faked with map of paths, archives of its paths are built the way docker builds them.
+ * Archives uploaded to target container are unpacked into another map.
+ */
+public class ContainerCopierTest {
+    private static final String SOURCE = "source";
+    private static final String TARGET = "target";
+
+    /** Path to content of files, directories have {@code null} content. */
+    private Map<String, byte[]> sourceFiles;
+    /** Path of entry in target container to its content, directories have empty content. */
+    private Map<String, String> targetFiles;
+    private List<String>        uploadedPaths;
+    private DockerConnector     docker;
+    private ListLineConsumer    logs;
+    private ContainerCopier     copier;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        sourceFiles = new TreeMap<>();
+        targetFiles = new ConcurrentHashMap<>();
+        uploadedPaths = new CopyOnWriteArrayList<>();
+        logs = new ListLineConsumer();
+        docker = mock(DockerConnector.class);
+        copier = new ContainerCopier(docker, 4, 16, 2, 0);
+
+        final Exec exec = mock(Exec.class);
+        when(exec.getId()).thenReturn("exec1");
+        final String[] command = new String[1];
+        doAnswer(invocation -> {
+            command[0] = (String)invocation.getArguments()[invocation.getArguments().length - 1];
+            return exec;
+        }).when(docker).createExec(anyString(), anyBoolean(), anyVararg());
+        doAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            final MessageProcessor<LogMessage> processor = (MessageProcessor<LogMessage>)invocation.getArguments()[1];
+            listDirectory(command[0], processor);
+            return null;
+        }).when(docker).startExec(anyString(), any());
+        when(docker.getResource(anyString(), anyString())).thenAnswer(invocation -> archive((String)invocation.getArguments()[1]));
+        doAnswer(invocation -> {
+            unpack((String)invocation.getArguments()[1], (InputStream)invocation.getArguments()[2]);
+            return null;
+        }).when(docker).putResource(anyString(), anyString(), any(InputStream.class), anyBoolean());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        copier.stop();
+    }
+
+    @Test
+    public void shouldCopyDirectoryBySubtrees() throws Exception {
+        createSourceTree();
+
+        copier.copy(SOURCE, "/projects/app", TARGET, "/backup", false, emptyList(), emptyList(), logs);
+
+        assertEquals(new TreeMap<>(targetFiles), expectedTree("app/",
+                                                              "app/README.md",
+                                                              "app/node_modules/",
+                                                              "app/node_modules/lib/",
+                                                              "app/node_modules/lib/index.js",
+                                                              "app/src/",
+                                                              "app/src/Main.java",
+                                                              "app/src/Main.class",
+                                                              "app/src/util/",
+                                                              "app/src/util/Util.java"));
+        // directory itself is created first
+        assertEquals(uploadedPaths.get(0), "/backup");
+        assertEquals(uploadedPaths.subList(1, uploadedPaths.size()).stream().distinct().collect(Collectors.toList()),
+                     singletonList("/backup/app"));
+        verify(docker).getResource(SOURCE, "/projects/app/src");
+        verify(docker).getResource(SOURCE, "/projects/app/node_modules");
+        verify(docker).getResource(SOURCE, "/projects/app/README.md");
+        assertTrue(logs.getText().contains("[DOCKER] Copied /projects/app"), logs.getText());
+    }
+
+    @Test(timeOut = 5000)
+    public void shouldTransferSubtreesInParallel() throws Exception {
+        createSourceTree();
+        final CountDownLatch bothStarted = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            final String path = (String)invocation.getArguments()[1];
+            if (!"/backup".equals(path)) {
+                bothStarted.countDown();
+                // the second subtree upload can't start here if uploads are sequential
+                assertTrue(bothStarted.await(3, TimeUnit.SECONDS), "Subtrees are not copied in parallel");
+            }
+            unpack(path, (InputStream)invocation.getArguments()[2]);
+            return null;
+        }).when(docker).putResource(anyString(), anyString(), any(InputStream.class), anyBoolean());
+        copier = new ContainerCopier(docker, 2, 16, 2, 0);
+
+        copier.copy(SOURCE, "/projects/app", TARGET, "/backup", false, emptyList(), emptyList(), logs);
+
+        assertTrue(targetFiles.containsKey("/backup/app/src/util/Util.java"));
+        assertTrue(targetFiles.containsKey("/backup/app/node_modules/lib/index.js"));
+    }
+
+    @Test(timeOut = 5000)
+    public void shouldStopAllTransfersWhenCopyingIsInterrupted() throws Exception {
+        createSourceTree();
+        final CountDownLatch started = new CountDownLatch(2);
+        final CountDownLatch interrupted = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            final String path = (String)invocation.getArguments()[1];
+            if (!"/backup".equals(path)) {
+                started.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw new InterruptedIOException();
+                }
+            }
+            unpack(path, (InputStream)invocation.getArguments()[2]);
+            return null;
+        }).when(docker).putResource(anyString(), anyString(), any(InputStream.class), anyBoolean());
+        copier = new ContainerCopier(docker, 2, 16, 2, 0);
+        final Thread copying = new Thread(() -> {
+            try {
+                copier.copy(SOURCE, "/projects/app", TARGET, "/backup", false, emptyList(), emptyList(), logs);
+            } catch (IOException ignored) {
+            }
+        });
+        copying.start();
+        assertTrue(started.await(3, TimeUnit.SECONDS));
+
+        copying.interrupt();
+
+        assertTrue(interrupted.await(3, TimeUnit.SECONDS), "Not all the transfers are stopped");
+        copying.join();
+    }
+
+    @Test
+    public void shouldSkipExcludedFilesAndDirectories() throws Exception {
+        createSourceTree();
+
+        copier.copy(SOURCE, "/projects/app", TARGET, "/backup", false, emptyList(), Arrays.asList("node_modules", "**/*.class"),
+                    logs);
+
+        assertEquals(new TreeMap<>(targetFiles), expectedTree("app/",
+                                                              "app/README.md",
+                                                              "app/src/",
+                                                              "app/src/Main.java",
+                                                              "app/src/util/",
+                                                              "app/src/util/Util.java"));
+        // excluded top level subtree is not even read, excluded nested entries are read and dropped
+        verify(docker, never()).getResource(SOURCE, "/projects/app/node_modules");
+    }
+
+    @Test
+    public void shouldCopyOnlyIncludedFiles() throws Exception {
+        createSourceTree();
+
+        copier.copy(SOURCE, "/projects/app", TARGET, "/backup", false, singletonList("**/*.java"), emptyList(), logs);
+
+        assertEquals(new TreeMap<>(targetFiles), expectedTree("app/",
+                                                              "app/node_modules/",
+                                                              "app/node_modules/lib/",
+                                                              "app/src/",
+                                                              "app/src/Main.java",
+                                                              "app/src/util/",
+                                                              "app/src/util/Util.java"));
+    }
+
+    @Test
+    public void shouldCopyFileWithSingleArchive() throws Exception {
+        createSourceTree();
+
+        copier.copy(SOURCE, "/projects/app/README.md", TARGET, "/backup", false, emptyList(), emptyList(), logs);
+
+        assertEquals(new TreeMap<>(targetFiles), expectedTree("README.md"));
+        assertEquals(uploadedPaths, singletonList("/backup"));
+    }
+
+    @Test(timeOut = 5000)
+    public void shouldFailWhenUploadFails() throws Exception {
+        createSourceTree();
+        doAnswer(invocation -> {
+            final InputStream archive = (InputStream)invocation.getArguments()[2];
+            archive.read(new byte[10]);
+            archive.close();
+            throw new DockerException("no space left on device", 500);
+        }).when(docker).putResource(anyString(), anyString(), any(InputStream.class), anyBoolean());
+
+        try {
+            copier.copy(SOURCE, "/projects/app/README.md", TARGET, "/backup", false, emptyList(), singletonList("*.class"), logs);
+            fail("Copying must fail");
+        } catch (IOException e) {
+            assertEquals(e.getMessage(), "no space left on device");
+        }
+    }
+
+    @Test(timeOut = 5000)
+    public void shouldNotCompleteUploadWhenSourceArchiveIsBroken() throws Exception {
+        createSourceTree();
+        when(docker.getResource(SOURCE, "/projects/app/README.md")).thenAnswer(invocation -> {
+            final byte[] archive = ByteStreams.toByteArray(archive("/projects/app/README.md"));
+            return new ByteArrayInputStream(Arrays.copyOf(archive, 515));
+        });
+        final List<Exception> uploadFailures = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            try {
+                ByteStreams.toByteArray((InputStream)invocation.getArguments()[2]);
+            } catch (IOException e) {
+                uploadFailures.add(e);
+                throw e;
+            }
+            return null;
+        }).when(docker).putResource(anyString(), anyString(), any(InputStream.class), anyBoolean());
+
+        try {
+            copier.copy(SOURCE, "/projects/app/README.md", TARGET, "/backup", false, emptyList(), singletonList("*.class"), logs);
+            fail("Copying must fail");
+        } catch (IOException ignored) {
+        }
+
+        final long deadline = System.currentTimeMillis() + 3000;
+        while (uploadFailures.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(uploadFailures.isEmpty(), "Upload of incomplete archive must fail");
+    }
+
+    @Test(timeOut = 5000)
+    public void shouldBlockWriterOfPipeUntilReaderConsumesData() throws Exception {
+        final ContainerCopier.Pipe pipe = new ContainerCopier.Pipe(4, 2);
+        final CountDownLatch written = new CountDownLatch(1);
+        final Thread writer = new Thread(() -> {
+            try (OutputStream out = pipe.getOutputStream()) {
+                out.write(new byte[100]);
+                written.countDown();
+            } catch (IOException ignored) {
+            }
+        });
+        writer.start();
+
+        assertFalse(written.await(200, TimeUnit.MILLISECONDS), "Writer must wait for reader when pipe is full");
+        assertEquals(ByteStreams.toByteArray(pipe.getInputStream()).length, 100);
+        assertTrue(written.await(1, TimeUnit.SECONDS));
+    }
+
+    private void createSourceTree() {
+        directory("/projects/app");
+        file("/projects/app/README.md", "readme");
+        directory("/projects/app/node_modules");
+        directory("/projects/app/node_modules/lib");
+        file("/projects/app/node_modules/lib/index.js", "module.exports = {}");
+        directory("/projects/app/src");
+        file("/projects/app/src/Main.java", "class Main {}");
+        file("/projects/app/src/Main.class", "cafebabe");
+        directory("/projects/app/src/util");
+        file("/projects/app/src/util/Util.java", "class Util {}");
+    }
+
+    private void directory(String path) {
+        sourceFiles.put(path, null);
+    }
+
+    private void file(String path, String content) {
+        sourceFiles.put(path, content.getBytes(UTF_8));
+    }
+
+    private Map<String, String> expectedTree(String... names) {
+        final Map<String, String> tree = new TreeMap<>();
+        for (String name : names) {
+            if (name.endsWith("/")) {
+                tree.put("/backup/" + name.substring(0, name.length() - 1), "");
+            } else {
+                final String sourcePath = sourceFiles.keySet()
+                                                     .stream()
+                                                     .filter(path -> path.endsWith("/" + name.substring(name.indexOf('/') + 1)))
+                                                     .findFirst()
+                                                     .get();
+                tree.put("/backup/" + name, new String(sourceFiles.get(sourcePath), UTF_8));
+            }
+        }
+        return tree;
+    }
+
+    /** Emulates 'cd "$1" && ls -A1' command. */
+    private void listDirectory(String path, MessageProcessor<LogMessage> processor) {
+        if (!sourceFiles.containsKey(path) || sourceFiles.get(path) != null) {
+            processor.process(logMessage(LogMessage.Type.STDERR, "sh: cd: can't cd to " + path));
+            return;
+        }
+        sourceFiles.keySet()
+                   .stream()
+                   .filter(child -> child.startsWith(path + '/') && child.indexOf('/', path.length() + 1) == -1)
+                   .forEach(child -> processor.process(logMessage(LogMessage.Type.STDOUT, child.substring(path.length() + 1))));
+    }
+
+    private static LogMessage logMessage(LogMessage.Type type, String content) {
+        final LogMessage message = mock(LogMessage.class);
+        when(message.getType()).thenReturn(type);
+        when(message.getContent()).thenReturn(content);
+        return message;
+    }
+
+    /** Builds archive of path the way docker does, entries names start with name of archived file. */
+    private InputStream archive(String path) throws IOException {
+        if (!sourceFiles.containsKey(path)) {
+            throw new DockerException("Could not find the file " + path, 404);
+        }
+        final int parentLength = path.lastIndexOf('/') + 1;
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(out)) {
+            for (Map.Entry<String, byte[]> file : sourceFiles.entrySet()) {
+                if (!file.getKey().equals(path) && !file.getKey().startsWith(path + '/')) {
+                    continue;
+                }
+                final String name = file.getKey().substring(parentLength);
+                if (file.getValue() == null) {
+                    tar.putArchiveEntry(new TarArchiveEntry(name + '/'));
+                } else {
+                    final TarArchiveEntry entry = new TarArchiveEntry(name);
+                    entry.setSize(file.getValue().length);
+                    tar.putArchiveEntry(entry);
+                    tar.write(file.getValue());
+                }
+                tar.closeArchiveEntry();
+            }
+        }
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    private void unpack(String targetPath, InputStream archive) throws IOException {
+        uploadedPaths.add(targetPath);
+        try (TarArchiveInputStream tar = new TarArchiveInputStream(archive)) {
+            TarArchiveEntry entry;
+            while ((entry = tar.getNextTarEntry()) != null) {
+                if (entry.isDirectory()) {
+                    final String name = entry.getName().substring(0, entry.getName().length() - 1);
+                    targetFiles.put(targetPath + '/' + name, "");
+                } else {
+                    targetFiles.put(targetPath + '/' + entry.getName(), new String(ByteStreams.toByteArray(tar), UTF_8));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.plugin.docker.client.DockerConnector;
+import org.eclipse.che.plugin.docker.client.DockerException;
+import org.eclipse.che.plugin.docker.client.json.ContainerInfo;
+import org.eclipse.che.plugin.docker.client.json.GraphDriver;
+import org.eclipse.che.plugin.docker.client.json.HostConfig;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests for {@link ContainerFileReader}.
+ */
+public class ContainerFileReaderTest {
+    private static final String CONTAINER = "container1";
+
+    private Path                hostDir;
+    private DockerConnector     docker;
+    private ContainerFileReader reader;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        hostDir = Files.createTempDirectory("projects").toRealPath();
+        docker = mock(DockerConnector.class);
+        final ContainerInfo info = new ContainerInfo();
+        info.setHostConfig(new HostConfig().withBinds(hostDir + ":/projects:Z"));
+        when(docker.inspectContainer(CONTAINER)).thenReturn(info);
+        reader = new ContainerFileReader(docker, CONTAINER);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        IoUtil.deleteRecursive(hostDir.toFile());
+    }
+
+    @Test
+    public void shouldReadFileOfBindMountFromHost() throws Exception {
+        Files.write(hostDir.resolve("file.txt"), lines(1, 1000).getBytes(UTF_8));
+
+        assertEquals(reader.readLines("/projects/./file.txt", 600, 603), "line600\nline601\nline602\nline603");
+        verify(docker, never()).getResource(anyString(), anyString());
+    }
+
+    @Test
+    public void shouldSeekToIndexedLineWhenNextPageIsRead() throws Exception {
+        Files.write(hostDir.resolve("file.txt"), lines(1, 2000).getBytes(UTF_8));
+
+        assertEquals(reader.readLines("/projects/file.txt", 1, 1000), lines(1, 1000).trim());
+        assertEquals(reader.getIndex("/projects/file.txt").getCheckpoints(), 1000 / ContainerFileReader.INDEX_STEP + 1);
+
+        assertEquals(reader.readLines("/projects/file.txt", 1001, 2000), lines(1001, 2000).trim());
+        assertEquals(reader.readLines("/projects/file.txt", 1999, 2010), "line1999\nline2000");
+        assertEquals(reader.readLines("/projects/file.txt", 2001, 2010), "");
+    }
+
+    @Test
+    public void shouldDropIndexWhenFileIsChanged() throws Exception {
+        final Path file = hostDir.resolve("file.txt");
+        Files.write(file, lines(1, 1000).getBytes(UTF_8));
+        reader.readLines("/projects/file.txt", 900, 901);
+
+        Files.write(file, ("header\n" + lines(1, 1000)).getBytes(UTF_8));
+
+        assertEquals(reader.readLines("/projects/file.txt", 900, 901), "line899\nline900");
+    }
+
+    @Test
+    public void shouldReadFileWithArchiveApiWhenItIsNotAccessibleOnHost() throws Exception {
+        final String content = lines(1, 1000);
+        when(docker.getResource(CONTAINER, "/etc/file.txt")).thenReturn(tar("file.txt", content, 1000))
+                                                            .thenReturn(tar("file.txt", content, 1000));
+
+        assertEquals(reader.readLines("/etc/file.txt", 299, 300), "line299\nline300");
+        assertEquals(reader.readLines("/etc/file.txt", 600, 601), "line600\nline601");
+        assertTrue(reader.getIndex("/etc/file.txt").getCheckpoints() > 1);
+    }
+
+    @Test
+    public void shouldNotReadSymbolicLinkOfBindMountFromHost() throws Exception {
+        Files.write(hostDir.resolve("file.txt"), lines(1, 10).getBytes(UTF_8));
+        Files.createSymbolicLink(hostDir.resolve("link.txt"), hostDir.resolve("file.txt"));
+        when(docker.getResource(CONTAINER, "/projects/link.txt")).thenReturn(symlinkTar("link.txt", "file.txt"));
+        when(docker.getResource(CONTAINER, "/projects/file.txt")).thenReturn(tar("file.txt", lines(1, 10), 1000));
+
+        assertEquals(reader.readLines("/projects/link.txt", 1, 1), "line1");
+        verify(docker).getResource(CONTAINER, "/projects/file.txt");
+    }
+
+    @Test
+    public void shouldNotFollowSymbolicLinkOfDirectoryOfBindMountOnHost() throws Exception {
+        final Path outside = Files.createTempDirectory("outside").toRealPath();
+        try {
+            Files.write(outside.resolve("secret.txt"), "host secret\n".getBytes(UTF_8));
+            // container process replaces directory with link to the directory of host
+            Files.createSymbolicLink(hostDir.resolve("dir"), outside);
+            when(docker.getResource(CONTAINER, "/projects/dir/secret.txt")).thenThrow(new DockerException("not found", 404));
+
+            reader.readLines("/projects/dir/secret.txt", 1, 1);
+            fail("File of host must not be read through link");
+        } catch (NotFoundException expected) {
+            verify(docker).getResource(CONTAINER, "/projects/dir/secret.txt");
+        } finally {
+            IoUtil.deleteRecursive(outside.toFile());
+        }
+    }
+
+    @Test
+    public void shouldReadFileOfNestedDirectoryOfBindMountFromHost() throws Exception {
+        Files.createDirectories(hostDir.resolve("a/b"));
+        Files.write(hostDir.resolve("a/b/file.txt"), lines(1, 10).getBytes(UTF_8));
+
+        assertEquals(reader.readLines("/projects/a/b/file.txt", 2, 3), "line2\nline3");
+        verify(docker, never()).getResource(anyString(), anyString());
+    }
+
+    @Test
+    public void shouldReadFileOfOverlayMergedDirFromHost() throws Exception {
+        final Path mergedDir = Files.createTempDirectory("merged").toRealPath();
+        try {
+            Files.createDirectories(mergedDir.resolve("var/log"));
+            Files.write(mergedDir.resolve("var/log/x.log"), lines(1, 10).getBytes(UTF_8));
+            Files.write(hostDir.resolve("x.log"), "projects\n".getBytes(UTF_8));
+            final GraphDriver graphDriver = new GraphDriver();
+            graphDriver.setName("overlay2");
+            graphDriver.getData().put("MergedDir", mergedDir.toString());
+            final ContainerInfo info = new ContainerInfo();
+            info.setHostConfig(new HostConfig().withBinds(hostDir + ":/projects:Z"));
+            info.setGraphDriver(graphDriver);
+            when(docker.inspectContainer(CONTAINER)).thenReturn(info);
+            reader = new ContainerFileReader(docker, CONTAINER);
+
+            assertEquals(reader.readLines("/var/log/x.log", 2, 3), "line2\nline3");
+            assertEquals(reader.readLines("/projects/x.log", 1, 1), "projects");
+            verify(docker, never()).getResource(anyString(), anyString());
+        } finally {
+            IoUtil.deleteRecursive(mergedDir.toFile());
+        }
+    }
+
+    @Test(expectedExceptions = NotFoundException.class)
+    public void shouldThrowNotFoundExceptionWhenDockerDoesNotFindFile() throws Exception {
+        when(docker.getResource(CONTAINER, "/etc/file.txt")).thenThrow(new DockerException("not found", 404));
+
+        reader.readLines("/etc/file.txt", 1, 10);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void shouldThrowIOExceptionWhenPathIsDirectory() throws Exception {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(out)) {
+            tar.putArchiveEntry(new TarArchiveEntry("etc/"));
+            tar.closeArchiveEntry();
+        }
+        when(docker.getResource(CONTAINER, "/etc")).thenReturn(new ByteArrayInputStream(out.toByteArray()));
+
+        reader.readLines("/etc", 1, 10);
+    }
+
+    private static String lines(int from, int to) {
+        return IntStream.rangeClosed(from, to).mapToObj(i -> "line" + i + '\n').collect(Collectors.joining());
+    }
+
+    private static InputStream tar(String name, String content, long modified) throws IOException {
+        final byte[] data = content.getBytes(UTF_8);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(out)) {
+            final TarArchiveEntry entry = new TarArchiveEntry(name);
+            entry.setSize(data.length);
+            entry.setModTime(new Date(modified));
+            tar.putArchiveEntry(entry);
+            tar.write(data);
+            tar.closeArchiveEntry();
+        }
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    private static InputStream symlinkTar(String name, String target) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(out)) {
+            final TarArchiveEntry entry = new TarArchiveEntry(name, TarArchiveEntry.LF_SYMLINK);
+            entry.setLinkName(target);
+            tar.putArchiveEntry(entry);
+            tar.closeArchiveEntry();
+        }
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+}
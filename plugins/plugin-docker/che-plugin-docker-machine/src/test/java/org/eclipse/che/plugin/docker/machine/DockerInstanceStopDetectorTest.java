@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.docker.machine;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.machine.server.event.InstanceStateEvent;
+import org.eclipse.che.plugin.docker.client.DockerEventStream;
+import org.eclipse.che.plugin.docker.client.MessageProcessor;
+import org.eclipse.che.plugin.docker.client.json.Event;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link DockerInstanceStopDetector}.
+ */
+public class DockerInstanceStopDetectorTest {
+
+    private EventService               eventService;
+    private DockerInstanceStopDetector detector;
+    private MessageProcessor<Event>    listener;
+    private List<InstanceStateEvent>   published;
+
+    @BeforeMethod
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        eventService = mock(EventService.class);
+        final DockerEventStream eventStream = mock(DockerEventStream.class);
+        published = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> published.add((InstanceStateEvent)invocation.getArguments()[0])).when(eventService)
+                                                                                             .publish(any());
+
+        detector = new DockerInstanceStopDetector(eventService, eventStream);
+        detector.detectContainersEvents();
+
+        final ArgumentCaptor<MessageProcessor> captor = ArgumentCaptor.forClass(MessageProcessor.class);
+        verify(eventStream).addListener(captor.capture());
+        listener = captor.getValue();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        detector.stop();
+    }
+
+    @Test
+    public void shouldPublishDieOfKnownContainer() throws Exception {
+        detector.startDetection("container1", "machine1");
+
+        listener.process(event("die", "container1"));
+        listener.process(event("die", "unknown"));
+
+        awaitPublished(1);
+        assertEquals(published.get(0).getMachineId(), "machine1");
+        assertEquals(published.get(0).getType(), InstanceStateEvent.Type.DIE);
+    }
+
+    @Test
+    public void shouldPublishOOMIfContainerDiesAfterOOM() throws Exception {
+        detector.startDetection("container1", "machine1");
+
+        listener.process(event("oom", "container1"));
+        listener.process(event("die", "container1"));
+
+        awaitPublished(1);
+        assertEquals(published.get(0).getType(), InstanceStateEvent.Type.OOM);
+    }
+
+    @Test
+    public void shouldNotDelayOtherMachinesWhenSubscriberIsSlowForOneMachine() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            final InstanceStateEvent event = (InstanceStateEvent)invocation.getArguments()[0];
+            if ("slow".equals(event.getMachineId())) {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            published.add(event);
+            return null;
+        }).when(eventService).publish(any());
+        detector.startDetection("container1", "slow");
+        detector.startDetection("container2", "fast");
+
+        listener.process(event("die", "container1"));
+        listener.process(event("die", "container2"));
+
+        awaitPublished(1);
+        assertEquals(published.get(0).getMachineId(), "fast");
+        release.countDown();
+        awaitPublished(2);
+    }
+
+    @Test
+    public void shouldPublishEventsOfMachineInOrder() throws Exception {
+        detector.startDetection("container1", "machine1");
+
+        final List<InstanceStateEvent.Type> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            if (i % 2 == 0) {
+                listener.process(event("oom", "container1"));
+                expected.add(InstanceStateEvent.Type.OOM);
+            } else {
+                expected.add(InstanceStateEvent.Type.DIE);
+            }
+            listener.process(event("die", "container1"));
+        }
+
+        awaitPublished(50);
+        assertEquals(published.stream().map(InstanceStateEvent::getType).collect(Collectors.toList()), expected);
+    }
+
+    private void awaitPublished(int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (published.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(published.size() >= count, "Expected " + count + " events but was " + published);
+    }
+
+    private static Event event(String status, String containerId) {
+        return new Event().withStatus(status).withId(containerId).withTime(System.currentTimeMillis() / 1000);
+    }
+}
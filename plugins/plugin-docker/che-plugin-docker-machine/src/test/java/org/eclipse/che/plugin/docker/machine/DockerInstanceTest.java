@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.docker.machine;
 
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
 import org.eclipse.che.api.core.model.machine.Machine;
 import org.eclipse.che.api.core.model.machine.MachineConfig;
 import org.eclipse.che.api.core.model.machine.MachineSource;
@@ -21,9 +23,7 @@ import org.eclipse.che.api.machine.server.model.impl.MachineConfigImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineSourceImpl;
 import org.eclipse.che.plugin.docker.client.DockerConnector;
-import org.eclipse.che.plugin.docker.client.Exec;
-import org.eclipse.che.plugin.docker.client.LogMessage;
-import org.eclipse.che.plugin.docker.client.MessageProcessor;
+import org.eclipse.che.plugin.docker.client.DockerException;
 import org.eclipse.che.plugin.docker.client.ProgressMonitor;
 import org.eclipse.che.plugin.docker.client.params.CommitParams;
 import org.eclipse.che.plugin.docker.client.params.PushParams;
@@ -34,14 +34,14 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.anyBoolean;
-import static org.mockito.Matchers.anyString;
-import static org.mockito.Matchers.anyVararg;
-import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -71,10 +71,6 @@ public class DockerInstanceTest {
     private static final String        TAG          = "latest";
     private static final MachineStatus STATUS       = MachineStatus.RUNNING;
 
-    @Mock
-    private LogMessage                 logMessageMock;
-    @Mock
-    private Exec                       execMock;
     @Mock
     private DockerConnector            dockerConnectorMock;
     @Mock
@@ -87,16 +83,6 @@ public class DockerInstanceTest {
     @BeforeMethod
     public void setUp() throws IOException {
         dockerInstance = getDockerInstance();
-        when(dockerConnectorMock.createExec(anyString(),
-                                            anyBoolean(),
-                                            anyVararg())).thenReturn(execMock);
-        doAnswer(invoke -> {
-            @SuppressWarnings("unchecked")
-            MessageProcessor<LogMessage> msgProc = (MessageProcessor<LogMessage>)invoke.getArguments()[1];
-            msgProc.process(logMessageMock);
-            return msgProc;
-        }).when(dockerConnectorMock)
-          .startExec(anyString(), any());
     }
 
     @Test(expectedExceptions = MachineException.class)
@@ -105,26 +91,17 @@ public class DockerInstanceTest {
     }
 
     @Test(expectedExceptions = MachineException.class)
-    public void shouldThrowMachineExceptionWhenExecProblemOccurs() throws Exception {
-        when(dockerConnectorMock.createExec(anyString(),
-                                            anyBoolean(),
-                                            anyVararg())).thenThrow(new IOException("File not found"));
-
-        dockerInstance.readFileContent(FILE_PATH, -1, 10);
-    }
-
-    @Test(expectedExceptions = MachineException.class,
-          expectedExceptionsMessageRegExp = "File with path " + FILE_PATH + " not found")
-    public void shouldThrowFileNotFoundDuringSedCommand() throws Exception {
-        when(logMessageMock.getContent()).thenReturn("sed: can't read " + FILE_PATH + ": No such file or directory");
+    public void shouldThrowMachineExceptionWhenArchiveRequestFails() throws Exception {
+        when(dockerConnectorMock.getResource(CONTAINER, FILE_PATH)).thenThrow(new IOException("Connection refused"));
 
         dockerInstance.readFileContent(FILE_PATH, 1, 10);
     }
 
     @Test(expectedExceptions = MachineException.class,
           expectedExceptionsMessageRegExp = "File with path " + FILE_PATH + " not found")
-    public void shouldThrowFileNotFoundDuringCatCommand() throws Exception {
-        when(logMessageMock.getContent()).thenReturn("cat: " + FILE_PATH + ": No such file or directory");
+    public void shouldThrowFileNotFoundWhenDockerDoesNotFindFile() throws Exception {
+        when(dockerConnectorMock.getResource(CONTAINER, FILE_PATH))
+                .thenThrow(new DockerException("Could not find the file " + FILE_PATH + " in container " + CONTAINER, 404));
 
         dockerInstance.readFileContent(FILE_PATH, 1, 10);
     }
@@ -132,7 +109,7 @@ public class DockerInstanceTest {
     @Test
     public void shouldFullyReadFileContent() throws Exception {
         final String content = "content";
-        when(logMessageMock.getContent()).thenReturn(content);
+        when(dockerConnectorMock.getResource(CONTAINER, FILE_PATH)).thenReturn(tar("file", content + '\n'));
 
         final String res = dockerInstance.readFileContent(FILE_PATH, 1, 10);
 
@@ -200,6 +177,19 @@ public class DockerInstanceTest {
         dockerInstance.saveToSnapshot(OWNER);
     }
 
+    private static InputStream tar(String name, String content) throws IOException {
+        final byte[] data = content.getBytes(UTF_8);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(out)) {
+            final TarArchiveEntry entry = new TarArchiveEntry(name);
+            entry.setSize(data.length);
+            tar.putArchiveEntry(entry);
+            tar.write(data);
+            tar.closeArchiveEntry();
+        }
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
     private DockerInstance getDockerInstance() {
         return getDockerInstance(getMachine(), REGISTRY, CONTAINER, IMAGE, false);
     }
@@ -220,6 +210,7 @@ public class DockerInstanceTest {
                                   outputConsumer,
                                   dockerInstanceStopDetectorMock,
                                   mock(DockerInstanceProcessesCleaner.class),
+                                  mock(ContainerCopier.class),
                                   snapshotUseRegistry);
     }
 
@@ -10,21 +10,24 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.gdb.server;
 
+import org.eclipse.che.api.debug.shared.model.Breakpoint;
+import org.eclipse.che.api.debug.shared.model.Location;
+import org.eclipse.che.api.debug.shared.model.impl.BreakpointImpl;
+import org.eclipse.che.api.debug.shared.model.impl.LocationImpl;
 import org.eclipse.che.api.debugger.server.exceptions.DebuggerException;
 import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.plugin.gdb.server.exception.GdbException;
 import org.eclipse.che.plugin.gdb.server.exception.GdbTerminatedException;
-import org.eclipse.che.plugin.gdb.server.parser.GdbBreak;
 import org.eclipse.che.plugin.gdb.server.parser.GdbClear;
 import org.eclipse.che.plugin.gdb.server.parser.GdbContinue;
-import org.eclipse.che.plugin.gdb.server.parser.GdbDelete;
 import org.eclipse.che.plugin.gdb.server.parser.GdbDirectory;
-import org.eclipse.che.plugin.gdb.server.parser.GdbFile;
 import org.eclipse.che.plugin.gdb.server.parser.GdbInfoArgs;
 import org.eclipse.che.plugin.gdb.server.parser.GdbInfoBreak;
 import org.eclipse.che.plugin.gdb.server.parser.GdbInfoLine;
 import org.eclipse.che.plugin.gdb.server.parser.GdbInfoLocals;
 import org.eclipse.che.plugin.gdb.server.parser.GdbInfoProgram;
+import org.eclipse.che.plugin.gdb.server.parser.GdbMiRecord;
+import org.eclipse.che.plugin.gdb.server.parser.GdbMiStackListVariables;
 import org.eclipse.che.plugin.gdb.server.parser.GdbOutput;
 import org.eclipse.che.plugin.gdb.server.parser.GdbPType;
 import org.eclipse.che.plugin.gdb.server.parser.GdbPrint;
@@ -35,27 +38,29 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.validation.constraints.NotNull;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 
 /**
  * GDB.
+ * <p>
+ * GDB is started with Machine Interface (MI) interpreter. Commands which have MI equivalent are sent as MI commands
+ * and their results are parsed from structured MI records, other commands are executed through
+ * '-interpreter-exec console' and output of console is parsed.
  *
  * @author Anatoliy Bazko
  */
-public class Gdb extends GdbProcess {
-    private static final Logger LOG              = LoggerFactory.getLogger(GdbProcess.class);
-    private static final String PROCESS_NAME     = "gdb";
-    private static final String OUTPUT_SEPARATOR = "(gdb) ";
+public class Gdb extends GdbMiProcess {
+    private static final Logger LOG            = LoggerFactory.getLogger(Gdb.class);
+    private static final String PROCESS_NAME   = "gdb";
+    private static final String MI_INTERPRETER = "--interpreter=mi2";
 
     private GdbVersion gdbVersion;
 
     Gdb() throws IOException {
-        super(OUTPUT_SEPARATOR, PROCESS_NAME);
+        super(PROCESS_NAME, MI_INTERPRETER);
 
         try {
-            gdbVersion = GdbVersion.parse(grabGdbOutput());
+            gdbVersion = GdbVersion.parse(toGdbOutput(sendCommand("-gdb-version")));
         } catch (InterruptedException | DebuggerException e) {
             LOG.error(e.getMessage(), e);
             gdbVersion = new GdbVersion("Unknown", "Unknown");
@@ -77,8 +82,8 @@ public class Gdb extends GdbProcess {
      * `run` command.
      */
     public GdbRun run() throws IOException, InterruptedException, DebuggerException {
-        GdbOutput gdbOutput = sendCommand("run");
-        return GdbRun.parse(gdbOutput);
+        GdbMiRecord stopped = execute("-exec-run");
+        return new GdbRun(getBreakpoint(stopped));
     }
 
     /**
@@ -86,14 +91,14 @@ public class Gdb extends GdbProcess {
      */
     public void setVar(String varName, String value) throws IOException, InterruptedException, DebuggerException {
         String command = "set var " + varName + "=" + value;
-        sendCommand(command);
+        sendConsoleCommand(command);
     }
 
     /**
      * `ptype` command.
      */
     public GdbPType ptype(String variable) throws IOException, InterruptedException, DebuggerException {
-        GdbOutput gdbOutput = sendCommand("ptype " + variable);
+        GdbOutput gdbOutput = toGdbOutput(sendConsoleCommand("ptype " + variable));
         return GdbPType.parse(gdbOutput);
     }
 
@@ -101,32 +106,32 @@ public class Gdb extends GdbProcess {
      * `print` command.
      */
     public GdbPrint print(String variable) throws IOException, InterruptedException, DebuggerException {
-        GdbOutput gdbOutput = sendCommand("print " + variable);
-        return GdbPrint.parse(gdbOutput);
+        GdbMiRecord record = sendMiCommand("-data-evaluate-expression " + quote(variable));
+        return new GdbPrint(record.getString("value"));
     }
 
     /**
      * `continue` command.
      */
     public GdbContinue cont() throws IOException, InterruptedException, DebuggerException {
-        GdbOutput gdbOutput = sendCommand("continue");
-        return GdbContinue.parse(gdbOutput);
+        GdbMiRecord stopped = execute("-exec-continue");
+        return new GdbContinue(getBreakpoint(stopped));
     }
 
     /**
      * `step` command.
      */
+    @Nullable
     public GdbInfoLine step() throws IOException, InterruptedException, DebuggerException {
-        sendCommand("step");
-        return infoLine();
+        return executeStep("-exec-step");
     }
 
     /**
      * `finish` command.
      */
+    @Nullable
     public GdbInfoLine finish() throws IOException, InterruptedException, DebuggerException {
-        sendCommand("finish");
-        return infoLine();
+        return executeStep("-exec-finish");
     }
 
     /**
@@ -134,14 +139,7 @@ public class Gdb extends GdbProcess {
      */
     @Nullable
     public GdbInfoLine next() throws IOException, InterruptedException, DebuggerException {
-        sendCommand("next");
-
-        GdbInfoProgram gdbInfoProgram = infoProgram();
-        if (gdbInfoProgram.getStoppedAddress() == null) {
-            return null;
-        }
-
-        return infoLine();
+        return executeStep("-exec-next");
     }
 
     /**
@@ -149,7 +147,9 @@ public class Gdb extends GdbProcess {
      */
     public void quit() throws IOException, GdbException, InterruptedException {
         try {
-            sendCommand("quit", false);
+            sendCommand("-gdb-exit");
+        } catch (GdbTerminatedException e) {
+            // GDB may exit before result of command is read
         } finally {
             stop();
         }
@@ -161,18 +161,14 @@ public class Gdb extends GdbProcess {
     public void breakpoint(@NotNull String file, int lineNumber) throws IOException,
                                                                         InterruptedException,
                                                                         DebuggerException {
-        String command = "break " + file + ":" + lineNumber;
-        GdbOutput gdbOutput = sendCommand(command);
-        GdbBreak.parse(gdbOutput);
+        sendMiCommand("-break-insert " + quote(file + ":" + lineNumber));
     }
 
     /**
      * `break` command
      */
     public void breakpoint(int lineNumber) throws IOException, InterruptedException, DebuggerException {
-        String command = "break " + lineNumber;
-        GdbOutput gdbOutput = sendCommand(command);
-        GdbBreak.parse(gdbOutput);
+        sendMiCommand("-break-insert " + lineNumber);
     }
 
     /**
@@ -181,16 +177,15 @@ public class Gdb extends GdbProcess {
     public GdbDirectory directory(@NotNull String directory) throws IOException,
                                                                     InterruptedException,
                                                                     DebuggerException {
-        GdbOutput gdbOutput = sendCommand("directory " + directory);
-        return GdbDirectory.parse(gdbOutput);
+        GdbMiRecord record = sendMiCommand("-environment-directory " + quote(directory));
+        return new GdbDirectory(record.getString("source-path"));
     }
 
     /**
      * `file` command.
      */
     public void file(@NotNull String file) throws IOException, InterruptedException, DebuggerException {
-        GdbOutput gdbOutput = sendCommand("file " + file);
-        GdbFile.parse(gdbOutput);
+        sendMiCommand("-file-exec-and-symbols " + quote(file));
     }
 
     /**
@@ -198,7 +193,7 @@ public class Gdb extends GdbProcess {
      */
     public void clear(@NotNull String file, int lineNumber) throws IOException, InterruptedException, DebuggerException {
         String command = "clear " + file + ":" + lineNumber;
-        GdbOutput gdbOutput = sendCommand(command);
+        GdbOutput gdbOutput = toGdbOutput(sendConsoleCommand(command));
 
         GdbClear.parse(gdbOutput);
     }
@@ -208,7 +203,7 @@ public class Gdb extends GdbProcess {
      */
     public void clear(int lineNumber) throws IOException, InterruptedException, DebuggerException {
         String command = "clear " + lineNumber;
-        GdbOutput gdbOutput = sendCommand(command);
+        GdbOutput gdbOutput = toGdbOutput(sendConsoleCommand(command));
 
         GdbClear.parse(gdbOutput);
     }
@@ -217,8 +212,7 @@ public class Gdb extends GdbProcess {
      * `delete` command.
      */
     public void delete() throws IOException, InterruptedException, DebuggerException {
-        GdbOutput gdbOutput = sendCommand("delete");
-        GdbDelete.parse(gdbOutput);
+        sendMiCommand("-break-delete");
     }
 
     /**
@@ -226,7 +220,7 @@ public class Gdb extends GdbProcess {
      */
     public void targetRemote(String host, int port) throws IOException, InterruptedException, DebuggerException {
         String command = "target remote " + (host != null ? host : "") + ":" + port;
-        GdbOutput gdbOutput = sendCommand(command);
+        GdbOutput gdbOutput = toGdbOutput(sendConsoleCommand(command));
         GdbTargetRemote.parse(gdbOutput);
     }
 
@@ -234,7 +228,7 @@ public class Gdb extends GdbProcess {
      * `info break` command.
      */
     public GdbInfoBreak infoBreak() throws IOException, InterruptedException, DebuggerException {
-        GdbOutput gdbOutput = sendCommand("info break");
+        GdbOutput gdbOutput = toGdbOutput(sendConsoleCommand("info break"));
         return GdbInfoBreak.parse(gdbOutput);
     }
 
@@ -242,7 +236,7 @@ public class Gdb extends GdbProcess {
      * `info args` command.
      */
     public GdbInfoArgs infoArgs() throws IOException, InterruptedException, DebuggerException {
-        GdbOutput gdbOutput = sendCommand("info args");
+        GdbOutput gdbOutput = toGdbOutput(sendConsoleCommand("info args"));
         return GdbInfoArgs.parse(gdbOutput);
     }
 
@@ -250,7 +244,7 @@ public class Gdb extends GdbProcess {
      * `info locals` command.
      */
     public GdbInfoLocals infoLocals() throws IOException, InterruptedException, DebuggerException {
-        GdbOutput gdbOutput = sendCommand("info locals");
+        GdbOutput gdbOutput = toGdbOutput(sendConsoleCommand("info locals"));
         return GdbInfoLocals.parse(gdbOutput);
     }
 
@@ -258,7 +252,7 @@ public class Gdb extends GdbProcess {
      * `info line` command.
      */
     public GdbInfoLine infoLine() throws IOException, InterruptedException, DebuggerException {
-        GdbOutput gdbOutput = sendCommand("info line");
+        GdbOutput gdbOutput = toGdbOutput(sendConsoleCommand("info line"));
         return GdbInfoLine.parse(gdbOutput);
     }
 
@@ -266,36 +260,116 @@ public class Gdb extends GdbProcess {
      * `info program` command.
      */
     public GdbInfoProgram infoProgram() throws IOException, InterruptedException, DebuggerException {
-        GdbOutput gdbOutput = sendCommand("info program");
+        GdbOutput gdbOutput = toGdbOutput(sendConsoleCommand("info program"));
         return GdbInfoProgram.parse(gdbOutput);
     }
 
-    private GdbOutput sendCommand(String command) throws IOException,
-                                                         GdbTerminatedException,
-                                                         InterruptedException {
-        return sendCommand(command, true);
+    /**
+     * `-stack-list-variables` command. Returns values and types of all locals and arguments of the current frame.
+     * Types of all variables and values of simple ones are reported with '--simple-values', values of the rest
+     * variables are taken with '--all-values'.
+     */
+    public GdbMiStackListVariables stackListVariables() throws IOException, InterruptedException, DebuggerException {
+        GdbMiStackListVariables simple =
+                GdbMiStackListVariables.parse(sendMiCommand("-stack-list-variables --simple-values"));
+
+        if (simple.getValues().size() == simple.getTypes().size()) {
+            return simple;
+        }
+
+        GdbMiStackListVariables all = GdbMiStackListVariables.parse(sendMiCommand("-stack-list-variables --all-values"));
+        return new GdbMiStackListVariables(all.getValues(), simple.getTypes());
     }
 
-    private synchronized GdbOutput sendCommand(String command, boolean grabOutput) throws IOException,
-                                                                                          GdbTerminatedException,
-                                                                                          InterruptedException {
-        LOG.debug(command);
+    /**
+     * Sends MI command and returns its result record.
+     *
+     * @throws GdbException
+     *         if GDB reports error
+     */
+    private GdbMiRecord sendMiCommand(String command) throws IOException, InterruptedException, GdbException {
+        GdbMiResult result = sendCommand(command);
+        if (result.isError()) {
+            throw new GdbException(result.getErrorMessage());
+        }
+        return result.getRecord();
+    }
 
-        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
-        writer.write(command);
-        writer.newLine();
-        writer.flush();
+    /**
+     * Sends execution command, e.g. '-exec-continue', and waits until program stops.
+     *
+     * @return '*stopped' record or {@code null} if command failed, e.g. program is not being run
+     */
+    @Nullable
+    private GdbMiRecord execute(String command) throws IOException, InterruptedException, GdbTerminatedException {
+        clearExecRecords();
 
-        return grabOutput ? grabGdbOutput() : null;
+        GdbMiResult result = sendCommand(command);
+        if (result.isError()) {
+            LOG.debug(result.getErrorMessage());
+            return null;
+        }
+
+        for (; ; ) {
+            GdbMiRecord record = takeExecRecord();
+            if ("stopped".equals(record.getRecordClass())) {
+                return record;
+            }
+        }
+    }
+
+    /**
+     * Executes step command and returns location where program is stopped or {@code null} if program is not being
+     * run any more.
+     */
+    @Nullable
+    private GdbInfoLine executeStep(String command) throws IOException, InterruptedException, DebuggerException {
+        GdbMiRecord stopped = execute(command);
+        if (stopped != null) {
+            String reason = stopped.getString("reason");
+            if (reason != null && reason.startsWith("exited")) {
+                return null;
+            }
+
+            Location location = getLocation(stopped);
+            if (location != null) {
+                return new GdbInfoLine(location);
+            }
+        }
+
+        // no debug information for the current frame or command failed
+        GdbInfoProgram gdbInfoProgram = infoProgram();
+        if (gdbInfoProgram.getStoppedAddress() == null) {
+            return null;
+        }
+        return infoLine();
+    }
+
+    @Nullable
+    private Breakpoint getBreakpoint(@Nullable GdbMiRecord stopped) {
+        if (stopped == null || !"breakpoint-hit".equals(stopped.getString("reason"))) {
+            return null;
+        }
+        Location location = getLocation(stopped);
+        return location != null ? new BreakpointImpl(location) : null;
+    }
+
+    @Nullable
+    private Location getLocation(GdbMiRecord stopped) {
+        String file = stopped.getString("frame", "file");
+        String line = stopped.getString("frame", "line");
+        if (file == null || line == null) {
+            return null;
+        }
+        return new LocationImpl(file, Integer.parseInt(line));
     }
 
-    private GdbOutput grabGdbOutput() throws InterruptedException, GdbTerminatedException {
-        GdbOutput gdbOutput = outputs.take();
-        if (gdbOutput.isTerminated()) {
-            String errorMsg = "GDB has been terminated with output: " + gdbOutput.getOutput();
-            LOG.error(errorMsg);
-            throw new GdbTerminatedException(errorMsg);
+    private GdbOutput toGdbOutput(GdbMiResult result) {
+        String output = result.getOutput();
+        if (result.isError()) {
+            output += result.getErrorMessage() + "\n";
         }
-        return gdbOutput;
+        LOG.debug(output);
+        return GdbOutput.of(output);
     }
 }
@@ -39,6 +39,7 @@ import org.eclipse.che.plugin.gdb.server.parser.GdbDirectory;
 import org.eclipse.che.plugin.gdb.server.parser.GdbInfoBreak;
 import org.eclipse.che.plugin.gdb.server.parser.GdbInfoLine;
 import org.eclipse.che.plugin.gdb.server.parser.GdbInfoProgram;
+import org.eclipse.che.plugin.gdb.server.parser.GdbMiStackListVariables;
 import org.eclipse.che.plugin.gdb.server.exception.GdbParseException;
 import org.eclipse.che.plugin.gdb.server.parser.GdbPrint;
 import org.eclipse.che.plugin.gdb.server.parser.GdbRun;
@@ -427,20 +428,14 @@ public class GdbDebugger implements Debugger {
     @Override
     public StackFrameDump dumpStackFrame() throws DebuggerException {
         try {
-            Map<String, String> locals = gdb.infoLocals().getVariables();
-            locals.putAll(gdb.infoArgs().getVariables());
+            GdbMiStackListVariables stackListVariables = gdb.stackListVariables();
+            Map<String, String> types = stackListVariables.getTypes();
 
-            List<Variable> variables = new ArrayList<>(locals.size());
-            for (Map.Entry<String, String> e : locals.entrySet()) {
+            List<Variable> variables = new ArrayList<>(stackListVariables.getValues().size());
+            for (Map.Entry<String, String> e : stackListVariables.getValues().entrySet()) {
                 String varName = e.getKey();
                 String varValue = e.getValue();
-                String varType;
-                try {
-                    varType = gdb.ptype(varName).getType();
-                } catch (GdbParseException pe) {
-                    LOG.warn(pe.getMessage(), pe);
-                    varType = "";
-                }
+                String varType = types.containsKey(varName) ? types.get(varName) : "";
 
                 VariablePath variablePath = new VariablePathImpl(singletonList(varName));
                 VariableImpl variable = new VariableImpl(varType, varName, varValue, true, variablePath, Collections.emptyList(), true);
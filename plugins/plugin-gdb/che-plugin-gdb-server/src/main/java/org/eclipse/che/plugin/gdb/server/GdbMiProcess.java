@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.gdb.server;
+
+import org.eclipse.che.plugin.gdb.server.exception.GdbParseException;
+import org.eclipse.che.plugin.gdb.server.exception.GdbTerminatedException;
+import org.eclipse.che.plugin.gdb.server.parser.GdbMiRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process which talks to GDB over the Machine Interface (GDB/MI).
+ * <p>
+ * Output of process is read line by line by blocking reader thread. Every command is sent with unique token,
+ * result record with the same token completes the command. Stream records which are received while command is
+ * being executed are collected as output of this command. Exec async records, e.g. '*stopped', are queued and may
+ * be taken with {@link #takeExecRecord()}.
+ */
+public abstract class GdbMiProcess {
+    private static final Logger LOG = LoggerFactory.getLogger(GdbMiProcess.class);
+
+    protected final Process                    process;
+    protected final Thread                     outputReader;
+    private final   Writer                     writer;
+    private final   AtomicLong                 tokens;
+    private final   BlockingQueue<GdbMiRecord> execRecords;
+
+    private volatile PendingCommand pendingCommand;
+    private volatile boolean        terminated;
+
+    public GdbMiProcess(String... commands) throws IOException {
+        this.tokens = new AtomicLong();
+        this.execRecords = new LinkedBlockingQueue<>();
+
+        ProcessBuilder processBuilder = new ProcessBuilder(commands);
+        processBuilder.redirectErrorStream(true);
+        process = processBuilder.start();
+        writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+
+        outputReader = new OutputReader(commands[0] + " output reader");
+        outputReader.setDaemon(true);
+        outputReader.start();
+    }
+
+    /**
+     * Stops process.
+     */
+    protected void stop() {
+        outputReader.interrupt();
+        process.destroyForcibly();
+    }
+
+    /**
+     * Sends MI command and waits for its result record.
+     *
+     * @param command
+     *         MI command without token, e.g. '-exec-continue'
+     * @return result of command
+     */
+    protected synchronized GdbMiResult sendCommand(String command) throws IOException,
+                                                                          GdbTerminatedException,
+                                                                          InterruptedException {
+        long token = tokens.incrementAndGet();
+        PendingCommand pending = new PendingCommand(token);
+        pendingCommand = pending;
+        if (terminated) {
+            pendingCommand = null;
+            throw new GdbTerminatedException("GDB has been terminated");
+        }
+
+        LOG.debug("{}{}", token, command);
+        try {
+            writer.write(Long.toString(token));
+            writer.write(command);
+            writer.write('\n');
+            writer.flush();
+
+            return pending.result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GdbTerminatedException) {
+                throw (GdbTerminatedException)e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            pendingCommand = null;
+        }
+    }
+
+    /**
+     * Sends CLI command through MI '-interpreter-exec console'. Output of console is returned as text of result.
+     */
+    protected GdbMiResult sendConsoleCommand(String command) throws IOException,
+                                                                    GdbTerminatedException,
+                                                                    InterruptedException {
+        return sendCommand("-interpreter-exec console " + quote(command));
+    }
+
+    /**
+     * Waits for next exec async record, e.g. '*stopped'.
+     */
+    protected GdbMiRecord takeExecRecord() throws InterruptedException, GdbTerminatedException {
+        GdbMiRecord record = execRecords.take();
+        if (record == TERMINATED) {
+            execRecords.add(TERMINATED);
+            throw new GdbTerminatedException("GDB has been terminated");
+        }
+        return record;
+    }
+
+    /**
+     * Drops exec async records which are not consumed yet.
+     */
+    protected void clearExecRecords() {
+        execRecords.removeIf(record -> record != TERMINATED);
+    }
+
+    /**
+     * Quotes parameter of MI command as C string.
+     */
+    protected static String quote(String parameter) {
+        return '"' + parameter.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    /** Marker of terminated process in the queue of exec records. */
+    private static final GdbMiRecord TERMINATED;
+
+    static {
+        try {
+            TERMINATED = GdbMiRecord.parse("*terminated");
+        } catch (GdbParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Result of MI command: result record and text of all stream records received while command was executed.
+     */
+    public static class GdbMiResult {
+        private final GdbMiRecord record;
+        private final String      output;
+
+        GdbMiResult(GdbMiRecord record, String output) {
+            this.record = record;
+            this.output = output;
+        }
+
+        public GdbMiRecord getRecord() {
+            return record;
+        }
+
+        /** Text of console, target and log streams. */
+        public String getOutput() {
+            return output;
+        }
+
+        public boolean isError() {
+            return "error".equals(record.getRecordClass());
+        }
+
+        /** Error message if command failed. */
+        public String getErrorMessage() {
+            String msg = record.getString("msg");
+            return msg != null ? msg : "";
+        }
+    }
+
+    private static class PendingCommand {
+        private final long                           token;
+        private final StringBuilder                  output;
+        private final CompletableFuture<GdbMiResult> result;
+
+        PendingCommand(long token) {
+            this.token = token;
+            this.output = new StringBuilder();
+            this.result = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * Reads process output line by line. Blocks until next line is available.
+     */
+    private class OutputReader extends Thread {
+
+        public OutputReader(String name) {
+            super(name);
+        }
+
+        @Override
+        public void run() {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                                                                                  StandardCharsets.UTF_8))) {
+                String line;
+                while (!isInterrupted() && (line = reader.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    LOG.debug(line);
+                    try {
+                        dispatch(GdbMiRecord.parse(line));
+                    } catch (GdbParseException e) {
+                        // not MI output, e.g. output of debugged program
+                        appendOutput(line + '\n');
+                    }
+                }
+            } catch (IOException e) {
+                LOG.debug(e.getMessage(), e);
+            } finally {
+                terminated = true;
+                execRecords.add(TERMINATED);
+                PendingCommand pending = pendingCommand;
+                if (pending != null) {
+                    pending.result.completeExceptionally(
+                            new GdbTerminatedException("GDB has been terminated with output: " + pending.output));
+                }
+            }
+
+            LOG.debug(getName() + " has been stopped");
+        }
+
+        private void dispatch(GdbMiRecord record) {
+            switch (record.getType()) {
+                case CONSOLE_STREAM:
+                case TARGET_STREAM:
+                case LOG_STREAM:
+                    appendOutput(record.getText());
+                    break;
+                case RESULT:
+                    PendingCommand pending = pendingCommand;
+                    if (pending != null && record.getToken() != null && pending.token == record.getToken()) {
+                        String output;
+                        synchronized (pending.output) {
+                            output = pending.output.toString();
+                        }
+                        pending.result.complete(new GdbMiResult(record, output));
+                    } else {
+                        LOG.debug("Result record without pending command: {}", record.getResults());
+                    }
+                    break;
+                case EXEC_ASYNC:
+                    execRecords.add(record);
+                    break;
+                default:
+                    // status and notify records, prompt
+            }
+        }
+
+        private void appendOutput(String text) {
+            PendingCommand pending = pendingCommand;
+            if (pending != null) {
+                synchronized (pending.output) {
+                    pending.output.append(text);
+                }
+            }
+        }
+    }
+}
@@ -10,26 +10,24 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.gdb.server;
 
-import org.eclipse.che.commons.annotation.Nullable;
 import org.eclipse.che.plugin.gdb.server.parser.GdbOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 
-import static java.lang.Math.min;
-
 /**
  * @author Anatoliy Bazko
  */
 public abstract class GdbProcess {
     private static final Logger LOG          = LoggerFactory.getLogger(GdbProcess.class);
     private static final int    MAX_CAPACITY = 1000;
-    private static final int    MAX_OUTPUT   = 4096;
+    private static final int    BUFFER_SIZE  = 8192;
 
     protected final Process                  process;
     protected final String                   outputSeparator;
@@ -41,6 +39,7 @@ public abstract class GdbProcess {
         this.outputs = new ArrayBlockingQueue<>(MAX_CAPACITY);
 
         ProcessBuilder processBuilder = new ProcessBuilder(commands);
+        processBuilder.redirectErrorStream(true);
         process = processBuilder.start();
 
         outputReader = new OutputReader(commands[0] + " output reader");
@@ -58,7 +57,7 @@ public abstract class GdbProcess {
     }
 
     /**
-     * Continuously reads process output and store in the {@code #outputs}.
+     * Continuously reads process output and store in the {@code #outputs}. Reading blocks until output is available.
      */
     private class OutputReader extends Thread {
 
@@ -70,47 +69,21 @@ public abstract class GdbProcess {
         public void run() {
             StringBuilder buf = new StringBuilder();
 
-            while (!isInterrupted()) {
-                if (!process.isAlive()) {
-                    outputs.add(GdbOutput.of(buf.toString(), true));
-                    break;
-                }
-
-                try {
-                    InputStream in = getInput();
-                    if (in != null) {
-                        String data = read(in);
-                        if (!data.isEmpty()) {
-                            buf.append(data);
-                            if (buf.length() > MAX_OUTPUT) {
-                                buf.delete(0, buf.length() - MAX_OUTPUT);
-                            }
-                        }
-                    }
-                } catch (IOException e) {
-                    LOG.error(e.getMessage(), e);
-                }
-
-                if (buf.length() > 0) {
+            try (Reader in = new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)) {
+                char[] chars = new char[BUFFER_SIZE];
+                int read;
+                while (!isInterrupted() && (read = in.read(chars)) != -1) {
+                    buf.append(chars, 0, read);
                     extractOutput(buf);
                 }
-
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    break;
-                }
+            } catch (IOException e) {
+                LOG.debug(e.getMessage(), e);
             }
 
+            outputs.add(GdbOutput.of(buf.toString(), true));
             LOG.debug(getName() + " has been stopped");
         }
 
-        private InputStream getInput() throws IOException {
-            return hasError() ? process.getErrorStream()
-                              : (hasInput() ? (hasError() ? process.getErrorStream() : process.getInputStream())
-                                            : null);
-        }
-
         private void extractOutput(StringBuilder buf) {
             int indexOf;
             while ((indexOf = buf.indexOf(outputSeparator)) >= 0) {
@@ -122,23 +95,6 @@ public abstract class GdbProcess {
                 buf.delete(0, indexOf + outputSeparator.length());
             }
         }
-
-        private boolean hasError() throws IOException {
-            return process.getErrorStream().available() != 0;
-        }
-
-        private boolean hasInput() throws IOException {
-            return process.getInputStream().available() != 0;
-        }
-
-        @Nullable
-        private String read(InputStream in) throws IOException {
-            int available = min(in.available(), MAX_OUTPUT);
-            byte[] buf = new byte[available];
-            int read = in.read(buf, 0, available);
-
-            return new String(buf, 0, read, StandardCharsets.UTF_8);
-        }
     }
 
 }
@@ -0,0 +1,318 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.gdb.server.parser;
+
+import org.eclipse.che.commons.annotation.Nullable;
+import org.eclipse.che.plugin.gdb.server.exception.GdbParseException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single line of GDB/MI output, see
+ * <a href="https://sourceware.org/gdb/onlinedocs/gdb/GDB_002fMI-Output-Syntax.html">GDB/MI Output Syntax</a>.
+ * <p>
+ * Values of results are represented as {@link String} for constants, {@link Map} for tuples and {@link List} for
+ * lists. Names of results in lists, e.g. {@code stack=[frame={...},frame={...}]}, are omitted.
+ */
+public class GdbMiRecord {
+
+    public enum Type {
+        /** ^done, ^running, ^connected, ^error, ^exit */
+        RESULT,
+        /** *stopped, *running */
+        EXEC_ASYNC,
+        /** +download */
+        STATUS_ASYNC,
+        /** =thread-created, =breakpoint-modified etc. */
+        NOTIFY_ASYNC,
+        /** ~"text" */
+        CONSOLE_STREAM,
+        /** @"text" */
+        TARGET_STREAM,
+        /** &"text" */
+        LOG_STREAM,
+        /** (gdb) */
+        PROMPT
+    }
+
+    private static final String PROMPT = "(gdb)";
+
+    private final Type                type;
+    private final Long                token;
+    private final String              recordClass;
+    private final Map<String, Object> results;
+    private final String              text;
+
+    private GdbMiRecord(Type type, Long token, String recordClass, Map<String, Object> results, String text) {
+        this.type = type;
+        this.token = token;
+        this.recordClass = recordClass;
+        this.results = results;
+        this.text = text;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Token of command this record is result of. Returns {@code null} if record is not result of command or command
+     * was sent without token.
+     */
+    @Nullable
+    public Long getToken() {
+        return token;
+    }
+
+    /**
+     * Class of result or async record, e.g. 'done', 'error', 'stopped'. Returns {@code null} for stream records.
+     */
+    @Nullable
+    public String getRecordClass() {
+        return recordClass;
+    }
+
+    public Map<String, Object> getResults() {
+        return results;
+    }
+
+    /**
+     * Text of stream record. Returns {@code null} if this is not stream record.
+     */
+    @Nullable
+    public String getText() {
+        return text;
+    }
+
+    public boolean isStream() {
+        return type == Type.CONSOLE_STREAM || type == Type.TARGET_STREAM || type == Type.LOG_STREAM;
+    }
+
+    /**
+     * Returns constant value of result by path of names, e.g. getString("frame", "line"). Returns {@code null} if
+     * there is no such result or it is not a constant.
+     */
+    @Nullable
+    public String getString(String... path) {
+        Object value = get(path);
+        return value instanceof String ? (String)value : null;
+    }
+
+    /**
+     * Returns value of result by path of names, e.g. get("frame", "line"). Returns {@code null} if there is no such
+     * result.
+     */
+    @Nullable
+    public Object get(String... path) {
+        Object value = results;
+        for (String name : path) {
+            if (!(value instanceof Map)) {
+                return null;
+            }
+            value = ((Map)value).get(name);
+        }
+        return value;
+    }
+
+    /**
+     * Factory method.
+     */
+    public static GdbMiRecord parse(String line) throws GdbParseException {
+        if (line.trim().equals(PROMPT)) {
+            return new GdbMiRecord(Type.PROMPT, null, null, Collections.emptyMap(), null);
+        }
+        return new Parser(line).parseRecord();
+    }
+
+    private static class Parser {
+        private final String line;
+        private       int    pos;
+
+        Parser(String line) {
+            this.line = line;
+        }
+
+        GdbMiRecord parseRecord() throws GdbParseException {
+            int start = pos;
+            while (pos < line.length() && Character.isDigit(line.charAt(pos))) {
+                pos++;
+            }
+            Long token = pos > start ? Long.valueOf(line.substring(start, pos)) : null;
+
+            Type type;
+            switch (next()) {
+                case '^':
+                    type = Type.RESULT;
+                    break;
+                case '*':
+                    type = Type.EXEC_ASYNC;
+                    break;
+                case '+':
+                    type = Type.STATUS_ASYNC;
+                    break;
+                case '=':
+                    type = Type.NOTIFY_ASYNC;
+                    break;
+                case '~':
+                    return new GdbMiRecord(Type.CONSOLE_STREAM, token, null, Collections.emptyMap(), parseCString());
+                case '@':
+                    return new GdbMiRecord(Type.TARGET_STREAM, token, null, Collections.emptyMap(), parseCString());
+                case '&':
+                    return new GdbMiRecord(Type.LOG_STREAM, token, null, Collections.emptyMap(), parseCString());
+                default:
+                    throw new GdbParseException(GdbMiRecord.class, line);
+            }
+
+            String recordClass = parseName();
+            Map<String, Object> results = new LinkedHashMap<>();
+            while (pos < line.length() && line.charAt(pos) == ',') {
+                pos++;
+                String name = parseName();
+                expect('=');
+                results.put(name, parseValue());
+            }
+            return new GdbMiRecord(type, token, recordClass, results, null);
+        }
+
+        private Object parseValue() throws GdbParseException {
+            char c = peek();
+            if (c == '"') {
+                return parseCString();
+            } else if (c == '{') {
+                pos++;
+                Map<String, Object> tuple = new LinkedHashMap<>();
+                if (peek() != '}') {
+                    do {
+                        String name = parseName();
+                        expect('=');
+                        tuple.put(name, parseValue());
+                    } while (skip(','));
+                }
+                expect('}');
+                return tuple;
+            } else if (c == '[') {
+                pos++;
+                List<Object> list = new ArrayList<>();
+                if (peek() != ']') {
+                    do {
+                        char first = peek();
+                        if (first != '"' && first != '{' && first != '[') {
+                            // list of results, name of result is omitted
+                            parseName();
+                            expect('=');
+                        }
+                        list.add(parseValue());
+                    } while (skip(','));
+                }
+                expect(']');
+                return list;
+            }
+            throw new GdbParseException(GdbMiRecord.class, line);
+        }
+
+        private String parseName() throws GdbParseException {
+            int start = pos;
+            while (pos < line.length()) {
+                char c = line.charAt(pos);
+                if (c == '=' || c == ',' || c == '{' || c == '}' || c == '[' || c == ']' || c == '"') {
+                    break;
+                }
+                pos++;
+            }
+            if (pos == start) {
+                throw new GdbParseException(GdbMiRecord.class, line);
+            }
+            return line.substring(start, pos);
+        }
+
+        /** Reads C string. Non-ASCII characters are escaped by GDB as octal sequences of UTF-8 bytes. */
+        private String parseCString() throws GdbParseException {
+            expect('"');
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            for (; ; ) {
+                char c = next();
+                if (c == '"') {
+                    break;
+                }
+                if (c != '\\') {
+                    byte[] encoded = String.valueOf(c).getBytes(StandardCharsets.UTF_8);
+                    bytes.write(encoded, 0, encoded.length);
+                    continue;
+                }
+                c = next();
+                switch (c) {
+                    case 'n':
+                        bytes.write('\n');
+                        break;
+                    case 't':
+                        bytes.write('\t');
+                        break;
+                    case 'r':
+                        bytes.write('\r');
+                        break;
+                    case 'f':
+                        bytes.write('\f');
+                        break;
+                    case 'e':
+                        bytes.write(27);
+                        break;
+                    case 'a':
+                        bytes.write(7);
+                        break;
+                    default:
+                        if (c >= '0' && c <= '7') {
+                            int value = c - '0';
+                            for (int i = 0; i < 2 && pos < line.length() && line.charAt(pos) >= '0' && line.charAt(pos) <= '7'; i++) {
+                                value = value * 8 + (line.charAt(pos++) - '0');
+                            }
+                            bytes.write(value);
+                        } else {
+                            bytes.write(c);
+                        }
+                }
+            }
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        private boolean skip(char c) {
+            if (pos < line.length() && line.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) throws GdbParseException {
+            if (next() != c) {
+                throw new GdbParseException(GdbMiRecord.class, line);
+            }
+        }
+
+        private char peek() throws GdbParseException {
+            if (pos >= line.length()) {
+                throw new GdbParseException(GdbMiRecord.class, line);
+            }
+            return line.charAt(pos);
+        }
+
+        private char next() throws GdbParseException {
+            char c = peek();
+            pos++;
+            return c;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.gdb.server.parser;
+
+import org.eclipse.che.plugin.gdb.server.exception.GdbParseException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * '-stack-list-variables' command parser. Collects locals and arguments of the current frame.
+ * <p>
+ * With '--all-values' GDB reports value of every variable, with '--simple-values' it reports type of every variable
+ * and value of simple ones only.
+ */
+public class GdbMiStackListVariables {
+
+    private final Map<String, String> values;
+    private final Map<String, String> types;
+
+    public GdbMiStackListVariables(Map<String, String> values, Map<String, String> types) {
+        this.values = values;
+        this.types = types;
+    }
+
+    /**
+     * Variable name to value mapping, in order reported by GDB.
+     */
+    public Map<String, String> getValues() {
+        return values;
+    }
+
+    /**
+     * Variable name to type mapping, in order reported by GDB.
+     */
+    public Map<String, String> getTypes() {
+        return types;
+    }
+
+    /**
+     * Factory method.
+     */
+    public static GdbMiStackListVariables parse(GdbMiRecord record) throws GdbParseException {
+        Object variables = record.get("variables");
+        if (!"done".equals(record.getRecordClass()) || !(variables instanceof List)) {
+            throw new GdbParseException(GdbMiStackListVariables.class, String.valueOf(record.getResults()));
+        }
+
+        Map<String, String> values = new LinkedHashMap<>();
+        Map<String, String> types = new LinkedHashMap<>();
+        for (Object variable : (List)variables) {
+            if (!(variable instanceof Map)) {
+                throw new GdbParseException(GdbMiStackListVariables.class, String.valueOf(record.getResults()));
+            }
+            Map tuple = (Map)variable;
+            Object name = tuple.get("name");
+            if (!(name instanceof String)) {
+                continue;
+            }
+            Object value = tuple.get("value");
+            if (value instanceof String) {
+                values.put((String)name, (String)value);
+            }
+            Object type = tuple.get("type");
+            if (type instanceof String) {
+                types.put((String)name, (String)type);
+            }
+        }
+
+        return new GdbMiStackListVariables(values, types);
+    }
+}
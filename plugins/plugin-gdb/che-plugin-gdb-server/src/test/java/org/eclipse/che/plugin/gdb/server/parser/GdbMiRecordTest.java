@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.gdb.server.parser;
+
+import org.eclipse.che.plugin.gdb.server.exception.GdbParseException;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class GdbMiRecordTest {
+
+    @Test
+    public void testParseResult() throws Exception {
+        GdbMiRecord record = GdbMiRecord.parse("12^done,bkpt={number=\"1\",type=\"breakpoint\",file=\"h.cpp\",line=\"7\"}");
+
+        assertEquals(record.getType(), GdbMiRecord.Type.RESULT);
+        assertEquals(record.getToken(), Long.valueOf(12));
+        assertEquals(record.getRecordClass(), "done");
+        assertEquals(record.getString("bkpt", "file"), "h.cpp");
+        assertEquals(record.getString("bkpt", "line"), "7");
+    }
+
+    @Test
+    public void testParseStopped() throws Exception {
+        GdbMiRecord record = GdbMiRecord.parse("*stopped,reason=\"breakpoint-hit\",disp=\"keep\",bkptno=\"1\"," +
+                                               "frame={addr=\"0x0000000000400a13\",func=\"main\",args=[]," +
+                                               "file=\"h.cpp\",fullname=\"/projects/h.cpp\",line=\"7\"}," +
+                                               "thread-id=\"1\",stopped-threads=\"all\",core=\"0\"");
+
+        assertEquals(record.getType(), GdbMiRecord.Type.EXEC_ASYNC);
+        assertNull(record.getToken());
+        assertEquals(record.getRecordClass(), "stopped");
+        assertEquals(record.getString("reason"), "breakpoint-hit");
+        assertEquals(record.getString("frame", "line"), "7");
+        assertTrue(((List)record.get("frame", "args")).isEmpty());
+    }
+
+    @Test
+    public void testParseListOfResults() throws Exception {
+        GdbMiRecord record = GdbMiRecord.parse("^done,stack=[frame={level=\"0\",func=\"f\"},frame={level=\"1\",func=\"main\"}]");
+
+        List stack = (List)record.get("stack");
+        assertEquals(stack.size(), 2);
+        assertEquals(((Map)stack.get(1)).get("func"), "main");
+    }
+
+    @Test
+    public void testParseStream() throws Exception {
+        GdbMiRecord record = GdbMiRecord.parse("~\"$1 = {i = 0, s = \\\"a\\\\tb\\\"}\\n\"");
+
+        assertEquals(record.getType(), GdbMiRecord.Type.CONSOLE_STREAM);
+        assertEquals(record.getText(), "$1 = {i = 0, s = \"a\\tb\"}\n");
+    }
+
+    @Test
+    public void testParseOctalEscapedUtf8() throws Exception {
+        GdbMiRecord record = GdbMiRecord.parse("~\"\\320\\277\\321\\200\\320\\270\"");
+
+        assertEquals(record.getText(), "\u043f\u0440\u0438");
+    }
+
+    @Test
+    public void testParsePrompt() throws Exception {
+        GdbMiRecord record = GdbMiRecord.parse("(gdb) ");
+
+        assertEquals(record.getType(), GdbMiRecord.Type.PROMPT);
+    }
+
+    @Test(expectedExceptions = GdbParseException.class)
+    public void testParseFailWhenNotMiOutput() throws Exception {
+        GdbMiRecord.parse("Hello, World!");
+    }
+}
@@ -0,0 +1,40 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.gdb.server.parser;
+
+import org.eclipse.che.plugin.gdb.server.exception.GdbParseException;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+public class GdbMiStackListVariablesTest {
+
+    @Test
+    public void testParse() throws Exception {
+        GdbMiRecord record = GdbMiRecord.parse("5^done,variables=[{name=\"argc\",arg=\"1\",type=\"int\",value=\"1\"}," +
+                                               "{name=\"i\",type=\"int\",value=\"0\"}," +
+                                               "{name=\"p\",type=\"Point\"}]");
+
+        GdbMiStackListVariables variables = GdbMiStackListVariables.parse(record);
+
+        assertEquals(variables.getValues().get("argc"), "1");
+        assertEquals(variables.getValues().get("i"), "0");
+        assertFalse(variables.getValues().containsKey("p"));
+        assertEquals(variables.getTypes().get("i"), "int");
+        assertEquals(variables.getTypes().get("p"), "Point");
+    }
+
+    @Test(expectedExceptions = GdbParseException.class)
+    public void testParseFailWhenError() throws Exception {
+        GdbMiStackListVariables.parse(GdbMiRecord.parse("5^error,msg=\"No frame selected.\""));
+    }
+}
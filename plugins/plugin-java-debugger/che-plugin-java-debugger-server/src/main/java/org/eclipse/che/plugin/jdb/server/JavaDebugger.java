@@ -58,6 +58,7 @@ import org.eclipse.che.api.debug.shared.model.impl.event.SuspendEventImpl;
 import org.eclipse.che.api.debugger.server.Debugger;
 import org.eclipse.che.api.debugger.server.exceptions.DebuggerException;
 import org.eclipse.che.plugin.jdb.server.exceptions.DebuggerAbsentInformationException;
+import org.eclipse.che.plugin.jdb.server.expression.CompiledCondition;
 import org.eclipse.che.plugin.jdb.server.expression.Evaluator;
 import org.eclipse.che.plugin.jdb.server.expression.ExpressionException;
 import org.eclipse.che.plugin.jdb.server.expression.ExpressionParser;
@@ -73,6 +74,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -90,7 +92,9 @@ import static org.eclipse.che.dto.server.DtoFactory.newDto;
  * @author Valeriy Svydenko
  */
 public class JavaDebugger implements EventsHandler, Debugger {
-    private static final Logger LOG = LoggerFactory.getLogger(JavaDebugger.class);
+    private static final Logger LOG                = LoggerFactory.getLogger(JavaDebugger.class);
+    /** Name of property of breakpoint request which holds compiled condition of breakpoint. */
+    private static final String CONDITION_PROPERTY = "org.eclipse.che.ide.java.debug.condition.expression";
 
     private final String           host;
     private final int              port;
@@ -113,6 +117,16 @@ public class JavaDebugger implements EventsHandler, Debugger {
     private ThreadReference thread;
     /** Current stack frame. Not <code>null</code> is thread suspended, e.g breakpoint reached. */
     private JdiStackFrame   stackFrame;
+    /**
+     * Values retrieved by {@link #getValue(VariablePath)} while target VM is suspended. Cleared when target VM resumes
+     * or when state of current frame may be changed, e.g. after evaluation of expression.
+     */
+    private final ConcurrentMap<List<String>, SimpleValue> values = new ConcurrentHashMap<>();
+    /**
+     * Incremented each time when cached {@link #values} become stale. Value which is being read while target VM is
+     * resumed is not kept in cache.
+     */
+    private final AtomicLong suspendGeneration = new AtomicLong();
     /** Lock for synchronization debug processes. */
     private Lock lock = new ReentrantLock();
 
@@ -250,8 +264,7 @@ public class JavaDebugger implements EventsHandler, Debugger {
             breakPointRequest.setSuspendPolicy(EventRequest.SUSPEND_ALL);
             String expression = breakpoint.getCondition();
             if (!(expression == null || expression.isEmpty())) {
-                ExpressionParser parser = ExpressionParser.newInstance(expression);
-                breakPointRequest.putProperty("org.eclipse.che.ide.java.debug.condition.expression.parser", parser);
+                breakPointRequest.putProperty(CONDITION_PROPERTY, CompiledCondition.compile(expression));
             }
             breakPointRequest.setEnabled(true);
         } catch (NativeMethodException | IllegalThreadStateException | InvalidRequestStateException e) {
@@ -434,6 +447,23 @@ public class JavaDebugger implements EventsHandler, Debugger {
         if (path.size() == 0) {
             throw new IllegalArgumentException("Path to value may not be empty. ");
         }
+        final long generation = suspendGeneration.get();
+        SimpleValue value = values.get(path);
+        if (value == null) {
+            value = readValue(path);
+            if (value != null) {
+                final List<String> key = new ArrayList<>(path);
+                values.put(key, value);
+                // Target VM resumed or state of frame changed while value was read, value may be stale.
+                if (suspendGeneration.get() != generation) {
+                    values.remove(key, value);
+                }
+            }
+        }
+        return value;
+    }
+
+    private SimpleValue readValue(List<String> path) throws DebuggerException {
         JdiVariable variable;
         int offset;
         if ("this".equals(path.get(0)) || "static".equals(path.get(0))) {
@@ -477,7 +507,7 @@ public class JavaDebugger implements EventsHandler, Debugger {
                                             f.isTransient(),
                                             f.isVolatile()));
             } else {
-                // Array element.
+                // Array element or partition of big array.
                 variables.add(new VariableImpl(ch.getTypeName(),
                                                ch.getName(),
                                                ch.getValue().getAsString(),
@@ -494,7 +524,8 @@ public class JavaDebugger implements EventsHandler, Debugger {
     public void setValue(Variable variable) throws DebuggerException {
         StringBuilder expression = new StringBuilder();
         for (String s : variable.getVariablePath().getPath()) {
-            if ("static".equals(s)) {
+            // Partitions of big arrays are not part of expression, e.g. ["arrayName", "[0..999]", "[index]"]
+            if ("static".equals(s) || JdiArrayPartition.isPartitionName(s)) {
                 continue;
             }
             // Here we need !s.startsWith("[") condition because
@@ -546,10 +577,9 @@ public class JavaDebugger implements EventsHandler, Debugger {
     private boolean processBreakPointEvent(com.sun.jdi.event.BreakpointEvent event) throws DebuggerException {
         setCurrentThread(event.thread());
         boolean hitBreakpoint;
-        ExpressionParser parser =
-                (ExpressionParser)event.request().getProperty("org.eclipse.che.ide.java.debug.condition.expression.parser");
-        if (parser != null) {
-            com.sun.jdi.Value result = evaluate(parser);
+        CompiledCondition condition = (CompiledCondition)event.request().getProperty(CONDITION_PROPERTY);
+        if (condition != null) {
+            com.sun.jdi.Value result = evaluate(condition);
             hitBreakpoint = result instanceof com.sun.jdi.BooleanValue && ((com.sun.jdi.BooleanValue)result).value();
         } else {
             // If there is no expression.
@@ -665,6 +695,19 @@ public class JavaDebugger implements EventsHandler, Debugger {
         }
     }
 
+    private com.sun.jdi.Value evaluate(CompiledCondition condition) throws DebuggerException {
+        final long startTime = System.currentTimeMillis();
+        try {
+            return condition.evaluate(vm, getCurrentThread());
+        } catch (ExpressionException e) {
+            throw new DebuggerException(e.getMessage());
+        } finally {
+            final long endTime = System.currentTimeMillis();
+            LOG.debug("==>> Evaluate condition '{}' time: {} ms", condition.getExpression(), (endTime - startTime));
+            resetCurrentFrame();
+        }
+    }
+
     private ThreadReference getCurrentThread() throws DebuggerException {
         if (thread == null) {
             throw new DebuggerException("Target Java VM is not suspended. ");
@@ -687,15 +730,24 @@ public class JavaDebugger implements EventsHandler, Debugger {
     private void setCurrentThread(ThreadReference t) {
         stackFrame = null;
         thread = t;
+        clearValues();
     }
 
     private void resetCurrentFrame() {
         stackFrame = null;
+        clearValues();
     }
 
     private void resetCurrentThread() {
         this.stackFrame = null;
         this.thread = null;
+        clearValues();
+    }
+
+    private void clearValues() {
+        // Generation is changed before cache is cleared, see getValue(VariablePath).
+        suspendGeneration.incrementAndGet();
+        values.clear();
     }
 
     private EventRequestManager getEventManager() throws DebuggerException {
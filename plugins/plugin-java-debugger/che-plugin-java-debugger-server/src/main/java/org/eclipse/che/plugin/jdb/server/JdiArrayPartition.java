@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.jdb.server;
+
+import com.sun.jdi.ArrayReference;
+import com.sun.jdi.Value;
+
+import java.util.List;
+
+/**
+ * Range of elements of big array. Elements of array which length is greater then {@link #PAGE_SIZE} are not
+ * retrieved all together but grouped in partitions, e.g. array with 2500 elements is represented with three
+ * partitions: <i>[0..999]</i>, <i>[1000..1999]</i> and <i>[2000..2499]</i>. Elements of each partition are read
+ * from target VM with one request when partition is expanded. Partitions may be nested if array is very big.
+ * <p>
+ * Partition may be used as item of {@link org.eclipse.che.api.debug.shared.model.VariablePath}, e.g.
+ * ['arr', '[1000..1999]', '[1005]'].
+ */
+public class JdiArrayPartition implements JdiVariable, JdiValue {
+    /** Max number of elements or nested partitions shown at once. */
+    public static final int PAGE_SIZE = 1000;
+
+    private final ArrayReference array;
+    private final int            from;
+    private final int            length;
+    private final String         name;
+    private       JdiVariable[]  variables;
+
+    JdiArrayPartition(ArrayReference array, int from, int length) {
+        this.array = array;
+        this.from = from;
+        this.length = length;
+        this.name = "[" + from + ".." + (from + length - 1) + "]";
+    }
+
+    /**
+     * Get elements of array in range which starts at {@code from} and has {@code length} elements. If range contains
+     * more then {@link #PAGE_SIZE} elements then it is split to partitions.
+     */
+    static JdiVariable[] getVariables(ArrayReference array, int from, int length) {
+        if (length <= PAGE_SIZE) {
+            final JdiVariable[] elements = new JdiVariable[length];
+            if (length > 0) {
+                final List<Value> values = array.getValues(from, length);
+                for (int i = 0; i < length; i++) {
+                    elements[i] = new JdiArrayElementImpl(from + i, values.get(i));
+                }
+            }
+            return elements;
+        }
+        int partitionSize = PAGE_SIZE;
+        while ((long)partitionSize * PAGE_SIZE < length) {
+            partitionSize *= PAGE_SIZE;
+        }
+        final int count = (length + partitionSize - 1) / partitionSize;
+        final JdiVariable[] partitions = new JdiVariable[count];
+        for (int i = 0; i < count; i++) {
+            final int start = from + i * partitionSize;
+            partitions[i] = new JdiArrayPartition(array, start, Math.min(partitionSize, from + length - start));
+        }
+        return partitions;
+    }
+
+    /**
+     * Find element or partition of array by its name, e.g. <i>[5]</i> or <i>[1000..1999]</i>.
+     *
+     * @return array element, partition or {@code null} if name is not valid name of element or partition or it is out
+     * of range
+     */
+    static JdiVariable getVariableByName(ArrayReference array, int from, int length, String name) {
+        if (!(name.startsWith("[") && name.endsWith("]"))) {
+            return null;
+        }
+        final String range = name.substring(1, name.length() - 1);
+        final int separator = range.indexOf("..");
+        try {
+            if (separator < 0) {
+                final int index = Integer.parseInt(range);
+                if (index < from || index >= from + length) {
+                    return null;
+                }
+                return new JdiArrayElementImpl(index, array.getValue(index));
+            }
+            final int start = Integer.parseInt(range.substring(0, separator));
+            final int end = Integer.parseInt(range.substring(separator + 2));
+            if (start < from || end >= from + length || start > end) {
+                return null;
+            }
+            return new JdiArrayPartition(array, start, end - start + 1);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Checks whether specified item of variable path is name of partition. */
+    static boolean isPartitionName(String name) {
+        return name.startsWith("[") && name.endsWith("]") && name.contains("..");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isArray() {
+        return true;
+    }
+
+    @Override
+    public boolean isPrimitive() {
+        return false;
+    }
+
+    @Override
+    public JdiValue getValue() {
+        return this;
+    }
+
+    @Override
+    public String getTypeName() {
+        return array.type().name();
+    }
+
+    @Override
+    public String getAsString() {
+        return name;
+    }
+
+    @Override
+    public JdiVariable[] getVariables() {
+        if (variables == null) {
+            variables = getVariables(array, from, length);
+        }
+        return variables;
+    }
+
+    @Override
+    public JdiVariable getVariableByName(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("Variable name may not be null. ");
+        }
+        return getVariableByName(array, from, length, name);
+    }
+}
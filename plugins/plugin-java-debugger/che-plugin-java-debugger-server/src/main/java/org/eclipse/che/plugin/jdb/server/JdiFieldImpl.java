@@ -22,6 +22,8 @@ public class JdiFieldImpl implements JdiField, Comparable<JdiFieldImpl> {
     private final Field           field;
     private final ReferenceType   type;
     private final ObjectReference object;
+    private       Value           value;
+    private       boolean         loaded;
 
     public JdiFieldImpl(Field field, ObjectReference object) {
         this.field = field;
@@ -35,6 +37,20 @@ public class JdiFieldImpl implements JdiField, Comparable<JdiFieldImpl> {
         this.object = null;
     }
 
+    /** Create field with value which is already read from target VM, e.g. with {@link ObjectReference#getValues}. */
+    public JdiFieldImpl(Field field, ObjectReference object, Value value) {
+        this(field, object);
+        this.value = value;
+        this.loaded = true;
+    }
+
+    /** Create static field with value which is already read from target VM, e.g. with {@link ReferenceType#getValues}. */
+    public JdiFieldImpl(Field field, ReferenceType type, Value value) {
+        this(field, type);
+        this.value = value;
+        this.loaded = true;
+    }
+
     @Override
     public String getName() {
         return field.name();
@@ -72,7 +88,10 @@ public class JdiFieldImpl implements JdiField, Comparable<JdiFieldImpl> {
 
     @Override
     public JdiValue getValue() {
-        Value value = object == null ? type.getValue(field) : object.getValue(field);
+        if (!loaded) {
+            value = object == null ? type.getValue(field) : object.getValue(field);
+            loaded = true;
+        }
         if (value == null) {
             return new JdiNullValue();
         }
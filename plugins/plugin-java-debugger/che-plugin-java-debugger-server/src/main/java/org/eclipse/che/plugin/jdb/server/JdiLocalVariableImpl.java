@@ -20,12 +20,21 @@ import org.eclipse.che.api.debugger.server.exceptions.DebuggerException;
 public class JdiLocalVariableImpl implements JdiLocalVariable {
     private final LocalVariable variable;
     private final StackFrame    stackFrame;
+    private       Value         value;
+    private       boolean       loaded;
 
     public JdiLocalVariableImpl(StackFrame stackFrame, LocalVariable variable) {
         this.stackFrame = stackFrame;
         this.variable = variable;
     }
 
+    /** Create local variable with value which is already read from target VM, e.g. with {@link StackFrame#getValues}. */
+    public JdiLocalVariableImpl(StackFrame stackFrame, LocalVariable variable, Value value) {
+        this(stackFrame, variable);
+        this.value = value;
+        this.loaded = true;
+    }
+
     @Override
     public String getName() {
         return variable.name();
@@ -43,7 +52,10 @@ public class JdiLocalVariableImpl implements JdiLocalVariable {
 
     @Override
     public JdiValue getValue() {
-        Value value = stackFrame.getValue(variable);
+        if (!loaded) {
+            value = stackFrame.getValue(variable);
+            loaded = true;
+        }
         if (value == null) {
             return new JdiNullValue();
         }
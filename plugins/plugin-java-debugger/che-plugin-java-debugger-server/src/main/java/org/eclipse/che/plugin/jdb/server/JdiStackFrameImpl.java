@@ -18,12 +18,15 @@ import com.sun.jdi.NativeMethodException;
 import com.sun.jdi.ObjectReference;
 import com.sun.jdi.ReferenceType;
 import com.sun.jdi.StackFrame;
+import com.sun.jdi.Value;
 
 import org.eclipse.che.api.debugger.server.exceptions.DebuggerException;
 import org.eclipse.che.plugin.jdb.server.exceptions.DebuggerAbsentInformationException;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 /** @author andrew00x */
 public class JdiStackFrameImpl implements JdiStackFrame {
@@ -43,17 +46,27 @@ public class JdiStackFrameImpl implements JdiStackFrame {
                 if (object == null) {
                     ReferenceType type = stackFrame.location().declaringType();
                     List<Field> fs = stackFrame.location().declaringType().allFields();
+                    List<Field> staticFields = new ArrayList<>();
+                    for (Field f : fs) {
+                        if (f.isStatic()) {
+                            staticFields.add(f);
+                        }
+                    }
+                    // Read values of all static fields with one request to target VM.
+                    Map<Field, Value> values = type.getValues(staticFields);
                     fields = new JdiField[fs.size()];
                     int i = 0;
                     for (Field f : fs) {
-                        fields[i++] = new JdiFieldImpl(f, type);
+                        fields[i++] = f.isStatic() ? new JdiFieldImpl(f, type, values.get(f)) : new JdiFieldImpl(f, type);
                     }
                 } else {
                     List<Field> fs = object.referenceType().allFields();
+                    // Read values of all fields with one request to target VM.
+                    Map<Field, Value> values = object.getValues(fs);
                     fields = new JdiField[fs.size()];
                     int i = 0;
                     for (Field f : fs) {
-                        fields[i++] = new JdiFieldImpl(f, object);
+                        fields[i++] = new JdiFieldImpl(f, object, values.get(f));
                     }
                 }
 
@@ -83,10 +96,12 @@ public class JdiStackFrameImpl implements JdiStackFrame {
         if (localVariables == null) {
             try {
                 List<LocalVariable> targetVariables = stackFrame.visibleVariables();
+                // Read values of all visible variables with one request to target VM.
+                Map<LocalVariable, Value> values = stackFrame.getValues(targetVariables);
                 localVariables = new JdiLocalVariable[targetVariables.size()];
                 int i = 0;
                 for (LocalVariable var : targetVariables) {
-                    localVariables[i++] = new JdiLocalVariableImpl(stackFrame, var);
+                    localVariables[i++] = new JdiLocalVariableImpl(stackFrame, var, values.get(var));
                 }
             } catch (AbsentInformationException e) {
                 throw new DebuggerAbsentInformationException(e.getMessage(), e);
@@ -48,6 +48,12 @@ public final class ANTLRExpressionParser extends ExpressionParser {
         JavaLexer lexer = new JavaLexer(new ANTLRStringStream(getExpression()));
         CommonTokenStream tokens = new CommonTokenStream(lexer);
         JavaParser parser = new JavaParser(tokens);
-        nodes = new CommonTreeNodeStream(parser.expression().getTree());
+        parser.enableErrorMessageCollection(true);
+        Object tree = parser.expression().getTree();
+        if (!parser.getMessages().isEmpty()) {
+            // parser recovers from syntax errors, tree of invalid expression may not be evaluated
+            throw new ExpressionException("Invalid expression " + getExpression() + ": " + String.join("; ", parser.getMessages()));
+        }
+        nodes = new CommonTreeNodeStream(tree);
     }
 }
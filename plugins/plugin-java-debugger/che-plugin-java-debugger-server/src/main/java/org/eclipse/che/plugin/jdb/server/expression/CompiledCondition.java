@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.jdb.server.expression;
+
+import com.sun.jdi.AbsentInformationException;
+import com.sun.jdi.ClassNotPreparedException;
+import com.sun.jdi.Field;
+import com.sun.jdi.IncompatibleThreadStateException;
+import com.sun.jdi.InvalidStackFrameException;
+import com.sun.jdi.LocalVariable;
+import com.sun.jdi.Location;
+import com.sun.jdi.Method;
+import com.sun.jdi.NativeMethodException;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.StackFrame;
+import com.sun.jdi.ThreadReference;
+import com.sun.jdi.Value;
+import com.sun.jdi.VirtualMachine;
+
+import org.antlr.runtime.ANTLRStringStream;
+import org.antlr.runtime.Token;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Condition of breakpoint which is parsed once and then evaluated each time when breakpoint is hit.
+ * <p>
+ * Names used in the expression are resolved to JDI handles ({@link LocalVariable}, {@link Field}, {@link Method})
+ * only once per {@link Location} or {@link ReferenceType} and kept for next evaluations. Values of local variables
+ * and fields of {@code this} object which are referenced in the expression are read from the target VM with one
+ * {@link StackFrame#getValues(List)} and one {@link ObjectReference#getValues(List)} request instead of separate
+ * request for each of them.
+ */
+public class CompiledCondition {
+    private final ExpressionParser parser;
+    /** Names of all identifiers used in expression. Some of them may be names of methods or types. */
+    private final Set<String>      identifiers;
+
+    private final ConcurrentMap<Location, Map<String, LocalVariable>>               locals  = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ReferenceType, Map<String, Field>>                  fields  = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ReferenceType, ConcurrentMap<String, List<Method>>> methods = new ConcurrentHashMap<>();
+
+    private CompiledCondition(String expression) {
+        this.parser = ExpressionParser.newInstance(expression);
+        this.identifiers = Collections.unmodifiableSet(findIdentifiers(expression));
+    }
+
+    /**
+     * Compile condition expression.
+     *
+     * @param expression
+     *         Java language expression, result of evaluation of expression is expected to be boolean value
+     * @return compiled condition
+     */
+    public static CompiledCondition compile(String expression) {
+        return new CompiledCondition(expression);
+    }
+
+    private static Set<String> findIdentifiers(String expression) {
+        final Set<String> result = new HashSet<>();
+        final JavaLexer lexer = new JavaLexer(new ANTLRStringStream(expression));
+        for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+            if (token.getType() == JavaLexer.IDENT) {
+                result.add(token.getText());
+            }
+        }
+        return result;
+    }
+
+    /** Get expression of condition. */
+    public String getExpression() {
+        return parser.getExpression();
+    }
+
+    /**
+     * Evaluate condition in the top frame of specified thread.
+     *
+     * @param vm
+     *         target VM
+     * @param thread
+     *         suspended thread
+     * @return result of evaluation
+     * @throws ExpressionException
+     *         if expression is invalid or another error occurs when try to evaluate expression
+     */
+    public Value evaluate(VirtualMachine vm, ThreadReference thread) {
+        final StackFrame frame;
+        final Location location;
+        final ObjectReference thisObject;
+        try {
+            frame = thread.frame(0);
+            location = frame.location();
+            thisObject = frame.thisObject();
+        } catch (IncompatibleThreadStateException | InvalidStackFrameException e) {
+            throw new ExpressionException(e.getMessage(), e);
+        }
+
+        final Map<String, LocalVariable> frameLocals = getLocals(frame, location);
+        final Map<String, Value> localValues = new HashMap<>();
+        if (frameLocals != null && !frameLocals.isEmpty()) {
+            final Map<LocalVariable, Value> values;
+            try {
+                values = frame.getValues(new ArrayList<>(frameLocals.values()));
+            } catch (IllegalArgumentException | InvalidStackFrameException e) {
+                throw new ExpressionException(e.getMessage(), e);
+            }
+            for (LocalVariable variable : frameLocals.values()) {
+                localValues.put(variable.name(), values.get(variable));
+            }
+        }
+
+        final Map<String, Value> fieldValues = new HashMap<>();
+        if (thisObject != null) {
+            final List<Field> thisFields = new ArrayList<>();
+            for (Map.Entry<String, Field> entry : getFields(thisObject.referenceType()).entrySet()) {
+                // local variable hides field with the same name
+                if (!localValues.containsKey(entry.getKey())) {
+                    thisFields.add(entry.getValue());
+                }
+            }
+            if (!thisFields.isEmpty()) {
+                final Map<Field, Value> values;
+                try {
+                    values = thisObject.getValues(thisFields);
+                } catch (IllegalArgumentException e) {
+                    throw new ExpressionException(e.getMessage(), e);
+                }
+                for (Field field : thisFields) {
+                    fieldValues.put(field.name(), values.get(field));
+                }
+            }
+        }
+
+        return parser.evaluate(new PrefetchedEvaluator(vm, thread, thisObject, frameLocals, localValues, fieldValues));
+    }
+
+    /**
+     * Get local variables visible at specified location which names are used in expression. Returns {@code null}
+     * if there is no information about local variables, e.g. class is compiled without debug information.
+     */
+    private Map<String, LocalVariable> getLocals(StackFrame frame, Location location) {
+        Map<String, LocalVariable> result = locals.get(location);
+        if (result == null) {
+            final List<LocalVariable> visible;
+            try {
+                visible = frame.visibleVariables();
+            } catch (AbsentInformationException | NativeMethodException e) {
+                return null;
+            } catch (InvalidStackFrameException e) {
+                throw new ExpressionException(e.getMessage(), e);
+            }
+            result = new HashMap<>();
+            for (LocalVariable variable : visible) {
+                if (identifiers.contains(variable.name())) {
+                    result.put(variable.name(), variable);
+                }
+            }
+            final Map<String, LocalVariable> existed = locals.putIfAbsent(location, result);
+            if (existed != null) {
+                result = existed;
+            }
+        }
+        return result;
+    }
+
+    /** Get fields of specified type which names are used in expression. */
+    private Map<String, Field> getFields(ReferenceType type) {
+        Map<String, Field> result = fields.get(type);
+        if (result == null) {
+            result = new HashMap<>();
+            try {
+                for (String name : identifiers) {
+                    final Field field = type.fieldByName(name);
+                    if (field != null) {
+                        result.put(name, field);
+                    }
+                }
+            } catch (ClassNotPreparedException e) {
+                throw new ExpressionException(e.getMessage(), e);
+            }
+            final Map<String, Field> existed = fields.putIfAbsent(type, result);
+            if (existed != null) {
+                result = existed;
+            }
+        }
+        return result;
+    }
+
+    private List<Method> getMethods(ReferenceType type, String name) {
+        ConcurrentMap<String, List<Method>> typeMethods = methods.get(type);
+        if (typeMethods == null) {
+            final ConcurrentMap<String, List<Method>> newTypeMethods = new ConcurrentHashMap<>();
+            typeMethods = methods.putIfAbsent(type, newTypeMethods);
+            if (typeMethods == null) {
+                typeMethods = newTypeMethods;
+            }
+        }
+        List<Method> result = typeMethods.get(name);
+        if (result == null) {
+            result = Collections.unmodifiableList(type.methodsByName(name));
+            typeMethods.putIfAbsent(name, result);
+        }
+        return result;
+    }
+
+    /** Evaluator which uses values read before evaluation and JDI handles resolved by previous evaluations. */
+    private class PrefetchedEvaluator extends Evaluator {
+        private final ThreadReference            thread;
+        private final ObjectReference            thisObject;
+        private final Map<String, LocalVariable> frameLocals;
+        private final Map<String, Value>         localValues;
+        private final Map<String, Value>         fieldValues;
+
+        PrefetchedEvaluator(VirtualMachine vm,
+                            ThreadReference thread,
+                            ObjectReference thisObject,
+                            Map<String, LocalVariable> frameLocals,
+                            Map<String, Value> localValues,
+                            Map<String, Value> fieldValues) {
+            super(vm, thread);
+            this.thread = thread;
+            this.thisObject = thisObject;
+            this.frameLocals = frameLocals;
+            this.localValues = localValues;
+            this.fieldValues = fieldValues;
+        }
+
+        @Override
+        public ExpressionValue getThisObject() {
+            return new ReadOnlyValue(thisObject);
+        }
+
+        @Override
+        public ExpressionValue getLocalVariable(String text) {
+            if (frameLocals == null || !identifiers.contains(text)) {
+                return super.getLocalVariable(text);
+            }
+            final LocalVariable variable = frameLocals.get(text);
+            if (variable == null) {
+                // not visible at the current location
+                return null;
+            }
+            return new LocalValue(thread, variable, localValues.get(text));
+        }
+
+        @Override
+        public ExpressionValue getField(Value parent, String name) {
+            if (parent != null && parent.equals(thisObject) && fieldValues.containsKey(name)) {
+                return new InstanceValue(thisObject, getFields(thisObject.referenceType()).get(name), fieldValues.get(name));
+            }
+            return super.getField(parent, name);
+        }
+
+        @Override
+        protected Field findField(ReferenceType type, String name) {
+            if (identifiers.contains(name)) {
+                return getFields(type).get(name);
+            }
+            return super.findField(type, name);
+        }
+
+        @Override
+        protected List<Method> findMethods(ReferenceType type, String name) {
+            if (identifiers.contains(name)) {
+                return getMethods(type, name);
+            }
+            return super.findMethods(type, name);
+        }
+    }
+}
@@ -241,7 +241,7 @@ public class Evaluator {
         ExpressionValue value = null;
         try {
             ObjectReference object = (ObjectReference)parent;
-            Field field = object.referenceType().fieldByName(name);
+            Field field = findField(object.referenceType(), name);
             if (field != null) {
                 value = new InstanceValue(object, field);
             }
@@ -277,6 +277,33 @@ public class Evaluator {
         return new ArrayElement((ArrayReference)arrayValue, ((IntegerValue)indexValue).value());
     }
 
+    /**
+     * Find field with specified name in type. Subclasses may override this method to reuse already resolved fields.
+     *
+     * @param type
+     *         type to look up field in
+     * @param name
+     *         name of field
+     * @return field or {@code null} if there is no field with specified name in type
+     */
+    protected Field findField(ReferenceType type, String name) {
+        return type.fieldByName(name);
+    }
+
+    /**
+     * Find all methods with specified name in type. Subclasses may override this method to reuse already resolved
+     * methods.
+     *
+     * @param type
+     *         type to look up methods in
+     * @param name
+     *         name of method
+     * @return methods with specified name, never {@code null}
+     */
+    protected List<Method> findMethods(ReferenceType type, String name) {
+        return type.methodsByName(name);
+    }
+
     private Method findMethod(List<Method> methods, List<Value> arguments) {
         Method m = null;
         for (Method mm : methods) {
@@ -391,7 +418,7 @@ public class Evaluator {
         }
         ObjectReference object = (ObjectReference)value;
         ReferenceType type = object.referenceType();
-        List<Method> methods = type.methodsByName(name);
+        List<Method> methods = findMethods(type, name);
         Method method = findMethod(methods, arguments);
         if (method == null) {
             throw new ExpressionException("No method with name " + name + " matched to specified arguments for " + type.name());
@@ -22,20 +22,29 @@ public class InstanceValue implements ExpressionValue {
     private final ObjectReference instance;
     private final Field           field;
     private       Value           value;
+    private       boolean         loaded;
 
     public InstanceValue(ObjectReference instance, Field field) {
         this.instance = instance;
         this.field = field;
     }
 
+    /** Create field value which is already read from the target VM, e.g. with {@link ObjectReference#getValues}. */
+    public InstanceValue(ObjectReference instance, Field field, Value value) {
+        this(instance, field);
+        this.value = value;
+        this.loaded = true;
+    }
+
     @Override
     public Value getValue() {
-        if (value == null) {
+        if (!loaded) {
             try {
                 value = instance.getValue(field);
             } catch (IllegalArgumentException e) {
                 throw new ExpressionException(e.getMessage(), e);
             }
+            loaded = true;
         }
         return value;
     }
@@ -48,5 +57,6 @@ public class InstanceValue implements ExpressionValue {
             throw new ExpressionException(e.getMessage(), e);
         }
         this.value = value;
+        this.loaded = true;
     }
 }
@@ -23,20 +23,29 @@ public class LocalValue implements ExpressionValue {
     private final ThreadReference thread;
     private final LocalVariable   variable;
     private       Value           value;
+    private       boolean         loaded;
 
     public LocalValue(ThreadReference thread, LocalVariable variable) {
         this.thread = thread;
         this.variable = variable;
     }
 
+    /** Create local value which is already read from the target VM, e.g. with {@link com.sun.jdi.StackFrame#getValues}. */
+    public LocalValue(ThreadReference thread, LocalVariable variable, Value value) {
+        this(thread, variable);
+        this.value = value;
+        this.loaded = true;
+    }
+
     @Override
     public Value getValue() {
-        if (value == null) {
+        if (!loaded) {
             try {
                 value = thread.frame(0).getValue(variable);
             } catch (IncompatibleThreadStateException | IllegalArgumentException | InvalidStackFrameException e) {
                 throw new ExpressionException(e.getMessage(), e);
             }
+            loaded = true;
         }
         return value;
     }
@@ -49,5 +58,6 @@ public class LocalValue implements ExpressionValue {
             throw new ExpressionException(e.getMessage(), e);
         }
         this.value = value;
+        this.loaded = true;
     }
 }
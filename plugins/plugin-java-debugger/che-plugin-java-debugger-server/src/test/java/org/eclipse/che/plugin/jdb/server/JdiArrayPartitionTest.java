@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.jdb.server;
+
+import com.sun.jdi.ArrayReference;
+import com.sun.jdi.Value;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link JdiArrayPartition}.
+ */
+public class JdiArrayPartitionTest {
+
+    @Test
+    public void shouldReadElementsOfSmallArrayWithOneRequest() throws Exception {
+        final ArrayReference array = array(3);
+
+        final JdiVariable[] elements = new JdiValueImpl(array).getVariables();
+
+        assertEquals(names(elements), asList("[0]", "[1]", "[2]"));
+        assertEquals(elements[2].getValue().getAsString(), "value2");
+        verify(array).getValues(0, 3);
+        verify(array, never()).getValue(anyInt());
+    }
+
+    @Test
+    public void shouldSplitBigArrayToPartitionsWithoutReadingElements() throws Exception {
+        final ArrayReference array = array(2500);
+
+        final JdiVariable[] partitions = new JdiValueImpl(array).getVariables();
+
+        assertEquals(names(partitions), asList("[0..999]", "[1000..1999]", "[2000..2499]"));
+        assertTrue(partitions[0].isArray());
+        verify(array, never()).getValues(anyInt(), anyInt());
+        verify(array, never()).getValue(anyInt());
+    }
+
+    @Test
+    public void shouldReadElementsOfPartitionWithOneRequestWhenPartitionIsExpanded() throws Exception {
+        final ArrayReference array = array(2500);
+        final JdiVariable[] partitions = new JdiValueImpl(array).getVariables();
+
+        final JdiVariable[] elements = partitions[2].getValue().getVariables();
+
+        assertEquals(elements.length, 500);
+        assertEquals(elements[0].getName(), "[2000]");
+        assertEquals(elements[499].getName(), "[2499]");
+        assertEquals(elements[5].getValue().getAsString(), "value2005");
+        verify(array).getValues(2000, 500);
+        verify(array, never()).getValue(anyInt());
+    }
+
+    @Test
+    public void shouldSplitVeryBigArrayToNestedPartitions() throws Exception {
+        final ArrayReference array = array(2_500_000);
+
+        final JdiVariable[] partitions = new JdiValueImpl(array).getVariables();
+
+        assertEquals(names(partitions), asList("[0..999999]", "[1000000..1999999]", "[2000000..2499999]"));
+        final JdiVariable[] nested = partitions[1].getValue().getVariables();
+        assertEquals(nested.length, 1000);
+        assertEquals(nested[0].getName(), "[1000000..1000999]");
+        assertEquals(nested[999].getName(), "[1999000..1999999]");
+        verify(array, never()).getValues(anyInt(), anyInt());
+    }
+
+    @Test
+    public void shouldFindElementsAndPartitionsByName() throws Exception {
+        final ArrayReference array = array(2500);
+        final JdiValueImpl value = new JdiValueImpl(array);
+
+        final JdiVariable partition = value.getVariableByName("[1000..1999]");
+        final JdiVariable element = partition.getValue().getVariableByName("[1005]");
+
+        assertEquals(partition.getName(), "[1000..1999]");
+        assertEquals(element.getName(), "[1005]");
+        assertEquals(element.getValue().getAsString(), "value1005");
+        assertEquals(value.getVariableByName("[7]").getName(), "[7]");
+        verify(array, never()).getValues(anyInt(), anyInt());
+    }
+
+    @Test
+    public void shouldNotFindElementsAndPartitionsOutOfRange() throws Exception {
+        final ArrayReference array = array(2500);
+        final JdiValueImpl value = new JdiValueImpl(array);
+        final JdiVariable partition = value.getVariableByName("[1000..1999]");
+
+        assertNull(value.getVariableByName("[2500]"));
+        assertNull(value.getVariableByName("[2000..2999]"));
+        assertNull(value.getVariableByName("[abc]"));
+        assertNull(value.getVariableByName("length"));
+        assertNull(partition.getValue().getVariableByName("[999]"));
+        assertNull(partition.getValue().getVariableByName("[1500..2000]"));
+    }
+
+    @Test
+    public void shouldRecognizeNamesOfPartitions() throws Exception {
+        assertTrue(JdiArrayPartition.isPartitionName("[1000..1999]"));
+        assertFalse(JdiArrayPartition.isPartitionName("[1000]"));
+        assertFalse(JdiArrayPartition.isPartitionName("field"));
+    }
+
+    private static ArrayReference array(int length) {
+        final ArrayReference array = mock(ArrayReference.class);
+        when(array.length()).thenReturn(length);
+        when(array.getValue(anyInt())).thenAnswer(invocation -> value("value" + invocation.getArguments()[0]));
+        when(array.getValues(anyInt(), anyInt())).thenAnswer(invocation -> {
+            final int from = (Integer)invocation.getArguments()[0];
+            final int count = (Integer)invocation.getArguments()[1];
+            final List<Value> values = new ArrayList<>(count);
+            for (int i = from; i < from + count; i++) {
+                values.add(value("value" + i));
+            }
+            return values;
+        });
+        return array;
+    }
+
+    private static Value value(String asString) {
+        final Value value = mock(Value.class);
+        when(value.toString()).thenReturn(asString);
+        return value;
+    }
+
+    private static List<String> names(JdiVariable[] variables) throws Exception {
+        final List<String> names = new ArrayList<>(variables.length);
+        for (JdiVariable variable : variables) {
+            names.add(variable.getName());
+        }
+        return names;
+    }
+}
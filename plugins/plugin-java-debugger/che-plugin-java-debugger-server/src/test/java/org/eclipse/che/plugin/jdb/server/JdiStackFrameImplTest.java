@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.jdb.server;
+
+import com.sun.jdi.Field;
+import com.sun.jdi.LocalVariable;
+import com.sun.jdi.Location;
+import com.sun.jdi.ObjectReference;
+import com.sun.jdi.ReferenceType;
+import com.sun.jdi.StackFrame;
+import com.sun.jdi.Value;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests that {@link JdiStackFrameImpl} and {@link JdiValueImpl} read values of variables with one request to target VM.
+ */
+public class JdiStackFrameImplTest {
+    private StackFrame    stackFrame;
+    private ReferenceType type;
+    private Field         instanceField;
+    private Field         staticField;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        stackFrame = mock(StackFrame.class);
+        type = mock(ReferenceType.class);
+        instanceField = field("instanceField", false);
+        staticField = field("staticField", true);
+        when(type.allFields()).thenReturn(asList(instanceField, staticField));
+    }
+
+    @Test
+    public void shouldReadValuesOfAllLocalVariablesWithOneRequest() throws Exception {
+        final LocalVariable a = localVariable("a");
+        final LocalVariable b = localVariable("b");
+        final List<LocalVariable> variables = asList(a, b);
+        when(stackFrame.visibleVariables()).thenReturn(variables);
+        when(stackFrame.getValues(variables)).thenReturn(values(a, value("1"), b, value("2")));
+
+        final JdiStackFrameImpl frame = new JdiStackFrameImpl(stackFrame);
+
+        assertEquals(frame.getLocalVariableByName("a").getValue().getAsString(), "1");
+        assertEquals(frame.getLocalVariableByName("b").getValue().getAsString(), "2");
+        verify(stackFrame).getValues(variables);
+        verify(stackFrame, never()).getValue(any(LocalVariable.class));
+    }
+
+    @Test
+    public void shouldReadValuesOfAllFieldsOfThisObjectWithOneRequest() throws Exception {
+        final ObjectReference object = object();
+        when(stackFrame.thisObject()).thenReturn(object);
+
+        final JdiField[] fields = new JdiStackFrameImpl(stackFrame).getFields();
+
+        // static fields go first, see JdiFieldImpl#compareTo(JdiFieldImpl)
+        assertEquals(fields[0].getName(), "staticField");
+        assertEquals(fields[0].getValue().getAsString(), "static");
+        assertEquals(fields[1].getValue().getAsString(), "instance");
+        verify(object).getValues(asList(instanceField, staticField));
+        verify(object, never()).getValue(any(Field.class));
+    }
+
+    @Test
+    public void shouldReadValuesOfStaticFieldsWithOneRequestWhenThereIsNoThisObject() throws Exception {
+        final Location location = mock(Location.class);
+        when(location.declaringType()).thenReturn(type);
+        when(stackFrame.location()).thenReturn(location);
+        when(type.getValues(singletonList(staticField))).thenReturn(values(staticField, value("static")));
+
+        final JdiField[] fields = new JdiStackFrameImpl(stackFrame).getFields();
+
+        assertEquals(fields[0].getValue().getAsString(), "static");
+        verify(type).getValues(singletonList(staticField));
+        verify(type, never()).getValue(any(Field.class));
+    }
+
+    @Test
+    public void shouldReadValuesOfAllFieldsOfObjectWithOneRequest() throws Exception {
+        final ObjectReference object = object();
+
+        final JdiValueImpl value = new JdiValueImpl(object);
+
+        assertEquals(value.getVariableByName("instanceField").getValue().getAsString(), "instance");
+        assertEquals(value.getVariableByName("staticField").getValue().getAsString(), "static");
+        verify(object).getValues(asList(instanceField, staticField));
+        verify(object, never()).getValue(any(Field.class));
+    }
+
+    private ObjectReference object() {
+        final ObjectReference object = mock(ObjectReference.class);
+        when(object.referenceType()).thenReturn(type);
+        when(object.getValues(asList(instanceField, staticField))).thenReturn(values(instanceField, value("instance"),
+                                                                                     staticField, value("static")));
+        return object;
+    }
+
+    private static Field field(String name, boolean isStatic) {
+        final Field field = mock(Field.class);
+        when(field.name()).thenReturn(name);
+        when(field.isStatic()).thenReturn(isStatic);
+        return field;
+    }
+
+    private static LocalVariable localVariable(String name) {
+        final LocalVariable variable = mock(LocalVariable.class);
+        when(variable.name()).thenReturn(name);
+        return variable;
+    }
+
+    private static Value value(String asString) {
+        final Value value = mock(Value.class);
+        when(value.toString()).thenReturn(asString);
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Map<T, Value> values(Object... keysAndValues) {
+        final Map<T, Value> values = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            values.put((T)keysAndValues[i], (Value)keysAndValues[i + 1]);
+        }
+        return values;
+    }
+}
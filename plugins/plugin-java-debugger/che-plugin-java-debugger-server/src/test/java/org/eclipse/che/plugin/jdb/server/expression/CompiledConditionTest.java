@@ -0,0 +1,145 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.jdb.server.expression;
+
+import com.sun.jdi.BooleanValue;
+import com.sun.jdi.IntegerValue;
+import com.sun.jdi.LocalVariable;
+import com.sun.jdi.Location;
+import com.sun.jdi.StackFrame;
+import com.sun.jdi.ThreadReference;
+import com.sun.jdi.Value;
+import com.sun.jdi.VirtualMachine;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link CompiledCondition}.
+ */
+public class CompiledConditionTest {
+    private VirtualMachine      vm;
+    private ThreadReference     thread;
+    private StackFrame          frame;
+    private LocalVariable       count;
+    private List<LocalVariable> variables;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        vm = mock(VirtualMachine.class);
+        thread = mock(ThreadReference.class);
+        frame = mock(StackFrame.class);
+        count = mock(LocalVariable.class);
+        variables = singletonList(count);
+        final Location location = mock(Location.class);
+        final BooleanValue trueValue = booleanValue(true);
+        final BooleanValue falseValue = booleanValue(false);
+        final IntegerValue five = integerValue(5);
+        when(vm.mirrorOf(true)).thenReturn(trueValue);
+        when(vm.mirrorOf(false)).thenReturn(falseValue);
+        when(vm.mirrorOf(5)).thenReturn(five);
+        when(count.name()).thenReturn("count");
+        when(thread.frame(0)).thenReturn(frame);
+        when(frame.location()).thenReturn(location);
+        when(frame.visibleVariables()).thenReturn(variables);
+        when(frame.visibleVariableByName("count")).thenReturn(count);
+    }
+
+    @Test
+    public void shouldEvaluateConditionToTrue() throws Exception {
+        setCount(10);
+
+        assertTrue(((BooleanValue)CompiledCondition.compile("count > 5").evaluate(vm, thread)).value());
+    }
+
+    @Test
+    public void shouldEvaluateConditionToFalse() throws Exception {
+        setCount(1);
+
+        assertFalse(((BooleanValue)CompiledCondition.compile("count > 5").evaluate(vm, thread)).value());
+    }
+
+    @Test(expectedExceptions = ExpressionException.class)
+    public void shouldFailToEvaluateConditionWithUnknownVariable() throws Exception {
+        setCount(10);
+
+        CompiledCondition.compile("unknown > 5").evaluate(vm, thread);
+    }
+
+    @Test(expectedExceptions = ExpressionException.class)
+    public void shouldFailToEvaluateConditionWhichIsNotExpression() throws Exception {
+        setCount(10);
+
+        CompiledCondition.compile("count >").evaluate(vm, thread);
+    }
+
+    @Test
+    public void shouldReadNewValuesWhenConditionIsEvaluatedAgain() throws Exception {
+        final CompiledCondition condition = CompiledCondition.compile("count > 5");
+
+        setCount(10);
+        assertTrue(((BooleanValue)condition.evaluate(vm, thread)).value());
+        setCount(1);
+        assertFalse(((BooleanValue)condition.evaluate(vm, thread)).value());
+
+        // variables are resolved once per location
+        verify(frame).visibleVariables();
+    }
+
+    @Test
+    public void shouldEvaluateConditionAsDebuggerEvaluatesExpression() throws Exception {
+        for (int value : new int[]{1, 5, 10}) {
+            setCount(value);
+            for (String expression : new String[]{"count > 5", "count == 5", "count != 5 && count < 5", "!(count >= 5)"}) {
+                final Value expected = ExpressionParser.newInstance(expression).evaluate(new Evaluator(vm, thread));
+                final Value compiled = CompiledCondition.compile(expression).evaluate(vm, thread);
+
+                assertEquals(((BooleanValue)compiled).value(), ((BooleanValue)expected).value(), expression + " with count " + value);
+            }
+        }
+    }
+
+    private void setCount(int value) {
+        final IntegerValue countValue = integerValue(value);
+        final Map<LocalVariable, Value> values = new HashMap<>();
+        values.put(count, countValue);
+        when(frame.getValues(variables)).thenReturn(values);
+        when(frame.getValue(count)).thenReturn(countValue);
+    }
+
+    private static BooleanValue booleanValue(boolean value) {
+        final BooleanValue booleanValue = mock(BooleanValue.class);
+        when(booleanValue.value()).thenReturn(value);
+        when(booleanValue.booleanValue()).thenReturn(value);
+        return booleanValue;
+    }
+
+    private static IntegerValue integerValue(int value) {
+        final IntegerValue integerValue = mock(IntegerValue.class);
+        when(integerValue.value()).thenReturn(value);
+        when(integerValue.intValue()).thenReturn(value);
+        when(integerValue.longValue()).thenReturn((long)value);
+        when(integerValue.doubleValue()).thenReturn((double)value);
+        return integerValue;
+    }
+}
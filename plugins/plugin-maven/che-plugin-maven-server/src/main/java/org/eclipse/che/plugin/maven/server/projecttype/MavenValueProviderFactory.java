@@ -10,6 +10,10 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.maven.server.projecttype;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.project.server.FileEntry;
@@ -18,15 +22,22 @@ import org.eclipse.che.api.project.server.type.ReadonlyValueProvider;
 import org.eclipse.che.api.project.server.type.ValueProvider;
 import org.eclipse.che.api.project.server.type.ValueProviderFactory;
 import org.eclipse.che.api.project.server.type.ValueStorageException;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.commons.xml.XMLTreeException;
 import org.eclipse.che.ide.maven.tools.Build;
 import org.eclipse.che.ide.maven.tools.Model;
 import org.eclipse.che.ide.maven.tools.Resource;
 
+import javax.inject.Singleton;
+import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static org.eclipse.che.ide.ext.java.shared.Constants.SOURCE_FOLDER;
@@ -45,16 +56,88 @@ import static org.eclipse.che.plugin.maven.shared.MavenAttributes.TEST_SOURCE_FO
 import static org.eclipse.che.plugin.maven.shared.MavenAttributes.VERSION;
 
 /**
+ * Provides values of maven attributes from pom.xml of project.
+ * <p>
+ * Parsed pom.xml files are shared between providers and cached by path until modification date or length of file
+ * is changed, so each attribute doesn't parse pom.xml again. pom.xml modified within the last couple of seconds is not
+ * cached, as it may be modified once again without change of the modification date. Coordinates of project are read with lightweight
+ * {@link PomCoordinates}, full {@link Model} is parsed only when build folders are requested.
+ *
  * @author Evgen Vidolob
  */
+@Singleton
 public class MavenValueProviderFactory implements ValueProviderFactory {
 
+    private static final int  MAX_CACHED_POMS = 1024;
+    /**
+     * pom.xml modified less than this number of milliseconds ago is not cached, modification date has one second
+     * precision on some file systems, so next change of the file of the same length may be unnoticed.
+     */
+    private static final long RACY_INTERVAL   = 2000;
+
+    /** Attributes which values are read from coordinates of project without parsing of full model. */
+    private static final Set<String> COORDINATES = ImmutableSet.of(ARTIFACT_ID,
+                                                                   GROUP_ID,
+                                                                   PACKAGING,
+                                                                   VERSION,
+                                                                   PARENT_ARTIFACT_ID,
+                                                                   PARENT_GROUP_ID,
+                                                                   PARENT_VERSION);
+
+    private final Cache<Path, ParsedPom> poms;
+    private final AtomicLong             parseCount;
+
+    public MavenValueProviderFactory() {
+        this.poms = CacheBuilder.newBuilder()
+                                .concurrencyLevel(8)
+                                .maximumSize(MAX_CACHED_POMS)
+                                .build();
+        this.parseCount = new AtomicLong();
+    }
+
+    /**
+     * Returns model of pom.xml of the project. Model is shared with other callers and must not be modified.
+     */
     protected Model readModel(FolderEntry projectFolder) throws ValueStorageException, ServerException, ForbiddenException, IOException {
-        FileEntry pomFile = (FileEntry)projectFolder.getChild("pom.xml");
+        final FileEntry pomFile = getPomFile(projectFolder);
+        return getParsedPom(pomFile).getModel(pomFile);
+    }
+
+    /** Returns coordinates of the project read from pom.xml without parsing of full model. */
+    PomCoordinates readCoordinates(FolderEntry projectFolder) throws ValueStorageException, ServerException, IOException {
+        final FileEntry pomFile = getPomFile(projectFolder);
+        return getParsedPom(pomFile).getCoordinates(pomFile);
+    }
+
+    /** Number of times pom.xml files were parsed, for tests and monitoring. */
+    long getParseCount() {
+        return parseCount.get();
+    }
+
+    private FileEntry getPomFile(FolderEntry projectFolder) throws ValueStorageException, ServerException {
+        final FileEntry pomFile = (FileEntry)projectFolder.getChild("pom.xml");
         if (pomFile == null) {
             throw new ValueStorageException("pom.xml does not exist.");
         }
-        return Model.readFrom(pomFile.getInputStream());
+        return pomFile;
+    }
+
+    private ParsedPom getParsedPom(FileEntry pomFile) throws ServerException {
+        final long now = System.currentTimeMillis();
+        final VirtualFile virtualFile = pomFile.getVirtualFile();
+        final long modified = virtualFile.getLastModificationDate();
+        final long length = virtualFile.getLength();
+        final ParsedPom cached = poms.getIfPresent(pomFile.getPath());
+        if (cached != null && cached.modified == modified && cached.length == length) {
+            return cached;
+        }
+        final ParsedPom parsed = new ParsedPom(modified, length);
+        if (modified < now - RACY_INTERVAL) {
+            poms.put(pomFile.getPath(), parsed);
+        } else {
+            poms.invalidate(pomFile.getPath());
+        }
+        return parsed;
     }
 
     protected void throwReadException(Exception e) throws ValueStorageException {
@@ -78,23 +161,28 @@ public class MavenValueProviderFactory implements ValueProviderFactory {
         public List<String> getValues(String attributeName) throws ValueStorageException {
             try {
                 String value = "";
+                if (COORDINATES.contains(attributeName)) {
+                    final PomCoordinates coordinates = readCoordinates(projectFolder);
+                    if (attributeName.equals(ARTIFACT_ID)) {
+                        value = coordinates.getArtifactId();
+                    } else if (attributeName.equals(GROUP_ID)) {
+                        value = coordinates.getGroupId();
+                    } else if (attributeName.equals(PACKAGING)) {
+                        final String packaging = coordinates.getPackaging();
+                        value = packaging == null ? "" : packaging;
+                    } else if (attributeName.equals(VERSION)) {
+                        value = coordinates.getVersion();
+                    } else if (attributeName.equals(PARENT_ARTIFACT_ID) && coordinates.hasParent()) {
+                        value = coordinates.getParentArtifactId();
+                    } else if (attributeName.equals(PARENT_GROUP_ID) && coordinates.hasParent()) {
+                        value = coordinates.getParentGroupId();
+                    } else if (attributeName.equals(PARENT_VERSION) && coordinates.hasParent()) {
+                        value = coordinates.getParentVersion();
+                    }
+                    return Collections.singletonList(value);
+                }
                 final Model model = readModel(projectFolder);
-                if (attributeName.equals(ARTIFACT_ID)) {
-                    value = model.getArtifactId();
-                } else if (attributeName.equals(GROUP_ID)) {
-                    value = model.getGroupId();
-                } else if (attributeName.equals(PACKAGING)) {
-                    final String packaging = model.getPackaging();
-                    value = packaging == null ? "" : packaging;
-                } else if (attributeName.equals(VERSION)) {
-                    value = model.getVersion();
-                } else if (attributeName.equals(PARENT_ARTIFACT_ID) && model.getParent() != null) {
-                    value = model.getParent().getArtifactId();
-                } else if (attributeName.equals(PARENT_GROUP_ID) && model.getParent() != null) {
-                    value = model.getParent().getGroupId();
-                } else if (attributeName.equals(PARENT_VERSION) && model.getParent() != null) {
-                    value = model.getParent().getVersion();
-                } else if (attributeName.equals(SOURCE_FOLDER)) {
+                if (attributeName.equals(SOURCE_FOLDER)) {
                     Build build = model.getBuild();
                     if (build != null && build.getSourceDirectory() != null) {
                         value = build.getSourceDirectory();
@@ -126,4 +214,40 @@ public class MavenValueProviderFactory implements ValueProviderFactory {
             return null;
         }
     }
+
+    /** Parsed pom.xml of the certain modification date and length, model is parsed on demand. */
+    private class ParsedPom {
+        final long modified;
+        final long length;
+
+        private PomCoordinates coordinates;
+        private Model          model;
+
+        ParsedPom(long modified, long length) {
+            this.modified = modified;
+            this.length = length;
+        }
+
+        synchronized PomCoordinates getCoordinates(FileEntry pomFile) throws ValueStorageException, ServerException, IOException {
+            if (coordinates == null) {
+                try (InputStream content = pomFile.getInputStream()) {
+                    parseCount.incrementAndGet();
+                    coordinates = PomCoordinates.read(content);
+                } catch (XMLStreamException e) {
+                    throw new ValueStorageException("Error parsing pom.xml : " + e.getMessage());
+                }
+            }
+            return coordinates;
+        }
+
+        synchronized Model getModel(FileEntry pomFile) throws ServerException, IOException {
+            if (model == null) {
+                try (InputStream content = pomFile.getInputStream()) {
+                    parseCount.incrementAndGet();
+                    model = Model.readFrom(content);
+                }
+            }
+            return model;
+        }
+    }
 }
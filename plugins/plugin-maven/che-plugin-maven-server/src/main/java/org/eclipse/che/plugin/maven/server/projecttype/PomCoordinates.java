@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.maven.server.projecttype;
+
+import com.google.common.collect.ImmutableSet;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+/**
+ * Coordinates of maven project and its parent, read from pom.xml with StAX parser without building of DOM.
+ * <p>
+ * Values are the same as {@link org.eclipse.che.ide.maven.tools.Model} returns: text of single child element
+ * of project or parent element, {@code null} if there is no such element or there are several of them.
+ */
+final class PomCoordinates {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+    private static final Set<String>     COORDINATES       = ImmutableSet.of("groupId", "artifactId", "version", "packaging");
+
+    private final Map<String, String> project;
+    private final Map<String, String> parent;
+
+    private PomCoordinates(Map<String, String> project, Map<String, String> parent) {
+        this.project = project;
+        this.parent = parent;
+    }
+
+    /**
+     * Reads coordinates from the pom.xml content.
+     *
+     * @throws XMLStreamException
+     *         if content is not well-formed xml
+     */
+    static PomCoordinates read(InputStream pom) throws XMLStreamException {
+        final Map<String, String> project = new HashMap<>();
+        final Map<String, String> parent = new HashMap<>();
+        int parents = 0;
+        final XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(pom);
+        try {
+            // depth of current element, 1 is project element
+            int depth = 0;
+            boolean inParent = false;
+            // element which text is collected, only direct text of element is taken into account
+            Map<String, String> target = null;
+            String name = null;
+            int textDepth = 0;
+            final StringBuilder text = new StringBuilder();
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case START_ELEMENT:
+                        depth++;
+                        if (depth == 2 && "parent".equals(reader.getLocalName())) {
+                            inParent = true;
+                            parents++;
+                        } else if ((depth == 2 || depth == 3 && inParent) && COORDINATES.contains(reader.getLocalName())) {
+                            target = depth == 2 ? project : parent;
+                            name = reader.getLocalName();
+                            textDepth = depth;
+                            text.setLength(0);
+                        }
+                        break;
+                    case CHARACTERS:
+                        if (name != null && depth == textDepth) {
+                            text.append(reader.getText());
+                        }
+                        break;
+                    case END_ELEMENT:
+                        if (name != null && depth == textDepth) {
+                            // value of element which is specified several times is unknown
+                            target.put(name, target.containsKey(name) ? null : text.toString());
+                            name = null;
+                        } else if (depth == 2) {
+                            inParent = false;
+                        }
+                        depth--;
+                        break;
+                    default:
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return new PomCoordinates(project, parents == 1 ? parent : null);
+    }
+
+    String getGroupId() {
+        return project.get("groupId");
+    }
+
+    String getArtifactId() {
+        return project.get("artifactId");
+    }
+
+    String getVersion() {
+        return project.get("version");
+    }
+
+    String getPackaging() {
+        return project.get("packaging");
+    }
+
+    /** Returns {@code true} if project has parent. */
+    boolean hasParent() {
+        return parent != null;
+    }
+
+    String getParentGroupId() {
+        return parent == null ? null : parent.get("groupId");
+    }
+
+    String getParentArtifactId() {
+        return parent == null ? null : parent.get("artifactId");
+    }
+
+    String getParentVersion() {
+        return parent == null ? null : parent.get("version");
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.maven.server.projecttype;
+
+import org.eclipse.che.api.project.server.FileEntry;
+import org.eclipse.che.api.project.server.FolderEntry;
+import org.eclipse.che.api.project.server.type.ValueProvider;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.ide.maven.tools.Model;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+
+import static java.util.Arrays.asList;
+import static org.eclipse.che.plugin.maven.shared.MavenAttributes.ARTIFACT_ID;
+import static org.eclipse.che.plugin.maven.shared.MavenAttributes.GROUP_ID;
+import static org.eclipse.che.plugin.maven.shared.MavenAttributes.PACKAGING;
+import static org.eclipse.che.plugin.maven.shared.MavenAttributes.PARENT_ARTIFACT_ID;
+import static org.eclipse.che.plugin.maven.shared.MavenAttributes.PARENT_GROUP_ID;
+import static org.eclipse.che.plugin.maven.shared.MavenAttributes.PARENT_VERSION;
+import static org.eclipse.che.plugin.maven.shared.MavenAttributes.RESOURCE_FOLDER;
+import static org.eclipse.che.plugin.maven.shared.MavenAttributes.TEST_SOURCE_FOLDER;
+import static org.eclipse.che.plugin.maven.shared.MavenAttributes.VERSION;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link MavenValueProviderFactory}.
+ */
+public class MavenValueProviderFactoryTest {
+
+    private static final String POM = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                                      "<project>\n" +
+                                      "    <modelVersion>4.0.0</modelVersion>\n" +
+                                      "    <parent>\n" +
+                                      "        <groupId>org.parent</groupId>\n" +
+                                      "        <artifactId>parent</artifactId>\n" +
+                                      "        <version>1.0</version>\n" +
+                                      "    </parent>\n" +
+                                      "    <!-- comment -->\n" +
+                                      "    <artifactId>my-artifact</artifactId>\n" +
+                                      "    <version>2.0</version>\n" +
+                                      "    <packaging>jar</packaging>\n" +
+                                      "    <dependencies>\n" +
+                                      "        <dependency>\n" +
+                                      "            <groupId>junit</groupId>\n" +
+                                      "            <artifactId>junit</artifactId>\n" +
+                                      "            <version>4.12</version>\n" +
+                                      "        </dependency>\n" +
+                                      "    </dependencies>\n" +
+                                      "    <build>\n" +
+                                      "        <testSourceDirectory>src/it/java</testSourceDirectory>\n" +
+                                      "    </build>\n" +
+                                      "</project>";
+
+    private MavenValueProviderFactory factory;
+    private FolderEntry               projectFolder;
+    private VirtualFile               pomVirtualFile;
+    private String                    pom;
+
+    @Before
+    public void setUp() throws Exception {
+        factory = new MavenValueProviderFactory();
+        pom = POM;
+        pomVirtualFile = mock(VirtualFile.class);
+        when(pomVirtualFile.getLastModificationDate()).thenReturn(1000L);
+        when(pomVirtualFile.getLength()).thenAnswer(invocation -> (long)pom.length());
+        final FileEntry pomFile = mock(FileEntry.class);
+        when(pomFile.getPath()).thenReturn(Path.of("/project/pom.xml"));
+        when(pomFile.getVirtualFile()).thenReturn(pomVirtualFile);
+        when(pomFile.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(pom.getBytes()));
+        projectFolder = mock(FolderEntry.class);
+        when(projectFolder.getChild("pom.xml")).thenReturn(pomFile);
+    }
+
+    @Test
+    public void shouldProvideSameCoordinatesAsModel() throws Exception {
+        final ValueProvider provider = factory.newInstance(projectFolder);
+        final Model model = Model.readFrom(new ByteArrayInputStream(POM.getBytes()));
+
+        assertEquals(Collections.singletonList(model.getArtifactId()), provider.getValues(ARTIFACT_ID));
+        assertEquals(Collections.singletonList(model.getGroupId()), provider.getValues(GROUP_ID));
+        assertEquals(Collections.singletonList(model.getVersion()), provider.getValues(VERSION));
+        assertEquals(Collections.singletonList(model.getPackaging()), provider.getValues(PACKAGING));
+        assertEquals(Collections.singletonList(model.getParent().getGroupId()), provider.getValues(PARENT_GROUP_ID));
+        assertEquals(Collections.singletonList(model.getParent().getArtifactId()), provider.getValues(PARENT_ARTIFACT_ID));
+        assertEquals(Collections.singletonList(model.getParent().getVersion()), provider.getValues(PARENT_VERSION));
+    }
+
+    @Test
+    public void shouldParsePomOnceForAllAttributes() throws Exception {
+        for (String attribute : asList(ARTIFACT_ID, GROUP_ID, VERSION, PACKAGING, PARENT_VERSION, TEST_SOURCE_FOLDER, RESOURCE_FOLDER)) {
+            factory.newInstance(projectFolder).getValues(attribute);
+            factory.newInstance(projectFolder).getValues(attribute);
+        }
+
+        // coordinates are read once with StAX parser and model is parsed once for build folders
+        assertEquals(2, factory.getParseCount());
+        assertEquals(Collections.singletonList("src/it/java"), factory.newInstance(projectFolder).getValues(TEST_SOURCE_FOLDER));
+    }
+
+    @Test
+    public void shouldParsePomAgainWhenItIsModified() throws Exception {
+        assertEquals(Collections.singletonList("2.0"), factory.newInstance(projectFolder).getValues(VERSION));
+
+        pom = POM.replace("<version>2.0</version>", "<version>2.1</version>");
+        when(pomVirtualFile.getLastModificationDate()).thenReturn(2000L);
+
+        assertEquals(Collections.singletonList("2.1"), factory.newInstance(projectFolder).getValues(VERSION));
+        assertEquals(2, factory.getParseCount());
+    }
+
+    @Test
+    public void shouldNotCachePomWhichIsJustModified() throws Exception {
+        when(pomVirtualFile.getLastModificationDate()).thenReturn(System.currentTimeMillis());
+        assertEquals(Collections.singletonList("2.0"), factory.newInstance(projectFolder).getValues(VERSION));
+
+        // modified within the same second, neither modification date nor length is changed
+        pom = POM.replace("<version>2.0</version>", "<version>2.1</version>");
+
+        assertEquals(Collections.singletonList("2.1"), factory.newInstance(projectFolder).getValues(VERSION));
+    }
+
+    @Test
+    public void shouldNotProvideValuesOfElementsWhichAreSpecifiedSeveralTimes() throws Exception {
+        final String pom = "<project>" +
+                           "<parent><groupId>a</groupId></parent>" +
+                           "<parent><groupId>b</groupId></parent>" +
+                           "<version>1</version><version>2</version>" +
+                           "<build><artifactId>nested</artifactId></build>" +
+                           "</project>";
+
+        final PomCoordinates coordinates = PomCoordinates.read(new ByteArrayInputStream(pom.getBytes()));
+        final Model model = Model.readFrom(new ByteArrayInputStream(pom.getBytes()));
+
+        assertFalse(coordinates.hasParent());
+        assertNull(model.getParent());
+        assertNull(coordinates.getVersion());
+        assertNull(model.getVersion());
+        assertNull(coordinates.getArtifactId());
+        assertNull(model.getArtifactId());
+    }
+}
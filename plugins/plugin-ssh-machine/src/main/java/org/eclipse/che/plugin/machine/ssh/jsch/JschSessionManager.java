@@ -0,0 +1,479 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.machine.ssh.jsch;
+
+import com.jcraft.jsch.Channel;
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+
+import org.eclipse.che.plugin.machine.ssh.SshMachineRecipe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps SSH sessions shared by all the clients of the same ssh machine and multiplexes channels over them.
+ * <p>
+ * Number of sessions per machine and number of channels per session are limited, so many concurrent commands
+ * don't exceed MaxSessions limit of SSH server. When all the channels are in use, opening of channel waits until
+ * some channel is closed. Sessions which are disconnected, e.g. because of network failure, are replaced with new
+ * ones transparently, failed connection attempts are retried with exponential backoff.
+ */
+@Singleton
+public class JschSessionManager {
+    private static final Logger LOG = LoggerFactory.getLogger(JschSessionManager.class);
+
+    public static final String MAX_SESSIONS_PROPERTY = "machine.ssh.max_sessions_per_machine";
+    public static final String MAX_CHANNELS_PROPERTY = "machine.ssh.max_channels_per_session";
+
+    private static final int  CONNECT_ATTEMPTS        = 3;
+    private static final long INITIAL_BACKOFF_MS      = 250;
+    private static final long CHANNEL_WAIT_TIMEOUT_MS = 60_000;
+
+    private final JSch                                   jsch;
+    private final int                                    connectionTimeout;
+    private final int                                    maxSessions;
+    private final int                                    maxChannelsPerSession;
+    private final Map<SshMachineRecipe, MachineSessions> machines;
+    private final AtomicLong                             channelOpenCount;
+    private final AtomicLong                             channelOpenNanos;
+    private final AtomicLong                             maxChannelOpenNanos;
+    private final AtomicLong                             sessionConnectCount;
+    private final AtomicLong                             sessionConnectFailures;
+
+    @Inject
+    public JschSessionManager(JSch jsch,
+                              @Named("machine.ssh.connection_timeout_ms") int connectionTimeoutMs,
+                              @Named(MAX_SESSIONS_PROPERTY) int maxSessions,
+                              @Named(MAX_CHANNELS_PROPERTY) int maxChannelsPerSession) {
+        this.jsch = jsch;
+        this.connectionTimeout = connectionTimeoutMs;
+        this.maxSessions = maxSessions;
+        this.maxChannelsPerSession = maxChannelsPerSession;
+        this.machines = new HashMap<>();
+        this.channelOpenCount = new AtomicLong();
+        this.channelOpenNanos = new AtomicLong();
+        this.maxChannelOpenNanos = new AtomicLong();
+        this.sessionConnectCount = new AtomicLong();
+        this.sessionConnectFailures = new AtomicLong();
+    }
+
+    /**
+     * Registers client of ssh machine and makes sure that machine is accessible over SSH.
+     * Each call should be followed by {@link #disconnect(SshMachineRecipe)} when client doesn't need machine anymore.
+     *
+     * @param recipe
+     *         recipe of ssh machine
+     * @throws JSchException
+     *         if SSH session can't be established
+     */
+    public void connect(SshMachineRecipe recipe) throws JSchException {
+        final MachineSessions sessions;
+        synchronized (machines) {
+            sessions = machines.computeIfAbsent(recipe, MachineSessions::new);
+            sessions.clients++;
+        }
+        try {
+            sessions.ensureConnected();
+        } catch (JSchException e) {
+            disconnect(recipe);
+            throw e;
+        }
+    }
+
+    /**
+     * Unregisters client of ssh machine, sessions are disconnected when the last client of machine is unregistered.
+     *
+     * @param recipe
+     *         recipe of ssh machine
+     */
+    public void disconnect(SshMachineRecipe recipe) {
+        final MachineSessions sessions;
+        synchronized (machines) {
+            sessions = machines.get(recipe);
+            if (sessions == null || --sessions.clients > 0) {
+                return;
+            }
+            machines.remove(recipe);
+        }
+        sessions.disconnect();
+    }
+
+    /**
+     * Opens exec channel to ssh machine. Returned lease should be closed when channel is not needed anymore.
+     *
+     * @param recipe
+     *         recipe of ssh machine, client of machine should be {@link #connect(SshMachineRecipe) connected}
+     * @throws JSchException
+     *         if channel can't be opened
+     */
+    public Lease<ChannelExec> openExecChannel(SshMachineRecipe recipe) throws JSchException {
+        return openChannel(recipe, "exec", ChannelExec.class);
+    }
+
+    /**
+     * Opens sftp channel to ssh machine. Returned lease should be closed when channel is not needed anymore.
+     *
+     * @param recipe
+     *         recipe of ssh machine, client of machine should be {@link #connect(SshMachineRecipe) connected}
+     * @throws JSchException
+     *         if channel can't be opened
+     */
+    public Lease<ChannelSftp> openSftpChannel(SshMachineRecipe recipe) throws JSchException {
+        return openChannel(recipe, "sftp", ChannelSftp.class);
+    }
+
+    /** Returns number of channels opened since start. */
+    public long getChannelOpenCount() {
+        return channelOpenCount.get();
+    }
+
+    /**
+     * Returns total time spent on opening of channels, including waiting for free channel and
+     * establishing of session.
+     */
+    public long getChannelOpenTime(TimeUnit unit) {
+        return unit.convert(channelOpenNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /** Returns the longest time spent on opening of single channel. */
+    public long getMaxChannelOpenTime(TimeUnit unit) {
+        return unit.convert(maxChannelOpenNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /** Returns number of SSH sessions established since start. */
+    public long getSessionConnectCount() {
+        return sessionConnectCount.get();
+    }
+
+    /** Returns number of failed attempts to establish SSH session. */
+    public long getSessionConnectFailures() {
+        return sessionConnectFailures.get();
+    }
+
+    /** Returns number of sessions which are currently connected to ssh machine. */
+    int getSessionCount(SshMachineRecipe recipe) {
+        final MachineSessions sessions;
+        synchronized (machines) {
+            sessions = machines.get(recipe);
+        }
+        if (sessions == null) {
+            return 0;
+        }
+        synchronized (sessions) {
+            return sessions.sessions.size();
+        }
+    }
+
+    @PreDestroy
+    public void disconnectAll() {
+        final List<MachineSessions> all;
+        synchronized (machines) {
+            all = new ArrayList<>(machines.values());
+            machines.clear();
+        }
+        all.forEach(MachineSessions::disconnect);
+    }
+
+    private <T extends Channel> Lease<T> openChannel(SshMachineRecipe recipe, String type, Class<T> channelClass)
+            throws JSchException {
+        final MachineSessions sessions;
+        synchronized (machines) {
+            sessions = machines.get(recipe);
+        }
+        if (sessions == null) {
+            throw new JSchException("Ssh client of machine " + recipe.getHost() + " is not started");
+        }
+        return sessions.openChannel(type, channelClass);
+    }
+
+    private void recordChannelOpen(long nanos) {
+        channelOpenCount.incrementAndGet();
+        channelOpenNanos.addAndGet(nanos);
+        maxChannelOpenNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Channel opened over shared session.
+     * Closing of lease disconnects channel and makes its slot in session available for other channels.
+     */
+    public class Lease<T extends Channel> implements AutoCloseable {
+        private final MachineSessions owner;
+        private final PooledSession   session;
+        private final T               channel;
+        private final long            requestTime;
+        private final AtomicBoolean   released;
+
+        private Lease(MachineSessions owner, PooledSession session, T channel, long requestTime) {
+            this.owner = owner;
+            this.session = session;
+            this.channel = channel;
+            this.requestTime = requestTime;
+            this.released = new AtomicBoolean();
+        }
+
+        public T getChannel() {
+            return channel;
+        }
+
+        /**
+         * Connects channel, time from request of channel till its connection is recorded as channel open time.
+         *
+         * @throws JSchException
+         *         if channel can't be connected
+         */
+        public void connect() throws JSchException {
+            channel.connect(connectionTimeout);
+            recordChannelOpen(System.nanoTime() - requestTime);
+        }
+
+        /** Disconnects channel and releases it. */
+        @Override
+        public void close() {
+            channel.disconnect();
+            if (released.compareAndSet(false, true)) {
+                owner.release(this);
+            }
+        }
+    }
+
+    private static class PooledSession {
+        final Session session;
+        int           channels;
+
+        PooledSession(Session session) {
+            this.session = session;
+        }
+    }
+
+    /**
+     * Sessions and channels of single ssh machine.
+     * <p>
+     * Sessions are connected without holding the monitor, slot of connecting session is reserved
+     * by {@link #connecting} counter, so releasing and opening of channels over other sessions is not blocked
+     * by slow or retried connection attempts.
+     */
+    private class MachineSessions {
+        final SshMachineRecipe    recipe;
+        final List<PooledSession> sessions;
+        final Set<Lease<?>>       leases;
+        int                       clients;
+        int                       connecting;
+        boolean                   disconnected;
+
+        MachineSessions(SshMachineRecipe recipe) {
+            this.recipe = recipe;
+            this.sessions = new ArrayList<>();
+            this.leases = new HashSet<>();
+        }
+
+        void ensureConnected() throws JSchException {
+            synchronized (this) {
+                while (true) {
+                    removeDisconnectedSessions();
+                    if (!sessions.isEmpty()) {
+                        return;
+                    }
+                    if (connecting == 0) {
+                        connecting++;
+                        break;
+                    }
+                    // other client connects the first session, its result is checked on next iteration
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new JSchException("Connection to ssh machine " + recipe.getHost() + " was interrupted");
+                    }
+                }
+            }
+            connectReservedSession();
+        }
+
+        <T extends Channel> Lease<T> openChannel(String type, Class<T> channelClass) throws JSchException {
+            final long requestTime = System.nanoTime();
+            final long deadline = requestTime + TimeUnit.MILLISECONDS.toNanos(CHANNEL_WAIT_TIMEOUT_MS);
+            while (true) {
+                synchronized (this) {
+                    if (disconnected) {
+                        throw new JSchException("Ssh client of machine " + recipe.getHost() + " is stopped");
+                    }
+                    removeDisconnectedSessions();
+                    releaseClosedChannels();
+
+                    PooledSession target = null;
+                    for (PooledSession pooled : sessions) {
+                        if (pooled.channels < maxChannelsPerSession && (target == null || pooled.channels < target.channels)) {
+                            target = pooled;
+                        }
+                    }
+                    if (target != null) {
+                        final Channel channel;
+                        try {
+                            channel = target.session.openChannel(type);
+                        } catch (JSchException e) {
+                            if (target.session.isConnected()) {
+                                throw e;
+                            }
+                            // session is broken, it is replaced on next iteration
+                            continue;
+                        }
+                        target.channels++;
+                        final Lease<T> lease = new Lease<>(this, target, channelClass.cast(channel), requestTime);
+                        leases.add(lease);
+                        return lease;
+                    }
+
+                    if (sessions.size() + connecting < maxSessions) {
+                        connecting++;
+                    } else {
+                        final long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            throw new JSchException("Timeout of waiting for free channel to ssh machine " + recipe.getHost() +
+                                                    " exceeded, all " + maxSessions * maxChannelsPerSession +
+                                                    " channels are in use");
+                        }
+                        try {
+                            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new JSchException("Waiting for free channel to ssh machine " + recipe.getHost() +
+                                                    " was interrupted");
+                        }
+                        continue;
+                    }
+                }
+                // channel is opened over connected session on next iteration, unless other threads take it first
+                connectReservedSession();
+            }
+        }
+
+        synchronized void release(Lease<?> lease) {
+            if (leases.remove(lease)) {
+                lease.session.channels--;
+                notifyAll();
+            }
+        }
+
+        void disconnect() {
+            final List<PooledSession> toDisconnect;
+            synchronized (this) {
+                disconnected = true;
+                toDisconnect = new ArrayList<>(sessions);
+                sessions.clear();
+                leases.clear();
+                notifyAll();
+            }
+            for (PooledSession pooled : toDisconnect) {
+                pooled.session.disconnect();
+            }
+        }
+
+        /**
+         * Connects session in the slot reserved by incrementing of {@link #connecting} and publishes it,
+         * must be called without holding the monitor.
+         */
+        private void connectReservedSession() throws JSchException {
+            Session session = null;
+            try {
+                session = connectSession();
+            } finally {
+                synchronized (this) {
+                    connecting--;
+                    if (session != null && !disconnected) {
+                        sessions.add(new PooledSession(session));
+                        session = null;
+                    }
+                    notifyAll();
+                }
+            }
+            if (session != null) {
+                // sessions were disconnected while this one was connecting
+                session.disconnect();
+                throw new JSchException("Ssh client of machine " + recipe.getHost() + " is stopped");
+            }
+        }
+
+        /** Connects new session, failed attempts are retried with exponentially growing delay. */
+        private Session connectSession() throws JSchException {
+            final JschUserInfoImpl user = JschUserInfoImpl.builder()
+                                                          .password(recipe.getPassword())
+                                                          .promptPassword(true)
+                                                          .passphrase(null)
+                                                          .promptPassphrase(false)
+                                                          .promptYesNo(true)
+                                                          .build();
+            long backoff = INITIAL_BACKOFF_MS;
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    final Session session = jsch.getSession(recipe.getUsername(), recipe.getHost(), recipe.getPort());
+                    session.setUserInfo(user);
+                    session.connect(connectionTimeout);
+                    sessionConnectCount.incrementAndGet();
+                    return session;
+                } catch (JSchException e) {
+                    sessionConnectFailures.incrementAndGet();
+                    if (attempt == CONNECT_ATTEMPTS) {
+                        throw e;
+                    }
+                    LOG.debug("Connection to ssh machine {} failed, retrying in {} ms. Error: {}",
+                              recipe.getHost(), backoff, e.getLocalizedMessage());
+                }
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new JSchException("Connection to ssh machine " + recipe.getHost() + " was interrupted");
+                }
+                backoff *= 2;
+            }
+        }
+
+        /** Removes sessions which are disconnected, their channels are dead too. */
+        private void removeDisconnectedSessions() {
+            for (Iterator<PooledSession> it = sessions.iterator(); it.hasNext(); ) {
+                final PooledSession pooled = it.next();
+                if (!pooled.session.isConnected()) {
+                    it.remove();
+                    leases.removeIf(lease -> lease.session == pooled);
+                }
+            }
+        }
+
+        /** Releases channels which are closed by server but whose leases are not closed, e.g. finished background processes. */
+        private void releaseClosedChannels() {
+            for (Iterator<Lease<?>> it = leases.iterator(); it.hasNext(); ) {
+                final Lease<?> lease = it.next();
+                if (lease.channel.isClosed()) {
+                    it.remove();
+                    lease.session.channels--;
+                }
+            }
+        }
+    }
+}
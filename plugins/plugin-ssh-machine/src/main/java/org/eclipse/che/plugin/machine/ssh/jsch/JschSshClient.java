@@ -13,11 +13,12 @@ package org.eclipse.che.plugin.machine.ssh.jsch;
 import com.google.inject.assistedinject.Assisted;
 import com.jcraft.jsch.ChannelExec;
 import com.jcraft.jsch.ChannelSftp;
-import com.jcraft.jsch.JSch;
 import com.jcraft.jsch.JSchException;
-import com.jcraft.jsch.Session;
 import com.jcraft.jsch.SftpException;
 
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+
 import org.eclipse.che.api.core.util.ListLineConsumer;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.commons.lang.IoUtil;
@@ -26,20 +27,33 @@ import org.eclipse.che.plugin.machine.ssh.SshMachineRecipe;
 
 import javax.inject.Inject;
 import javax.inject.Named;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * Client for communication with ssh machine using ssh protocol.
@@ -49,50 +63,39 @@ import static java.lang.String.format;
 // todo think about replacement JSch with Apace SSHD
 // todo tests for ssh library that ensures that it works as expected
 public class JschSshClient implements SshClient {
-    private final JSch                jsch;
-    private final JschUserInfoImpl    user;
-    private final String              host;
-    private final int                 port;
-    private final String              username;
-    private final Map<String, String> envVars;
-    private final int                 connectionTimeout;
+    /** Exit code of shell when command is not found. */
+    private static final int  COMMAND_NOT_FOUND_CODE = 127;
+    private static final int  EXECUTABLE_FILE_MODE   = 0100755;
+    private static final int  MD5_HEX_LENGTH         = 32;
+    private static final int  BUF_SIZE               = 8192;
+    private static final long EXEC_POLL_INTERVAL_MS  = 10;
 
-    private Session session;
+    private final JschSessionManager  sessionManager;
+    private final SshMachineRecipe    recipe;
+    private final Map<String, String> envVars;
+    private final boolean             compressCopied;
 
     @Inject
     public JschSshClient(@Assisted SshMachineRecipe sshMachineRecipe,
                          @Assisted Map<String, String> envVars,
-                         JSch jsch,
-                         @Named("machine.ssh.connection_timeout_ms") int connectionTimeoutMs) {
+                         JschSessionManager sessionManager,
+                         @Named("machine.ssh.copy.compress") boolean compressCopied) {
         this.envVars = envVars;
-        this.connectionTimeout = connectionTimeoutMs;
-        this.user = JschUserInfoImpl.builder()
-                                    .password(sshMachineRecipe.getPassword())
-                                    .promptPassword(true)
-                                    .passphrase(null)
-                                    .promptPassphrase(false)
-                                    .promptYesNo(true)
-                                    .build();
-        this.jsch = jsch;
-        this.host = sshMachineRecipe.getHost();
-        this.port = sshMachineRecipe.getPort();
-        this.username = sshMachineRecipe.getUsername();
+        this.compressCopied = compressCopied;
+        this.sessionManager = sessionManager;
+        this.recipe = sshMachineRecipe;
     }
 
     @Override
     public String getHost() {
-        return host;
+        return recipe.getHost();
     }
 
     @Override
     public void start() throws MachineException {
         try {
-            session = jsch.getSession(username, host, port);
-            session.setUserInfo(user);
             // todo remember parent pid of shell to be able to kill all processes on client stop
-            if (!session.isConnected()) {
-                session.connect(connectionTimeout);
-            }
+            sessionManager.connect(recipe);
         } catch (JSchException e) {
             throw new MachineException("Ssh machine creation failed because ssh of machine is inaccessible. Error: " +
                                        e.getLocalizedMessage());
@@ -110,23 +113,12 @@ public class JschSshClient implements SshClient {
 
     @Override
     public void stop() throws MachineException {
-        session.disconnect();
+        sessionManager.disconnect(recipe);
     }
 
     @Override
     public JschSshProcess createProcess(String commandLine) throws MachineException {
-        try {
-            ChannelExec exec = (ChannelExec)session.openChannel("exec");
-            exec.setCommand(commandLine);
-            envVars.entrySet()
-                   .stream()
-                   .forEach(envVariableEntry -> exec.setEnv(envVariableEntry.getKey(),
-                                                            envVariableEntry.getValue()));
-            return new JschSshProcess(exec);
-        } catch (JSchException e) {
-            throw new MachineException("Can't establish connection to perform command execution in ssh machine. Error: " +
-                                       e.getLocalizedMessage(), e);
-        }
+        return new JschSshProcess(sessionManager, recipe, commandLine, envVars);
     }
 
     @Override
@@ -136,16 +128,208 @@ public class JschSshClient implements SshClient {
             throw new MachineException("Source of copying '" + sourcePath + "' doesn't exist.");
         }
         if (source.isDirectory()) {
-            copyRecursively(sourcePath, targetPath);
+            if (!copyArchived(source.toPath(), targetPath)) {
+                // there is no tar on ssh machine
+                copyRecursively(sourcePath, targetPath);
+            }
         } else {
             copyFile(sourcePath, targetPath);
         }
     }
 
+    /**
+     * Copies content of folder as single tar archive which is streamed to tar on ssh machine over one exec channel.
+     * Files which already exist on ssh machine and are not changed are not transferred, see
+     * {@link #findUnchangedFiles(Map, String)}.
+     *
+     * @return {@code false} if archive can't be unpacked because there is no tar on ssh machine, {@code true} otherwise
+     */
+    private boolean copyArchived(Path sourceFolder, String targetFolder) throws MachineException {
+        final Map<String, Path> folders = new LinkedHashMap<>();
+        final Map<String, Path> files = new LinkedHashMap<>();
+        try {
+            Files.walkFileTree(sourceFolder, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(sourceFolder)) {
+                        folders.put(getEntryName(sourceFolder, dir), dir);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        files.put(getEntryName(sourceFolder, file), file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new MachineException(format("Reading of folder %s failed. Error: %s", sourceFolder, e.getLocalizedMessage()));
+        }
+
+        try {
+            files.keySet().removeAll(findUnchangedFiles(files, targetFolder));
+
+            final ByteArrayOutputStream error = new ByteArrayOutputStream();
+            final int execCode = exec(format("mkdir -p %1$s && tar -x%2$spf - -C %1$s", quote(targetFolder), compressCopied ? "z" : ""),
+                                      stdin -> writeArchive(folders,
+                                                            files,
+                                                            compressCopied ? new GZIPOutputStream(stdin, BUF_SIZE) : stdin),
+                                      new ByteArrayOutputStream(),
+                                      error);
+            if (execCode == COMMAND_NOT_FOUND_CODE) {
+                return false;
+            }
+            if (execCode != 0) {
+                throw new MachineException(format("Unpacking of files to folder %s failed. Exit code is %s. Error: %s",
+                                                  targetFolder,
+                                                  execCode,
+                                                  error.toString()));
+            }
+            return true;
+        } catch (JSchException | IOException e) {
+            throw new MachineException("Copying failed. Error: " + e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Finds files which don't need to be transferred to ssh machine, similarly to rsync quick check.
+     * Files which have the same size and modification time on ssh machine are considered as unchanged,
+     * files which have the same size only are compared by md5 sums.
+     *
+     * @param files
+     *         files to copy mapped by paths relative to target folder
+     * @param targetFolder
+     *         target folder on ssh machine
+     * @return relative paths of unchanged files
+     */
+    private Set<String> findUnchangedFiles(Map<String, Path> files, String targetFolder) throws JSchException, IOException {
+        final Set<String> unchanged = new HashSet<>();
+        final List<String> sameSize = new ArrayList<>();
+        // nothing is printed if target folder doesn't exist yet or find doesn't support -printf
+        final ByteArrayOutputStream listing = new ByteArrayOutputStream();
+        exec(format("find %s -type f -printf '%%P\\t%%s\\t%%T@\\n'", quote(targetFolder)),
+             stdin -> {},
+             listing,
+             new ByteArrayOutputStream());
+        for (String line : listing.toString(UTF_8.name()).split("\n")) {
+            final String[] columns = line.split("\t");
+            final Path file = columns.length == 3 ? files.get(columns[0]) : null;
+            if (file == null) {
+                continue;
+            }
+            final int fractionStart = columns[2].indexOf('.');
+            final long size;
+            final long modificationTime;
+            try {
+                size = Long.parseLong(columns[1]);
+                modificationTime = Long.parseLong(fractionStart < 0 ? columns[2] : columns[2].substring(0, fractionStart));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (size == Files.size(file)) {
+                // tar keeps modification time with precision of seconds
+                if (modificationTime == Files.getLastModifiedTime(file).to(TimeUnit.SECONDS)) {
+                    unchanged.add(columns[0]);
+                } else {
+                    sameSize.add(columns[0]);
+                }
+            }
+        }
+
+        if (!sameSize.isEmpty()) {
+            // names are separated with zero byte, so they are passed to md5sum as is
+            final ByteArrayOutputStream names = new ByteArrayOutputStream();
+            for (String name : sameSize) {
+                names.write(name.getBytes(UTF_8));
+                names.write(0);
+            }
+            final ByteArrayOutputStream sums = new ByteArrayOutputStream();
+            exec(format("cd %s && xargs -0 md5sum --", quote(targetFolder)), names::writeTo, sums, new ByteArrayOutputStream());
+            for (String line : sums.toString(UTF_8.name()).split("\n")) {
+                // line consists of 32 hex digits, two spaces and name of file
+                if (line.length() > MD5_HEX_LENGTH + 2 && line.startsWith("  ", MD5_HEX_LENGTH)) {
+                    final String name = line.substring(MD5_HEX_LENGTH + 2);
+                    if (sameSize.contains(name) && line.substring(0, MD5_HEX_LENGTH).equals(md5(files.get(name)))) {
+                        unchanged.add(name);
+                    }
+                }
+            }
+        }
+        return unchanged;
+    }
+
+    private static void writeArchive(Map<String, Path> folders, Map<String, Path> files, OutputStream out) throws IOException {
+        try (TarArchiveOutputStream tarOut = new TarArchiveOutputStream(new BufferedOutputStream(out, BUF_SIZE))) {
+            tarOut.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            // otherwise files bigger than 8 GiB and unusual ids or modification times fail archiving
+            tarOut.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+            // all folders are added, so empty folders and parents of changed files are created
+            for (Map.Entry<String, Path> folder : folders.entrySet()) {
+                tarOut.putArchiveEntry(new TarArchiveEntry(folder.getValue().toFile(), folder.getKey()));
+                tarOut.closeArchiveEntry();
+            }
+            for (Map.Entry<String, Path> file : files.entrySet()) {
+                final TarArchiveEntry entry = new TarArchiveEntry(file.getValue().toFile(), file.getKey());
+                if (Files.isExecutable(file.getValue())) {
+                    entry.setMode(EXECUTABLE_FILE_MODE);
+                }
+                tarOut.putArchiveEntry(entry);
+                Files.copy(file.getValue(), tarOut);
+                tarOut.closeArchiveEntry();
+            }
+        }
+    }
+
+    /**
+     * Quotes path which is argument of shell command, so spaces and special characters of it are not interpreted by
+     * shell. Leading <i>~/</i> is left unquoted, so it is still expanded to home folder of user.
+     */
+    private static String quote(String path) {
+        if ("~".equals(path)) {
+            return path;
+        }
+        if (path.startsWith("~/")) {
+            return path.length() == 2 ? path : "~/" + quoteAll(path.substring(2));
+        }
+        return quoteAll(path);
+    }
+
+    private static String quoteAll(String argument) {
+        return '\'' + argument.replace("'", "'\\''") + '\'';
+    }
+
+    private static String getEntryName(Path folder, Path path) {
+        return folder.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private static String md5(Path file) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e.getLocalizedMessage(), e);
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            final byte[] buf = new byte[BUF_SIZE];
+            int r;
+            while ((r = in.read(buf)) != -1) {
+                digest.update(buf, 0, r);
+            }
+        }
+        final StringBuilder hex = new StringBuilder(MD5_HEX_LENGTH);
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
     private void copyRecursively(String sourceFolder, String targetFolder) throws MachineException {
         // create target dir
         try {
-            int execCode = execAndGetCode("mkdir -p " + targetFolder);
+            int execCode = execAndGetCode("mkdir -p " + quote(targetFolder));
 
             if (execCode != 0) {
                 throw new MachineException(format("Creation of folder %s failed. Exit code is %s", targetFolder, execCode));
@@ -158,12 +342,10 @@ public class JschSshClient implements SshClient {
         final String targetAbsolutePath = getAbsolutePath(targetFolder);
 
         // copy files
-        ChannelSftp sftp = null;
-        try {
-            sftp = (ChannelSftp)session.openChannel("sftp");
-            sftp.connect(connectionTimeout);
+        try (JschSessionManager.Lease<ChannelSftp> lease = sessionManager.openSftpChannel(recipe)) {
+            lease.connect();
 
-            final ChannelSftp finalSftp = sftp;
+            final ChannelSftp finalSftp = lease.getChannel();
             Files.walkFileTree(Paths.get(sourceFolder), new SimpleFileVisitor<Path>() {
                 @Override
                 public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
@@ -182,26 +364,16 @@ public class JschSshClient implements SshClient {
             });
         } catch (JSchException | IOException e) {
             throw new MachineException("Copying failed. Error: " + e.getLocalizedMessage());
-        } finally {
-            if (sftp != null) {
-                sftp.disconnect();
-            }
         }
     }
 
     private void copyFile(String sourcePath, String targetPath) throws MachineException {
-        ChannelSftp sftp = null;
-        try {
-            sftp = (ChannelSftp)session.openChannel("sftp");
-            sftp.connect(connectionTimeout);
-            String absoluteTargetPath = getAbsolutePath(targetPath);
-            copyFile(sourcePath, absoluteTargetPath, sftp);
+        String absoluteTargetPath = getAbsolutePath(targetPath);
+        try (JschSessionManager.Lease<ChannelSftp> lease = sessionManager.openSftpChannel(recipe)) {
+            lease.connect();
+            copyFile(sourcePath, absoluteTargetPath, lease.getChannel());
         } catch (JSchException e) {
             throw new MachineException("Sftp copying failed. Error: " + e.getLocalizedMessage());
-        } finally {
-            if (sftp != null) {
-                sftp.disconnect();
-            }
         }
     }
 
@@ -231,39 +403,41 @@ public class JschSshClient implements SshClient {
 
     private String getAbsolutePath(String path) throws MachineException {
         try {
-            return execAndGetOutput("cd " + path + "; pwd");
+            return execAndGetOutput("cd " + quote(path) + "; pwd");
         } catch (JSchException | IOException | MachineException e) {
             throw new MachineException("Target directory lookup failed. " + e.getLocalizedMessage());
         }
     }
 
     private int execAndGetCode(String command) throws JSchException, IOException {
-        ChannelExec exec = (ChannelExec)session.openChannel("exec");
+        JschSessionManager.Lease<ChannelExec> lease = sessionManager.openExecChannel(recipe);
+        ChannelExec exec = lease.getChannel();
         exec.setCommand(command);
 
         try (InputStream inStream = exec.getInputStream();
              InputStream erStream = exec.getErrStream()) {
 
-            exec.connect(connectionTimeout);
+            lease.connect();
 
             // read streams to wait until command finishes its work
             IoUtil.readStream(inStream);
             IoUtil.readStream(erStream);
         } finally {
-            exec.disconnect();
+            lease.close();
         }
 
         return exec.getExitStatus();
     }
 
     private String execAndGetOutput(String command) throws JSchException, MachineException, IOException {
-        ChannelExec exec = (ChannelExec)session.openChannel("exec");
+        JschSessionManager.Lease<ChannelExec> lease = sessionManager.openExecChannel(recipe);
+        ChannelExec exec = lease.getChannel();
         exec.setCommand(command);
 
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(exec.getInputStream()));
              InputStream erStream = exec.getErrStream()) {
 
-            exec.connect(connectionTimeout);
+            lease.connect();
 
             ListLineConsumer listLineConsumer = new ListLineConsumer();
             String line;
@@ -279,7 +453,54 @@ public class JschSshClient implements SshClient {
             }
             return listLineConsumer.getText();
         } finally {
-            exec.disconnect();
+            lease.close();
         }
     }
+
+    /**
+     * Executes command writing its standard input with the specified writer.
+     * Output of command is written by JSch session thread directly to the specified streams, so command can't be blocked
+     * by unread output while its input is written.
+     *
+     * @return exit code of command
+     */
+    private int exec(String command, InputWriter input, OutputStream output, OutputStream error) throws JSchException, IOException {
+        JschSessionManager.Lease<ChannelExec> lease = sessionManager.openExecChannel(recipe);
+        ChannelExec exec = lease.getChannel();
+        exec.setCommand(command);
+        exec.setOutputStream(output, true);
+        exec.setErrStream(error, true);
+
+        try {
+            OutputStream stdin = exec.getOutputStream();
+            lease.connect();
+
+            IOException writeError = null;
+            try (OutputStream in = stdin) {
+                input.writeTo(in);
+            } catch (IOException e) {
+                // command may exit without reading of all the input, exit code explains the reason
+                writeError = e;
+            }
+            while (!exec.isClosed()) {
+                try {
+                    Thread.sleep(EXEC_POLL_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Execution of command was interrupted");
+                }
+            }
+            if (writeError != null && exec.getExitStatus() == 0) {
+                throw writeError;
+            }
+            return exec.getExitStatus();
+        } finally {
+            lease.close();
+        }
+    }
+
+    /** Writes standard input of command. */
+    private interface InputWriter {
+        void writeTo(OutputStream stdin) throws IOException;
+    }
 }
@@ -15,6 +15,7 @@ import com.jcraft.jsch.JSchException;
 
 import org.eclipse.che.api.core.util.LineConsumer;
 import org.eclipse.che.api.machine.server.exception.MachineException;
+import org.eclipse.che.plugin.machine.ssh.SshMachineRecipe;
 import org.eclipse.che.plugin.machine.ssh.SshProcess;
 
 import java.io.BufferedReader;
@@ -22,27 +23,44 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 /**
  * JSch implementation of {@link SshProcess}
+ * <p>
+ * Exec channel is taken from {@link JschSessionManager} on start of process only,
+ * so process which is created but never started doesn't hold channel of shared session.
  *
  * @author Alexander Garagatyi
  */
 public class JschSshProcess implements SshProcess {
-    private final ChannelExec exec;
-
-    public JschSshProcess(ChannelExec exec) {
-        this.exec = exec;
+    private final JschSessionManager  sessionManager;
+    private final SshMachineRecipe    recipe;
+    private final String              commandLine;
+    private final Map<String, String> envVars;
+
+    private volatile JschSessionManager.Lease<ChannelExec> lease;
+
+    public JschSshProcess(JschSessionManager sessionManager,
+                          SshMachineRecipe recipe,
+                          String commandLine,
+                          Map<String, String> envVars) {
+        this.sessionManager = sessionManager;
+        this.recipe = recipe;
+        this.commandLine = commandLine;
+        this.envVars = envVars;
     }
 
     @Override
     public void start() throws MachineException {
+        final JschSessionManager.Lease<ChannelExec> lease = openLease();
         try {
-            exec.connect();
+            lease.connect();
         } catch (JSchException e) {
+            lease.close();
             throw new MachineException("Ssh machine command execution error:" + e.getLocalizedMessage());
         }
     }
@@ -51,13 +69,15 @@ public class JschSshProcess implements SshProcess {
 
     @Override
     public void start(LineConsumer output) throws MachineException {
+        final JschSessionManager.Lease<ChannelExec> lease = openLease();
+        final ChannelExec exec = lease.getChannel();
         try (PipedOutputStream pipedOS = new PipedOutputStream();
              PipedInputStream pipedIS = new PipedInputStream(pipedOS);
              BufferedReader outReader = new BufferedReader(new InputStreamReader(pipedIS))) {
 
             exec.setOutputStream(pipedOS);
             exec.setExtOutputStream(pipedOS);
-            exec.connect();
+            lease.connect();
 
             String outLine;
             while ((outLine = outReader.readLine()) != null) {
@@ -66,16 +86,18 @@ public class JschSshProcess implements SshProcess {
         } catch (IOException | JSchException e) {
             throw new MachineException("Ssh machine command execution error:" + e.getLocalizedMessage());
         } finally {
-            exec.disconnect();
+            lease.close();
         }
     }
 
     @Override
     public void start(LineConsumer out, LineConsumer err) throws MachineException {
+        final JschSessionManager.Lease<ChannelExec> lease = openLease();
+        final ChannelExec exec = lease.getChannel();
         try (BufferedReader outReader = new BufferedReader(new InputStreamReader(exec.getInputStream()));
              BufferedReader errReader = new BufferedReader(new InputStreamReader(exec.getErrStream()))) {
 
-            exec.connect();
+            lease.connect();
 
             // read stderr in separate thread
             CompletableFuture<Optional<IOException>> future = CompletableFuture.supplyAsync(() -> {
@@ -102,17 +124,38 @@ public class JschSshProcess implements SshProcess {
         } catch (IOException | JSchException | ExecutionException | InterruptedException e) {
             throw new MachineException("Ssh machine command execution error:" + e.getLocalizedMessage());
         } finally {
-            exec.disconnect();
+            lease.close();
         }
     }
 
     @Override
     public int getExitCode() {
-        return exec.getExitStatus();
+        final JschSessionManager.Lease<ChannelExec> lease = this.lease;
+        return lease == null ? -1 : lease.getChannel().getExitStatus();
     }
 
     @Override
     public void kill() throws MachineException {
-        exec.disconnect();
+        final JschSessionManager.Lease<ChannelExec> lease = this.lease;
+        if (lease != null) {
+            lease.close();
+        }
+    }
+
+    private JschSessionManager.Lease<ChannelExec> openLease() throws MachineException {
+        if (lease != null) {
+            throw new MachineException("Ssh machine command is already started");
+        }
+        try {
+            final JschSessionManager.Lease<ChannelExec> lease = sessionManager.openExecChannel(recipe);
+            final ChannelExec exec = lease.getChannel();
+            exec.setCommand(commandLine);
+            envVars.forEach(exec::setEnv);
+            this.lease = lease;
+            return lease;
+        } catch (JSchException e) {
+            throw new MachineException("Can't establish connection to perform command execution in ssh machine. Error: " +
+                                       e.getLocalizedMessage(), e);
+        }
     }
 }
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.machine.ssh.jsch;
+
+import org.apache.sshd.server.Command;
+import org.apache.sshd.server.Environment;
+import org.apache.sshd.server.ExitCallback;
+import org.apache.sshd.server.SshServer;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.eclipse.che.plugin.machine.ssh.SshMachineRecipe;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * SSH server for tests which executes commands of exec channels with local shell.
+ */
+class EmbeddedSshServer {
+    private static final String PASSWORD = "password";
+
+    private final SshServer server;
+    private final Path      home;
+
+    private volatile long authenticationDelayMs;
+
+    EmbeddedSshServer(Path workDir) throws IOException {
+        home = Files.createDirectories(workDir.resolve("home"));
+        server = SshServer.setUpDefaultServer();
+        server.setPort(0);
+        final SimpleGeneratorHostKeyProvider keyProvider = new SimpleGeneratorHostKeyProvider(workDir.resolve("host.key"));
+        keyProvider.setAlgorithm("RSA");
+        server.setKeyPairProvider(keyProvider);
+        server.setPasswordAuthenticator((username, password, session) -> {
+            if (authenticationDelayMs > 0) {
+                try {
+                    Thread.sleep(authenticationDelayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return PASSWORD.equals(password);
+        });
+        server.setCommandFactory(command -> new ShellCommand(command, home));
+        server.start();
+    }
+
+    /** Returns recipe of machine which connects to this server. */
+    SshMachineRecipe getRecipe() {
+        return new SshMachineRecipe("localhost", server.getPort(), System.getProperty("user.name"), PASSWORD);
+    }
+
+    /** Returns home folder of user, commands are executed in it. */
+    Path getHome() {
+        return home;
+    }
+
+    /** Delays authentication of new sessions, so connection of session takes at least given time. */
+    void setAuthenticationDelay(long delayMs) {
+        this.authenticationDelayMs = delayMs;
+    }
+
+    /** Closes all the sessions opened to server. */
+    void closeSessions() throws IOException {
+        server.getActiveSessions().forEach(session -> session.close(true));
+    }
+
+    /** Returns number of sessions which are currently opened to server. */
+    int getActiveSessionCount() {
+        return server.getActiveSessions().size();
+    }
+
+    void stop() throws IOException {
+        server.stop(true);
+    }
+
+    /** Executes command of exec channel with local shell. */
+    private static class ShellCommand implements Command {
+        private final String command;
+        private final Path   home;
+
+        private InputStream  in;
+        private OutputStream out;
+        private OutputStream err;
+        private ExitCallback callback;
+        private Process      process;
+
+        ShellCommand(String command, Path home) {
+            this.command = command;
+            this.home = home;
+        }
+
+        @Override
+        public void setInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public void setOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void setErrorStream(OutputStream err) {
+            this.err = err;
+        }
+
+        @Override
+        public void setExitCallback(ExitCallback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void start(Environment env) throws IOException {
+            final ProcessBuilder builder = new ProcessBuilder("/bin/sh", "-c", command).directory(home.toFile());
+            builder.environment().put("HOME", home.toString());
+            process = builder.start();
+            final Thread input = new Thread(() -> {
+                try (OutputStream stdin = process.getOutputStream()) {
+                    pump(in, stdin);
+                } catch (IOException ignored) {
+                }
+            });
+            input.setDaemon(true);
+            input.start();
+            final Thread output = new Thread(() -> {
+                try {
+                    pump(process.getErrorStream(), err);
+                    pump(process.getInputStream(), out);
+                    callback.onExit(process.waitFor());
+                } catch (IOException | InterruptedException e) {
+                    callback.onExit(1, e.getMessage());
+                }
+            });
+            output.setDaemon(true);
+            output.start();
+        }
+
+        @Override
+        public void destroy() {
+            if (process != null) {
+                process.destroy();
+            }
+        }
+
+        private static void pump(InputStream from, OutputStream to) throws IOException {
+            final byte[] buf = new byte[8192];
+            int r;
+            while ((r = from.read(buf)) != -1) {
+                to.write(buf, 0, r);
+                to.flush();
+            }
+        }
+    }
+}
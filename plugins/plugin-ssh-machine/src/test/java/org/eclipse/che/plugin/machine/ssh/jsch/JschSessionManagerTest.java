@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.machine.ssh.jsch;
+
+import com.jcraft.jsch.ChannelExec;
+import com.jcraft.jsch.JSch;
+import com.jcraft.jsch.JSchException;
+import com.jcraft.jsch.Session;
+
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.plugin.machine.ssh.SshMachineRecipe;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests for {@link JschSessionManager}.
+ */
+public class JschSessionManagerTest {
+    private Path              workDir;
+    private EmbeddedSshServer server;
+    private SshMachineRecipe  recipe;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("ssh-sessions");
+        server = new EmbeddedSshServer(workDir);
+        recipe = server.getRecipe();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        server.stop();
+        IoUtil.deleteRecursive(workDir.toFile());
+    }
+
+    @Test
+    public void shouldShareSessionBetweenClientsOfTheSameMachine() throws Exception {
+        final JschSessionManager manager = new JschSessionManager(new JSch(), 10_000, 2, 8);
+        manager.connect(recipe);
+        manager.connect(recipe);
+
+        assertEquals(execute(manager, "true"), 0);
+        assertEquals(execute(manager, "exit 3"), 3);
+
+        assertEquals(manager.getSessionCount(recipe), 1);
+        assertEquals(manager.getSessionConnectCount(), 1);
+        assertEquals(manager.getChannelOpenCount(), 2);
+        assertTrue(manager.getChannelOpenTime(TimeUnit.NANOSECONDS) >= manager.getMaxChannelOpenTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Test
+    public void shouldDisconnectSessionsWhenLastClientIsDisconnected() throws Exception {
+        final JschSessionManager manager = new JschSessionManager(new JSch(), 10_000, 2, 8);
+        manager.connect(recipe);
+        manager.connect(recipe);
+
+        manager.disconnect(recipe);
+        assertEquals(manager.getSessionCount(recipe), 1);
+
+        manager.disconnect(recipe);
+        assertEquals(manager.getSessionCount(recipe), 0);
+    }
+
+    @Test
+    public void shouldOpenNewSessionWhenAllChannelsOfExistingSessionsAreInUse() throws Exception {
+        final JschSessionManager manager = new JschSessionManager(new JSch(), 10_000, 2, 1);
+        manager.connect(recipe);
+
+        try (JschSessionManager.Lease<ChannelExec> first = manager.openExecChannel(recipe);
+             JschSessionManager.Lease<ChannelExec> second = manager.openExecChannel(recipe)) {
+            assertEquals(manager.getSessionCount(recipe), 2);
+        }
+    }
+
+    @Test
+    public void shouldWaitForFreeChannelWhenLimitIsReached() throws Exception {
+        final JschSessionManager manager = new JschSessionManager(new JSch(), 10_000, 1, 2);
+        manager.connect(recipe);
+        final JschSessionManager.Lease<ChannelExec> first = manager.openExecChannel(recipe);
+        final JschSessionManager.Lease<ChannelExec> second = manager.openExecChannel(recipe);
+
+        final CompletableFuture<JschSessionManager.Lease<ChannelExec>> third = CompletableFuture.supplyAsync(() -> {
+            try {
+                return manager.openExecChannel(recipe);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(300);
+        assertFalse(third.isDone());
+
+        first.close();
+        third.get(10, TimeUnit.SECONDS).close();
+        second.close();
+        assertEquals(manager.getSessionCount(recipe), 1);
+    }
+
+    @Test
+    public void shouldReuseChannelWhichIsClosedByServer() throws Exception {
+        final JschSessionManager manager = new JschSessionManager(new JSch(), 10_000, 1, 1);
+        manager.connect(recipe);
+        // lease is not closed, like lease of process which was started in background
+        final JschSessionManager.Lease<ChannelExec> background = manager.openExecChannel(recipe);
+        background.getChannel().setCommand("true");
+        background.connect();
+        waitUntil(() -> background.getChannel().isClosed());
+
+        assertEquals(execute(manager, "true"), 0);
+    }
+
+    @Test
+    public void shouldReconnectWhenSessionIsClosed() throws Exception {
+        final JschSessionManager manager = new JschSessionManager(new JSch(), 10_000, 1, 8);
+        manager.connect(recipe);
+        final Session session;
+        try (JschSessionManager.Lease<ChannelExec> lease = manager.openExecChannel(recipe)) {
+            session = lease.getChannel().getSession();
+        }
+
+        server.closeSessions();
+        waitUntil(() -> !session.isConnected());
+
+        assertEquals(execute(manager, "true"), 0);
+        assertEquals(manager.getSessionCount(recipe), 1);
+        assertEquals(manager.getSessionConnectCount(), 2);
+    }
+
+    @Test
+    public void shouldNotBlockReleaseOfChannelWhileNewSessionIsConnecting() throws Exception {
+        final JschSessionManager manager = new JschSessionManager(new JSch(), 10_000, 2, 1);
+        manager.connect(recipe);
+        final JschSessionManager.Lease<ChannelExec> first = manager.openExecChannel(recipe);
+        server.setAuthenticationDelay(2_000);
+
+        // all channels of the first session are in use, so the second session is connected
+        final CompletableFuture<JschSessionManager.Lease<ChannelExec>> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return manager.openExecChannel(recipe);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(300);
+        assertFalse(second.isDone());
+
+        final long start = System.nanoTime();
+        first.close();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000, "Release of channel waited for connection");
+        second.get(10, TimeUnit.SECONDS).close();
+    }
+
+    @Test
+    public void shouldCloseSessionWhichIsConnectedAfterDisconnectionOfMachine() throws Exception {
+        final JschSessionManager manager = new JschSessionManager(new JSch(), 10_000, 2, 1);
+        manager.connect(recipe);
+        final JschSessionManager.Lease<ChannelExec> first = manager.openExecChannel(recipe);
+        server.setAuthenticationDelay(1_000);
+        final CompletableFuture<JschSessionManager.Lease<ChannelExec>> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return manager.openExecChannel(recipe);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(300);
+
+        manager.disconnect(recipe);
+
+        try {
+            second.get(10, TimeUnit.SECONDS);
+            fail("Channel must not be opened over stopped client");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().getCause() instanceof JSchException, "Unexpected cause " + e.getCause());
+        }
+        assertEquals(manager.getSessionCount(recipe), 0);
+        waitUntil(() -> server.getActiveSessionCount() == 0);
+    }
+
+    private int execute(JschSessionManager manager, String command) throws Exception {
+        try (JschSessionManager.Lease<ChannelExec> lease = manager.openExecChannel(recipe)) {
+            lease.getChannel().setCommand(command);
+            lease.connect();
+            waitUntil(() -> lease.getChannel().isClosed());
+            return lease.getChannel().getExitStatus();
+        }
+    }
+
+    private static void waitUntil(Condition condition) throws Exception {
+        final long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.isMet()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timeout of waiting for condition");
+            Thread.sleep(10);
+        }
+    }
+
+    private interface Condition {
+        boolean isMet() throws Exception;
+    }
+}
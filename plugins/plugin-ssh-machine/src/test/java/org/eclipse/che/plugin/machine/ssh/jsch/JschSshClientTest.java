@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.machine.ssh.jsch;
+
+import com.jcraft.jsch.JSch;
+
+import org.eclipse.che.api.core.util.ListLineConsumer;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests copying of folders with {@link JschSshClient} to embedded SSH server which executes commands with local shell.
+ */
+public class JschSshClientTest {
+    private EmbeddedSshServer server;
+    private Path              workDir;
+    private Path              source;
+    private Path              target;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("ssh-copy");
+        source = Files.createDirectories(workDir.resolve("source"));
+        target = workDir.resolve("target");
+        Files.createDirectories(source.resolve("a/b"));
+        Files.createDirectories(source.resolve("empty"));
+        Files.write(source.resolve("root.txt"), "root".getBytes(UTF_8));
+        Files.write(source.resolve("a/b/nested.txt"), "nested".getBytes(UTF_8));
+        Files.write(source.resolve("a/run.sh"), "#!/bin/sh".getBytes(UTF_8));
+        source.resolve("a/run.sh").toFile().setExecutable(true);
+
+        server = new EmbeddedSshServer(workDir);
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        server.stop();
+        IoUtil.deleteRecursive(workDir.toFile());
+    }
+
+    @Test
+    public void shouldCopyFolderContent() throws Exception {
+        copy(false);
+
+        assertEquals(read(target.resolve("root.txt")), "root");
+        assertEquals(read(target.resolve("a/b/nested.txt")), "nested");
+        assertTrue(Files.isDirectory(target.resolve("empty")));
+        assertTrue(Files.isExecutable(target.resolve("a/run.sh")));
+        assertEquals(Files.getLastModifiedTime(target.resolve("root.txt")).to(TimeUnit.SECONDS),
+                     Files.getLastModifiedTime(source.resolve("root.txt")).to(TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldCopyFolderContentWithCompression() throws Exception {
+        copy(true);
+
+        assertEquals(read(target.resolve("root.txt")), "root");
+        assertEquals(read(target.resolve("a/b/nested.txt")), "nested");
+        assertTrue(Files.isExecutable(target.resolve("a/run.sh")));
+    }
+
+    @Test
+    public void shouldNotTransferFilesWithTheSameSizeAndModificationTime() throws Exception {
+        copy(false);
+        // content is changed on remote side, but size and modification time stay the same
+        final FileTime modified = Files.getLastModifiedTime(target.resolve("root.txt"));
+        Files.write(target.resolve("root.txt"), "ROOT".getBytes(UTF_8));
+        Files.setLastModifiedTime(target.resolve("root.txt"), modified);
+        Files.write(source.resolve("a/b/nested.txt"), "changed nested".getBytes(UTF_8));
+
+        copy(false);
+
+        assertEquals(read(target.resolve("root.txt")), "ROOT");
+        assertEquals(read(target.resolve("a/b/nested.txt")), "changed nested");
+    }
+
+    @Test
+    public void shouldCompareMd5SumsOfFilesWithTheSameSize() throws Exception {
+        copy(false);
+        final FileTime remoteModified = FileTime.fromMillis(System.currentTimeMillis() - 3_600_000);
+        Files.setLastModifiedTime(target.resolve("root.txt"), remoteModified);
+        Files.write(target.resolve("a/b/nested.txt"), "NESTED".getBytes(UTF_8));
+        // remote file of the same size modified in the same second as local one is considered unchanged and is not
+        // compared by md5 sum, so modification time must differ to make sure changed content is found by md5 sum
+        Files.setLastModifiedTime(target.resolve("a/b/nested.txt"), remoteModified);
+
+        copy(false);
+
+        // the same content is not transferred, so remote modification time is not updated
+        assertEquals(Files.getLastModifiedTime(target.resolve("root.txt")).to(TimeUnit.SECONDS),
+                     remoteModified.to(TimeUnit.SECONDS));
+        assertEquals(read(target.resolve("a/b/nested.txt")), "nested");
+    }
+
+    @Test
+    public void shouldCopyToFolderWithSpecialCharactersInName() throws Exception {
+        target = workDir.resolve("target folder's $HOME");
+        copy(false);
+        final FileTime remoteModified = FileTime.fromMillis(System.currentTimeMillis() - 3_600_000);
+        Files.write(target.resolve("root.txt"), "ROOT".getBytes(UTF_8));
+        Files.setLastModifiedTime(target.resolve("root.txt"), remoteModified);
+
+        copy(false);
+
+        assertEquals(read(target.resolve("root.txt")), "root");
+        assertEquals(read(target.resolve("a/b/nested.txt")), "nested");
+        assertFalse(Files.exists(workDir.resolve("target")));
+    }
+
+    @Test
+    public void shouldCopyToFolderInHomeOfUser() throws Exception {
+        copy(false, "~/che/terminal");
+        final Path remote = server.getHome().resolve("che/terminal/root.txt");
+        Files.write(remote, "ROOT".getBytes(UTF_8));
+        Files.setLastModifiedTime(remote, FileTime.fromMillis(System.currentTimeMillis() - 3_600_000));
+
+        copy(false, "~/che/terminal");
+
+        assertEquals(read(remote), "root");
+        assertEquals(read(server.getHome().resolve("che/terminal/a/b/nested.txt")), "nested");
+        assertFalse(Files.exists(server.getHome().resolve("~")));
+    }
+
+    @Test
+    public void shouldCopyFileWhichModificationTimeDoesNotFitIntoTarHeader() throws Exception {
+        final FileTime beforeEpoch = FileTime.fromMillis(-3_600_000);
+        Files.setLastModifiedTime(source.resolve("root.txt"), beforeEpoch);
+
+        copy(false);
+
+        assertEquals(read(target.resolve("root.txt")), "root");
+        assertEquals(Files.getLastModifiedTime(target.resolve("root.txt")).to(TimeUnit.SECONDS),
+                     beforeEpoch.to(TimeUnit.SECONDS));
+    }
+
+    @Test(timeOut = 10_000)
+    public void shouldNotHoldChannelForProcessWhichIsNotStarted() throws Exception {
+        final JschSshClient client = new JschSshClient(server.getRecipe(),
+                                                       emptyMap(),
+                                                       new JschSessionManager(new JSch(), 10_000, 1, 1),
+                                                       false);
+        client.start();
+        try {
+            final JschSshProcess notStarted = client.createProcess("true");
+            final JschSshProcess process = client.createProcess("echo started");
+            final ListLineConsumer output = new ListLineConsumer();
+
+            process.start(output);
+
+            assertEquals(output.getText(), "started");
+            assertEquals(notStarted.getExitCode(), -1);
+            notStarted.kill();
+        } finally {
+            client.stop();
+        }
+    }
+
+    private void copy(boolean compress) throws Exception {
+        copy(compress, target.toString());
+    }
+
+    private void copy(boolean compress, String targetFolder) throws Exception {
+        final JschSshClient client = new JschSshClient(server.getRecipe(),
+                                                       emptyMap(),
+                                                       new JschSessionManager(new JSch(), 10_000, 2, 8),
+                                                       compress);
+        client.start();
+        try {
+            client.copy(source.toString(), targetFolder);
+        } finally {
+            client.stop();
+        }
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), UTF_8);
+    }
+}
@@ -27,6 +27,7 @@ import org.eclipse.che.plugin.svn.server.credentials.CredentialsException;
 import org.eclipse.che.plugin.svn.server.credentials.CredentialsProvider;
 import org.eclipse.che.plugin.svn.server.credentials.CredentialsProvider.Credentials;
 import org.eclipse.che.plugin.svn.server.repository.RepositoryUrlProvider;
+import org.eclipse.che.plugin.svn.server.repository.WorkingCopyInfoCache;
 import org.eclipse.che.plugin.svn.server.upstream.CommandLineResult;
 import org.eclipse.che.plugin.svn.server.upstream.UpstreamUtils;
 import org.eclipse.che.plugin.svn.server.utils.InfoUtils;
@@ -93,15 +94,18 @@ public class SubversionApi {
     private final CredentialsProvider   credentialsProvider;
     private final RepositoryUrlProvider repositoryUrlProvider;
     private final SshScriptProvider     sshScriptProvider;
+    private final WorkingCopyInfoCache  workingCopyInfoCache;
     protected     LineConsumerFactory   svnOutputPublisherFactory;
 
     @Inject
     public SubversionApi(CredentialsProvider credentialsProvider,
                          RepositoryUrlProvider repositoryUrlProvider,
-                         SshScriptProvider sshScriptProvider) {
+                         SshScriptProvider sshScriptProvider,
+                         WorkingCopyInfoCache workingCopyInfoCache) {
         this.credentialsProvider = credentialsProvider;
         this.repositoryUrlProvider = repositoryUrlProvider;
         this.sshScriptProvider = sshScriptProvider;
+        this.workingCopyInfoCache = workingCopyInfoCache;
     }
 
     /**
@@ -263,7 +267,12 @@ public class SubversionApi {
         cliArgs.add(request.getUrl());
         cliArgs.add(projectPath.getAbsolutePath());
 
-        CommandLineResult result = runCommand(null, cliArgs, projectPath, request.getPaths(), credentials, request.getUrl());
+        CommandLineResult result;
+        try {
+            result = runCommand(null, cliArgs, projectPath, request.getPaths(), credentials, request.getUrl());
+        } finally {
+            workingCopyInfoCache.invalidate(projectPath.getAbsolutePath());
+        }
 
         return DtoFactory.getInstance().createDto(CLIOutputWithRevisionResponse.class)
                          .withCommand(result.getCommandLine().toString())
@@ -300,8 +309,8 @@ public class SubversionApi {
         cliArgs.add("-m");
         cliArgs.add(request.getMessage());
 
-        final CommandLineResult result = runCommand(null, cliArgs, projectPath,
-                                                    addWorkingCopyPathIfNecessary(request.getPaths()));
+        final CommandLineResult result = runModifyingCommand(null, cliArgs, projectPath,
+                                                             addWorkingCopyPathIfNecessary(request.getPaths()));
 
         return DtoFactory.getInstance().createDto(CLIOutputWithRevisionResponse.class)
                          .withCommand(result.getCommandLine().toString())
@@ -404,8 +413,8 @@ public class SubversionApi {
         // Command Name
         uArgs.add("update");
 
-        final CommandLineResult result = runCommand(null, uArgs, projectPath,
-                                                    addWorkingCopyPathIfNecessary(request.getPaths()));
+        final CommandLineResult result = runModifyingCommand(null, uArgs, projectPath,
+                                                             addWorkingCopyPathIfNecessary(request.getPaths()));
 
         return DtoFactory.getInstance().createDto(CLIOutputWithRevisionResponse.class)
                          .withCommand(result.getCommandLine().toString())
@@ -852,6 +861,20 @@ public class SubversionApi {
         return paths;
     }
 
+    /**
+     * Runs command which may change revision or URL of working copy and drops cached info of working copy after that.
+     */
+    private CommandLineResult runModifyingCommand(Map<String, String> env,
+                                                  List<String> args,
+                                                  File projectPath,
+                                                  List<String> paths) throws IOException, SubversionException {
+        try {
+            return runCommand(env, args, projectPath, paths);
+        } finally {
+            workingCopyInfoCache.invalidate(projectPath.getAbsolutePath());
+        }
+    }
+
     private CommandLineResult runCommand(Map<String, String> env,
                                          List<String> args,
                                          File projectPath,
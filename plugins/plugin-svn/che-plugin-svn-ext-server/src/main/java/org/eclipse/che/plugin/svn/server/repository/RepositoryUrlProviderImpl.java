@@ -10,22 +10,25 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.svn.server.repository;
 
-import java.io.File;
 import java.io.IOException;
 
-import org.eclipse.che.plugin.svn.server.upstream.CommandLineResult;
-import org.eclipse.che.plugin.svn.server.upstream.UpstreamUtils;
+import javax.inject.Inject;
+
 import org.eclipse.che.plugin.svn.server.utils.InfoUtils;
 
 
 public class RepositoryUrlProviderImpl implements RepositoryUrlProvider {
 
+    private final WorkingCopyInfoCache workingCopyInfoCache;
+
+    @Inject
+    public RepositoryUrlProviderImpl(WorkingCopyInfoCache workingCopyInfoCache) {
+        this.workingCopyInfoCache = workingCopyInfoCache;
+    }
+
     @Override
     public String getRepositoryUrl(final String projectPath) throws IOException {
-        final File projectPathFile = new File(projectPath);
-        final CommandLineResult clResult = UpstreamUtils.executeCommandLine(null, "svn", new String[]{"info"},
-                                                                            null, -1L, projectPathFile);
-        return InfoUtils.getUrl(clResult.getStdout());
+        return InfoUtils.getUrl(workingCopyInfoCache.getInfo(projectPath));
     }
 
 }
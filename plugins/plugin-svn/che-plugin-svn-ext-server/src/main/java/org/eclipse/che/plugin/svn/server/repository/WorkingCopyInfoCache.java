@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.svn.server.repository;
+
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.eclipse.che.plugin.svn.server.upstream.CommandLineResult;
+import org.eclipse.che.plugin.svn.server.upstream.UpstreamUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps output of 'svn info' of working copies, so URL, repository root, revision etc. of working copy are not
+ * requested from the 'svn' process each time they are needed.
+ * <p>
+ * Cached info of working copy is dropped when anything in its administrative '.svn' directory is changed, e.g.
+ * after update, switch or relocate, and also may be dropped explicitly with {@link #invalidate(String)}.
+ * Unsuccessful results of 'svn info' are never cached.
+ */
+@Singleton
+public class WorkingCopyInfoCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WorkingCopyInfoCache.class);
+
+    private static final String SVN_DIR = ".svn";
+
+    private final FileWatcherNotificationHandler      fileWatcherNotificationHandler;
+    private final FileWatcherNotificationListener     svnDirListener;
+    private final ConcurrentMap<String, List<String>> infos;
+    /** Incremented on each invalidation, prevents caching of info which is loaded concurrently with invalidation. */
+    private final AtomicLong                          version;
+
+    private final AtomicLong hits;
+    private final AtomicLong loads;
+    private final AtomicLong loadTime;
+
+    @Inject
+    public WorkingCopyInfoCache(FileWatcherNotificationHandler fileWatcherNotificationHandler) {
+        this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
+        this.infos = new ConcurrentHashMap<>();
+        this.version = new AtomicLong();
+        this.hits = new AtomicLong();
+        this.loads = new AtomicLong();
+        this.loadTime = new AtomicLong();
+        this.svnDirListener = new FileWatcherNotificationListener(file -> indexOfSvnDir(file.getPath()) >= 0) {
+            @Override
+            public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
+                final File workingCopy = getWorkingCopyRoot(virtualFile);
+                if (workingCopy != null) {
+                    invalidate(workingCopy.getAbsolutePath());
+                }
+            }
+        };
+    }
+
+    @PostConstruct
+    void start() {
+        fileWatcherNotificationHandler.addNotificationListener(svnDirListener);
+    }
+
+    @PreDestroy
+    void stop() {
+        fileWatcherNotificationHandler.removeNotificationListener(svnDirListener);
+    }
+
+    /**
+     * Get output of 'svn info' for the specified working copy.
+     *
+     * @param projectPath
+     *         absolute path of working copy
+     * @return lines of 'svn info' output, or empty list if 'svn info' failed, e.g. path is not a working copy
+     * @throws IOException
+     *         if 'svn' process can't be executed
+     */
+    public List<String> getInfo(String projectPath) throws IOException {
+        final String key = normalize(projectPath);
+        final List<String> cached = infos.get(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        final long startVersion = version.get();
+        final long start = System.nanoTime();
+        final CommandLineResult result = UpstreamUtils.executeCommandLine(null, "svn", new String[]{"info"}, null, -1L,
+                                                                          new File(projectPath));
+        final long elapsed = System.nanoTime() - start;
+        loads.incrementAndGet();
+        loadTime.addAndGet(elapsed);
+        LOG.debug("'svn info' for {} took {} ms", projectPath, TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+        if (result.getExitCode() != 0) {
+            return Collections.emptyList();
+        }
+        final List<String> info = Collections.unmodifiableList(result.getStdout());
+        if (version.get() == startVersion) {
+            infos.put(key, info);
+        }
+        return info;
+    }
+
+    /**
+     * Drop cached info of the specified working copy and all working copies which are located inside it.
+     *
+     * @param path
+     *         absolute path of working copy
+     */
+    public void invalidate(String path) {
+        version.incrementAndGet();
+        final String key = normalize(path);
+        final String prefix = key.endsWith(File.separator) ? key : key + File.separator;
+        infos.keySet().removeIf(cachedPath -> cachedPath.equals(key) || cachedPath.startsWith(prefix));
+    }
+
+    /** Drop all cached info. */
+    public void invalidateAll() {
+        version.incrementAndGet();
+        infos.clear();
+    }
+
+    /** Number of requests which were served from cache. */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /** Number of 'svn info' processes which were executed to fill cache. */
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    /** Total time spent by 'svn info' processes which were executed to fill cache. */
+    public long getTotalLoadTime(TimeUnit unit) {
+        return unit.convert(loadTime.get(), TimeUnit.NANOSECONDS);
+    }
+
+    private static String normalize(String path) {
+        return Paths.get(path).toAbsolutePath().normalize().toString();
+    }
+
+    private static int indexOfSvnDir(Path path) {
+        final String[] elements = path.elements();
+        for (int i = 0; i < elements.length; i++) {
+            if (SVN_DIR.equals(elements[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Get folder which contains '.svn' directory the specified file belongs to. */
+    private static File getWorkingCopyRoot(VirtualFile virtualFile) {
+        final int svnDirIndex = indexOfSvnDir(virtualFile.getPath());
+        File root = virtualFile.toIoFile();
+        for (int i = virtualFile.getPath().length(); i > svnDirIndex && root != null; i--) {
+            root = root.getParentFile();
+        }
+        return root;
+    }
+}
@@ -137,6 +137,7 @@ public class UpstreamUtils {
         final CommandLineOutputProcessor stdOutConsumer = new CommandLineOutputProcessor(new ArrayList<String>());
         final CommandLineOutputProcessor stdErrConsumer = new CommandLineOutputProcessor(new ArrayList<String>());
 
+        final long start = System.nanoTime();
         final Process process = processBuilder.start();
 
         final Watchdog watcher;
@@ -154,6 +155,9 @@ public class UpstreamUtils {
             throw new IOException(e);
         }
 
+        LOG.debug("Command {} finished with exit code {} in {} ms", command, process.exitValue(),
+                  TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
         return new CommandLineResult(command, process.exitValue(), stdOutConsumer.getOutput(), stdErrConsumer.getOutput());
     }
 }
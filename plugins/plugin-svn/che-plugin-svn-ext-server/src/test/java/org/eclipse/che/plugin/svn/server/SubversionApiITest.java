@@ -10,12 +10,14 @@
  *******************************************************************************/
 package org.eclipse.che.plugin.svn.server;
 
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
 import org.eclipse.che.commons.lang.ZipUtils;
 import org.eclipse.che.dto.server.DtoFactory;
 import org.eclipse.che.plugin.ssh.key.script.SshKeyProvider;
 import org.eclipse.che.plugin.ssh.key.script.SshScriptProvider;
 import org.eclipse.che.plugin.svn.server.credentials.CredentialsProvider;
 import org.eclipse.che.plugin.svn.server.repository.RepositoryUrlProvider;
+import org.eclipse.che.plugin.svn.server.repository.WorkingCopyInfoCache;
 import org.eclipse.che.plugin.svn.server.utils.TestUtils;
 import org.eclipse.che.plugin.svn.shared.CLIOutputResponse;
 import org.eclipse.che.plugin.svn.shared.CLIOutputWithRevisionResponse;
@@ -52,11 +54,13 @@ import static org.junit.Assert.assertTrue;
 public class SubversionApiITest {
 
     @Mock
-    private CredentialsProvider   credentialsProvider;
+    private CredentialsProvider            credentialsProvider;
     @Mock
-    private RepositoryUrlProvider repositoryUrlProvider;
+    private RepositoryUrlProvider          repositoryUrlProvider;
     @Mock
-    private SshKeyProvider sshKeyProvider;
+    private SshKeyProvider                 sshKeyProvider;
+    @Mock
+    private FileWatcherNotificationHandler fileWatcherNotificationHandler;
 
     private SubversionApi subversionApi;
     private File          repoRoot;
@@ -72,7 +76,10 @@ public class SubversionApiITest {
         tmpAbsolutePath = tmpDir.toFile().getAbsolutePath();
         tmpDir.toFile().deleteOnExit();
 
-        this.subversionApi = new SubversionApi(credentialsProvider, repositoryUrlProvider, new SshScriptProvider(sshKeyProvider));
+        this.subversionApi = new SubversionApi(credentialsProvider,
+                                               repositoryUrlProvider,
+                                               new SshScriptProvider(sshKeyProvider),
+                                               new WorkingCopyInfoCache(fileWatcherNotificationHandler));
     }
 
     /**
@@ -23,6 +23,7 @@ import org.eclipse.che.api.project.server.type.ValueProviderFactory;
 import org.eclipse.che.api.user.server.dao.UserProfileDao;
 import org.eclipse.che.api.vfs.VirtualFile;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
 import org.eclipse.che.commons.lang.NameGenerator;
 import org.eclipse.che.plugin.ssh.key.script.SshKeyProvider;
 import org.eclipse.che.plugin.svn.server.credentials.CredentialsProvider;
@@ -47,15 +48,17 @@ import static org.mockito.Mockito.when;
 public class SubversionProjectImporterTest {
 
     @Mock
-    private UserProfileDao        userProfileDao;
+    private UserProfileDao                 userProfileDao;
     @Mock
-    private CredentialsProvider   credentialsProvider;
+    private CredentialsProvider            credentialsProvider;
     @Mock
-    private RepositoryUrlProvider repositoryUrlProvider;
+    private RepositoryUrlProvider          repositoryUrlProvider;
     @Mock
-    private SourceStorage         sourceStorage;
+    private SourceStorage                  sourceStorage;
     @Mock
-    private SshKeyProvider        sshKeyProvider;
+    private SshKeyProvider                 sshKeyProvider;
+    @Mock
+    private FileWatcherNotificationHandler fileWatcherNotificationHandler;
 
     private File                      repoRoot;
     private SubversionProjectImporter projectImporter;
@@ -76,6 +79,7 @@ public class SubversionProjectImporterTest {
                 bind(UserProfileDao.class).toInstance(userProfileDao);
                 bind(CredentialsProvider.class).toInstance(credentialsProvider);
                 bind(RepositoryUrlProvider.class).toInstance(repositoryUrlProvider);
+                bind(FileWatcherNotificationHandler.class).toInstance(fileWatcherNotificationHandler);
             }
         });
 
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.plugin.svn.server.repository;
+
+import com.google.common.io.Files;
+
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.eclipse.che.plugin.svn.server.upstream.UpstreamUtils;
+import org.eclipse.che.plugin.svn.server.utils.InfoUtils;
+import org.eclipse.che.plugin.svn.server.utils.TestUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link WorkingCopyInfoCache}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class WorkingCopyInfoCacheTest {
+
+    @Mock
+    private FileWatcherNotificationHandler fileWatcherNotificationHandler;
+
+    private WorkingCopyInfoCache            cache;
+    private FileWatcherNotificationListener listener;
+    private File                            wcRoot;
+
+    @Before
+    public void setUp() throws Exception {
+        final File repoRoot = TestUtils.createGreekTreeRepository();
+        wcRoot = Files.createTempDir();
+        wcRoot.deleteOnExit();
+        TestUtils.handleCLIResult(UpstreamUtils.executeCommandLine(null, "svn", new String[]{
+                "checkout",
+                "file:///" + repoRoot.getAbsolutePath(),
+                wcRoot.getAbsolutePath()
+        }, -1, wcRoot));
+
+        cache = new WorkingCopyInfoCache(fileWatcherNotificationHandler);
+        cache.start();
+
+        final ArgumentCaptor<FileWatcherNotificationListener> captor = ArgumentCaptor.forClass(FileWatcherNotificationListener.class);
+        verify(fileWatcherNotificationHandler).addNotificationListener(captor.capture());
+        listener = captor.getValue();
+    }
+
+    @Test
+    public void shouldRunSvnInfoOnlyOnceForWorkingCopy() throws Exception {
+        final String url = InfoUtils.getUrl(cache.getInfo(wcRoot.getAbsolutePath()));
+
+        assertEquals(url, InfoUtils.getUrl(cache.getInfo(wcRoot.getAbsolutePath())));
+        assertEquals(url, InfoUtils.getUrl(cache.getInfo(wcRoot.getAbsolutePath() + File.separator)));
+        assertEquals(1, cache.getLoadCount());
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void shouldNotCacheInfoOfFolderWhichIsNotWorkingCopy() throws Exception {
+        final File folder = Files.createTempDir();
+        folder.deleteOnExit();
+
+        assertTrue(cache.getInfo(folder.getAbsolutePath()).isEmpty());
+        assertTrue(cache.getInfo(folder.getAbsolutePath()).isEmpty());
+        assertEquals(2, cache.getLoadCount());
+    }
+
+    @Test
+    public void shouldReloadInfoAfterInvalidation() throws Exception {
+        cache.getInfo(wcRoot.getAbsolutePath());
+        cache.invalidate(wcRoot.getAbsolutePath());
+        cache.getInfo(wcRoot.getAbsolutePath());
+
+        assertEquals(2, cache.getLoadCount());
+    }
+
+    @Test
+    public void shouldReloadInfoWhenSvnAdministrativeDirectoryIsChanged() throws Exception {
+        cache.getInfo(wcRoot.getAbsolutePath());
+
+        final VirtualFile wcDb = mockVirtualFile(Path.of("/project/.svn/wc.db"), new File(wcRoot, ".svn/wc.db"));
+        assertTrue(listener.shouldBeNotifiedFor(wcDb));
+        listener.onFileWatcherEvent(wcDb, FileWatcherEventType.MODIFIED);
+
+        cache.getInfo(wcRoot.getAbsolutePath());
+
+        assertEquals(2, cache.getLoadCount());
+    }
+
+    @Test
+    public void shouldIgnoreChangesOutsideOfSvnAdministrativeDirectory() throws Exception {
+        final VirtualFile file = mockVirtualFile(Path.of("/project/iota"), new File(wcRoot, "iota"));
+
+        assertFalse(listener.shouldBeNotifiedFor(file));
+    }
+
+    @Test
+    public void shouldRemoveListenerOnStop() throws Exception {
+        cache.stop();
+
+        verify(fileWatcherNotificationHandler).removeNotificationListener(listener);
+    }
+
+    private VirtualFile mockVirtualFile(Path path, File ioFile) {
+        final VirtualFile virtualFile = mock(VirtualFile.class);
+        when(virtualFile.getPath()).thenReturn(path);
+        when(virtualFile.toIoFile()).thenReturn(ioFile);
+        return virtualFile;
+    }
+}
@@ -19,6 +19,7 @@ import org.eclipse.che.api.user.server.dao.Profile;
 import org.eclipse.che.api.user.server.dao.UserProfileDao;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
 import org.eclipse.che.api.vfs.impl.file.LocalVirtualFileSystemProvider;
 import org.eclipse.che.commons.env.EnvironmentContext;
 import org.eclipse.che.commons.subject.SubjectImpl;
@@ -28,6 +29,7 @@ import org.eclipse.che.plugin.svn.server.SubversionException;
 import org.eclipse.che.plugin.svn.server.credentials.CredentialsException;
 import org.eclipse.che.plugin.svn.server.credentials.CredentialsProvider;
 import org.eclipse.che.plugin.svn.server.repository.RepositoryUrlProvider;
+import org.eclipse.che.plugin.svn.server.repository.WorkingCopyInfoCache;
 import org.eclipse.che.plugin.svn.server.upstream.CommandLineResult;
 import org.eclipse.che.plugin.svn.server.upstream.UpstreamUtils;
 import org.eclipse.che.plugin.svn.shared.AddRequest;
@@ -75,7 +77,7 @@ public class TestUtils {
         public String getRepositoryUrl(final String projectPath) throws IOException {
             return "";
         }
-    }, null);
+    }, null, new WorkingCopyInfoCache(Mockito.mock(FileWatcherNotificationHandler.class)));
 
     public static final String[] GREEK_TREE = new String[] {
             "/",
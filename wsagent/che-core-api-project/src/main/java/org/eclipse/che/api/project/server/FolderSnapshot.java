@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Folder which remembers listings of folders, lookups of children and content of small files once they are read.
+ * All the entries obtained from snapshot share the same remembered state, so value providers of different project
+ * types which estimate the same folder concurrently read every folder and file only once.
+ * <p>
+ * Snapshot doesn't track changes of file system and is expected to be used during single resolution of project types.
+ *
+ * @see ProjectTypeResolver
+ */
+class FolderSnapshot extends FolderEntry {
+
+    /** Content of bigger files is not remembered. */
+    private static final long MAX_REMEMBERED_CONTENT_LENGTH = 1024 * 1024;
+
+    private final State state;
+
+    FolderSnapshot(VirtualFile folder, ProjectRegistry registry) throws ServerException {
+        this(folder, registry, new State());
+    }
+
+    private FolderSnapshot(VirtualFile folder, ProjectRegistry registry, State state) throws ServerException {
+        super(folder, registry);
+        this.state = state;
+    }
+
+    @Override
+    public VirtualFileEntry getChild(String path) throws ServerException {
+        final VirtualFile child = state.getChild(getVirtualFile(), path);
+        return child == null ? null : wrap(child);
+    }
+
+    @Override
+    public FolderEntry getChildFolder(String path) throws ServerException {
+        final VirtualFile child = state.getChild(getVirtualFile(), path);
+        return child == null || child.isFile() ? null : new FolderSnapshot(child, projectRegistry, state);
+    }
+
+    @Override
+    public List<FileEntry> getChildFiles() throws ServerException {
+        final List<FileEntry> children = new ArrayList<>();
+        for (VirtualFile child : state.getChildren(getVirtualFile())) {
+            if (child.isFile()) {
+                children.add(new FileSnapshot(child, projectRegistry, state));
+            }
+        }
+        return children;
+    }
+
+    @Override
+    public List<FolderEntry> getChildFolders() throws ServerException {
+        final List<FolderEntry> children = new ArrayList<>();
+        for (VirtualFile child : state.getChildren(getVirtualFile())) {
+            if (child.isFolder()) {
+                children.add(new FolderSnapshot(child, projectRegistry, state));
+            }
+        }
+        return children;
+    }
+
+    @Override
+    public List<VirtualFileEntry> getChildren(VirtualFileFilter filter) throws ServerException {
+        final List<VirtualFileEntry> children = new ArrayList<>();
+        for (VirtualFile child : state.getChildren(getVirtualFile())) {
+            if (filter.accept(child)) {
+                children.add(wrap(child));
+            }
+        }
+        return children;
+    }
+
+    private VirtualFileEntry wrap(VirtualFile virtualFile) throws ServerException {
+        if (virtualFile.isFile()) {
+            return new FileSnapshot(virtualFile, projectRegistry, state);
+        }
+        return new FolderSnapshot(virtualFile, projectRegistry, state);
+    }
+
+    /** File of snapshot which remembers its content. */
+    private static class FileSnapshot extends FileEntry {
+        private final State state;
+
+        FileSnapshot(VirtualFile file, ProjectRegistry registry, State state) throws ServerException {
+            super(file, registry);
+            this.state = state;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException, ServerException {
+            if (getVirtualFile().getLength() > MAX_REMEMBERED_CONTENT_LENGTH) {
+                return super.getInputStream();
+            }
+            return new ByteArrayInputStream(getContent());
+        }
+
+        @Override
+        public byte[] contentAsBytes() throws ServerException {
+            if (getVirtualFile().getLength() > MAX_REMEMBERED_CONTENT_LENGTH) {
+                return super.contentAsBytes();
+            }
+            // callers may modify returned array
+            return getContent().clone();
+        }
+
+        private byte[] getContent() throws ServerException {
+            final Path path = getVirtualFile().getPath();
+            byte[] content = state.contents.get(path);
+            if (content == null) {
+                content = super.contentAsBytes();
+                final byte[] concurrentlyRead = state.contents.putIfAbsent(path, content);
+                if (concurrentlyRead != null) {
+                    content = concurrentlyRead;
+                }
+            }
+            return content;
+        }
+    }
+
+    /** State shared by all the entries of snapshot. */
+    private static class State {
+        final ConcurrentMap<Path, List<VirtualFile>>     listings = new ConcurrentHashMap<>();
+        final ConcurrentMap<Path, Optional<VirtualFile>> lookups  = new ConcurrentHashMap<>();
+        final ConcurrentMap<Path, byte[]>                contents = new ConcurrentHashMap<>();
+
+        List<VirtualFile> getChildren(VirtualFile folder) throws ServerException {
+            List<VirtualFile> children = listings.get(folder.getPath());
+            if (children == null) {
+                children = folder.getChildren();
+                listings.putIfAbsent(folder.getPath(), children);
+            }
+            return children;
+        }
+
+        VirtualFile getChild(VirtualFile folder, String relativePath) throws ServerException {
+            final Path path = folder.getPath().newPath(relativePath);
+            Optional<VirtualFile> child = lookups.get(path);
+            if (child == null) {
+                child = Optional.ofNullable(folder.getChild(Path.of(relativePath)));
+                lookups.putIfAbsent(path, child);
+            }
+            return child.orElse(null);
+        }
+    }
+}
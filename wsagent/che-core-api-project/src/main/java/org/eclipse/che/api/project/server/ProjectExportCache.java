@@ -0,0 +1,299 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.inject.Inject;
+
+import org.eclipse.che.api.core.ForbiddenException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.VirtualFileVisitor;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.eclipse.che.api.vfs.VirtualFileFilters.dotGitFilter;
+import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
+
+/**
+ * Keeps zip archives of exported folders, so repeated export of unchanged folder doesn't compress it once again.
+ * <p>
+ * Archive is identified by hash of the exported tree which is calculated from paths, sizes and modification dates of
+ * files, so it is much cheaper than compression or reading content of files. Archive is served only if hash of tree is
+ * the same as when archive was created. Archives are dropped as soon as file watcher reports changes in exported folders,
+ * so disk space is not occupied by stale archives. Least recently used archives are removed when size of cache exceeds
+ * limit which may be configured with property {@code project.export.cache.max_size_mb}, zero disables cache.
+ */
+@Singleton
+public class ProjectExportCache {
+    private static final Logger LOG = LoggerFactory.getLogger(ProjectExportCache.class);
+
+    private static final long DEFAULT_MAX_SIZE_MB = 512;
+    private static final int  MAX_ARCHIVES        = 32;
+
+    private final FileWatcherNotificationHandler fileWatcherNotificationHandler;
+    private final FileWatcherNotificationListener invalidator;
+    /** Cached archives by path of exported folder in order of access. */
+    private final Map<Path, Entry>               archives;
+    private final AtomicLong                     hits;
+    private final AtomicLong                     misses;
+
+    private long               maxSize;
+    private long               size;
+    private java.nio.file.Path cacheDir;
+
+    @Inject
+    public ProjectExportCache(FileWatcherNotificationHandler fileWatcherNotificationHandler) {
+        this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
+        this.archives = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.maxSize = DEFAULT_MAX_SIZE_MB * 1024 * 1024;
+        this.invalidator = new FileWatcherNotificationListener(VirtualFileFilter.ACCEPT_ALL) {
+            @Override
+            public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
+                invalidate(virtualFile.getPath());
+            }
+        };
+    }
+
+    @Inject(optional = true)
+    public void setMaxSize(@Named("project.export.cache.max_size_mb") long maxSizeMb) {
+        this.maxSize = maxSizeMb * 1024 * 1024;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        cacheDir = Files.createTempDirectory("export-cache");
+        fileWatcherNotificationHandler.addNotificationListener(invalidator);
+    }
+
+    @PreDestroy
+    public void stop() {
+        fileWatcherNotificationHandler.removeNotificationListener(invalidator);
+        synchronized (this) {
+            archives.clear();
+            size = 0;
+        }
+        if (cacheDir != null) {
+            deleteRecursive(cacheDir.toFile());
+        }
+    }
+
+    /**
+     * Returns zip archive of the folder, the same as {@link VirtualFile#zip()} does. Archive is taken from cache if
+     * folder is not changed since archive was created.
+     * <p>
+     * {@link Archive#release()} must be called when archive is not needed anymore. Archives which are not kept in cache
+     * are created in directory of cache too, so archives which are never released are removed on {@link #stop()}.
+     *
+     * @param folder
+     *         folder to export
+     */
+    public Archive getZip(VirtualFile folder) throws ForbiddenException, ServerException {
+        if (maxSize <= 0 || cacheDir == null) {
+            return createArchive(folder, hashTree(folder));
+        }
+        final String treeHash = hashTree(folder);
+        final Entry building;
+        synchronized (this) {
+            final Entry entry = archives.get(folder.getPath());
+            if (entry != null && entry.archive != null && entry.treeHash.equals(treeHash)) {
+                hits.incrementAndGet();
+                return entry.archive;
+            }
+            building = new Entry(treeHash);
+            put(folder.getPath(), building);
+        }
+        misses.incrementAndGet();
+
+        final Archive archive = createArchive(folder, treeHash);
+        synchronized (this) {
+            // folder may be changed or exported once again while archive was created
+            if (archives.get(folder.getPath()) == building && archive.length <= maxSize) {
+                final Archive cached = new Archive(archive.file, archive.length, treeHash, false);
+                building.archive = cached;
+                size += archive.length;
+                evict();
+                return cached;
+            }
+            if (archives.get(folder.getPath()) == building) {
+                archives.remove(folder.getPath());
+            }
+        }
+        return archive;
+    }
+
+    /** Removes archives of folder denoted by the path and all its parents. */
+    public synchronized void invalidate(Path path) {
+        for (Iterator<Map.Entry<Path, Entry>> i = archives.entrySet().iterator(); i.hasNext(); ) {
+            final Map.Entry<Path, Entry> entry = i.next();
+            if (path.equals(entry.getKey()) || path.isChild(entry.getKey())) {
+                i.remove();
+                remove(entry.getValue());
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private void put(Path path, Entry entry) {
+        final Entry previous = archives.put(path, entry);
+        if (previous != null) {
+            remove(previous);
+        }
+    }
+
+    private void remove(Entry entry) {
+        if (entry.archive != null) {
+            size -= entry.archive.length;
+            deleteFile(entry.archive.file);
+        }
+    }
+
+    private void evict() {
+        for (Iterator<Entry> i = archives.values().iterator(); i.hasNext() && (size > maxSize || archives.size() > MAX_ARCHIVES); ) {
+            final Entry eldest = i.next();
+            if (eldest.archive != null) {
+                i.remove();
+                remove(eldest);
+            }
+        }
+    }
+
+    private Archive createArchive(VirtualFile folder, String treeHash) throws ForbiddenException, ServerException {
+        java.nio.file.Path file = null;
+        try {
+            file = cacheDir == null ? Files.createTempFile("export", ".zip") : Files.createTempFile(cacheDir, "export", ".zip");
+            try (InputStream zip = folder.zip()) {
+                Files.copy(zip, file, REPLACE_EXISTING);
+            }
+            return new Archive(file, Files.size(file), treeHash, true);
+        } catch (IOException e) {
+            if (file != null) {
+                deleteFile(file);
+            }
+            throw new ServerException(e.getMessage(), e);
+        }
+    }
+
+    /** Calculates hash of paths, sizes and modification dates of all items which are added in archive of the folder. */
+    private String hashTree(VirtualFile folder) throws ServerException {
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        final VirtualFileFilter filter = dotGitFilter();
+        folder.accept(new VirtualFileVisitor() {
+            @Override
+            public void visit(VirtualFile virtualFile) throws ServerException {
+                if (filter.accept(virtualFile)) {
+                    hasher.putString(virtualFile.getPath().toString(), UTF_8);
+                    if (virtualFile.isFile()) {
+                        hasher.putLong(virtualFile.getLength());
+                        hasher.putLong(virtualFile.getLastModificationDate());
+                    } else {
+                        hasher.putChar('/');
+                        for (VirtualFile child : virtualFile.getChildren()) {
+                            child.accept(this);
+                        }
+                    }
+                }
+            }
+        });
+        return hasher.hash().toString();
+    }
+
+    private static void deleteFile(java.nio.file.Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Unable delete exported archive {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static class Entry {
+        final String treeHash;
+        /** Archive or {@code null} if archive is being created. */
+        Archive archive;
+
+        Entry(String treeHash) {
+            this.treeHash = treeHash;
+        }
+    }
+
+    /** Zip archive of exported folder. */
+    public static class Archive {
+        private final java.nio.file.Path file;
+        private final long               length;
+        private final String             treeHash;
+        private final boolean            temporary;
+
+        Archive(java.nio.file.Path file, long length, String treeHash, boolean temporary) {
+            this.file = file;
+            this.length = length;
+            this.treeHash = treeHash;
+            this.temporary = temporary;
+        }
+
+        /** Size of archive in bytes. */
+        public long getLength() {
+            return length;
+        }
+
+        /** Hash of exported tree, it is the same for all archives of unchanged folder, so it may be used as entity tag. */
+        public String getTreeHash() {
+            return treeHash;
+        }
+
+        /**
+         * Opens channel for reading archive. On POSIX file systems opened channel may be read even if archive is removed
+         * from cache after channel was opened.
+         *
+         * @throws java.nio.file.NoSuchFileException
+         *         if archive is removed from cache before it is opened
+         */
+        public FileChannel open() throws IOException {
+            return FileChannel.open(file);
+        }
+
+        /** Removes archive if it is not kept in cache. */
+        public void release() {
+            if (temporary) {
+                deleteFile(file);
+            }
+        }
+    }
+}
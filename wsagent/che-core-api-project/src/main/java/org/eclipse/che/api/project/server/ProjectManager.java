@@ -19,7 +19,6 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.UnauthorizedException;
 import org.eclipse.che.api.core.model.project.ProjectConfig;
 import org.eclipse.che.api.core.model.project.SourceStorage;
-import org.eclipse.che.api.core.model.project.type.ProjectType;
 import org.eclipse.che.api.core.notification.EventService;
 import org.eclipse.che.api.core.util.LineConsumerFactory;
 import org.eclipse.che.api.project.server.handlers.CreateProjectHandler;
@@ -71,6 +70,9 @@ import java.util.concurrent.Executors;
 public final class ProjectManager {
     private static final Logger LOG = LoggerFactory.getLogger(ProjectManager.class);
 
+    /** Max time of estimation of folder against single project type. */
+    private static final long ESTIMATION_TIMEOUT_MS = 10_000;
+
     private final VirtualFileSystem              vfs;
     private final EventService                   eventService;
     private final ProjectTypeRegistry            projectTypeRegistry;
@@ -81,6 +83,7 @@ public final class ProjectManager {
     private final FileWatcherNotificationHandler fileWatchNotifier;
     private final ExecutorService                executor;
     private final WorkspaceProjectsSyncer        workspaceProjectsHolder;
+    private final ProjectTypeResolver            projectTypeResolver;
 
     @Inject
     public ProjectManager(VirtualFileSystemProvider vfsProvider,
@@ -101,6 +104,7 @@ public final class ProjectManager {
         this.fileWatchNotifier = fileWatcherNotificationHandler;
         this.fileWatcher = fileTreeWatcher;
         this.workspaceProjectsHolder = workspaceProjectsHolder;
+        this.projectTypeResolver = new ProjectTypeResolver(ESTIMATION_TIMEOUT_MS);
 
         executor = Executors.newFixedThreadPool(1 + Runtime.getRuntime().availableProcessors(),
                                                 new ThreadFactoryBuilder().setNameFormat("ProjectService-IndexingThread-")
@@ -122,6 +126,7 @@ public final class ProjectManager {
         fileWatchNotifier.addNotificationListener(defaultListener);
         try {
             fileWatcher.startup();
+            projectTypeResolver.startCaching(fileWatchNotifier);
         } catch (IOException e) {
             LOG.error(e.getMessage(), e);
             fileWatchNotifier.removeNotificationListener(defaultListener);
@@ -130,6 +135,7 @@ public final class ProjectManager {
 
     @PreDestroy
     void stop() {
+        projectTypeResolver.stop();
         executor.shutdownNow();
     }
 
@@ -249,7 +255,7 @@ public final class ProjectManager {
             throw e;
         }
 
-        workspaceProjectsHolder.sync(projectRegistry);
+        workspaceProjectsHolder.scheduleSync(projectRegistry);
 
         projectRegistry.fireInitHandlers(project);
 
@@ -292,7 +298,7 @@ public final class ProjectManager {
 
         final RegisteredProject project = projectRegistry.putProject(newConfig, baseFolder, true, false);
 
-        workspaceProjectsHolder.sync(projectRegistry);
+        workspaceProjectsHolder.scheduleSync(projectRegistry);
 
         projectRegistry.fireInitHandlers(project);
 
@@ -345,13 +351,13 @@ public final class ProjectManager {
                     projectRegistry.putProject(registeredProject, asFolder(registeredProject.getPath()), true, false);
                 }
                 RegisteredProject rp = projectRegistry.putProject(project, folder, true, false);
-                workspaceProjectsHolder.sync(projectRegistry);
+                workspaceProjectsHolder.scheduleSync(projectRegistry);
                 return rp;
             }
         }
 
         RegisteredProject rp = projectRegistry.putProject(new NewProjectConfig(normalizePath, name, BaseProjectType.ID, sourceStorage), folder, true, false);
-        workspaceProjectsHolder.sync(projectRegistry);
+        workspaceProjectsHolder.scheduleSync(projectRegistry);
         return rp;
     }
 
@@ -374,20 +380,23 @@ public final class ProjectManager {
 
     // ProjectSuggestion
     public List<ProjectTypeResolution> resolveSources(String path, boolean transientOnly) throws ServerException, NotFoundException {
-        final List<ProjectTypeResolution> resolutions = new ArrayList<>();
+        final FolderEntry baseFolder = asFolder(path);
 
-        for (ProjectType type : projectTypeRegistry.getProjectTypes(ProjectTypeRegistry.CHILD_TO_PARENT_COMPARATOR)) {
-            if (transientOnly && type.isPersisted()) {
-                continue;
+        if (baseFolder == null) {
+            throw new NotFoundException("Folder not found: " + path);
+        }
+
+        final List<ProjectTypeDef> types = new ArrayList<>();
+        for (ProjectTypeDef type : projectTypeRegistry.getProjectTypes(ProjectTypeRegistry.CHILD_TO_PARENT_COMPARATOR)) {
+            if (!transientOnly || !type.isPersisted()) {
+                types.add(type);
             }
+        }
 
-            try {
-                final ProjectTypeResolution resolution = estimateProject(path, type.getId());
-                if (resolution.matched()) {
-                    resolutions.add(resolution);
-                }
-            } catch (ValueStorageException e) {
-                LOG.warn(e.getLocalizedMessage(), e);
+        final List<ProjectTypeResolution> resolutions = new ArrayList<>();
+        for (ProjectTypeResolution resolution : projectTypeResolver.resolve(baseFolder, types)) {
+            if (resolution.matched()) {
+                resolutions.add(resolution);
             }
         }
 
@@ -415,7 +424,7 @@ public final class ProjectManager {
         // delete child projects
         projectRegistry.removeProjects(apath);
 
-        workspaceProjectsHolder.sync(projectRegistry);
+        workspaceProjectsHolder.scheduleSync(projectRegistry);
     }
 
     public VirtualFileEntry copyTo(String itemPath, String newParentPath, String newName, boolean overwrite) throws ServerException,
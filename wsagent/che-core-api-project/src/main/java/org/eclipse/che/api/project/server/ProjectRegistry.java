@@ -10,6 +10,9 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Inject;
+
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.NotFoundException;
@@ -22,25 +25,39 @@ import org.eclipse.che.api.project.server.handlers.ProjectHandlerRegistry;
 import org.eclipse.che.api.project.server.handlers.ProjectInitHandler;
 import org.eclipse.che.api.project.server.type.BaseProjectType;
 import org.eclipse.che.api.project.server.type.ProjectTypeRegistry;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
 import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
 import org.eclipse.che.api.vfs.VirtualFileSystem;
 import org.eclipse.che.api.vfs.VirtualFileSystemProvider;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
-import javax.inject.Inject;
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
  * Stores internal representation of Projects registered in the Workspace Agent.
+ * <p>
+ * Configured projects are registered in parallel, init handlers are fired for them sequentially. Values of provided
+ * attributes of projects are invalidated when files of projects are changed.
  *
  * @author gazarenkov
  */
@@ -48,15 +65,22 @@ import java.util.stream.Collectors;
 public class ProjectRegistry {
     private static final Logger LOG = LoggerFactory.getLogger(ProjectRegistry.class);
 
+    private static final int MAX_REGISTRATION_THREADS = 4;
+
     private final Map<String, RegisteredProject> projects;
     private final WorkspaceProjectsSyncer        workspaceHolder;
     private final VirtualFileSystem              vfs;
     private final ProjectTypeRegistry            projectTypeRegistry;
     private final ProjectHandlerRegistry         handlers;
     private final FolderEntry                    root;
-    private final EventService eventService;
+    private final EventService                   eventService;
+    private final ValueProviderMetrics           valueProviderMetrics;
+    private final ExecutorService                executor;
+    private final FileWatcherNotificationListener attributesInvalidator;
+
+    private FileWatcherNotificationHandler fileWatcherNotificationHandler;
 
-    private boolean initialized;
+    private volatile boolean initialized;
 
     @Inject
     public ProjectRegistry(WorkspaceProjectsSyncer workspaceHolder,
@@ -71,32 +95,86 @@ public class ProjectRegistry {
         this.projectTypeRegistry = projectTypeRegistry;
         this.handlers = handlers;
         this.root = new FolderEntry(vfs.getRoot());
+        this.valueProviderMetrics = new ValueProviderMetrics();
+        final ThreadPoolExecutor threadPool = new ThreadPoolExecutor(MAX_REGISTRATION_THREADS, MAX_REGISTRATION_THREADS,
+                                                                     60, TimeUnit.SECONDS,
+                                                                     new LinkedBlockingQueue<>(),
+                                                                     new ThreadFactoryBuilder().setNameFormat("ProjectRegistry-%d")
+                                                                                               .setDaemon(true)
+                                                                                               .build());
+        threadPool.allowCoreThreadTimeOut(true);
+        this.executor = threadPool;
+        this.attributesInvalidator = new FileWatcherNotificationListener(VirtualFileFilter.ACCEPT_ALL) {
+            @Override
+            public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
+                invalidateProvidedAttributes(virtualFile.getPath());
+            }
+        };
+    }
+
+    @Inject(optional = true)
+    public void setFileWatcherNotificationHandler(FileWatcherNotificationHandler fileWatcherNotificationHandler) {
+        this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
     }
 
     @PostConstruct
     public void initProjects() throws ConflictException, NotFoundException, ServerException, ForbiddenException {
-        //final Workspace workspace = workspaceHolder.getWorkspace();
+        final long start = System.nanoTime();
 
         List<? extends ProjectConfig> projectConfigs = workspaceHolder.getProjects();
 
         // take all the projects from ws's config
+        final List<Callable<RegisteredProject>> registrations = new ArrayList<>(projectConfigs.size());
         for (ProjectConfig projectConfig : projectConfigs) {
-            final String path = projectConfig.getPath();
-            final VirtualFile vf = vfs.getRoot().getChild(Path.of(path));
-            final FolderEntry projectFolder = ((vf == null) ? null : new FolderEntry(vf, this));
-            putProject(projectConfig, projectFolder, false, false);
+            registrations.add(() -> {
+                final String path = projectConfig.getPath();
+                final VirtualFile vf = vfs.getRoot().getChild(Path.of(path));
+                final FolderEntry projectFolder = ((vf == null) ? null : new FolderEntry(vf, this));
+                return putProject(projectConfig, projectFolder, false, false);
+            });
         }
+        invokeAll(registrations);
 
         initUnconfiguredFolders();
 
         initialized = true;
 
+        if (fileWatcherNotificationHandler != null) {
+            fileWatcherNotificationHandler.addNotificationListener(attributesInvalidator);
+        }
+
+        // init handlers are fired one by one, they are not required to be thread safe,
+        // e.g. java handlers update classpath of shared java model
         for (RegisteredProject project : projects.values()) {
             // only for projects with sources
             if(project.getBaseFolder() != null) {
                 fireInitHandlers(project);
             }
         }
+
+        LOG.info("Registered {} projects in {} ms", projects.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        for (String provider : valueProviderMetrics.getProviders()) {
+            LOG.debug("Value provider {}: {} calls, {} failures, {} ms",
+                      provider,
+                      valueProviderMetrics.getCalls(provider),
+                      valueProviderMetrics.getFailures(provider),
+                      valueProviderMetrics.getTime(provider, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (fileWatcherNotificationHandler != null) {
+            fileWatcherNotificationHandler.removeNotificationListener(attributesInvalidator);
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return metrics of value providers of project attributes
+     */
+    public ValueProviderMetrics getValueProviderMetrics() {
+        return valueProviderMetrics;
     }
 
 
@@ -192,7 +270,12 @@ public class ProjectRegistry {
                                                           ConflictException,
                                                           NotFoundException {
 
-        final RegisteredProject project = new RegisteredProject(folder, config, updated, detected, this.projectTypeRegistry);
+        final RegisteredProject project = new RegisteredProject(folder,
+                                                                config,
+                                                                updated,
+                                                                detected,
+                                                                this.projectTypeRegistry,
+                                                                this.valueProviderMetrics);
         projects.put(project.getPath(), project);
 
         return project;
@@ -406,6 +489,58 @@ public class ProjectRegistry {
         }
     }
 
+    /**
+     * Invalidates provided attributes of all the projects which contain the changed path. Parent projects are
+     * invalidated as well since their attributes may depend on nested projects, e.g. maven modules.
+     */
+    private void invalidateProvidedAttributes(Path changed) {
+        for (Path path = changed; path != null; path = path.getParent()) {
+            final RegisteredProject project = projects.get(path.toString());
+            if (project != null) {
+                project.invalidateProvidedAttributes();
+            }
+        }
+    }
+
+    /**
+     * Runs tasks in parallel and waits until all of them are completed.
+     * If some tasks failed, the exception of the first failed task is thrown.
+     */
+    private void invokeAll(List<Callable<RegisteredProject>> tasks) throws ConflictException,
+                                                                            NotFoundException,
+                                                                            ServerException,
+                                                                            ForbiddenException {
+        final List<Future<RegisteredProject>> futures;
+        try {
+            futures = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Initialization of projects was interrupted");
+        }
+        for (Future<RegisteredProject> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServerException("Initialization of projects was interrupted");
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof ConflictException) {
+                    throw (ConflictException)cause;
+                } else if (cause instanceof NotFoundException) {
+                    throw (NotFoundException)cause;
+                } else if (cause instanceof ForbiddenException) {
+                    throw (ForbiddenException)cause;
+                } else if (cause instanceof ServerException) {
+                    throw (ServerException)cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException)cause;
+                }
+                throw new ServerException(cause.getMessage(), cause);
+            }
+        }
+    }
+
     private void checkInitializationState() {
         if (!initialized) {
             throw new IllegalStateException("Projects are not initialized yet");
@@ -58,19 +58,32 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
@@ -78,6 +91,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import static javax.ws.rs.HttpMethod.DELETE;
@@ -112,14 +126,16 @@ public class ProjectService extends Service {
     private static final Logger LOG  = LoggerFactory.getLogger(ProjectService.class);
     private static final Tika   TIKA = new Tika();
 
-    private final ProjectManager projectManager;
-    private final EventService   eventService;
-    private final String         workspace;
+    private final ProjectManager     projectManager;
+    private final EventService       eventService;
+    private final ProjectExportCache exportCache;
+    private final String             workspace;
 
     @Inject
-    public ProjectService(ProjectManager projectManager, EventService eventService) {
+    public ProjectService(ProjectManager projectManager, EventService eventService, ProjectExportCache exportCache) {
         this.projectManager = projectManager;
         this.eventService = eventService;
+        this.exportCache = exportCache;
         this.workspace = WorkspaceIdProvider.getWorkspaceId();
     }
 
@@ -440,20 +456,29 @@ public class ProjectService extends Service {
     }
 
     @ApiOperation(value = "Get file content",
-                  notes = "Get file content by its name")
+                  notes = "Get file content by its name. Single byte range of file may be requested with Range header")
     @ApiResponses({@ApiResponse(code = 200, message = "OK"),
+                   @ApiResponse(code = 206, message = "Requested range of file"),
+                   @ApiResponse(code = 304, message = "File is not modified since date specified in If-Modified-Since header"),
                    @ApiResponse(code = 403, message = "User not authorized to call this operation"),
                    @ApiResponse(code = 404, message = "Not found"),
+                   @ApiResponse(code = 416, message = "Requested range is not satisfiable"),
                    @ApiResponse(code = 500, message = "Internal Server Error")})
     @GET
     @Path("/file/{path:.*}")
     public Response getFile(@ApiParam(value = "Path to a file", required = true)
-                            @PathParam("path") String path) throws IOException, NotFoundException, ForbiddenException, ServerException {
+                            @PathParam("path") String path,
+                            @HeaderParam("Range") String range,
+                            @HeaderParam("If-Range") String ifRange,
+                            @HeaderParam("If-Modified-Since") String ifModifiedSince) throws IOException,
+                                                                                             NotFoundException,
+                                                                                             ForbiddenException,
+                                                                                             ServerException {
         final FileEntry file = projectManager.asFile(path);
         if (file == null) {
             throw new NotFoundException("File not found for " + path);
         }
-        return Response.ok().entity(file.getInputStream()).type(TIKA.detect(file.getName())).build();
+        return fileContent(file.getVirtualFile(), range, ifRange, ifModifiedSince).build();
     }
 
     @PUT
@@ -685,13 +710,18 @@ public class ProjectService extends Service {
     @Path("/export/{path:.*}")
     @Produces(ExtMediaType.APPLICATION_ZIP)
     @ApiOperation(value = "Download ZIP",
-                  notes = "Export resource as zip. It can be an entire project or folder")
+                  notes = "Export resource as zip. It can be an entire project or folder. " +
+                          "Single byte range of archive may be requested with Range header")
     @ApiResponses({@ApiResponse(code = 201, message = ""),
+                   @ApiResponse(code = 206, message = "Requested range of archive"),
                    @ApiResponse(code = 403, message = "User not authorized to call this operation"),
                    @ApiResponse(code = 404, message = "Not found"),
+                   @ApiResponse(code = 416, message = "Requested range is not satisfiable"),
                    @ApiResponse(code = 500, message = "Internal Server Error")})
-    public InputStream exportZip(@ApiParam(value = "Path to resource to be exported")
-                                 @PathParam("path") String path) throws NotFoundException, ForbiddenException, ServerException {
+    public Response exportZip(@ApiParam(value = "Path to resource to be exported")
+                              @PathParam("path") String path,
+                              @HeaderParam("Range") String range,
+                              @HeaderParam("If-Range") String ifRange) throws NotFoundException, ForbiddenException, ServerException {
 
         final FolderEntry folder = projectManager.asFolder(path);
 
@@ -699,14 +729,137 @@ public class ProjectService extends Service {
             throw new NotFoundException("Folder not found " + path);
         }
 
-        return folder.getVirtualFile().zip();
+        final ProjectExportCache.Archive archive = exportCache.getZip(folder.getVirtualFile());
+        final EntityTag entityTag = new EntityTag(archive.getTreeHash());
+        final long length = archive.getLength();
+        long[] bounds = null;
+        if (range != null && (ifRange == null || ifRange.equals(entityTag.toString()))) {
+            try {
+                bounds = parseRange(range, length);
+            } catch (IllegalArgumentException e) {
+                archive.release();
+                return Response.status(416)
+                               .header("Content-Range", "bytes */" + length)
+                               .build();
+            }
+        }
+
+        final long start = bounds == null ? 0 : bounds[0];
+        final long count = bounds == null ? length : bounds[1] - bounds[0] + 1;
+        // archive is opened when response is written, so nothing is left open if entity is never written
+        final StreamingOutput content = output -> {
+            ProjectExportCache.Archive source = archive;
+            try {
+                FileChannel channel;
+                try {
+                    channel = source.open();
+                } catch (NoSuchFileException e) {
+                    // archive is removed from cache after response headers were created
+                    source = recreateArchive(folder, archive);
+                    channel = source.open();
+                }
+                try (FileChannel in = channel) {
+                    final WritableByteChannel out = Channels.newChannel(output);
+                    long position = start;
+                    final long end = start + count;
+                    while (position < end) {
+                        final long transferred = in.transferTo(position, end - position, out);
+                        if (transferred <= 0) {
+                            throw new IOException("Unexpected end of archive of folder " + folder.getPath());
+                        }
+                        position += transferred;
+                    }
+                }
+            } finally {
+                archive.release();
+                if (source != archive) {
+                    source.release();
+                }
+            }
+        };
+
+        final Response.ResponseBuilder response = bounds == null ? Response.ok(content, ExtMediaType.APPLICATION_ZIP)
+                                                                 : Response.status(206)
+                                                                           .entity(content)
+                                                                           .type(ExtMediaType.APPLICATION_ZIP)
+                                                                           .header("Content-Range", String.format("bytes %d-%d/%d",
+                                                                                                                  bounds[0],
+                                                                                                                  bounds[1],
+                                                                                                                  length));
+        return response.tag(entityTag)
+                       .header("Accept-Ranges", "bytes")
+                       .header(HttpHeaders.CONTENT_LENGTH, Long.toString(count))
+                       .build();
+    }
+
+    /**
+     * Creates archive of folder once again when cached archive is removed before it is sent. New archive is the same as
+     * removed one if folder is not changed since removed archive was created, otherwise response can't be completed.
+     */
+    private ProjectExportCache.Archive recreateArchive(FolderEntry folder, ProjectExportCache.Archive removed) throws IOException {
+        final ProjectExportCache.Archive archive;
+        try {
+            archive = exportCache.getZip(folder.getVirtualFile());
+        } catch (ForbiddenException | ServerException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        if (!archive.getTreeHash().equals(removed.getTreeHash()) || archive.getLength() != removed.getLength()) {
+            archive.release();
+            throw new IOException("Folder " + folder.getPath() + " was changed while it was exported");
+        }
+        return archive;
+    }
+
+    /**
+     * Parses value of Range header.
+     *
+     * @return first and last positions of requested range or {@code null} if header should be ignored, e.g. it has
+     * several ranges or unknown unit
+     * @throws IllegalArgumentException
+     *         if range is not satisfiable
+     */
+    static long[] parseRange(String range, long length) {
+        if (!range.startsWith("bytes=") || range.indexOf(',') != -1) {
+            return null;
+        }
+        final String spec = range.substring("bytes=".length()).trim();
+        final int dash = spec.indexOf('-');
+        if (dash == -1) {
+            return null;
+        }
+        final long first;
+        final long last;
+        try {
+            if (dash == 0) {
+                final long suffix = Long.parseLong(spec.substring(1));
+                if (suffix <= 0) {
+                    throw new IllegalArgumentException(range);
+                }
+                first = Math.max(0, length - suffix);
+                last = length - 1;
+            } else {
+                first = Long.parseLong(spec.substring(0, dash));
+                last = dash == spec.length() - 1 ? length - 1 : Math.min(Long.parseLong(spec.substring(dash + 1)), length - 1);
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (first >= length || first > last) {
+            throw new IllegalArgumentException(range);
+        }
+        return new long[]{first, last};
     }
 
     @GET
     @Path("/export/file/{path:.*}")
     @Produces(MediaType.APPLICATION_OCTET_STREAM)
     public Response exportFile(@ApiParam(value = "Path to resource to be imported")
-                               @PathParam("path") String path) throws NotFoundException, ForbiddenException, ServerException {
+                               @PathParam("path") String path,
+                               @HeaderParam("Range") String range,
+                               @HeaderParam("If-Range") String ifRange,
+                               @HeaderParam("If-Modified-Since") String ifModifiedSince) throws NotFoundException,
+                                                                                                ForbiddenException,
+                                                                                                ServerException {
 
         final FileEntry file = projectManager.asFile(path);
 
@@ -716,11 +869,114 @@ public class ProjectService extends Service {
 
         final VirtualFile virtualFile = file.getVirtualFile();
 
-        return Response.ok(virtualFile.getContent(), TIKA.detect(virtualFile.getName()))
-                       .lastModified(new Date(virtualFile.getLastModificationDate()))
-                       .header(HttpHeaders.CONTENT_LENGTH, Long.toString(virtualFile.getLength()))
-                       .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + virtualFile.getName() + '"')
-                       .build();
+        return fileContent(virtualFile, range, ifRange, ifModifiedSince)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + virtualFile.getName() + '"')
+                .build();
+    }
+
+    /**
+     * Creates response with content of file. Content of file which is stored on local filesystem is transferred
+     * directly from file channel to response without copying it to memory, other files are streamed with
+     * {@link VirtualFile#getContent()}. Channel is opened when response is written, so it is not leaked if response is
+     * never written. Files are replaced atomically on update, so opened channel sees the same version of file until the
+     * end of transfer, and if file was replaced after headers of response were created, transfer fails.
+     */
+    private Response.ResponseBuilder fileContent(VirtualFile virtualFile,
+                                                 String range,
+                                                 String ifRange,
+                                                 String ifModifiedSince) throws ForbiddenException, ServerException {
+        final java.io.File ioFile = virtualFile.toIoFile();
+        final BasicFileAttributes attributes;
+        try {
+            attributes = ioFile == null ? null : Files.readAttributes(ioFile.toPath(), BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new ServerException(e.getMessage(), e);
+        }
+        // HTTP dates have precision of seconds
+        final long lastModified = (attributes == null ? virtualFile.getLastModificationDate()
+                                                      : attributes.lastModifiedTime().toMillis()) / 1000 * 1000;
+        final long length = attributes == null ? virtualFile.getLength() : attributes.size();
+        final String mediaType = TIKA.detect(virtualFile.getName());
+
+        final Long modifiedSince = parseHttpDate(ifModifiedSince);
+        if (modifiedSince != null && lastModified <= modifiedSince) {
+            return Response.notModified().lastModified(new Date(lastModified));
+        }
+
+        long[] bounds = null;
+        if (attributes != null && range != null && (ifRange == null || Objects.equals(parseHttpDate(ifRange), lastModified))) {
+            try {
+                bounds = parseRange(range, length);
+            } catch (IllegalArgumentException e) {
+                return Response.status(416).header("Content-Range", "bytes */" + length);
+            }
+        }
+
+        final Response.ResponseBuilder response;
+        final long count;
+        if (attributes == null) {
+            count = length;
+            response = Response.ok(virtualFile.getContent(), mediaType);
+        } else {
+            final long start = bounds == null ? 0 : bounds[0];
+            count = bounds == null ? length : bounds[1] - bounds[0] + 1;
+            final StreamingOutput content = output -> {
+                try (FileChannel in = openUnchanged(ioFile.toPath(), attributes)) {
+                    final WritableByteChannel out = Channels.newChannel(output);
+                    long position = start;
+                    final long end = start + count;
+                    while (position < end) {
+                        final long transferred = in.transferTo(position, end - position, out);
+                        if (transferred <= 0) {
+                            throw new IOException("Unexpected end of file " + virtualFile.getPath());
+                        }
+                        position += transferred;
+                    }
+                }
+            };
+            response = bounds == null ? Response.ok(content, mediaType)
+                                      : Response.status(206)
+                                                .entity(content)
+                                                .type(mediaType)
+                                                .header("Content-Range", String.format("bytes %d-%d/%d", bounds[0], bounds[1], length));
+            response.header("Accept-Ranges", "bytes");
+        }
+        return response.lastModified(new Date(lastModified))
+                       .header(HttpHeaders.CONTENT_LENGTH, Long.toString(count));
+    }
+
+    /** Parses value of HTTP date header, returns {@code null} if header is not set or has invalid format. */
+    private static Long parseHttpDate(String date) {
+        if (date == null) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Opens channel for reading file, fails if file was replaced or modified since the given attributes were read.
+     * Attributes are read once again after opening, so opened channel is the same file which had the given attributes.
+     */
+    private static FileChannel openUnchanged(java.nio.file.Path file, BasicFileAttributes expected) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        final BasicFileAttributes actual;
+        try {
+            actual = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        if (!Objects.equals(actual.fileKey(), expected.fileKey())
+            || actual.size() != expected.size()
+            || !actual.lastModifiedTime().equals(expected.lastModifiedTime())) {
+            channel.close();
+            throw new IOException("File " + file.getFileName() + " was changed while it was downloaded");
+        }
+        return channel;
     }
 
     @GET
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.project.server.type.ProjectTypeDef;
+import org.eclipse.che.api.project.server.type.ProjectTypeResolution;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.VirtualFileFilter;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Resolves project types which match sources of folder.
+ * <p>
+ * Project types are estimated in parallel against the same {@link FolderSnapshot}, so folder and its files are read
+ * only once, estimation of every project type is limited with timeout. When caching is started, results are kept until
+ * folder or any of its descendants is changed. Changes are detected with file watcher events and with comparison of
+ * listing of folder, the latter catches changes which are not delivered by file watcher yet.
+ *
+ * @see ProjectManager#resolveSources(String, boolean)
+ */
+class ProjectTypeResolver {
+    private static final Logger LOG = LoggerFactory.getLogger(ProjectTypeResolver.class);
+
+    /** Max number of cached folders, cache is cleared when it is exceeded. */
+    private static final int MAX_CACHED_FOLDERS = 256;
+
+    private final long                                   estimationTimeout;
+    private final ThreadPoolExecutor                     executor;
+    private final ConcurrentMap<Path, CachedResolutions> cache;
+    private final AtomicLong                             invalidations;
+    private final FileWatcherNotificationListener        cacheInvalidator;
+
+    private volatile FileWatcherNotificationHandler fileWatcherNotificationHandler;
+
+    /**
+     * @param estimationTimeoutMs
+     *         max time of estimation of single project type in milliseconds
+     */
+    ProjectTypeResolver(long estimationTimeoutMs) {
+        this.estimationTimeout = TimeUnit.MILLISECONDS.toNanos(estimationTimeoutMs);
+        // estimations mostly wait for reading of files, so there are more threads than processors
+        final int threads = Runtime.getRuntime().availableProcessors() * 2;
+        this.executor = new ThreadPoolExecutor(threads, threads,
+                                               60, TimeUnit.SECONDS,
+                                               new LinkedBlockingQueue<>(),
+                                               new ThreadFactoryBuilder().setNameFormat("ProjectTypeResolver-%d")
+                                                                         .setDaemon(true)
+                                                                         .build());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.cache = new ConcurrentHashMap<>();
+        this.invalidations = new AtomicLong();
+        this.cacheInvalidator = new FileWatcherNotificationListener(VirtualFileFilter.ACCEPT_ALL) {
+            @Override
+            public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
+                invalidate(virtualFile.getPath());
+            }
+        };
+    }
+
+    /**
+     * Starts caching of results, cached results are invalidated with events of the specified handler.
+     */
+    void startCaching(FileWatcherNotificationHandler fileWatcherNotificationHandler) {
+        fileWatcherNotificationHandler.addNotificationListener(cacheInvalidator);
+        this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
+    }
+
+    /**
+     * Stops caching of results and estimations which are in progress.
+     */
+    void stop() {
+        final FileWatcherNotificationHandler handler = fileWatcherNotificationHandler;
+        if (handler != null) {
+            fileWatcherNotificationHandler = null;
+            handler.removeNotificationListener(cacheInvalidator);
+        }
+        cache.clear();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Estimates folder against the specified project types.
+     * Project types which are not estimated because of error or timeout are missed in result.
+     *
+     * @param folder
+     *         folder to estimate
+     * @param projectTypes
+     *         project types to estimate folder against
+     * @return resolutions of project types in the same order as project types are specified
+     * @throws ServerException
+     *         if folder can't be read or resolution is interrupted
+     */
+    List<ProjectTypeResolution> resolve(FolderEntry folder, List<ProjectTypeDef> projectTypes) throws ServerException {
+        final Path path = folder.getPath();
+        final FolderSnapshot snapshot = new FolderSnapshot(folder.getVirtualFile(), folder.projectRegistry);
+        final boolean caching = fileWatcherNotificationHandler != null;
+        final long invalidationsBefore = invalidations.get();
+        final String fingerprint = caching ? fingerprint(snapshot) : null;
+
+        final Map<String, ProjectTypeResolution> resolved = new HashMap<>();
+        final CachedResolutions cached = caching ? cache.get(path) : null;
+        if (cached != null && cached.fingerprint.equals(fingerprint)) {
+            resolved.putAll(cached.resolutions);
+        }
+
+        final Map<String, Future<ProjectTypeResolution>> estimations = new LinkedHashMap<>();
+        for (ProjectTypeDef projectType : projectTypes) {
+            if (!resolved.containsKey(projectType.getId())) {
+                estimations.put(projectType.getId(), executor.submit(() -> projectType.resolveSources(snapshot)));
+            }
+        }
+
+        boolean complete = true;
+        final long deadline = System.nanoTime() + estimationTimeout;
+        for (Map.Entry<String, Future<ProjectTypeResolution>> estimation : estimations.entrySet()) {
+            try {
+                resolved.put(estimation.getKey(),
+                             estimation.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                complete = false;
+                estimation.getValue().cancel(true);
+                LOG.warn("Estimation of folder {} against project type {} takes more than {} ms, skipped",
+                         path, estimation.getKey(), TimeUnit.NANOSECONDS.toMillis(estimationTimeout));
+            } catch (ExecutionException e) {
+                complete = false;
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    estimations.values().forEach(future -> future.cancel(true));
+                    throw (RuntimeException)cause;
+                }
+                LOG.warn(cause.getLocalizedMessage(), cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                estimations.values().forEach(future -> future.cancel(true));
+                throw new ServerException("Resolution of project types of folder " + path + " was interrupted");
+            }
+        }
+
+        // results which were computed while folder was changed are not cached
+        if (caching && complete && invalidations.get() == invalidationsBefore) {
+            if (cache.size() >= MAX_CACHED_FOLDERS) {
+                cache.clear();
+            }
+            cache.put(path, new CachedResolutions(fingerprint, resolved));
+        }
+
+        final List<ProjectTypeResolution> resolutions = new ArrayList<>(projectTypes.size());
+        for (ProjectTypeDef projectType : projectTypes) {
+            final ProjectTypeResolution resolution = resolved.get(projectType.getId());
+            if (resolution != null) {
+                resolutions.add(resolution);
+            }
+        }
+        return resolutions;
+    }
+
+    /** Invalidates cached results of the changed item and all its parents. */
+    void invalidate(Path changed) {
+        invalidations.incrementAndGet();
+        for (Path path = changed; path != null; path = path.getParent()) {
+            cache.remove(path);
+        }
+    }
+
+    /** Computes fingerprint of folder listing, it is changed when any child is added, removed or modified. */
+    private static String fingerprint(FolderEntry folder) throws ServerException {
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (VirtualFileEntry child : folder.getChildren()) {
+            hasher.putString(child.getName(), UTF_8)
+                  .putLong(child.getModified())
+                  .putLong(child.isFile() ? child.getVirtualFile().getLength() : -1);
+        }
+        return hasher.hash().toString();
+    }
+
+    private static class CachedResolutions {
+        final String                             fingerprint;
+        final Map<String, ProjectTypeResolution> resolutions;
+
+        CachedResolutions(String fingerprint, Map<String, ProjectTypeResolution> resolutions) {
+            this.fingerprint = fingerprint;
+            this.resolutions = resolutions;
+        }
+    }
+}
@@ -24,6 +24,9 @@ import org.eclipse.che.api.project.server.type.ValueProvider;
 import org.eclipse.che.api.project.server.type.ValueStorageException;
 import org.eclipse.che.api.project.server.type.Variable;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -33,13 +36,19 @@ import java.util.stream.Collectors;
 /**
  * Internal Project implementation.
  * It is supposed that it is object always consistent.
+ * <p>
+ * Values of provided attributes which are not required are got from value providers on first access and reused until
+ * {@link #invalidateProvidedAttributes()} is called.
  *
  * @author gazarenkov
  */
 public class RegisteredProject implements ProjectConfig {
+    private static final Logger LOG = LoggerFactory.getLogger(RegisteredProject.class);
 
-    private final List<Problem>      problems;
-    private final Map<String, Value> attributes;
+    private final List<Problem>              problems;
+    private final Map<String, Value>         attributes;
+    private final Map<String, ProvidedValue> providedAttributes;
+    private final ValueProviderMetrics       metrics;
 
     private final FolderEntry   folder;
     private final ProjectConfig config;
@@ -60,17 +69,22 @@ public class RegisteredProject implements ProjectConfig {
      *         if this project was detected, initialized when "parent" project initialized
      * @param projectTypeRegistry
      *         project type registry
+     * @param metrics
+     *         metrics of value providers
      */
     RegisteredProject(FolderEntry folder,
                       ProjectConfig config,
                       boolean updated,
                       boolean detected,
-                      ProjectTypeRegistry projectTypeRegistry) throws NotFoundException,
-                                                                      ProjectTypeConstraintException,
-                                                                      ServerException,
-                                                                      ValueStorageException {
+                      ProjectTypeRegistry projectTypeRegistry,
+                      ValueProviderMetrics metrics) throws NotFoundException,
+                                                           ProjectTypeConstraintException,
+                                                           ServerException,
+                                                           ValueStorageException {
         problems = new ArrayList<>();
         attributes = new HashMap<>();
+        providedAttributes = new HashMap<>();
+        this.metrics = metrics;
 
         this.folder = folder;
         this.config = (config == null) ? new NewProjectConfig(folder.getPath()) : config;
@@ -126,7 +140,14 @@ public class RegisteredProject implements ProjectConfig {
 
                         if (!valueProvider.isSettable() || value.isEmpty()) {
                             // get provided value
-                            value = new AttributeValue(valueProvider.getValues(name));
+                            final ProvidedValue providedValue =
+                                    new ProvidedValue(name, valueProvider, variable.getValueProviderFactory().getClass().getName());
+                            if (!variable.isRequired()) {
+                                // not required value is got when it is accessed first time
+                                providedAttributes.put(name, providedValue);
+                                continue;
+                            }
+                            value = new AttributeValue(providedValue.getValues());
                         } else {
                             // set provided (not empty) value
                             valueProvider.setValues(name, value.getList());
@@ -173,7 +194,25 @@ public class RegisteredProject implements ProjectConfig {
      * @return attributes as name / Value Map
      */
     public Map<String, Value> getAttributeEntries() {
-        return attributes;
+        if (providedAttributes.isEmpty()) {
+            return attributes;
+        }
+        final Map<String, Value> entries = new HashMap<>(attributes);
+        for (ProvidedValue providedValue : providedAttributes.values()) {
+            final List<String> values = providedValue.getValuesOrEmpty();
+            if (!values.isEmpty()) {
+                entries.put(providedValue.name, new AttributeValue(values));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Forgets values got from value providers, they are got once again when accessed next time. Should be called when
+     * files of project are changed.
+     */
+    void invalidateProvidedAttributes() {
+        providedAttributes.values().forEach(ProvidedValue::invalidate);
     }
 
     /**
@@ -207,10 +246,21 @@ public class RegisteredProject implements ProjectConfig {
     }
 
     /**
-     * @return problems in case if root or config is null (project is not synced)
+     * @return problems in case if root or config is null (project is not synced) or if value provider failed to get value
+     * of attribute which was requested
      */
     public List<Problem> getProblems() {
-        return problems;
+        if (providedAttributes.isEmpty()) {
+            return problems;
+        }
+        final List<Problem> allProblems = new ArrayList<>(problems);
+        for (ProvidedValue providedValue : providedAttributes.values()) {
+            final Problem problem = providedValue.getProblem();
+            if (problem != null) {
+                allProblems.add(problem);
+            }
+        }
+        return allProblems;
     }
 
     /**
@@ -218,7 +268,8 @@ public class RegisteredProject implements ProjectConfig {
      */
     public Map<String, List<String>> getPersistableAttributes() {
         Map<String, List<String>> attrs = new HashMap<>();
-        for (HashMap.Entry<String, Value> entry : getAttributeEntries().entrySet()) {
+        // provided attributes which are got lazily are never persisted
+        for (HashMap.Entry<String, Value> entry : attributes.entrySet()) {
             Attribute def = types.getAttributeDefs().get(entry.getKey());
             // not provided, not constants
             if (def != null &&
@@ -275,6 +326,58 @@ public class RegisteredProject implements ProjectConfig {
         return attrs;
     }
 
+    /** Value of attribute which is got from value provider and is reused until invalidated. */
+    private class ProvidedValue {
+        final String        name;
+        final ValueProvider valueProvider;
+        final String        providerName;
+
+        private List<String> values;
+        private Problem      problem;
+
+        ProvidedValue(String name, ValueProvider valueProvider, String providerName) {
+            this.name = name;
+            this.valueProvider = valueProvider;
+            this.providerName = providerName;
+        }
+
+        synchronized List<String> getValues() throws ValueStorageException {
+            if (values == null) {
+                final long start = System.nanoTime();
+                boolean failed = true;
+                try {
+                    final List<String> provided = valueProvider.getValues(name);
+                    values = provided == null ? new ArrayList<>() : new ArrayList<>(provided);
+                    failed = false;
+                } finally {
+                    metrics.record(providerName, System.nanoTime() - start, failed);
+                }
+            }
+            return values;
+        }
+
+        synchronized List<String> getValuesOrEmpty() {
+            try {
+                return getValues();
+            } catch (ValueStorageException e) {
+                LOG.warn("Unable to get value of attribute {} of project {}: {}", name, getPath(), e.getMessage());
+                // don't call failed provider once again until project is changed
+                problem = new Problem(12, "Unable to get value of attribute " + name + ": " + e.getMessage());
+                values = new ArrayList<>();
+                return values;
+            }
+        }
+
+        synchronized Problem getProblem() {
+            return problem;
+        }
+
+        synchronized void invalidate() {
+            values = null;
+            problem = null;
+        }
+    }
+
     public class Problem {
         private Problem(int code, String message) {
             this.code = code;
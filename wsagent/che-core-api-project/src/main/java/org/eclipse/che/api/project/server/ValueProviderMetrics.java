@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts calls of {@link org.eclipse.che.api.project.server.type.ValueProvider#getValues(String)} and time spent in
+ * them per value provider, so slow providers of project attributes are visible.
+ */
+public class ValueProviderMetrics {
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    void record(String provider, long nanos, boolean failed) {
+        final Counters providerCounters = counters.computeIfAbsent(provider, key -> new Counters());
+        providerCounters.calls.incrementAndGet();
+        providerCounters.nanos.addAndGet(nanos);
+        if (failed) {
+            providerCounters.failures.incrementAndGet();
+        }
+    }
+
+    /** Names of value providers which were called at least once. */
+    public Set<String> getProviders() {
+        return counters.keySet();
+    }
+
+    /** Number of calls of the specified value provider. */
+    public long getCalls(String provider) {
+        final Counters providerCounters = counters.get(provider);
+        return providerCounters == null ? 0 : providerCounters.calls.get();
+    }
+
+    /** Number of calls of the specified value provider which failed. */
+    public long getFailures(String provider) {
+        final Counters providerCounters = counters.get(provider);
+        return providerCounters == null ? 0 : providerCounters.failures.get();
+    }
+
+    /** Total time spent in the specified value provider. */
+    public long getTime(String provider, TimeUnit unit) {
+        final Counters providerCounters = counters.get(provider);
+        return providerCounters == null ? 0 : unit.convert(providerCounters.nanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    private static class Counters {
+        final AtomicLong calls    = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong nanos    = new AtomicLong();
+    }
+}
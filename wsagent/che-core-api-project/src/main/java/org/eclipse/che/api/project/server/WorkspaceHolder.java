@@ -15,6 +15,7 @@ import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.project.ProjectConfig;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
 import org.eclipse.che.api.workspace.server.WorkspaceService;
+import org.eclipse.che.api.workspace.shared.dto.ProjectsUpdateDto;
 import org.eclipse.che.api.workspace.shared.dto.WorkspaceDto;
 
 import javax.inject.Inject;
@@ -24,7 +25,9 @@ import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
 import java.util.List;
 
+import static java.util.stream.Collectors.toList;
 import static org.eclipse.che.api.project.server.DtoConverter.asDto;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
 
 /**
  * For caching and proxy-ing Workspace Configuration.
@@ -75,6 +78,40 @@ public class WorkspaceHolder extends WorkspaceProjectsSyncer {
     }
 
 
+    /**
+     * Adds, updates and removes projects on WS-master side with single request.
+     *
+     * @param updated
+     *         configs of added or updated projects
+     * @param removed
+     *         paths of removed projects
+     * @return projects of workspace after update
+     * @throws ServerException
+     */
+    @Override
+    protected List<? extends ProjectConfig> updateProjects(List<ProjectConfig> updated, List<String> removed) throws ServerException {
+
+        final String href = UriBuilder.fromUri(apiEndpoint)
+                                      .path(WorkspaceService.class)
+                                      .path(WorkspaceService.class, "updateProjects")
+                                      .build(workspaceId).toString();
+        final ProjectsUpdateDto update = newDto(ProjectsUpdateDto.class).withUpdated(updated.stream()
+                                                                                            .map(DtoConverter::asDto)
+                                                                                            .collect(toList()))
+                                                                        .withRemoved(removed);
+        try {
+            return httpJsonRequestFactory.fromUrl(href)
+                                         .usePostMethod()
+                                         .setBody(update)
+                                         .request()
+                                         .asDto(WorkspaceDto.class)
+                                         .getConfig()
+                                         .getProjects();
+        } catch (IOException | ApiException e) {
+            throw new ServerException(e.getMessage());
+        }
+    }
+
     /**
      * Add project on WS-master side.
      *
@@ -10,70 +10,191 @@
  *******************************************************************************/
 package org.eclipse.che.api.project.server;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.project.ProjectConfig;
+import org.eclipse.che.api.vfs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.annotation.PreDestroy;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Synchronizer for Project Configurations stored in Workspace Configuration with Agent's state
+ * <p>
+ * Synchronizer remembers paths of projects stored in Workspace Configuration, so changes are computed locally and
+ * sent with single {@link #updateProjects(List, List)} call. Remembered paths are replaced with projects returned by
+ * this call, so changes made in Workspace Configuration by other clients are taken into account on next
+ * synchronization. Synchronization may be performed immediately with {@link #sync(ProjectRegistry)} or scheduled
+ * with {@link #scheduleSync(ProjectRegistry)}, in the latter case all the changes made during short period of time
+ * are sent together in background.
  *
  * @author gazarenkov
  */
 public abstract class WorkspaceProjectsSyncer {
+    private static final Logger LOG = LoggerFactory.getLogger(WorkspaceProjectsSyncer.class);
+
+    /** Delay of scheduled synchronization, changes made during this time are sent together. */
+    private static final long SYNC_DELAY_MS = 300;
+
+    private final AtomicBoolean syncScheduled = new AtomicBoolean();
+
+    /** Paths of projects stored in Workspace Configuration, {@code null} if they should be got from Workspace Master. */
+    private Set<String>              remotePaths;
+    private ScheduledExecutorService executor;
 
     /**
-     * Synchronizes Project Config state on Agent and Master
+     * Synchronizes Project Config state on Agent and Master immediately.
+     * Changes which are scheduled for synchronization are sent as well.
+     *
      * @param projectRegistry project registry
      * @throws ServerException
      */
-    public final void sync(ProjectRegistry projectRegistry) throws ServerException {
-
-        List<? extends ProjectConfig> remote = getProjects();
+    public final synchronized void sync(ProjectRegistry projectRegistry) throws ServerException {
+        if (remotePaths == null) {
+            final Set<String> paths = new HashSet<>();
+            for (ProjectConfig remote : getProjects()) {
+                paths.add(remote.getPath());
+            }
+            remotePaths = paths;
+        }
 
         // check on removed
-        List <ProjectConfig> removed = new ArrayList<>();
-        for(ProjectConfig r  : remote) {
-            if(projectRegistry.getProject(r.getPath()) == null)
-                removed.add(r);
+        final List<String> removed = new ArrayList<>();
+        for (String path : remotePaths) {
+            if (projectRegistry.getProject(path) == null) {
+                removed.add(path);
+            }
         }
 
-        for(ProjectConfig r : removed)
-            removeProject(r);
-
-
         // update or add
-        for(RegisteredProject project : projectRegistry.getProjects()) {
-
-            if(!project.isSynced() && !project.isDetected()) {
-
-                final ProjectConfig config = new NewProjectConfig(project.getPath(),
-                                                                  project.getType(),
-                                                                  project.getMixins(),
-                                                                  project.getName(),
-                                                                  project.getDescription(),
-                                                                  project.getPersistableAttributes(),
-                                                                  project.getSource());
-
-                boolean found = false;
-                for(ProjectConfig r  : remote) {
-                    if(r.getPath().equals(project.getPath())) {
-                        updateProject(config);
-                        found = true;
-                    }
-                }
+        final List<RegisteredProject> changed = new ArrayList<>();
+        final List<ProjectConfig> updated = new ArrayList<>();
+        for (RegisteredProject project : projectRegistry.getProjects()) {
+            if (!project.isSynced() && !project.isDetected()) {
+                changed.add(project);
+                updated.add(new NewProjectConfig(project.getPath(),
+                                                 project.getType(),
+                                                 project.getMixins(),
+                                                 project.getName(),
+                                                 project.getDescription(),
+                                                 project.getPersistableAttributes(),
+                                                 project.getSource()));
+            }
+        }
 
-                if(!found)
-                    addProject(config);
+        if (removed.isEmpty() && updated.isEmpty()) {
+            return;
+        }
+        final List<? extends ProjectConfig> remote;
+        try {
+            remote = updateProjects(updated, removed);
+        } catch (ServerException | RuntimeException e) {
+            // state of Workspace Configuration is unknown, get it once again next time
+            remotePaths = null;
+            throw e;
+        }
 
-                project.setSync();
+        if (remote != null) {
+            final Set<String> paths = new HashSet<>();
+            for (ProjectConfig config : remote) {
+                paths.add(config.getPath());
+            }
+            remotePaths = paths;
+        } else {
+            remotePaths.removeAll(removed);
+            for (ProjectConfig config : updated) {
+                remotePaths.add(config.getPath());
+            }
+        }
+        changed.forEach(RegisteredProject::setSync);
+    }
 
+    /**
+     * Schedules synchronization of Project Config state on Agent and Master in background.
+     * Several calls made during short period of time result in single synchronization.
+     *
+     * @param projectRegistry project registry
+     */
+    public void scheduleSync(ProjectRegistry projectRegistry) {
+        if (!syncScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        getExecutor().schedule(() -> {
+            syncScheduled.set(false);
+            try {
+                sync(projectRegistry);
+            } catch (ServerException | RuntimeException e) {
+                // not synchronized projects are sent on next synchronization
+                LOG.error("Unable to synchronize projects of workspace {}: {}", getWorkspaceId(), e.getMessage());
             }
+        }, SYNC_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
 
+    /**
+     * Waits for completion of scheduled synchronization and stops background thread.
+     */
+    @PreDestroy
+    public void stopSync() {
+        final ScheduledExecutorService scheduler;
+        synchronized (this) {
+            scheduler = executor;
+            executor = null;
+        }
+        if (scheduler != null) {
+            // scheduled synchronization is performed before termination
+            scheduler.shutdown();
+            try {
+                if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+                    LOG.warn("Unable to complete synchronization of projects of workspace {}", getWorkspaceId());
+                    scheduler.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 
+    private synchronized ScheduledExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("WorkspaceProjectsSyncer-%d")
+                                                                                            .setDaemon(true)
+                                                                                            .build());
         }
+        return executor;
+    }
 
+    /**
+     * Applies changes of projects to Workspace Config.
+     * Default implementation adds, updates and removes projects one by one, subclasses may send all the changes at once.
+     *
+     * @param updated configs of added or updated projects
+     * @param removed paths of removed projects
+     * @return projects of Workspace Config after changes are applied or {@code null} if they are not known,
+     * in the latter case changes are applied to remembered paths of projects
+     * @throws ServerException
+     */
+    protected List<? extends ProjectConfig> updateProjects(List<ProjectConfig> updated, List<String> removed) throws ServerException {
+        for (String path : removed) {
+            removeProject(new NewProjectConfig(Path.of(path)));
+        }
+        for (ProjectConfig config : updated) {
+            if (remotePaths.contains(config.getPath())) {
+                updateProject(config);
+            } else {
+                addProject(config);
+            }
+        }
+        return null;
     }
 
     /**
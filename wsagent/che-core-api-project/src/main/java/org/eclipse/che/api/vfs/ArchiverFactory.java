@@ -10,13 +10,38 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs;
 
+import java.util.concurrent.ExecutorService;
+
 public class ArchiverFactory {
+    private final ExecutorService   executor;
+    private final ExtractionMetrics zipExtractionMetrics;
+
+    public ArchiverFactory() {
+        this(null);
+    }
+
+    /**
+     * @param executor
+     *         executor for parallel work of zip archivers, e.g. writing extracted files or compressing files, if {@code
+     *         null} archivers do all the work in the calling thread
+     * @see ZipArchiver#ZipArchiver(VirtualFile, ExecutorService, ExtractionMetrics)
+     */
+    public ArchiverFactory(ExecutorService executor) {
+        this.executor = executor;
+        this.zipExtractionMetrics = new ExtractionMetrics();
+    }
+
+    /** Returns statistics of zip archives extracted by archivers created by this factory. */
+    public ExtractionMetrics getZipExtractionMetrics() {
+        return zipExtractionMetrics;
+    }
+
     public Archiver createArchiver(VirtualFile folder, String archiveType) {
         if (archiveType == null) {
             throw new IllegalArgumentException("Archive type might not be null");
         }
         if ("zip".equals(archiveType.toLowerCase())) {
-            return new ZipArchiver(folder);
+            return new ZipArchiver(folder, executor, zipExtractionMetrics);
         } else if ("tar".equals(archiveType.toLowerCase())) {
             return new TarArchiver(folder);
         }
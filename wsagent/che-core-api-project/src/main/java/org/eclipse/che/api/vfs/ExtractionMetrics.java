@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accumulates statistics of archives extracted by {@link Archiver}s, e.g. to see throughput of project imports.
+ * Instance is thread-safe.
+ */
+public class ExtractionMetrics {
+    private final AtomicLong archives          = new AtomicLong();
+    private final AtomicLong failures          = new AtomicLong();
+    private final AtomicLong rejected          = new AtomicLong();
+    private final AtomicLong entries           = new AtomicLong();
+    private final AtomicLong compressedBytes   = new AtomicLong();
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+    private final AtomicLong nanos             = new AtomicLong();
+
+    /**
+     * Records result of single extraction.
+     *
+     * @param entries
+     *         number of extracted entries
+     * @param compressedBytes
+     *         number of bytes read from archive
+     * @param uncompressedBytes
+     *         number of bytes of uncompressed content
+     * @param nanos
+     *         time of extraction in nanoseconds
+     * @param failed
+     *         {@code true} if extraction failed
+     * @param rejected
+     *         {@code true} if archive was rejected because of too high compression ratio
+     */
+    void record(long entries, long compressedBytes, long uncompressedBytes, long nanos, boolean failed, boolean rejected) {
+        this.archives.incrementAndGet();
+        this.entries.addAndGet(entries);
+        this.compressedBytes.addAndGet(compressedBytes);
+        this.uncompressedBytes.addAndGet(uncompressedBytes);
+        this.nanos.addAndGet(nanos);
+        if (failed) {
+            this.failures.incrementAndGet();
+        }
+        if (rejected) {
+            this.rejected.incrementAndGet();
+        }
+    }
+
+    /** Number of extracted archives including failed ones. */
+    public long getArchives() {
+        return archives.get();
+    }
+
+    /** Number of archives which were not extracted because of errors. */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /** Number of archives rejected because of too high compression ratio. */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /** Number of extracted entries. */
+    public long getEntries() {
+        return entries.get();
+    }
+
+    /** Number of bytes read from archives. */
+    public long getCompressedBytes() {
+        return compressedBytes.get();
+    }
+
+    /** Number of bytes of extracted content. */
+    public long getUncompressedBytes() {
+        return uncompressedBytes.get();
+    }
+
+    /** Total time spent for extraction. */
+    public long getTime(TimeUnit unit) {
+        return unit.convert(nanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /** Average number of bytes of extracted content per second. */
+    public long getThroughput() {
+        final long time = nanos.get();
+        return time == 0 ? 0 : (long)(uncompressedBytes.get() * (double)TimeUnit.SECONDS.toNanos(1) / time);
+    }
+}
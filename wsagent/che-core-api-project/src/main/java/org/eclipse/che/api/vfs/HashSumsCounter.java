@@ -18,26 +18,69 @@ import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.commons.lang.Pair;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.hash.Funnels.asOutputStream;
+import static java.util.stream.Collectors.toSet;
 
 /**
  * Traverses recursively all files in folder given in constructor and calculates hash sum for each file.
  * Algorithm specified by {@code hashFunction} is used for calculating hash sum.
+ * <p>
+ * If {@link HashSumsStore} is given, hash sums are counted only for files which are changed since their hash sums were
+ * stored. If executor is given, hash sums of files are counted concurrently. Big local files are read through memory
+ * mapping.
  */
 public class HashSumsCounter implements VirtualFileVisitor {
+    /** Local files which are not smaller than this are read through memory mapping. */
+    private static final long MIN_MAPPED_FILE_SIZE = 1024 * 1024;
+    private static final long MAX_MAPPED_REGION    = 64 * 1024 * 1024;
+    /**
+     * Hash sum of file modified less than this number of milliseconds before counting is not stored, because file may be
+     * modified once again without changing modification date, which has limited precision.
+     */
+    private static final long RACY_INTERVAL        = 2000;
+
     private final VirtualFile                folder;
     private final HashFunction               hashFunction;
+    private final HashSumsStore              store;
+    private final ExecutorService            executor;
+    private final List<VirtualFile>          files;
     private final List<Pair<String, String>> hashSums;
 
-
     public HashSumsCounter(VirtualFile folder, HashFunction hashFunction) {
+        this(folder, hashFunction, null, null);
+    }
+
+    /**
+     * @param folder
+     *         folder to count hash sums of its files
+     * @param hashFunction
+     *         algorithm of hash sums
+     * @param store
+     *         store of hash sums counted earlier with the same {@code hashFunction}, may be {@code null}
+     * @param executor
+     *         executor for counting hash sums concurrently, if {@code null} hash sums are counted in the calling thread
+     */
+    public HashSumsCounter(VirtualFile folder, HashFunction hashFunction, HashSumsStore store, ExecutorService executor) {
         this.folder = folder;
         this.hashFunction = hashFunction;
+        this.store = store;
+        this.executor = executor;
+        files = newArrayList();
         hashSums = newArrayList();
     }
 
@@ -50,27 +93,122 @@ public class HashSumsCounter implements VirtualFileVisitor {
      * </pre>
      */
     public List<Pair<String, String>> countHashSums() throws ServerException {
+        final long start = System.currentTimeMillis();
         folder.accept(this);
+
+        final List<FileState> states = new ArrayList<>(files.size());
+        for (VirtualFile file : files) {
+            final FileState state = stat(file);
+            if (store != null) {
+                state.hashSum = store.get(file.getPath(), state.length, state.lastModified);
+            }
+            if (state.hashSum == null && executor != null) {
+                state.counting = executor.submit(() -> countHashSum(file));
+            }
+            states.add(state);
+        }
+
+        for (FileState state : states) {
+            final boolean counted = state.hashSum == null;
+            if (state.counting != null) {
+                state.hashSum = await(state.counting);
+            } else if (counted) {
+                state.hashSum = countHashSum(state.file);
+            }
+            if (counted && store != null && state.lastModified < start - RACY_INTERVAL) {
+                store.put(state.file.getPath(), state.length, state.lastModified, state.hashSum);
+            }
+            hashSums.add(Pair.of(state.hashSum, state.file.getPath().subPath(folder.getPath()).toString()));
+        }
+        if (store != null) {
+            store.retain(folder.getPath(), files.stream().map(VirtualFile::getPath).collect(toSet()));
+        }
         return hashSums;
     }
 
     @Override
     public void visit(VirtualFile virtualFile) throws ServerException {
         if (virtualFile.isFile()) {
-            try (InputStream in = virtualFile.getContent()) {
-                final Hasher hasher = hashFunction.newHasher();
-                ByteStreams.copy(in, asOutputStream(hasher));
-                final String hexHash = hasher.hash().toString();
-                hashSums.add(Pair.of(hexHash, virtualFile.getPath().subPath(folder.getPath()).toString()));
-            } catch (IOException e) {
-                throw new ServerException(e);
-            } catch (ForbiddenException e) {
-                throw new ServerException(e.getServiceError());
-            }
+            files.add(virtualFile);
         } else {
             for (VirtualFile child : virtualFile.getChildren()) {
                 child.accept(this);
             }
         }
     }
+
+    private FileState stat(VirtualFile file) throws ServerException {
+        final File ioFile = file.toIoFile();
+        if (ioFile != null) {
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(ioFile.toPath(), BasicFileAttributes.class);
+                return new FileState(file, attributes.size(), attributes.lastModifiedTime().toMillis());
+            } catch (IOException e) {
+                throw new ServerException(e);
+            }
+        }
+        return new FileState(file, file.getLength(), file.getLastModificationDate());
+    }
+
+    private String countHashSum(VirtualFile file) throws ServerException {
+        final Hasher hasher = hashFunction.newHasher();
+        final File ioFile = file.toIoFile();
+        try {
+            if (ioFile != null && ioFile.length() >= MIN_MAPPED_FILE_SIZE) {
+                try (FileChannel channel = FileChannel.open(ioFile.toPath(), StandardOpenOption.READ)) {
+                    final byte[] buff = new byte[64 * 1024];
+                    final long size = channel.size();
+                    for (long position = 0; position < size; position += MAX_MAPPED_REGION) {
+                        final MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY,
+                                                                    position,
+                                                                    Math.min(MAX_MAPPED_REGION, size - position));
+                        while (region.hasRemaining()) {
+                            final int bytes = Math.min(buff.length, region.remaining());
+                            region.get(buff, 0, bytes);
+                            hasher.putBytes(buff, 0, bytes);
+                        }
+                    }
+                }
+            } else {
+                try (InputStream in = file.getContent()) {
+                    ByteStreams.copy(in, asOutputStream(hasher));
+                }
+            }
+            return hasher.hash().toString();
+        } catch (IOException e) {
+            throw new ServerException(e);
+        } catch (ForbiddenException e) {
+            throw new ServerException(e.getServiceError());
+        }
+    }
+
+    private String await(Future<String> counting) throws ServerException {
+        try {
+            return counting.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Counting of hash sums was interrupted");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof ServerException) {
+                throw (ServerException)cause;
+            }
+            throw new ServerException(cause.getMessage(), cause);
+        }
+    }
+
+    private static class FileState {
+        final VirtualFile file;
+        final long        length;
+        final long        lastModified;
+
+        String         hashSum;
+        Future<String> counting;
+
+        FileState(VirtualFile file, long length, long lastModified) {
+            this.file = file;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+    }
 }
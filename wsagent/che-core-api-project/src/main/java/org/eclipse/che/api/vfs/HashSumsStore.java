@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs;
+
+import java.util.Set;
+
+/**
+ * Keeps hash sums counted by {@link HashSumsCounter} together with size and modification date of files, so hash sum of
+ * file is not counted again while file is not changed.
+ */
+public interface HashSumsStore {
+    /**
+     * Returns hash sum of file if it was counted when file had the same size and modification date.
+     *
+     * @param path
+     *         path of file
+     * @param length
+     *         current size of file
+     * @param lastModified
+     *         current modification date of file
+     * @return hash sum or {@code null} if there is no hash sum or file is changed since hash sum was counted
+     */
+    String get(Path path, long length, long lastModified);
+
+    /**
+     * Saves hash sum of file.
+     *
+     * @param path
+     *         path of file
+     * @param length
+     *         size of file before hash sum was counted
+     * @param lastModified
+     *         modification date of file before hash sum was counted
+     * @param hashSum
+     *         hash sum of file
+     */
+    void put(Path path, long length, long lastModified, String hashSum);
+
+    /**
+     * Removes hash sums of files which are located in the folder but are not in the given set, e.g. removed files.
+     *
+     * @param folder
+     *         path of folder
+     * @param files
+     *         paths of files in the folder
+     */
+    void retain(Path folder, Set<Path> files);
+}
@@ -11,23 +11,82 @@
 package org.eclipse.che.api.vfs;
 
 import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.io.FileBackedOutputStream;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.Uninterruptibles;
 
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.input.CountingInputStream;
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.util.NotClosableInputStream;
-import org.eclipse.che.api.vfs.util.ZipContent;
+import org.eclipse.che.api.vfs.util.ZipBombDetectingInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 public class ZipArchiver extends Archiver {
+    private static final Logger LOG = LoggerFactory.getLogger(ZipArchiver.class);
+
+    /** Max number of files which are compressed concurrently or wait to be written to archive. */
+    private static final int MAX_DEFLATING_ENTRIES       = 32;
+    /** Compressed content of file is kept in memory if it is not bigger than this, otherwise it is spooled to file. */
+    private static final int MAX_IN_MEMORY_DEFLATED_SIZE = 1024 * 1024;
+    /** Content of files which are not bigger than this is read in memory and may be written by executor. */
+    private static final int MAX_ASYNC_WRITE_SIZE        = 256 * 1024;
+    /** Completed writes are checked for failures when number of pending writes reaches this number. */
+    private static final int MAX_PENDING_WRITES          = 1024;
+
+    private final ExecutorService   executor;
+    private final ExtractionMetrics metrics;
+
     public ZipArchiver(VirtualFile folder) {
+        this(folder, null, null);
+    }
+
+    /**
+     * @param folder
+     *         folder to compress or to extract archive to
+     * @param executor
+     *         executor for writing content of extracted files and for compressing files, if {@code null} all the work
+     *         is done in the calling thread. Executor is expected to have bounded queue and run rejected tasks in the
+     *         calling thread, which limits amount of content held in memory
+     * @param metrics
+     *         collector of extraction statistics, may be {@code null}
+     */
+    public ZipArchiver(VirtualFile folder, ExecutorService executor, ExtractionMetrics metrics) {
         super(folder);
+        this.executor = executor;
+        this.metrics = metrics;
     }
 
     @Override
@@ -35,8 +94,16 @@ public class ZipArchiver extends Archiver {
         compress(zipOutput, VirtualFileFilter.ACCEPT_ALL);
     }
 
+    /**
+     * Compresses folder. If executor is set, files are deflated concurrently, at most {@link #MAX_DEFLATING_ENTRIES} at a
+     * time, and then written to archive in the same order as they are written by sequential compression.
+     */
     @Override
     public void compress(OutputStream zipOutput, VirtualFileFilter filter) throws IOException, ServerException {
+        if (executor != null) {
+            compressInParallel(zipOutput, filter);
+            return;
+        }
         try (ZipOutputStream zipOutputStream = new ZipOutputStream(zipOutput)) {
             folder.accept(new VirtualFileVisitor() {
                 @Override
@@ -56,6 +123,129 @@ public class ZipArchiver extends Archiver {
         }
     }
 
+    private void compressInParallel(OutputStream zipOutput, VirtualFileFilter filter) throws IOException, ServerException {
+        final List<VirtualFile> items = new ArrayList<>();
+        folder.accept(new VirtualFileVisitor() {
+            @Override
+            public void visit(VirtualFile visitedVirtualFile) throws ServerException {
+                if (filter.accept(visitedVirtualFile)) {
+                    if (!visitedVirtualFile.equals(folder)) {
+                        items.add(visitedVirtualFile);
+                    }
+                    if (visitedVirtualFile.isFolder()) {
+                        for (VirtualFile child : visitedVirtualFile.getChildren()) {
+                            child.accept(this);
+                        }
+                    }
+                }
+            }
+        });
+
+        final Deque<Future<DeflatedEntry>> deflating = new ArrayDeque<>();
+        try (ZipArchiveOutputStream zipOutputStream = new ZipArchiveOutputStream(zipOutput)) {
+            final Iterator<VirtualFile> iterator = items.iterator();
+            while (iterator.hasNext() || !deflating.isEmpty()) {
+                while (iterator.hasNext() && deflating.size() < MAX_DEFLATING_ENTRIES) {
+                    final VirtualFile item = iterator.next();
+                    deflating.add(item.isFolder() ? Futures.immediateFuture(deflate(item)) : executor.submit(() -> deflate(item)));
+                }
+                final DeflatedEntry entry = awaitDeflated(deflating.poll());
+                try {
+                    entry.writeTo(zipOutputStream);
+                } finally {
+                    entry.release();
+                }
+            }
+        } finally {
+            for (Future<DeflatedEntry> future : deflating) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private DeflatedEntry deflate(VirtualFile virtualFile) throws IOException, ServerException {
+        final ZipArchiveEntry zipEntry = new ZipArchiveEntry(getZipEntryName(virtualFile));
+        if (virtualFile.isFolder()) {
+            zipEntry.setTime(0);
+            return new DeflatedEntry(zipEntry, null);
+        }
+        zipEntry.setTime(virtualFile.getLastModificationDate());
+        zipEntry.setMethod(ZipEntry.DEFLATED);
+        final FileBackedOutputStream deflated = new FileBackedOutputStream(MAX_IN_MEMORY_DEFLATED_SIZE, true);
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        final CRC32 crc = new CRC32();
+        final byte[] buff = new byte[8192];
+        long size = 0;
+        try (InputStream content = virtualFile.getContent();
+             CountingOutputStream compressed = new CountingOutputStream(deflated);
+             DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(compressed, deflater, buff.length)) {
+            int bytes;
+            while ((bytes = content.read(buff)) != -1) {
+                crc.update(buff, 0, bytes);
+                deflaterOutput.write(buff, 0, bytes);
+                size += bytes;
+            }
+            deflaterOutput.finish();
+            zipEntry.setCompressedSize(compressed.getCount());
+        } catch (ForbiddenException e) {
+            deflated.reset();
+            throw new ServerException(e.getServiceError());
+        } catch (IOException e) {
+            deflated.reset();
+            throw e;
+        } finally {
+            deflater.end();
+        }
+        zipEntry.setSize(size);
+        zipEntry.setCrc(crc.getValue());
+        return new DeflatedEntry(zipEntry, deflated);
+    }
+
+    private DeflatedEntry awaitDeflated(Future<DeflatedEntry> future) throws IOException, ServerException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServerException("Compression was interrupted");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof ServerException) {
+                throw (ServerException)cause;
+            }
+            throw new ServerException(cause.getMessage(), cause);
+        }
+    }
+
+    /** Zip entry with content deflated in advance, content is {@code null} for folders. */
+    private static class DeflatedEntry {
+        final ZipArchiveEntry        zipEntry;
+        final FileBackedOutputStream content;
+
+        DeflatedEntry(ZipArchiveEntry zipEntry, FileBackedOutputStream content) {
+            this.zipEntry = zipEntry;
+            this.content = content;
+        }
+
+        void writeTo(ZipArchiveOutputStream zipOutputStream) throws IOException {
+            if (content == null) {
+                zipOutputStream.putArchiveEntry(zipEntry);
+                zipOutputStream.closeArchiveEntry();
+            } else {
+                try (InputStream rawContent = content.asByteSource().openStream()) {
+                    zipOutputStream.addRawArchiveEntry(zipEntry, rawContent);
+                }
+            }
+        }
+
+        void release() throws IOException {
+            if (content != null) {
+                content.reset();
+            }
+        }
+    }
+
     private String getZipEntryName(VirtualFile virtualFile) {
         Path zipPath = virtualFile.getPath().subPath(folder.getPath());
         if (virtualFile.isFolder()) {
@@ -84,52 +274,233 @@ public class ZipArchiver extends Archiver {
         }
     }
 
+    /**
+     * Extracts zip archive in single pass. Compression ratio is checked while entries are inflated, see {@link
+     * ZipBombDetectingInputStream}. If extraction fails, e.g. archive contains too highly compressed content, all
+     * files and folders created by extraction are removed. Content of files which were overwritten is not restored.
+     */
     @Override
     public void extract(InputStream zipInput, boolean overwrite, int stripNumber)
             throws IOException, ForbiddenException, ConflictException, ServerException {
-        try (ZipInputStream zip = new ZipInputStream(ZipContent.of(zipInput).getContent())) {
-            InputStream notClosableInputStream = new NotClosableInputStream(zip);
-            ZipEntry zipEntry;
-            while ((zipEntry = zip.getNextEntry()) != null) {
-                VirtualFile extractFolder = folder;
+        final long start = System.nanoTime();
+        final CountingInputStream compressed = new CountingInputStream(zipInput);
+        final ZipBombDetectingInputStream uncompressed;
+        final Extraction extraction = new Extraction(overwrite);
+        boolean succeeded = false;
+        boolean rejected = false;
+        try (ZipInputStream zip = new ZipInputStream(compressed)) {
+            uncompressed = new ZipBombDetectingInputStream(new NotClosableInputStream(zip), compressed);
+            try {
+                ZipEntry zipEntry;
+                while ((zipEntry = zip.getNextEntry()) != null) {
+                    Path relativePath = Path.of(zipEntry.getName());
 
-                Path relativePath = Path.of(zipEntry.getName());
+                    if (stripNumber > 0) {
+                        if (relativePath.length() <= stripNumber) {
+                            // inflate skipped entry through the checking stream, it still may be a zip bomb
+                            ByteStreams.copy(uncompressed, ByteStreams.nullOutputStream());
+                            continue;
+                        }
+                        relativePath = relativePath.subPath(stripNumber);
+                    }
 
-                if (stripNumber > 0) {
-                    if (relativePath.length() <= stripNumber) {
-                        continue;
+                    if (zipEntry.isDirectory()) {
+                        extraction.createFolder(relativePath);
+                    } else {
+                        extraction.createFile(relativePath, uncompressed);
                     }
-                    relativePath = relativePath.subPath(stripNumber);
+                    zip.closeEntry();
+                }
+                extraction.awaitWrites();
+                succeeded = true;
+            } catch (ZipBombDetectingInputStream.ZipBombException e) {
+                rejected = true;
+                throw e;
+            } finally {
+                if (!succeeded) {
+                    extraction.rollback();
+                }
+                final long time = System.nanoTime() - start;
+                if (metrics != null) {
+                    metrics.record(extraction.entries, compressed.getByteCount(), uncompressed.getUncompressedBytes(), time,
+                                   !succeeded, rejected);
+                }
+                LOG.debug("Extracted {} entries, {} bytes of {} bytes archive to {} in {} ms",
+                          extraction.entries, uncompressed.getUncompressedBytes(), compressed.getByteCount(), folder.getPath(),
+                          TimeUnit.NANOSECONDS.toMillis(time));
+            }
+        }
+    }
+
+    /** State of single extraction. Folders are created in the calling thread, content of files may be written by executor. */
+    private class Extraction {
+        final boolean                overwrite;
+        /** Folders which are known to exist by path relative to the extraction folder. */
+        final Map<Path, VirtualFile> folders;
+        /** Relative paths of folders created by this extraction. */
+        final Set<Path>              createdFolders;
+        /** Top-most items created by this extraction, they are removed on rollback. */
+        final List<VirtualFile>      createdRoots;
+        final Map<Path, Future<?>>   pendingWrites;
+
+        long             entries;
+        /** Set on rollback, writes which are not started yet are skipped. */
+        volatile boolean rolledBack;
+
+        Extraction(boolean overwrite) {
+            this.overwrite = overwrite;
+            this.folders = new HashMap<>();
+            this.createdFolders = new HashSet<>();
+            this.createdRoots = Collections.synchronizedList(new ArrayList<>());
+            this.pendingWrites = new LinkedHashMap<>();
+        }
+
+        VirtualFile createFolder(Path relativePath) throws ForbiddenException, ConflictException, ServerException {
+            if (relativePath.length() == 0) {
+                return folder;
+            }
+            VirtualFile result = folders.get(relativePath);
+            if (result != null) {
+                return result;
+            }
+            final VirtualFile parent = createFolder(relativePath.getParent());
+            result = parent.getChild(Path.of(relativePath.getName()));
+            if (result == null) {
+                result = parent.createFolder(relativePath.getName());
+                if (!createdFolders.contains(relativePath.getParent())) {
+                    createdRoots.add(result);
                 }
+                createdFolders.add(relativePath);
+                entries++;
+            } else if (!result.isFolder()) {
+                throw new ConflictException(String.format("Item '%s' already exists", result.getPath()));
+            }
+            folders.put(relativePath, result);
+            return result;
+        }
+
+        void createFile(Path relativePath, ZipBombDetectingInputStream content)
+                throws IOException, ForbiddenException, ConflictException, ServerException {
+            final VirtualFile parent = createFolder(relativePath.getParent());
+            final String name = relativePath.getName();
+            // the same file may be met in archive more than once
+            final Future<?> pendingWrite = pendingWrites.remove(relativePath);
+            if (pendingWrite != null) {
+                await(pendingWrite);
+            }
+            final VirtualFile file = parent.getChild(Path.of(name));
+            if (file != null && !overwrite) {
+                throw new ConflictException(String.format("File '%s' already exists", file.getPath()));
+            }
+            final boolean createdRoot = !createdFolders.contains(relativePath.getParent());
+            entries++;
 
-                if (zipEntry.isDirectory()) {
-                    if (!extractFolder.hasChild(relativePath)) {
-                        extractFolder.createFolder(relativePath.toString());
+            final byte[] head = ByteStreams.toByteArray(ByteStreams.limit(content, MAX_ASYNC_WRITE_SIZE + 1));
+            if (executor != null && head.length <= MAX_ASYNC_WRITE_SIZE) {
+                pendingWrites.put(relativePath, executor.submit(() -> {
+                    if (!rolledBack) {
+                        write(parent, name, file, new ByteArrayInputStream(head), createdRoot);
                     }
-                    continue;
+                    return null;
+                }));
+                if (pendingWrites.size() >= MAX_PENDING_WRITES) {
+                    checkCompletedWrites();
                 }
+            } else {
+                try {
+                    write(parent, name, file, new SequenceInputStream(new ByteArrayInputStream(head), content), createdRoot);
+                } catch (ServerException e) {
+                    // virtual file system hides the reason why content can't be read
+                    content.checkRatio();
+                    throw e;
+                }
+            }
+        }
 
-                if (relativePath.length() > 1) {
-                    Path neededParentPath = relativePath.getParent();
-                    VirtualFile neededParent = extractFolder.getChild(neededParentPath);
-                    if (neededParent == null) {
-                        neededParent = extractFolder.createFolder(neededParentPath.toString());
+        void write(VirtualFile parent, String name, VirtualFile file, InputStream content, boolean createdRoot)
+                throws ForbiddenException, ConflictException, ServerException {
+            if (file == null) {
+                final VirtualFile created;
+                try {
+                    created = parent.createFile(name, content);
+                } catch (ServerException e) {
+                    // file may be already created even if its content is not written
+                    final VirtualFile partial = parent.getChild(Path.of(name));
+                    if (partial != null && createdRoot) {
+                        createdRoots.add(partial);
                     }
-                    extractFolder = neededParent;
+                    throw e;
+                }
+                if (createdRoot) {
+                    createdRoots.add(created);
                 }
+            } else {
+                file.updateContent(content);
+            }
+        }
 
-                String fileName = relativePath.getName();
-                VirtualFile file = extractFolder.getChild(Path.of(fileName));
-                if (file == null) {
-                    extractFolder.createFile(fileName, notClosableInputStream);
-                } else {
-                    if (overwrite) {
-                        file.updateContent(notClosableInputStream);
-                    } else {
-                        throw new ConflictException(String.format("File '%s' already exists", file.getPath()));
+        /** Removes completed writes from pending ones, rethrows failure of any of them. */
+        void checkCompletedWrites() throws ForbiddenException, ConflictException, ServerException {
+            for (Iterator<Future<?>> i = pendingWrites.values().iterator(); i.hasNext(); ) {
+                final Future<?> write = i.next();
+                if (write.isDone()) {
+                    i.remove();
+                    await(write);
+                }
+            }
+        }
+
+        void awaitWrites() throws ForbiddenException, ConflictException, ServerException {
+            for (Iterator<Future<?>> i = pendingWrites.values().iterator(); i.hasNext(); ) {
+                final Future<?> write = i.next();
+                i.remove();
+                await(write);
+            }
+        }
+
+        void await(Future<?> write) throws ForbiddenException, ConflictException, ServerException {
+            try {
+                write.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServerException("Extraction was interrupted");
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof ForbiddenException) {
+                    throw (ForbiddenException)cause;
+                } else if (cause instanceof ConflictException) {
+                    throw (ConflictException)cause;
+                } else if (cause instanceof ServerException) {
+                    throw (ServerException)cause;
+                }
+                throw new ServerException(cause.getMessage(), cause);
+            }
+        }
+
+        /**
+         * Skips pending writes which are not started yet, waits for completion of the started ones
+         * and then removes all items created by extraction.
+         */
+        void rollback() {
+            // writes are not cancelled, cancelled future doesn't wait for completion of running write
+            rolledBack = true;
+            for (Future<?> write : pendingWrites.values()) {
+                try {
+                    Uninterruptibles.getUninterruptibly(write);
+                } catch (ExecutionException ignored) {
+                    // failure of extraction is already reported
+                }
+            }
+            pendingWrites.clear();
+            synchronized (createdRoots) {
+                for (int i = createdRoots.size() - 1; i >= 0; i--) {
+                    final VirtualFile created = createdRoots.get(i);
+                    try {
+                        created.delete();
+                    } catch (ForbiddenException | ServerException e) {
+                        LOG.warn("Unable remove {} after failed extraction: {}", created.getPath(), e.getMessage());
                     }
                 }
-                zip.closeEntry();
             }
         }
     }
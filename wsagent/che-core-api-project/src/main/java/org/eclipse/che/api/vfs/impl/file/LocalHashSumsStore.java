@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.eclipse.che.api.vfs.HashSumsStore;
+import org.eclipse.che.api.vfs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * {@link HashSumsStore} which keeps hash sums in memory and persists them in a file, so hash sums counted before restart
+ * of virtual file system are reused.
+ * <p>
+ * Stored hash sums are loaded when store is used first time. Changes are written with {@link #save()} which replaces
+ * the whole file atomically, broken or incompatible file is ignored and hash sums are counted again.
+ */
+public class LocalHashSumsStore implements HashSumsStore {
+    private static final Logger LOG = LoggerFactory.getLogger(LocalHashSumsStore.class);
+
+    private static final int VERSION = 1;
+
+    private final File                          storeFile;
+    private final String                        algorithm;
+    private final ConcurrentMap<String, Digest> digests;
+
+    private volatile boolean loaded;
+    private volatile boolean modified;
+
+    /**
+     * @param storeFile
+     *         file for storing hash sums
+     * @param algorithm
+     *         name of algorithm of hash sums, hash sums stored with another algorithm are not loaded
+     */
+    public LocalHashSumsStore(File storeFile, String algorithm) {
+        this.storeFile = storeFile;
+        this.algorithm = algorithm;
+        this.digests = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public String get(Path path, long length, long lastModified) {
+        load();
+        final Digest digest = digests.get(path.toString());
+        if (digest != null && digest.length == length && digest.lastModified == lastModified) {
+            return digest.hashSum;
+        }
+        return null;
+    }
+
+    @Override
+    public void put(Path path, long length, long lastModified, String hashSum) {
+        load();
+        digests.put(path.toString(), new Digest(length, lastModified, hashSum));
+        modified = true;
+    }
+
+    @Override
+    public void retain(Path folder, Set<Path> files) {
+        load();
+        final String prefix = folder.isRoot() ? "/" : folder.toString() + '/';
+        final Set<String> retained = ConcurrentHashMap.newKeySet(files.size());
+        files.forEach(file -> retained.add(file.toString()));
+        if (digests.keySet().removeIf(path -> path.startsWith(prefix) && !retained.contains(path))) {
+            modified = true;
+        }
+    }
+
+    /** Number of stored hash sums. */
+    public int size() {
+        load();
+        return digests.size();
+    }
+
+    /** Writes hash sums to the file if they are changed since last saving. */
+    public synchronized void save() throws IOException {
+        if (!modified) {
+            return;
+        }
+        modified = false;
+        // hash sums may be changed while they are written, size must match the number of written entries
+        final Map<String, Digest> snapshot = new HashMap<>(digests);
+        final java.nio.file.Path target = storeFile.toPath();
+        Files.createDirectories(target.getParent());
+        final java.nio.file.Path temp = Files.createTempFile(target.getParent(), storeFile.getName(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(VERSION);
+                out.writeUTF(algorithm);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, Digest> entry : snapshot.entrySet()) {
+                    final Digest digest = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(digest.length);
+                    out.writeLong(digest.lastModified);
+                    out.writeUTF(digest.hashSum);
+                }
+            }
+            Files.move(temp, target, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            modified = true;
+            throw e;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(storeFile.toPath())))) {
+                if (in.readInt() == VERSION && algorithm.equals(in.readUTF())) {
+                    final int size = in.readInt();
+                    for (int i = 0; i < size; i++) {
+                        final String path = in.readUTF();
+                        digests.putIfAbsent(path, new Digest(in.readLong(), in.readLong(), in.readUTF()));
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // nothing stored yet
+            } catch (IOException e) {
+                LOG.warn("Unable to load hash sums from {}: {}", storeFile, e.getMessage());
+                digests.clear();
+            }
+            loaded = true;
+        }
+    }
+
+    private static class Digest {
+        final long   length;
+        final long   lastModified;
+        final String hashSum;
+
+        Digest(long length, long lastModified, String hashSum) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hashSum = hashSum;
+        }
+    }
+}
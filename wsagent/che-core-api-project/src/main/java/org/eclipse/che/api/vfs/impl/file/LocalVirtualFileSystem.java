@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.hash.Hashing;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Files;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
@@ -52,11 +53,17 @@ import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.StandardCopyOption;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.collect.Lists.newArrayList;
@@ -66,6 +73,7 @@ import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonMap;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.eclipse.che.api.vfs.VirtualFileFilters.dotGitFilter;
 import static org.eclipse.che.commons.lang.IoUtil.deleteRecursive;
 
@@ -89,6 +97,13 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     private static final String   FILE_PROPERTIES_DIR    = VFS_SERVICE_DIR + File.separatorChar + "props";
     private static final String   PROPERTIES_FILE_SUFFIX = "_props";
 
+    private static final String   TEMP_DIR               = VFS_SERVICE_DIR + File.separatorChar + "tmp";
+    private static final String   MD5_SUMS_FILE          = VFS_SERVICE_DIR + File.separatorChar + "hashsums" + File.separatorChar + "md5";
+
+    private static final int MAX_HASH_SUMS_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+    /** When queue of files to count hash sums is full, hash sums are counted by threads which request them. */
+    private static final int MAX_HASH_SUMS_QUEUE   = 256;
+
     private static final FilenameFilter DOT_VFS_DIR_FILTER = (dir, name) -> !(VFS_SERVICE_DIR.equals(name));
 
     private static final FilenameFilter VFS_LOCK_FILTER =
@@ -136,6 +151,9 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     private final FileMetadataSerializer                  metadataSerializer;
     private final LoadingCache<Path, Map<String, String>> metadataCache;
 
+    private final LocalHashSumsStore md5SumsStore;
+    private final ExecutorService    hashSumsExecutor;
+
     @SuppressWarnings("unchecked")
     public LocalVirtualFileSystem(File ioRoot,
                                   ArchiverFactory archiverFactory,
@@ -162,6 +180,25 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
                                     .maximumSize(256)
                                     .expireAfterAccess(10, MINUTES)
                                     .build(new FilePropertiesCacheLoader());
+
+        md5SumsStore = new LocalHashSumsStore(new File(ioRoot, MD5_SUMS_FILE), "md5");
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_HASH_SUMS_THREADS, MAX_HASH_SUMS_THREADS,
+                                                                   60, SECONDS,
+                                                                   new ArrayBlockingQueue<>(MAX_HASH_SUMS_QUEUE),
+                                                                   new ThreadFactoryBuilder().setNameFormat("VfsHashSumsCounter-%d")
+                                                                                             .setDaemon(true)
+                                                                                             .build(),
+                                                                   LocalVirtualFileSystem::countInCallerThread);
+        executor.allowCoreThreadTimeOut(true);
+        hashSumsExecutor = executor;
+    }
+
+    /** Counting of hash sums which doesn't fit into queue is run by thread which submits it. */
+    private static void countInCallerThread(Runnable counting, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Virtual file system is closed");
+        }
+        counting.run();
     }
 
     @Override
@@ -177,6 +214,8 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     @Override
     public void close() throws ServerException {
         cleanUpCaches();
+        hashSumsExecutor.shutdownNow();
+        saveMd5Sums();
         if (searcherProvider != null) {
             Searcher searcher = searcherProvider.getSearcher(this, false);
             if (searcher != null) {
@@ -537,7 +576,52 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
     }
 
 
+    /**
+     * Streams content to temporary file and then atomically replaces file with it, so readers which opened file before
+     * see previous content entirely and readers which open it after see new content entirely. Symbolic links, files
+     * with several hard links and files of another owner are updated in place, since replacing would break links or
+     * change owner of file.
+     */
     private void doUpdateContent(LocalVirtualFile virtualFile, InputStream content) throws ServerException {
+        final java.nio.file.Path target = virtualFile.toIoFile().toPath();
+        if (java.nio.file.Files.isSymbolicLink(target) || hasSeveralLinks(target)) {
+            doUpdateContentInPlace(virtualFile, content);
+            return;
+        }
+        java.nio.file.Path temp = null;
+        try {
+            final java.nio.file.Path tempDir = java.nio.file.Files.createDirectories(new File(ioRoot, TEMP_DIR).toPath());
+            temp = java.nio.file.Files.createTempFile(tempDir, "content", null);
+            if (hasAnotherOwner(target, temp)) {
+                java.nio.file.Files.delete(temp);
+                temp = null;
+                doUpdateContentInPlace(virtualFile, content);
+                return;
+            }
+            java.nio.file.Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            copyPermissions(target, temp);
+            try {
+                java.nio.file.Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                java.nio.file.Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+        } catch (IOException e) {
+            String errorMessage = String.format("Unable set content of '%s'", virtualFile.getPath());
+            LOG.error(errorMessage + "\n" + e.getMessage(), e);
+            throw new ServerException(errorMessage);
+        } finally {
+            if (temp != null) {
+                try {
+                    java.nio.file.Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    LOG.warn("Unable remove temporary file {}: {}", temp, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void doUpdateContentInPlace(LocalVirtualFile virtualFile, InputStream content) throws ServerException {
         try (FileOutputStream fileOut = new FileOutputStream(virtualFile.toIoFile())) {
             ByteStreams.copy(content, fileOut);
         } catch (IOException e) {
@@ -547,6 +631,37 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         }
     }
 
+    private static boolean hasSeveralLinks(java.nio.file.Path file) {
+        try {
+            return (Integer)java.nio.file.Files.getAttribute(file, "unix:nlink") > 1;
+        } catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+            // not unix filesystem or file doesn't exist
+            return false;
+        }
+    }
+
+    private static boolean hasAnotherOwner(java.nio.file.Path file, java.nio.file.Path other) throws IOException {
+        if (!java.nio.file.Files.exists(file)) {
+            return false;
+        }
+        try {
+            return !java.nio.file.Files.getOwner(file).equals(java.nio.file.Files.getOwner(other));
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private static void copyPermissions(java.nio.file.Path source, java.nio.file.Path target) throws IOException {
+        if (!java.nio.file.Files.exists(source)) {
+            return;
+        }
+        try {
+            java.nio.file.Files.setPosixFilePermissions(target, java.nio.file.Files.getPosixFilePermissions(source));
+        } catch (UnsupportedOperationException e) {
+            target.toFile().setExecutable(source.toFile().canExecute());
+        }
+    }
+
     void delete(LocalVirtualFile virtualFile, String lockToken) throws ForbiddenException, ServerException {
         if (virtualFile.isRoot()) {
             throw new ForbiddenException("Unable delete root folder");
@@ -908,7 +1023,20 @@ public class LocalVirtualFileSystem implements VirtualFileSystem {
         if (virtualFile.isFile()) {
             return emptyList();
         }
-        return new HashSumsCounter(virtualFile, Hashing.md5()).countHashSums();
+        final List<Pair<String, String>> md5Sums = new HashSumsCounter(virtualFile,
+                                                                      Hashing.md5(),
+                                                                      md5SumsStore,
+                                                                      hashSumsExecutor).countHashSums();
+        saveMd5Sums();
+        return md5Sums;
+    }
+
+    private void saveMd5Sums() {
+        try {
+            md5SumsStore.save();
+        } catch (IOException e) {
+            LOG.warn("Unable to save md5 sums of files: {}", e.getMessage());
+        }
     }
 
 
@@ -10,6 +10,8 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.impl.file;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.ArchiverFactory;
@@ -22,22 +24,40 @@ import javax.inject.Singleton;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Singleton
 public class LocalVirtualFileSystemProvider extends AbstractVirtualFileSystemProvider {
+    /** Max number of threads which write files extracted from archives and compress files added to archives. */
+    private static final int MAX_ARCHIVER_THREADS      = 4;
+    /** Max number of queued archiver tasks, when queue is full tasks are run by thread which extracts or creates archive. */
+    private static final int MAX_QUEUED_ARCHIVER_TASKS = 64;
+
     private final File             rootDirectory;
     private final SearcherProvider searcherProvider;
+    private final ArchiverFactory  archiverFactory;
 
     @Inject
     public LocalVirtualFileSystemProvider(@Named("che.user.workspaces.storage") File rootDirectory,
                                           SearcherProvider searcherProvider) throws IOException {
         this.rootDirectory = rootDirectory;
         this.searcherProvider = searcherProvider;
+        final int archiverThreads = Math.min(MAX_ARCHIVER_THREADS, Runtime.getRuntime().availableProcessors());
+        final ThreadPoolExecutor archiverExecutor = new ThreadPoolExecutor(archiverThreads, archiverThreads, 60L, TimeUnit.SECONDS,
+                                                                           new ArrayBlockingQueue<>(MAX_QUEUED_ARCHIVER_TASKS),
+                                                                           new ThreadFactoryBuilder().setNameFormat("Archiver-%d")
+                                                                                                     .setDaemon(true)
+                                                                                                     .build(),
+                                                                           new ThreadPoolExecutor.CallerRunsPolicy());
+        archiverExecutor.allowCoreThreadTimeOut(true);
+        this.archiverFactory = new ArchiverFactory(archiverExecutor);
         Files.createDirectories(rootDirectory.toPath());
     }
 
     @Override
     protected VirtualFileSystem createVirtualFileSystem(CloseCallback closeCallback) throws ServerException {
-        return new LocalVirtualFileSystem(rootDirectory, new ArchiverFactory(), searcherProvider, closeCallback);
+        return new LocalVirtualFileSystem(rootDirectory, archiverFactory, searcherProvider, closeCallback);
     }
 }
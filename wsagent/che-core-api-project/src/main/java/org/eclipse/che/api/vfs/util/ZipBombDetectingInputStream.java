@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.util;
+
+import org.apache.commons.io.input.CountingInputStream;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Wrapper for uncompressed content of zip archive which checks compression ratio while content is read, so archive
+ * does not need to be inflated once more only for checking it.
+ * <p/>
+ * Counts all bytes read through this stream, e.g. content of all entries of {@link java.util.zip.ZipInputStream}, and
+ * compares this number with number of bytes read from the compressed stream. If the number of uncompressed bytes is
+ * over threshold and exceeds the number of compressed bytes more than {@link #ZIP_RATIO} times then IOException is
+ * thrown.
+ */
+public final class ZipBombDetectingInputStream extends FilterInputStream {
+    /** The threshold after that checking of ZIP ratio started. */
+    private static final long ZIP_THRESHOLD = 1000000;
+    /** Max compression ratio. */
+    private static final int  ZIP_RATIO     = 100;
+
+    private final CountingInputStream compressed;
+
+    private long uncompressedBytes;
+
+    /**
+     * @param uncompressed
+     *         uncompressed content
+     * @param compressed
+     *         counter of bytes read from compressed stream
+     */
+    public ZipBombDetectingInputStream(InputStream uncompressed, CountingInputStream compressed) {
+        super(uncompressed);
+        this.compressed = compressed;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int b = super.read();
+        if (b != -1) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        final int bytes = super.read(b, off, len);
+        if (bytes > 0) {
+            count(bytes);
+        }
+        return bytes;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        final byte[] buff = new byte[(int)Math.min(n, 8192)];
+        long skipped = 0;
+        int bytes;
+        while (skipped < n && (bytes = read(buff, 0, (int)Math.min(buff.length, n - skipped))) != -1) {
+            skipped += bytes;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /** Returns number of uncompressed bytes read so far. */
+    public long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    /**
+     * Checks compression ratio of content read so far.
+     *
+     * @throws ZipBombException
+     *         if compression ratio is too high
+     */
+    public void checkRatio() throws ZipBombException {
+        if (uncompressedBytes > ZIP_THRESHOLD && uncompressedBytes > (ZIP_RATIO * compressed.getByteCount())) {
+            throw new ZipBombException();
+        }
+    }
+
+    private void count(int bytes) throws ZipBombException {
+        uncompressedBytes += bytes;
+        checkRatio();
+    }
+
+    /** Thrown when compression ratio of read content is too high. */
+    public static class ZipBombException extends IOException {
+        public ZipBombException() {
+            super("Zip bomb detected");
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.model.project.ProjectConfig;
+import org.eclipse.che.api.project.server.handlers.ProjectHandlerRegistry;
+import org.eclipse.che.api.project.server.handlers.ProjectInitHandler;
+import org.eclipse.che.api.project.server.type.ProjectTypeDef;
+import org.eclipse.che.api.project.server.type.ProjectTypeRegistry;
+import org.eclipse.che.api.project.server.type.ReadonlyValueProvider;
+import org.eclipse.che.api.project.server.type.ValueProviderFactory;
+import org.eclipse.che.api.project.server.type.ValueStorageException;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ProjectRegistry}.
+ */
+public class ProjectRegistryTest extends WsAgentTestBase {
+    private static final int PROJECTS = 20;
+
+    private AtomicInteger                   providerCalls;
+    private AtomicInteger                   initializedProjects;
+    private AtomicInteger                   maxConcurrentInitializations;
+    private FileWatcherNotificationHandler  notificationHandler;
+    private FileWatcherNotificationListener listener;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+
+        providerCalls = new AtomicInteger();
+        initializedProjects = new AtomicInteger();
+        maxConcurrentInitializations = new AtomicInteger();
+        final List<ProjectConfig> projects = new ArrayList<>();
+        for (int i = 0; i < PROJECTS; i++) {
+            new File(root, "project" + i).mkdir();
+            projects.add(DtoFactory.newDto(ProjectConfigDto.class)
+                                   .withPath("/project" + i)
+                                   .withName("project" + i)
+                                   .withType("provided"));
+        }
+        workspaceHolder = new TestWorkspaceHolder(projects);
+        final ProjectTypeRegistry projectTypeRegistry = new ProjectTypeRegistry(new HashSet<>());
+        projectTypeRegistry.registerProjectType(new ProvidedPT());
+        projectTypeRegistry.registerProjectType(new FailingPT());
+        notificationHandler = mock(FileWatcherNotificationHandler.class);
+
+        projectRegistry = new ProjectRegistry(workspaceHolder,
+                                              vfsProvider,
+                                              projectTypeRegistry,
+                                              new ProjectHandlerRegistry(Collections.singleton(new CountingInitHandler())),
+                                              eventService);
+        projectRegistry.setFileWatcherNotificationHandler(notificationHandler);
+        projectRegistry.initProjects();
+
+        final ArgumentCaptor<FileWatcherNotificationListener> captor = ArgumentCaptor.forClass(FileWatcherNotificationListener.class);
+        verify(notificationHandler).addNotificationListener(captor.capture());
+        listener = captor.getValue();
+    }
+
+    @Test
+    public void shouldRegisterAllConfiguredProjects() throws Exception {
+        assertEquals(PROJECTS, projectRegistry.getProjects().size());
+        for (int i = 0; i < PROJECTS; i++) {
+            assertNotNull(projectRegistry.getProject("/project" + i));
+        }
+    }
+
+    @Test
+    public void shouldGetProvidedAttributeOnFirstAccessAndReuseIt() throws Exception {
+        assertEquals(0, providerCalls.get());
+
+        final RegisteredProject project = projectRegistry.getProject("/project0");
+
+        assertEquals("value1", project.getAttributeEntries().get("provided").getString());
+        assertEquals("value1", project.getAttributes().get("provided").get(0));
+        assertEquals(1, providerCalls.get());
+        final String provider = projectRegistry.getValueProviderMetrics().getProviders().iterator().next();
+        assertEquals(1, projectRegistry.getValueProviderMetrics().getCalls(provider));
+        assertEquals(0, projectRegistry.getValueProviderMetrics().getFailures(provider));
+        assertTrue(projectRegistry.getValueProviderMetrics().getTime(provider, TimeUnit.MILLISECONDS) >= 1);
+    }
+
+    @Test
+    public void shouldFireInitHandlersOfProjectsOneByOne() throws Exception {
+        assertEquals(PROJECTS, initializedProjects.get());
+        assertEquals(1, maxConcurrentInitializations.get());
+    }
+
+    @Test
+    public void shouldReportProblemWhenValueProviderFails() throws Exception {
+        final RegisteredProject project = projectRegistry.putProject(DtoFactory.newDto(ProjectConfigDto.class)
+                                                                               .withPath("/project0")
+                                                                               .withName("project0")
+                                                                               .withType("failing"),
+                                                                     projectRegistry.getProject("/project0").getBaseFolder(),
+                                                                     false,
+                                                                     false);
+        assertTrue(project.getProblems().isEmpty());
+
+        assertNull(project.getAttributeEntries().get("failing"));
+
+        assertEquals(1, project.getProblems().size());
+        assertEquals(12, project.getProblems().get(0).code);
+        final String provider = FailingPT.FACTORY.getClass().getName();
+        assertEquals(1, projectRegistry.getValueProviderMetrics().getFailures(provider));
+
+        listener.onFileWatcherEvent(mockVirtualFile("/project0/file"), FileWatcherEventType.MODIFIED);
+        assertTrue(project.getProblems().isEmpty());
+    }
+
+    @Test
+    public void shouldGetProvidedAttributeOnceAgainWhenFilesOfProjectAreChanged() throws Exception {
+        final RegisteredProject project = projectRegistry.getProject("/project0");
+        project.getAttributeEntries();
+
+        listener.onFileWatcherEvent(mockVirtualFile("/project1/file"), FileWatcherEventType.MODIFIED);
+        assertEquals("value1", project.getAttributeEntries().get("provided").getString());
+
+        listener.onFileWatcherEvent(mockVirtualFile("/project0/folder/file"), FileWatcherEventType.MODIFIED);
+        assertEquals("value2", project.getAttributeEntries().get("provided").getString());
+        assertEquals(2, providerCalls.get());
+    }
+
+    @Test
+    public void shouldRemoveListenerOnStop() throws Exception {
+        projectRegistry.stop();
+
+        verify(notificationHandler).removeNotificationListener(listener);
+    }
+
+    private VirtualFile mockVirtualFile(String path) {
+        final VirtualFile virtualFile = mock(VirtualFile.class);
+        when(virtualFile.getPath()).thenReturn(Path.of(path));
+        return virtualFile;
+    }
+
+    private class ProvidedPT extends ProjectTypeDef {
+        ProvidedPT() {
+            super("provided", "provided", true, false);
+            addVariableDefinition("provided", "", false, (ValueProviderFactory)projectFolder -> new ReadonlyValueProvider() {
+                @Override
+                public List<String> getValues(String attributeName) {
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return singletonList("value" + providerCalls.incrementAndGet());
+                }
+            });
+        }
+    }
+
+    private static class FailingPT extends ProjectTypeDef {
+        static final ValueProviderFactory FACTORY = projectFolder -> new ReadonlyValueProvider() {
+            @Override
+            public List<String> getValues(String attributeName) throws ValueStorageException {
+                throw new ValueStorageException("Broken project");
+            }
+        };
+
+        FailingPT() {
+            super("failing", "failing", true, false);
+            addVariableDefinition("failing", "", false, FACTORY);
+        }
+    }
+
+    private class CountingInitHandler implements ProjectInitHandler {
+        private final AtomicInteger running = new AtomicInteger();
+
+        @Override
+        public String getProjectType() {
+            return "provided";
+        }
+
+        @Override
+        public void onProjectInitialized(ProjectRegistry registry, FolderEntry projectFolder) {
+            maxConcurrentInitializations.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            initializedProjects.incrementAndGet();
+        }
+    }
+}
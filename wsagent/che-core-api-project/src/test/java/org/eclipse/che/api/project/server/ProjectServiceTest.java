@@ -74,20 +74,28 @@ import org.everrest.core.tools.ResourceLauncher;
 import org.junit.Assert;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
 
 import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.nio.file.PathMatcher;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -121,6 +129,7 @@ import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertEqualsNoOrder;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 
 /**
  * @author andrew00x
@@ -172,6 +181,8 @@ public class ProjectServiceTest {
 
     protected ProjectTypeRegistry ptRegistry;
 
+    private ProjectExportCache exportCache;
+
     @BeforeMethod
     public void setUp() throws Exception {
 
@@ -229,6 +240,9 @@ public class ProjectServiceTest {
                                 importerRegistry, fileWatcherNotificationHandler, fileTreeWatcher, workspaceHolder);
         pm.initWatcher();
 
+        exportCache = new ProjectExportCache(fileWatcherNotificationHandler);
+        exportCache.start();
+
         HttpJsonRequest httpJsonRequest = mock(HttpJsonRequest.class, new SelfReturningAnswer());
 
         //List<ProjectConfigDto> modules = new ArrayList<>();
@@ -255,6 +269,7 @@ public class ProjectServiceTest {
         dependencies.addComponent(ProjectImporterRegistry.class, importerRegistry);
         dependencies.addComponent(ProjectHandlerRegistry.class, phRegistry);
         dependencies.addComponent(EventService.class, eventService);
+        dependencies.addComponent(ProjectExportCache.class, exportCache);
 
         ResourceBinder resources = new ResourceBinderImpl();
         ProviderBinder providers = new ApplicationProviderBinder();
@@ -278,6 +293,11 @@ public class ProjectServiceTest {
         env = org.eclipse.che.commons.env.EnvironmentContext.getCurrent();
     }
 
+    @AfterMethod
+    public void tearDown() throws Exception {
+        exportCache.stop();
+    }
+
     private void addMockedProjectConfigDto(org.eclipse.che.api.project.server.type.ProjectTypeDef myProjectType, String projectName)
             throws ForbiddenException, ServerException, NotFoundException, ConflictException {
         final ProjectConfigDto testProjectConfigMock = mock(ProjectConfigDto.class);
@@ -842,6 +862,79 @@ public class ProjectServiceTest {
         assertEquals(new String(_file.contentAsBytes()), myContent);
     }
 
+    @Test
+    public void testGetFileContentRange() throws Exception {
+        pm.getProject("my_project").getBaseFolder().createFile("test.txt", "to be or not to be".getBytes());
+        ByteArrayContainerResponseWriter writer = new ByteArrayContainerResponseWriter();
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Range", singletonList("bytes=6-11"));
+
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/file/my_project/test.txt",
+                                                      "http://localhost:8080/api", headers, null, writer, null);
+
+        assertEquals(response.getStatus(), 206, "Error: " + response.getEntity());
+        assertEquals(response.getHttpHeaders().getFirst("Content-Range"), "bytes 6-11/18");
+        assertEquals(new String(writer.getBody()), "or not");
+    }
+
+    @Test
+    public void testGetNotModifiedFileContent() throws Exception {
+        pm.getProject("my_project").getBaseFolder().createFile("test.txt", "to be or not to be".getBytes());
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/file/my_project/test.txt",
+                                                      "http://localhost:8080/api", null, null, null);
+        Date lastModifiedDate = (Date)response.getHttpHeaders().getFirst("Last-Modified");
+        String lastModified = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(lastModifiedDate.toInstant(), ZoneOffset.UTC));
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("If-Modified-Since", singletonList(lastModified));
+
+        response = launcher.service(GET,
+                                    "http://localhost:8080/api/project/file/my_project/test.txt",
+                                    "http://localhost:8080/api", headers, null, null);
+
+        assertEquals(response.getStatus(), 304, "Error: " + response.getEntity());
+    }
+
+    @Test
+    public void testUpdateFileContentDoesNotAffectOpenedContent() throws Exception {
+        FileEntry file = pm.getProject("my_project").getBaseFolder().createFile("test.sh", "echo old".getBytes());
+        File ioFile = file.getVirtualFile().toIoFile();
+        Assert.assertTrue(ioFile.setExecutable(true));
+
+        try (InputStream opened = new java.io.FileInputStream(ioFile)) {
+            ContainerResponse response = launcher.service(PUT,
+                                                          "http://localhost:8080/api/project/file/my_project/test.sh",
+                                                          "http://localhost:8080/api", null, "echo new".getBytes(), null);
+            assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+
+            assertEquals(IoUtil.readStream(opened), "echo old");
+        }
+        assertEquals(new String(((FileEntry)pm.getProject("my_project").getBaseFolder().getChild("test.sh")).contentAsBytes()), "echo new");
+        Assert.assertTrue(ioFile.canExecute());
+    }
+
+    @Test
+    public void testFileContentIsReadWhenResponseIsWritten() throws Exception {
+        FileEntry file = pm.getProject("my_project").getBaseFolder().createFile("test.txt", "hello".getBytes());
+
+        Response response = new ProjectService(pm, new EventService(), exportCache).getFile("my_project/test.txt", null, null, null);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        ((StreamingOutput)response.getEntity()).write(content);
+
+        assertEquals(content.toString(), "hello");
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "File test.txt was changed while it was downloaded")
+    public void testGetFileContentFailsWhenFileIsReplacedBeforeResponseIsWritten() throws Exception {
+        FileEntry file = pm.getProject("my_project").getBaseFolder().createFile("test.txt", "hello".getBytes());
+
+        Response response = new ProjectService(pm, new EventService(), exportCache).getFile("my_project/test.txt", null, null, null);
+        file.updateContent("hello, world".getBytes());
+
+        ((StreamingOutput)response.getEntity()).write(new ByteArrayOutputStream());
+    }
+
     @Test
     public void testCreateFolder() throws Exception {
         ContainerResponse response = launcher.service(POST,
@@ -1444,6 +1537,97 @@ public class ProjectServiceTest {
         assertEquals(response.getContentType().toString(), ExtMediaType.APPLICATION_ZIP);
     }
 
+    @Test
+    public void testExportZipTakesUnchangedFolderFromCache() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        myProject.getBaseFolder().createFolder("a/b").createFile("test.txt", "hello".getBytes());
+        ByteArrayContainerResponseWriter first = new ByteArrayContainerResponseWriter();
+        ByteArrayContainerResponseWriter second = new ByteArrayContainerResponseWriter();
+
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/export/my_project",
+                                                      "http://localhost:8080/api", null, null, first, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+        response = launcher.service(GET,
+                                    "http://localhost:8080/api/project/export/my_project",
+                                    "http://localhost:8080/api", null, null, second, null);
+        assertEquals(response.getStatus(), 200, "Error: " + response.getEntity());
+
+        assertEquals(exportCache.getHitCount(), 1);
+        assertEquals(second.getBody(), first.getBody());
+        assertEquals(response.getHttpHeaders().getFirst("Accept-Ranges"), "bytes");
+        assertNotNull(response.getHttpHeaders().getFirst("ETag"));
+    }
+
+    @Test
+    public void testExportZipRange() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        myProject.getBaseFolder().createFolder("a/b").createFile("test.txt", "hello".getBytes());
+        ByteArrayContainerResponseWriter full = new ByteArrayContainerResponseWriter();
+        ByteArrayContainerResponseWriter part = new ByteArrayContainerResponseWriter();
+        launcher.service(GET, "http://localhost:8080/api/project/export/my_project", "http://localhost:8080/api", null, null, full, null);
+        int length = full.getBody().length;
+
+        Map<String, List<String>> headers = new HashMap<>();
+        headers.put("Range", singletonList("bytes=10-19"));
+        ContainerResponse response = launcher.service(GET,
+                                                      "http://localhost:8080/api/project/export/my_project",
+                                                      "http://localhost:8080/api", headers, null, part, null);
+
+        assertEquals(response.getStatus(), 206, "Error: " + response.getEntity());
+        assertEquals(response.getHttpHeaders().getFirst("Content-Range"), "bytes 10-19/" + length);
+        assertEquals(part.getBody(), Arrays.copyOfRange(full.getBody(), 10, 20));
+
+        headers.put("Range", singletonList("bytes=" + length + "-"));
+        response = launcher.service(GET,
+                                    "http://localhost:8080/api/project/export/my_project",
+                                    "http://localhost:8080/api", headers, null, null);
+        assertEquals(response.getStatus(), 416);
+    }
+
+    @Test
+    public void testExportZipRecreatesArchiveWhichIsRemovedFromCacheBeforeResponseIsWritten() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        myProject.getBaseFolder().createFolder("a/b").createFile("test.txt", "hello".getBytes());
+        ByteArrayContainerResponseWriter full = new ByteArrayContainerResponseWriter();
+        launcher.service(GET, "http://localhost:8080/api/project/export/my_project", "http://localhost:8080/api", null, null, full, null);
+
+        Response response = new ProjectService(pm, new EventService(), exportCache).exportZip("my_project", null, null);
+        exportCache.invalidate(org.eclipse.che.api.vfs.Path.of("/my_project/a"));
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        ((StreamingOutput)response.getEntity()).write(content);
+
+        assertEquals(content.toByteArray(), full.getBody());
+        assertEquals(exportCache.getMissCount(), 2);
+    }
+
+    @Test(expectedExceptions = IOException.class, expectedExceptionsMessageRegExp = "Folder .* was changed while it was exported")
+    public void testExportZipFailsWhenFolderIsChangedBeforeResponseIsWritten() throws Exception {
+        RegisteredProject myProject = pm.getProject("my_project");
+        FileEntry file = myProject.getBaseFolder().createFolder("a/b").createFile("test.txt", "hello".getBytes());
+
+        Response response = new ProjectService(pm, new EventService(), exportCache).exportZip("my_project", null, null);
+        file.updateContent("hello, world".getBytes());
+        exportCache.invalidate(org.eclipse.che.api.vfs.Path.of("/my_project/a/b/test.txt"));
+
+        ((StreamingOutput)response.getEntity()).write(new ByteArrayOutputStream());
+    }
+
+    @Test
+    public void testParseRange() throws Exception {
+        assertEquals(ProjectService.parseRange("bytes=0-9", 100), new long[]{0, 9});
+        assertEquals(ProjectService.parseRange("bytes=90-", 100), new long[]{90, 99});
+        assertEquals(ProjectService.parseRange("bytes=-10", 100), new long[]{90, 99});
+        assertEquals(ProjectService.parseRange("bytes=90-200", 100), new long[]{90, 99});
+        assertNull(ProjectService.parseRange("bytes=0-9,20-29", 100));
+        assertNull(ProjectService.parseRange("items=0-9", 100));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testParseUnsatisfiableRange() throws Exception {
+        ProjectService.parseRange("bytes=100-", 100);
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void testGetChildren() throws Exception {
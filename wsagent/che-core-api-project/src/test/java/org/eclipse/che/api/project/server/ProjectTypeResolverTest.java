@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.project.server.type.ProjectTypeDef;
+import org.eclipse.che.api.project.server.type.ProjectTypeResolution;
+import org.eclipse.che.api.project.server.type.ReadonlyValueProvider;
+import org.eclipse.che.api.project.server.type.ValueProviderFactory;
+import org.eclipse.che.api.project.server.type.ValueStorageException;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for {@link ProjectTypeResolver}.
+ */
+public class ProjectTypeResolverTest extends WsAgentTestBase {
+
+    private AtomicInteger                   estimations;
+    private FileWatcherNotificationHandler  notificationHandler;
+    private ProjectTypeResolver             resolver;
+    private FolderEntry                     folder;
+
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+
+        estimations = new AtomicInteger();
+        notificationHandler = mock(FileWatcherNotificationHandler.class);
+        resolver = new ProjectTypeResolver(500);
+        new File(root, "project/src").mkdirs();
+        Files.write(new File(root, "project/pom.xml").toPath(), "<project/>".getBytes());
+        folder = new FolderEntry(vfsProvider.getVirtualFileSystem().getRoot().getChild(Path.of("/project")));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        resolver.stop();
+    }
+
+    @Test
+    public void shouldResolveProjectTypesInTheSameOrderAsTheyAreSpecified() throws Exception {
+        final List<ProjectTypeResolution> resolutions = resolver.resolve(folder, asList(new FilePT("maven", "pom.xml"),
+                                                                                        new FilePT("gradle", "build.gradle"),
+                                                                                        new FilePT("src", "src")));
+
+        assertEquals(3, resolutions.size());
+        assertEquals("maven", resolutions.get(0).getType());
+        assertTrue(resolutions.get(0).matched());
+        assertEquals("gradle", resolutions.get(1).getType());
+        assertFalse(resolutions.get(1).matched());
+        assertEquals("src", resolutions.get(2).getType());
+        assertTrue(resolutions.get(2).matched());
+    }
+
+    @Test
+    public void shouldSkipProjectTypeWhichIsNotEstimatedInTime() throws Exception {
+        final List<ProjectTypeResolution> resolutions = resolver.resolve(folder, asList(new SlowPT(),
+                                                                                        new FilePT("maven", "pom.xml")));
+
+        assertEquals(1, resolutions.size());
+        assertEquals("maven", resolutions.get(0).getType());
+    }
+
+    @Test
+    public void shouldNotCacheResultsWhenCachingIsNotStarted() throws Exception {
+        final List<ProjectTypeDef> types = singletonList(new FilePT("maven", "pom.xml"));
+
+        resolver.resolve(folder, types);
+        resolver.resolve(folder, types);
+
+        assertEquals(2, estimations.get());
+    }
+
+    @Test
+    public void shouldReuseCachedResultsUntilFolderIsChanged() throws Exception {
+        final FileWatcherNotificationListener listener = startCaching();
+        final List<ProjectTypeDef> types = singletonList(new FilePT("maven", "pom.xml"));
+
+        resolver.resolve(folder, types);
+        resolver.resolve(folder, types);
+        assertEquals(1, estimations.get());
+
+        listener.onFileWatcherEvent(mockVirtualFile("/other/pom.xml"), FileWatcherEventType.MODIFIED);
+        resolver.resolve(folder, types);
+        assertEquals(1, estimations.get());
+
+        listener.onFileWatcherEvent(mockVirtualFile("/project/src/Main.java"), FileWatcherEventType.CREATED);
+        resolver.resolve(folder, types);
+        assertEquals(2, estimations.get());
+    }
+
+    @Test
+    public void shouldNotReuseCachedResultsWhenListingOfFolderIsChangedBeforeEvent() throws Exception {
+        startCaching();
+        final List<ProjectTypeDef> types = singletonList(new FilePT("gradle", "build.gradle"));
+        assertFalse(resolver.resolve(folder, types).get(0).matched());
+
+        Files.write(new File(root, "project/build.gradle").toPath(), "apply plugin: 'java'".getBytes());
+
+        assertTrue(resolver.resolve(folder, types).get(0).matched());
+        assertEquals(2, estimations.get());
+    }
+
+    @Test
+    public void shouldReadFilesOfSnapshotOnlyOnce() throws Exception {
+        final VirtualFile pom = mock(VirtualFile.class);
+        when(pom.isFile()).thenReturn(true);
+        when(pom.getPath()).thenReturn(Path.of("/project/pom.xml"));
+        when(pom.getLength()).thenReturn(10L);
+        when(pom.getContentAsBytes()).thenReturn("<project/>".getBytes());
+        final VirtualFile project = mock(VirtualFile.class);
+        when(project.isFolder()).thenReturn(true);
+        when(project.getPath()).thenReturn(Path.of("/project"));
+        when(project.getChild(Path.of("pom.xml"))).thenReturn(pom);
+        when(project.getChildren()).thenReturn(singletonList(pom));
+        final FolderSnapshot snapshot = new FolderSnapshot(project, null);
+
+        final byte[] first = ((FileEntry)snapshot.getChild("pom.xml")).contentAsBytes();
+        final byte[] second = ((FileEntry)snapshot.getChild("pom.xml")).contentAsBytes();
+        assertEquals(1, snapshot.getChildFiles().size());
+        assertEquals(1, snapshot.getChildren().size());
+
+        assertArrayEquals(first, second);
+        verify(project, times(1)).getChild(any(Path.class));
+        verify(project, times(1)).getChildren();
+        verify(pom, times(1)).getContentAsBytes();
+    }
+
+    private FileWatcherNotificationListener startCaching() {
+        resolver.startCaching(notificationHandler);
+        final ArgumentCaptor<FileWatcherNotificationListener> captor = ArgumentCaptor.forClass(FileWatcherNotificationListener.class);
+        verify(notificationHandler).addNotificationListener(captor.capture());
+        return captor.getValue();
+    }
+
+    private VirtualFile mockVirtualFile(String path) {
+        final VirtualFile virtualFile = mock(VirtualFile.class);
+        when(virtualFile.getPath()).thenReturn(Path.of(path));
+        return virtualFile;
+    }
+
+    /** Project type which matches folder containing the specified file. */
+    private class FilePT extends ProjectTypeDef {
+        FilePT(String id, String file) {
+            super(id, id, true, false);
+            addVariableDefinition(id + "-file", "", true, (ValueProviderFactory)projectFolder -> new ReadonlyValueProvider() {
+                @Override
+                public List<String> getValues(String attributeName) throws ValueStorageException {
+                    estimations.incrementAndGet();
+                    try {
+                        return projectFolder.getChild(file) == null ? emptyList() : singletonList(file);
+                    } catch (Exception e) {
+                        throw new ValueStorageException(e.getMessage());
+                    }
+                }
+            });
+        }
+    }
+
+    private class SlowPT extends ProjectTypeDef {
+        SlowPT() {
+            super("slow", "slow", true, false);
+            addVariableDefinition("slow-value", "", true, (ValueProviderFactory)projectFolder -> new ReadonlyValueProvider() {
+                @Override
+                public List<String> getValues(String attributeName) throws ValueStorageException {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return singletonList("slow");
+                }
+            });
+        }
+    }
+}
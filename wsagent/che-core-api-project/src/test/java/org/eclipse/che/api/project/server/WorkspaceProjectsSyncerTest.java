@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.project.server;
+
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.core.model.project.ProjectConfig;
+import org.eclipse.che.api.vfs.Path;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * Tests for {@link WorkspaceProjectsSyncer}.
+ */
+public class WorkspaceProjectsSyncerTest {
+    private Map<String, RegisteredProject> localProjects;
+    private ProjectRegistry                projectRegistry;
+    private TestSyncer                     syncer;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        localProjects = new ConcurrentHashMap<>();
+        projectRegistry = mock(ProjectRegistry.class);
+        when(projectRegistry.getProjects()).thenAnswer(invocation -> new ArrayList<>(localProjects.values()));
+        when(projectRegistry.getProject(anyString())).thenAnswer(invocation -> localProjects.get(invocation.getArguments()[0]));
+        syncer = new TestSyncer();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        syncer.stopSync();
+    }
+
+    @Test
+    public void shouldSendChangedAndRemovedProjectsOnly() throws Exception {
+        syncer.remote.addAll(asList("/synced", "/removed"));
+        addLocalProject("/synced", true, false);
+        final RegisteredProject created = addLocalProject("/created", false, false);
+        final RegisteredProject detected = addLocalProject("/detected", false, true);
+
+        syncer.sync(projectRegistry);
+
+        assertEquals(syncer.batches, singletonList(new Batch(singletonList("/created"), singletonList("/removed"))));
+        assertTrue(created.isSynced());
+        assertFalse(detected.isSynced());
+        assertEquals(new TreeSet<>(syncer.remote), new TreeSet<>(asList("/synced", "/created")));
+    }
+
+    @Test
+    public void shouldNotUpdateWorkspaceWhenProjectsAreNotChanged() throws Exception {
+        syncer.remote.add("/synced");
+        addLocalProject("/synced", true, false);
+
+        syncer.sync(projectRegistry);
+        syncer.sync(projectRegistry);
+
+        assertTrue(syncer.batches.isEmpty());
+        assertEquals(syncer.getProjectsCalls.get(), 1);
+    }
+
+    @Test
+    public void shouldTakeProjectsOfWorkspaceFromResponseOfUpdate() throws Exception {
+        addLocalProject("/created", false, false);
+        // project is added to workspace by other client while update is sent
+        syncer.beforeUpdate = () -> syncer.remote.add("/other");
+
+        syncer.sync(projectRegistry);
+        syncer.beforeUpdate = null;
+        addLocalProject("/created2", false, false);
+        syncer.sync(projectRegistry);
+
+        assertEquals(syncer.batches.get(1), new Batch(singletonList("/created2"), singletonList("/other")));
+        assertEquals(syncer.getProjectsCalls.get(), 1);
+    }
+
+    @Test
+    public void shouldGetProjectsOfWorkspaceOnceAgainAfterFailedUpdate() throws Exception {
+        syncer.remote.add("/removed");
+        final RegisteredProject created = addLocalProject("/created", false, false);
+        syncer.failures.set(1);
+
+        try {
+            syncer.sync(projectRegistry);
+            fail("Synchronization must fail");
+        } catch (ServerException ignored) {
+        }
+        assertFalse(created.isSynced());
+
+        syncer.sync(projectRegistry);
+
+        assertTrue(created.isSynced());
+        assertEquals(syncer.getProjectsCalls.get(), 2);
+        assertEquals(syncer.batches.get(1), new Batch(singletonList("/created"), singletonList("/removed")));
+    }
+
+    @Test
+    public void shouldSendChangesScheduledDuringDelayTogether() throws Exception {
+        addLocalProject("/a", false, false);
+        syncer.scheduleSync(projectRegistry);
+        addLocalProject("/b", false, false);
+        syncer.scheduleSync(projectRegistry);
+        addLocalProject("/c", false, false);
+        syncer.scheduleSync(projectRegistry);
+        assertTrue(syncer.batches.isEmpty(), "Changes must not be sent before delay is expired");
+
+        waitForBatches(1);
+        Thread.sleep(500);
+
+        assertEquals(syncer.batches.size(), 1);
+        assertEquals(new TreeSet<>(syncer.batches.get(0).updated), new TreeSet<>(asList("/a", "/b", "/c")));
+    }
+
+    @Test
+    public void shouldSendChangesOnNextScheduledSynchronizationAfterFailure() throws Exception {
+        final RegisteredProject created = addLocalProject("/created", false, false);
+        syncer.failures.set(1);
+
+        syncer.scheduleSync(projectRegistry);
+        waitForBatches(1);
+        Thread.sleep(100);
+        assertFalse(created.isSynced());
+
+        syncer.scheduleSync(projectRegistry);
+        waitForBatches(2);
+        syncer.stopSync();
+
+        assertTrue(created.isSynced());
+        assertEquals(syncer.batches.get(1), new Batch(singletonList("/created"), emptyList()));
+    }
+
+    @Test
+    public void shouldPerformScheduledSynchronizationOnStop() throws Exception {
+        final RegisteredProject created = addLocalProject("/created", false, false);
+
+        syncer.scheduleSync(projectRegistry);
+        syncer.stopSync();
+
+        assertTrue(created.isSynced());
+        assertEquals(syncer.batches.size(), 1);
+    }
+
+    private RegisteredProject addLocalProject(String path, boolean synced, boolean detected) {
+        final AtomicBoolean syncState = new AtomicBoolean(synced);
+        final RegisteredProject project = mock(RegisteredProject.class);
+        when(project.getPath()).thenReturn(path);
+        when(project.getName()).thenReturn(Path.of(path).getName());
+        when(project.getType()).thenReturn("blank");
+        when(project.isDetected()).thenReturn(detected);
+        when(project.isSynced()).thenAnswer(invocation -> syncState.get());
+        doAnswer(invocation -> {
+            syncState.set(true);
+            return null;
+        }).when(project).setSync();
+        localProjects.put(path, project);
+        return project;
+    }
+
+    private void waitForBatches(int count) throws Exception {
+        final long deadline = System.currentTimeMillis() + 5_000;
+        while (syncer.batches.size() < count) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timeout of waiting for synchronization");
+            Thread.sleep(10);
+        }
+    }
+
+    /** Keeps paths of projects of workspace and records changes which are sent to workspace. */
+    private static class TestSyncer extends WorkspaceProjectsSyncer {
+        final Set<String>   remote           = ConcurrentHashMap.newKeySet();
+        final List<Batch>   batches          = new CopyOnWriteArrayList<>();
+        final AtomicInteger getProjectsCalls = new AtomicInteger();
+        final AtomicInteger failures         = new AtomicInteger();
+
+        volatile Runnable beforeUpdate;
+
+        @Override
+        protected List<? extends ProjectConfig> updateProjects(List<ProjectConfig> updated, List<String> removed) throws ServerException {
+            batches.add(new Batch(updated.stream().map(ProjectConfig::getPath).collect(toList()), removed));
+            if (failures.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                throw new ServerException("Workspace is not available");
+            }
+            if (beforeUpdate != null) {
+                beforeUpdate.run();
+            }
+            remote.removeAll(removed);
+            updated.forEach(config -> remote.add(config.getPath()));
+            return getRemoteProjects();
+        }
+
+        @Override
+        public List<? extends ProjectConfig> getProjects() throws ServerException {
+            getProjectsCalls.incrementAndGet();
+            return getRemoteProjects();
+        }
+
+        @Override
+        public String getWorkspaceId() {
+            return "ws";
+        }
+
+        @Override
+        protected void addProject(ProjectConfig project) throws ServerException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void updateProject(ProjectConfig project) throws ServerException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected void removeProject(ProjectConfig project) throws ServerException {
+            throw new UnsupportedOperationException();
+        }
+
+        private List<ProjectConfig> getRemoteProjects() {
+            return remote.stream().map(path -> new NewProjectConfig(Path.of(path))).collect(toList());
+        }
+    }
+
+    private static class Batch {
+        final List<String> updated;
+        final List<String> removed;
+
+        Batch(List<String> updated, List<String> removed) {
+            this.updated = updated;
+            this.removed = removed;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Batch && updated.equals(((Batch)obj).updated) && removed.equals(((Batch)obj).removed);
+        }
+
+        @Override
+        public int hashCode() {
+            return updated.hashCode() * 31 + removed.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return "updated: " + updated + ", removed: " + removed;
+        }
+    }
+}
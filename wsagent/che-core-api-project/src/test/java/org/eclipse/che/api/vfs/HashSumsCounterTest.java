@@ -19,7 +19,10 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import java.io.ByteArrayInputStream;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Sets.newHashSet;
@@ -27,6 +30,8 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class HashSumsCounterTest {
@@ -45,6 +50,42 @@ public class HashSumsCounterTest {
         assertEquals(expected, hashSums);
     }
 
+    @Test
+    public void doesNotReadFilesWhichAreNotChangedSinceHashSumsWereStored() throws Exception {
+        VirtualFile fileAB = mockFile("/a/file", "file1".getBytes());
+        VirtualFile folderA = mockFolder("/a", fileAB);
+        HashSumsStore store = mock(HashSumsStore.class);
+        when(store.get(Path.of("/a/file"), 5, 1000)).thenReturn("stored");
+
+        List<Pair<String, String>> hashSums = new HashSumsCounter(folderA, Hashing.md5(), store, null).countHashSums();
+
+        assertEquals(newArrayList(Pair.of("stored", "file")), hashSums);
+        verify(fileAB, never()).getContent();
+        verify(store).retain(Path.of("/a"), newHashSet(Path.of("/a/file")));
+    }
+
+    @Test
+    public void countsHashSumsOfChangedFilesConcurrentlyAndStoresThem() throws Exception {
+        VirtualFile fileAB = mockFile("/a/file", "file1".getBytes());
+        VirtualFile fileBA = mockFile("/a/b/file", "file2".getBytes());
+        VirtualFile folderB = mockFolder("/a/b", fileBA);
+        VirtualFile folderA = mockFolder("/a", folderB, fileAB);
+        HashSumsStore store = mock(HashSumsStore.class);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            List<Pair<String, String>> hashSums = new HashSumsCounter(folderA, Hashing.md5(), store, executor).countHashSums();
+
+            assertEquals(newArrayList(Pair.of(countMd5Sum("file2".getBytes()), "b/file"),
+                                      Pair.of(countMd5Sum("file1".getBytes()), "file")),
+                         hashSums);
+            verify(store).put(Path.of("/a/b/file"), 5, 1000, countMd5Sum("file2".getBytes()));
+            verify(store).put(Path.of("/a/file"), 5, 1000, countMd5Sum("file1".getBytes()));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private String countMd5Sum(byte[] bytes) throws Exception {
         return ByteSource.wrap(bytes).hash(Hashing.md5()).toString();
     }
@@ -55,6 +96,8 @@ public class HashSumsCounterTest {
         when(file.getPath()).thenReturn(Path.of(path));
         when(file.toString()).thenReturn(path);
         when(file.getContent()).thenReturn(new ByteArrayInputStream(content));
+        when(file.getLength()).thenReturn((long)content.length);
+        when(file.getLastModificationDate()).thenReturn(1000L);
         accept(file);
         return file;
     }
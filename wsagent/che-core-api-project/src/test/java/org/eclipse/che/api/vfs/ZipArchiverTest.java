@@ -11,6 +11,7 @@
 package org.eclipse.che.api.vfs;
 
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import org.eclipse.che.api.core.ConflictException;
 import org.eclipse.che.api.core.ForbiddenException;
@@ -32,14 +33,25 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static com.google.common.collect.Maps.newHashMap;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -105,6 +117,31 @@ public class ZipArchiverTest {
         assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
     }
 
+    @Test
+    public void compressesFolderToArchiveWithExecutor() throws Exception {
+        VirtualFile folder = createFileTreeForArchiving();
+        for (int i = 0; i < 100; i++) {
+            folder.getChild(Path.of("a")).createFile("_" + i + ".txt", TEST_CONTENT + i);
+        }
+        ByteArrayOutputStream compressedFolder = new ByteArrayOutputStream();
+        Map<String, String> entries = getFileTreeAsList(folder).stream()
+                                                               .collect(toMap(f -> getZipEntryName(folder, f),
+                                                                              this::readContentUnchecked));
+        ByteArrayOutputStream sequentiallyCompressedFolder = new ByteArrayOutputStream();
+        new ZipArchiver(folder).compress(sequentiallyCompressedFolder);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            new ZipArchiver(folder, executor, null).compress(compressedFolder);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThatZipArchiveContainsAllEntries(new ByteArrayInputStream(compressedFolder.toByteArray()), entries);
+        assertEquals(readArchiveEntryNames(new ByteArrayInputStream(sequentiallyCompressedFolder.toByteArray())),
+                     readArchiveEntryNames(new ByteArrayInputStream(compressedFolder.toByteArray())));
+    }
+
     @Test
     public void extractsArchiveToFolder() throws Exception {
         byte[] archive = createTestZipArchive();
@@ -185,6 +222,127 @@ public class ZipArchiverTest {
         }
     }
 
+    @Test
+    public void extractsArchiveToFolderWithWriteExecutor() throws Exception {
+        byte[] bigContent = new byte[1024 * 1024];
+        new Random().nextBytes(bigContent);
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOut = new ZipOutputStream(byteOut)) {
+            for (int i = 0; i < 100; i++) {
+                zipOut.putNextEntry(new ZipEntry("arc/" + (i % 10) + "/_" + i + ".txt"));
+                zipOut.write((TEST_CONTENT + i).getBytes());
+            }
+            zipOut.putNextEntry(new ZipEntry("arc/big.txt"));
+            zipOut.write(bigContent);
+        }
+        byte[] archive = byteOut.toByteArray();
+        VirtualFile folder = vfsRoot.createFolder("folder");
+        ExtractionMetrics metrics = new ExtractionMetrics();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            new ZipArchiver(folder, executor, metrics).extract(new ByteArrayInputStream(archive), false, 0);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, String> entries = getFileTreeAsList(folder).stream()
+                                                               .filter(f -> f.isFile() && !f.getName().equals("big.txt"))
+                                                               .collect(toMap(f -> getZipEntryName(folder, f),
+                                                                              this::readContentUnchecked));
+        Map<String, String> archiveEntries = readArchiveEntries(new ByteArrayInputStream(archive));
+        archiveEntries.remove("arc/big.txt");
+
+        assertEquals(archiveEntries, entries);
+        try (InputStream content = folder.getChild(Path.of("arc/big.txt")).getContent()) {
+            assertTrue(Arrays.equals(bigContent, ByteStreams.toByteArray(content)));
+        }
+        assertEquals(1, metrics.getArchives());
+        assertEquals(101 + 11, metrics.getEntries()); // files and created folders
+        assertEquals(0, metrics.getFailures());
+    }
+
+    @Test
+    public void removesExtractedItemsWhenZipBombDetected() throws Exception {
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOut = new ZipOutputStream(byteOut)) {
+            zipOut.putNextEntry(new ZipEntry("arc/a/_a.txt"));
+            zipOut.write(TEST_CONTENT_BYTES);
+            zipOut.putNextEntry(new ZipEntry("bomb.txt"));
+            byte[] zeros = new byte[1024 * 1024];
+            for (int i = 0; i < 20; i++) {
+                zipOut.write(zeros);
+            }
+        }
+        VirtualFile folder = vfsRoot.createFolder("folder");
+        folder.createFile("existed.txt", TEST_CONTENT);
+        ExtractionMetrics metrics = new ExtractionMetrics();
+
+        try {
+            new ZipArchiver(folder, null, metrics).extract(new ByteArrayInputStream(byteOut.toByteArray()), false, 0);
+            thrown.expect(IOException.class);
+        } catch (IOException expected) {
+            assertEquals("Zip bomb detected", expected.getMessage());
+        }
+
+        assertEquals(newArrayList("existed.txt"), folder.getChildren().stream().map(VirtualFile::getName).collect(toList()));
+        assertEquals(1, metrics.getRejected());
+    }
+
+    @Test
+    public void waitsForRunningWritesBeforeRemovingExtractedItems() throws Exception {
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        try (ZipOutputStream zipOut = new ZipOutputStream(byteOut)) {
+            zipOut.putNextEntry(new ZipEntry("slow.txt"));
+            zipOut.write(TEST_CONTENT_BYTES);
+            zipOut.putNextEntry(new ZipEntry("existed.txt"));
+            zipOut.write(TEST_CONTENT_BYTES);
+        }
+        VirtualFile folder = vfsRoot.createFolder("folder");
+        folder.createFile("existed.txt", "xxx");
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        // write of slow.txt is started before conflict with existed.txt is detected and completes after it
+        ExecutorService executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+                return super.newTaskFor(() -> {
+                    writeStarted.countDown();
+                    Thread.sleep(500);
+                    return callable.call();
+                });
+            }
+
+            @Override
+            public void execute(Runnable command) {
+                super.execute(command);
+                Uninterruptibles.awaitUninterruptibly(writeStarted);
+            }
+        };
+
+        try {
+            new ZipArchiver(folder, executor, null).extract(new ByteArrayInputStream(byteOut.toByteArray()), false, 0);
+            thrown.expect(ConflictException.class);
+        } catch (ConflictException expected) {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(newArrayList("existed.txt"), folder.getChildren().stream().map(VirtualFile::getName).collect(toList()));
+        assertEquals("xxx", folder.getChild(Path.of("existed.txt")).getContentAsString());
+    }
+
+    private List<String> readArchiveEntryNames(InputStream archive) throws Exception {
+        List<String> names = newArrayList();
+        try (ZipInputStream zip = new ZipInputStream(archive)) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                names.add(zipEntry.getName());
+            }
+        }
+        return names;
+    }
+
     private Map<String, String> readArchiveEntries(InputStream archive) throws Exception {
         Map<String, String> entries = newHashMap();
         try (ZipInputStream zip = new ZipInputStream(archive)) {
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.vfs.impl.file;
+
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Collections.emptySet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LocalHashSumsStoreTest {
+    private File               directory;
+    private LocalHashSumsStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("hashsums").toFile();
+        store = new LocalHashSumsStore(new File(directory, "md5"), "md5");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        IoUtil.deleteRecursive(directory);
+    }
+
+    @Test
+    public void savesAndLoadsHashSums() throws Exception {
+        store.put(Path.of("/a/file"), 10, 1000, "hash1");
+        store.put(Path.of("/a/b/file"), 20, 2000, "hash2");
+        store.save();
+
+        LocalHashSumsStore loaded = new LocalHashSumsStore(new File(directory, "md5"), "md5");
+
+        assertEquals(2, loaded.size());
+        assertEquals("hash1", loaded.get(Path.of("/a/file"), 10, 1000));
+        assertEquals("hash2", loaded.get(Path.of("/a/b/file"), 20, 2000));
+        assertNull(loaded.get(Path.of("/a/file"), 11, 1000));
+    }
+
+    @Test
+    public void doesNotLoadHashSumsOfAnotherAlgorithm() throws Exception {
+        store.put(Path.of("/a/file"), 10, 1000, "hash1");
+        store.save();
+
+        assertEquals(0, new LocalHashSumsStore(new File(directory, "md5"), "sha1").size());
+    }
+
+    @Test
+    public void savesConsistentFileWhileHashSumsAreChanged() throws Exception {
+        store.put(Path.of("/stable/file"), 10, 1000, "stable");
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; running.get(); i++) {
+                store.put(Path.of("/changed/file" + (i % 1000)), i, i, "hash" + i);
+                if (i % 1000 == 999) {
+                    store.retain(Path.of("/changed"), emptySet());
+                }
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 200; i++) {
+                store.put(Path.of("/stable/file"), 10, 1000, "stable");
+                store.save();
+
+                LocalHashSumsStore loaded = new LocalHashSumsStore(new File(directory, "md5"), "md5");
+                assertEquals("stable", loaded.get(Path.of("/stable/file"), 10, 1000));
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+}
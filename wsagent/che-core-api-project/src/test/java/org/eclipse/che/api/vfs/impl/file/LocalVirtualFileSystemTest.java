@@ -10,19 +10,29 @@
  *******************************************************************************/
 package org.eclipse.che.api.vfs.impl.file;
 
+import com.google.common.hash.Hashing;
+
 import org.eclipse.che.api.core.util.FileCleaner;
 import org.eclipse.che.api.vfs.AbstractVirtualFileSystemProvider;
 import org.eclipse.che.api.vfs.ArchiverFactory;
+import org.eclipse.che.api.vfs.Path;
 import org.eclipse.che.api.vfs.search.Searcher;
 import org.eclipse.che.api.vfs.search.SearcherProvider;
 import org.eclipse.che.commons.lang.IoUtil;
 import org.eclipse.che.commons.lang.NameGenerator;
+import org.eclipse.che.commons.lang.Pair;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.anyBoolean;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
@@ -64,4 +74,70 @@ public class LocalVirtualFileSystemTest {
         fileSystem.close();
         verify(searcher).close();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void reusesMd5SumsCountedBeforeFileSystemWasClosed() throws Exception {
+        File folder = new File(testDirectory, "folder");
+        File file = new File(folder, "file");
+        folder.mkdirs();
+        Files.write(file.toPath(), "content".getBytes());
+        long lastModified = (System.currentTimeMillis() - 10000) / 1000 * 1000;
+        file.setLastModified(lastModified);
+        List<Pair<String, String>> md5Sums = fileSystem.countMd5Sums((LocalVirtualFile)fileSystem.getRoot().getChild(Path.of("folder")));
+        fileSystem.close();
+
+        Files.write(file.toPath(), "CONTENT".getBytes());
+        file.setLastModified(lastModified);
+        LocalVirtualFileSystem reopened = new LocalVirtualFileSystem(testDirectory, mock(ArchiverFactory.class), null, null);
+
+        assertEquals(md5Sums, reopened.countMd5Sums((LocalVirtualFile)reopened.getRoot().getChild(Path.of("folder"))));
+    }
+
+    @Test
+    public void recountsMd5SumOfModifiedFile() throws Exception {
+        File folder = new File(testDirectory, "folder");
+        File file = new File(folder, "file");
+        folder.mkdirs();
+        Files.write(file.toPath(), "content".getBytes());
+        file.setLastModified(System.currentTimeMillis() - 20000);
+        fileSystem.countMd5Sums((LocalVirtualFile)fileSystem.getRoot().getChild(Path.of("folder")));
+
+        Files.write(file.toPath(), "modified content".getBytes());
+        file.setLastModified(System.currentTimeMillis() - 10000);
+
+        assertEquals(singletonList(Pair.of(Hashing.md5().hashBytes("modified content".getBytes()).toString(), "file")),
+                     fileSystem.countMd5Sums((LocalVirtualFile)fileSystem.getRoot().getChild(Path.of("folder"))));
+    }
+
+    @Test
+    public void countsMd5SumsOfMoreFilesThanFitIntoQueueOfCounters() throws Exception {
+        File folder = new File(testDirectory, "folder");
+        folder.mkdirs();
+        Set<Pair<String, String>> expected = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            byte[] content = ("content" + i).getBytes();
+            Files.write(new File(folder, "file" + i).toPath(), content);
+            expected.add(Pair.of(Hashing.md5().hashBytes(content).toString(), "file" + i));
+        }
+
+        List<Pair<String, String>> md5Sums = fileSystem.countMd5Sums((LocalVirtualFile)fileSystem.getRoot().getChild(Path.of("folder")));
+
+        assertEquals(1000, md5Sums.size());
+        assertEquals(expected, new HashSet<>(md5Sums));
+    }
+
+    @Test
+    public void updatesContentOfFileWithHardLinkInPlace() throws Exception {
+        File folder = new File(testDirectory, "folder");
+        File file = new File(folder, "file");
+        File link = new File(testDirectory, "link");
+        folder.mkdirs();
+        Files.write(file.toPath(), "content".getBytes());
+        Files.createLink(link.toPath(), file.toPath());
+
+        fileSystem.getRoot().getChild(Path.of("folder/file")).updateContent("new content".getBytes());
+
+        assertEquals("new content", new String(Files.readAllBytes(link.toPath())));
+        assertEquals("new content", new String(Files.readAllBytes(file.toPath())));
+    }
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.nativegit;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Long-lived 'git cat-file --batch' process of one repository. Each object read is a line written to stdin of the
+ * process and a header plus raw object content read from its stdout, so no process is forked per read.
+ * <p>
+ * Instances are thread-safe, reads are serialized. Once any I/O error occurs the process is destroyed and all
+ * following reads fail, so owner is expected to drop the instance and start a new one if needed.
+ */
+class CatFileBatchProcess implements Closeable {
+
+    private final Process      process;
+    private final OutputStream input;
+    private final InputStream  output;
+
+    private boolean broken;
+
+    CatFileBatchProcess(File repository) throws IOException {
+        final ProcessBuilder pb = new ProcessBuilder("git", "cat-file", "--batch").directory(repository);
+        final Map<String, String> environment = pb.environment();
+        environment.put("HOME", System.getProperty("user.home"));
+        environment.put("LANG", "en_US.UTF-8");
+        environment.put("GDM_LANG", "en_US.UTF-8");
+        environment.put("LANGUAGE", "us");
+        pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+        this.process = pb.start();
+        this.input = process.getOutputStream();
+        this.output = new BufferedInputStream(process.getInputStream());
+    }
+
+    /**
+     * Reads content of blob.
+     *
+     * @param objectName
+     *         any object name git understands, e.g. {@code HEAD:src/Main.java}
+     * @return content of blob or {@code null} if there is no such object or object is not a blob
+     * @throws IOException
+     *         if communication with process failed
+     */
+    synchronized byte[] readBlob(String objectName) throws IOException {
+        if (broken) {
+            throw new IOException("git cat-file process is not alive");
+        }
+        if (objectName.indexOf('\n') >= 0 || objectName.indexOf('\r') >= 0) {
+            return null;
+        }
+        try {
+            input.write((objectName + '\n').getBytes(UTF_8));
+            input.flush();
+
+            // '<sha1> <type> <size>' or '<object> missing' or '<object> ambiguous'
+            final String header = readLine();
+            final String[] parts = header.split(" ");
+            if (parts.length != 3 || !isNumber(parts[2])) {
+                return null;
+            }
+            final byte[] content = readFully(Integer.parseInt(parts[2]));
+            if (output.read() != '\n') {
+                throw new IOException("Unexpected output of git cat-file process");
+            }
+            return "blob".equals(parts[1]) ? content : null;
+        } catch (IOException e) {
+            broken = true;
+            process.destroy();
+            throw e;
+        }
+    }
+
+    /** Checks whether the process can still serve reads. */
+    synchronized boolean isAlive() {
+        return !broken && process.isAlive();
+    }
+
+    @Override
+    public synchronized void close() {
+        broken = true;
+        try {
+            // closing stdin makes 'git cat-file --batch' exit normally
+            input.close();
+        } catch (IOException ignored) {
+        }
+        process.destroy();
+    }
+
+    private String readLine() throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = output.read()) != '\n') {
+            if (b == -1) {
+                throw new EOFException("git cat-file process exited unexpectedly");
+            }
+            line.write(b);
+        }
+        return new String(line.toByteArray(), UTF_8);
+    }
+
+    private byte[] readFully(int size) throws IOException {
+        final byte[] content = new byte[size];
+        int offset = 0;
+        while (offset < size) {
+            final int read = output.read(content, offset, size - offset);
+            if (read == -1) {
+                throw new EOFException("git cat-file process exited unexpectedly");
+            }
+            offset += read;
+        }
+        return content;
+    }
+
+    private static boolean isNumber(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
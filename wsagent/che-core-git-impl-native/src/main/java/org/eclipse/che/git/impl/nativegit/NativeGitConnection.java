@@ -86,8 +86,11 @@ import org.eclipse.che.git.impl.nativegit.commands.RemoteOperationCommand;
 import org.eclipse.che.git.impl.nativegit.commands.ShowFileContentCommand;
 import org.eclipse.che.plugin.ssh.key.script.SshScriptProvider;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -95,6 +98,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Pattern;
 
+import static java.lang.System.lineSeparator;
+import static java.util.stream.Collectors.joining;
 import static org.eclipse.che.api.git.shared.ProviderInfo.AUTHENTICATE_URL;
 import static org.eclipse.che.api.git.shared.ProviderInfo.PROVIDER_NAME;
 import static org.eclipse.che.dto.server.DtoFactory.newDto;
@@ -119,9 +124,10 @@ public class NativeGitConnection implements GitConnection {
     private static final Pattern noInitCommitWhenLogErrorPattern          =
             Pattern.compile("fatal: your current branch '.*' does not have any commits yet\n");
     private static final Pattern noInitCommitWhenPullErrorPattern         = Pattern.compile("fatal: empty ident name .* not allowed\n");
-    private final NativeGit         nativeGit;
-    private final CredentialsLoader credentialsLoader;
-    private final GitUserResolver   userResolver;
+    private final NativeGit            nativeGit;
+    private final CredentialsLoader    credentialsLoader;
+    private final GitUserResolver      userResolver;
+    private final NativeGitStatusCache statusCache;
 
     /**
      * @param repository
@@ -135,7 +141,25 @@ public class NativeGitConnection implements GitConnection {
      */
     public NativeGitConnection(File repository, SshScriptProvider sshScriptProvider,
                                CredentialsLoader credentialsLoader, GitUserResolver userResolver) throws GitException {
-        this(new NativeGit(repository, sshScriptProvider, credentialsLoader, new GitAskPassScript()), credentialsLoader, userResolver);
+        this(repository, sshScriptProvider, credentialsLoader, userResolver, null);
+    }
+
+    /**
+     * @param repository
+     *         directory where commands will be invoked
+     * @param sshScriptProvider
+     *         manager for ssh keys. If it is null default ssh will be used;
+     * @param credentialsLoader
+     *         loader for credentials
+     * @param statusCache
+     *         cache of status and object reads of repositories, may be {@code null}
+     * @throws GitException
+     *         when some error occurs
+     */
+    public NativeGitConnection(File repository, SshScriptProvider sshScriptProvider, CredentialsLoader credentialsLoader,
+                               GitUserResolver userResolver, NativeGitStatusCache statusCache) throws GitException {
+        this(new NativeGit(repository, sshScriptProvider, credentialsLoader, new GitAskPassScript()), credentialsLoader, userResolver,
+             statusCache);
     }
 
     /**
@@ -148,9 +172,15 @@ public class NativeGitConnection implements GitConnection {
      */
     public NativeGitConnection(NativeGit nativeGit, CredentialsLoader credentialsLoader, GitUserResolver userResolver)
             throws GitException {
+        this(nativeGit, credentialsLoader, userResolver, null);
+    }
+
+    private NativeGitConnection(NativeGit nativeGit, CredentialsLoader credentialsLoader, GitUserResolver userResolver,
+                                NativeGitStatusCache statusCache) {
         this.credentialsLoader = credentialsLoader;
         this.nativeGit = nativeGit;
         this.userResolver = userResolver;
+        this.statusCache = statusCache;
     }
 
     @Override
@@ -362,6 +392,16 @@ public class NativeGitConnection implements GitConnection {
 
     @Override
     public ShowFileContentResponse showFileContent(ShowFileContentRequest request) throws GitException {
+        if (statusCache != null && request.getFile() != null && request.getVersion() != null) {
+            final byte[] blob = statusCache.readBlob(nativeGit, request.getVersion() + ':' + request.getFile());
+            if (blob != null) {
+                // the same lines as 'git show' output collected by command would give
+                final String content = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(blob))).lines()
+                                                                                                               .collect(joining(lineSeparator()));
+                return newDto(ShowFileContentResponse.class).withContent(content);
+            }
+            // missing file or revision, let 'git show' report the error
+        }
         ShowFileContentCommand showCommand = nativeGit.createShowFileContentCommand().withFile(request.getFile())
                                                       .withVersion(request.getVersion());
         return showCommand.execute();
@@ -549,6 +589,12 @@ public class NativeGitConnection implements GitConnection {
 
     @Override
     public Status status(final StatusFormat format) throws GitException {
+        if (statusCache != null) {
+            final NativeGitStatusCache.CachedStatus cached = statusCache.getStatus(nativeGit);
+            if (cached != null) {
+                return new NativeGitStatusImpl(cached.getBranchName(), nativeGit, format, cached.getPorcelain());
+            }
+        }
         return new NativeGitStatusImpl(getCurrentBranch(), nativeGit, format);
     }
 
@@ -605,6 +651,10 @@ public class NativeGitConnection implements GitConnection {
      *         if any error occurs
      */
     private String getCurrentBranch() throws GitException {
+        return getCurrentBranch(nativeGit);
+    }
+
+    static String getCurrentBranch(NativeGit nativeGit) throws GitException {
         BranchListCommand command = nativeGit.createBranchListCommand();
         command.execute();
         String branchName = null;
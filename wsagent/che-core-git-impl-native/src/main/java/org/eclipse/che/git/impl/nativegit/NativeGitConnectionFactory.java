@@ -31,22 +31,35 @@ import java.io.File;
 @Singleton
 public class NativeGitConnectionFactory extends GitConnectionFactory {
 
-    private final CredentialsLoader credentialsLoader;
-    private final SshScriptProvider gitSshScriptProvider;
-    private final GitUserResolver   userResolver;
+    private final CredentialsLoader    credentialsLoader;
+    private final SshScriptProvider    gitSshScriptProvider;
+    private final GitUserResolver      userResolver;
+    private final NativeGitStatusCache statusCache;
 
-    @Inject
     public NativeGitConnectionFactory(CredentialsLoader credentialsLoader, SshScriptProvider gitSshScriptProvider,
                                       GitUserResolver userResolver) {
+        this(credentialsLoader, gitSshScriptProvider, userResolver, null);
+    }
+
+    /**
+     * @param statusCache
+     *         cache of status and object reads shared by all connections, if it is {@code null} each status and show
+     *         file content request runs 'git' process
+     */
+    @Inject
+    public NativeGitConnectionFactory(CredentialsLoader credentialsLoader, SshScriptProvider gitSshScriptProvider,
+                                      GitUserResolver userResolver, NativeGitStatusCache statusCache) {
         this.credentialsLoader = credentialsLoader;
         this.gitSshScriptProvider = gitSshScriptProvider;
         this.userResolver = userResolver;
+        this.statusCache = statusCache;
     }
 
 
     @Override
     public GitConnection getConnection(File workDir, LineConsumerFactory outputPublisherFactory) throws GitException {
-        final GitConnection gitConnection = new NativeGitConnection(workDir, gitSshScriptProvider, credentialsLoader, userResolver);
+        final GitConnection gitConnection = new NativeGitConnection(workDir, gitSshScriptProvider, credentialsLoader, userResolver,
+                                                                  statusCache);
         gitConnection.setOutputLineConsumerFactory(outputPublisherFactory);
         return gitConnection;
     }
@@ -0,0 +1,429 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.nativegit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
+import org.eclipse.che.api.git.GitException;
+import org.eclipse.che.api.git.shared.StatusFormat;
+import org.eclipse.che.api.project.server.notification.ProjectItemModifiedEvent;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.eclipse.che.git.impl.nativegit.commands.StatusCommand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps result of 'git status' and a long-lived 'git cat-file --batch' process per repository, so status requests of
+ * editor save hooks, branch decorations etc. don't fork 'git' each time.
+ * <p>
+ * Cached status of repository is valid while:
+ * <ul>
+ * <li>index, HEAD and the branch HEAD points to are not changed, these are checked by file attributes on each request,
+ * so changes made by any 'git' process are noticed immediately;</li>
+ * <li>no file of working tree of repository is modified with project API, such modifications drop cached status
+ * synchronously, so status requested right after a file is saved in editor is never stale;</li>
+ * <li>no change event is received from file watcher for working tree of repository. Such events are coalesced, and
+ * after a short delay index is refreshed with 'git update-index --refresh' and status is reloaded in background, so
+ * the next request most likely gets ready result.</li>
+ * </ul>
+ * Note that file watcher notifies about changes only after a couple of seconds of quiet, so changes made bypassing
+ * project API, e.g. in terminal, may be missed by status requested within that time.
+ * Only repositories with regular '.git' directory are cached, callers must run 'git' commands themselves when
+ * {@link #getStatus(NativeGit)} or {@link #readBlob(NativeGit, String)} returns {@code null}.
+ */
+@Singleton
+public class NativeGitStatusCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NativeGitStatusCache.class);
+
+    private static final String GIT_DIR           = ".git";
+    private static final long   REFRESH_DELAY_MS  = 500;
+    private static final long   IDLE_TIMEOUT_MIN  = 30;
+    private static final int    MAX_REPOSITORIES  = 256;
+    /** Status is not cached if repository is changed while status is loaded this number of times in a row. */
+    private static final int    MAX_LOAD_ATTEMPTS = 2;
+
+    private final FileWatcherNotificationHandler            fileWatcherNotificationHandler;
+    private final FileWatcherNotificationListener           workTreeListener;
+    private final EventService                              eventService;
+    private final EventSubscriber<ProjectItemModifiedEvent> projectItemListener;
+    private final File                                      workspaceRoot;
+    private final Cache<String, Repository>                 repositories;
+    private final ScheduledExecutorService                  refresher;
+
+    private final AtomicLong hits;
+    private final AtomicLong loads;
+    private final AtomicLong blobReads;
+
+    @Inject
+    public NativeGitStatusCache(FileWatcherNotificationHandler fileWatcherNotificationHandler,
+                                EventService eventService,
+                                @Named("che.user.workspaces.storage") File workspaceRoot) {
+        this.fileWatcherNotificationHandler = fileWatcherNotificationHandler;
+        this.eventService = eventService;
+        this.workspaceRoot = workspaceRoot;
+        this.repositories = CacheBuilder.newBuilder()
+                                        .concurrencyLevel(8)
+                                        .maximumSize(MAX_REPOSITORIES)
+                                        .expireAfterAccess(IDLE_TIMEOUT_MIN, TimeUnit.MINUTES)
+                                        .removalListener((RemovalListener<String, Repository>)notification -> {
+                                            if (notification.getValue() != null) {
+                                                notification.getValue().closeCatFile();
+                                            }
+                                        })
+                                        .build();
+        final ScheduledThreadPoolExecutor executor =
+                new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setNameFormat("GitStatusRefresher-%d")
+                                                                             .setDaemon(true)
+                                                                             .build());
+        executor.setRemoveOnCancelPolicy(true);
+        this.refresher = executor;
+        this.hits = new AtomicLong();
+        this.loads = new AtomicLong();
+        this.blobReads = new AtomicLong();
+        this.workTreeListener = new FileWatcherNotificationListener(file -> repositories.size() > 0 && !isInGitDir(file)) {
+            @Override
+            public void onFileWatcherEvent(VirtualFile virtualFile, FileWatcherEventType eventType) {
+                final File ioFile = virtualFile.toIoFile();
+                if (ioFile != null) {
+                    onWorkTreeChanged(ioFile.getAbsolutePath());
+                }
+            }
+        };
+        this.projectItemListener = new EventSubscriber<ProjectItemModifiedEvent>() {
+            @Override
+            public void onEvent(ProjectItemModifiedEvent event) {
+                if (repositories.size() > 0) {
+                    onWorkTreeChanged(normalize(new File(workspaceRoot, event.getPath())));
+                    if (event.getOldPath() != null) {
+                        onWorkTreeChanged(normalize(new File(workspaceRoot, event.getOldPath())));
+                    }
+                }
+            }
+        };
+    }
+
+    @PostConstruct
+    void start() {
+        fileWatcherNotificationHandler.addNotificationListener(workTreeListener);
+        eventService.subscribe(projectItemListener);
+    }
+
+    @PreDestroy
+    void stop() {
+        fileWatcherNotificationHandler.removeNotificationListener(workTreeListener);
+        eventService.unsubscribe(projectItemListener);
+        refresher.shutdownNow();
+        repositories.invalidateAll();
+    }
+
+    /**
+     * Get status of repository, from cache if it is still valid.
+     *
+     * @param nativeGit
+     *         git commands factory of repository
+     * @return current branch and porcelain status, or {@code null} if repository can't be cached
+     * @throws GitException
+     *         if 'git' process failed
+     */
+    public CachedStatus getStatus(NativeGit nativeGit) throws GitException {
+        final Repository repository = getRepository(nativeGit.getRepository());
+        if (repository == null) {
+            return null;
+        }
+        final List<Object> stamp = repository.stamp();
+        final CachedStatus cached = repository.status;
+        if (repository.isValid(cached, stamp)) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        return repository.load(nativeGit, false);
+    }
+
+    /**
+     * Read content of blob with the persistent 'git cat-file --batch' process of repository.
+     *
+     * @param nativeGit
+     *         git commands factory of repository
+     * @param objectName
+     *         object name, e.g. {@code HEAD:src/Main.java}
+     * @return content of blob, or {@code null} if there is no such blob or repository can't be cached
+     */
+    public byte[] readBlob(NativeGit nativeGit, String objectName) {
+        final Repository repository = getRepository(nativeGit.getRepository());
+        if (repository == null) {
+            return null;
+        }
+        try {
+            final byte[] content = repository.catFile().readBlob(objectName);
+            blobReads.incrementAndGet();
+            return content;
+        } catch (IOException e) {
+            LOG.warn("Unable to read {} with git cat-file in {}: {}", objectName, repository.workTree, e.getMessage());
+            repository.closeCatFile();
+            return null;
+        }
+    }
+
+    /**
+     * Drop cached status of the specified repository.
+     *
+     * @param workTree
+     *         working tree of repository
+     */
+    public void invalidate(File workTree) {
+        final Repository repository = repositories.getIfPresent(normalize(workTree));
+        if (repository != null) {
+            repository.version.incrementAndGet();
+        }
+    }
+
+    /** Number of status requests which were served from cache. */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /** Number of 'git status' processes which were executed to fill cache. */
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    /** Number of blobs which were read with persistent 'git cat-file' processes. */
+    public long getBlobReadCount() {
+        return blobReads.get();
+    }
+
+    private Repository getRepository(File workTree) {
+        final String key = normalize(workTree);
+        final Repository repository = repositories.getIfPresent(key);
+        if (repository != null) {
+            return repository;
+        }
+        final File gitDir = new File(key, GIT_DIR);
+        if (!gitDir.isDirectory()) {
+            return null;
+        }
+        try {
+            return repositories.get(key, () -> new Repository(new File(key), gitDir.toPath()));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void onWorkTreeChanged(String path) {
+        for (Repository repository : repositories.asMap().values()) {
+            if (path.equals(repository.workTree.getPath()) || path.startsWith(repository.workTreePrefix)) {
+                repository.version.incrementAndGet();
+                repository.scheduleRefresh();
+            }
+        }
+    }
+
+    private static boolean isInGitDir(VirtualFile file) {
+        for (String element : file.getPath().elements()) {
+            if (GIT_DIR.equals(element)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(File file) {
+        return file.toPath().toAbsolutePath().normalize().toString();
+    }
+
+    private static Object stampOf(Path file) {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return Arrays.asList(attributes.lastModifiedTime(), attributes.size(), attributes.fileKey());
+        } catch (NoSuchFileException e) {
+            return "missing";
+        } catch (IOException e) {
+            // never equal to anything, so status is not served from cache
+            return new Object();
+        }
+    }
+
+    /** Result of 'git status' kept in cache. */
+    public static class CachedStatus {
+        private final String       branchName;
+        private final List<String> porcelain;
+        private final List<Object> stamp;
+        private final long         version;
+
+        CachedStatus(String branchName, List<String> porcelain, List<Object> stamp, long version) {
+            this.branchName = branchName;
+            this.porcelain = Collections.unmodifiableList(porcelain);
+            this.stamp = stamp;
+            this.version = version;
+        }
+
+        /** Current branch, {@code null} if there is no current branch. */
+        public String getBranchName() {
+            return branchName;
+        }
+
+        /** Lines of 'git status --porcelain' output. */
+        public List<String> getPorcelain() {
+            return porcelain;
+        }
+    }
+
+    private class Repository {
+        final File          workTree;
+        final String        workTreePrefix;
+        final Path          gitDir;
+        /** Used for background refresh, doesn't publish output of commands to any client. */
+        final NativeGit     refreshGit;
+        /** Incremented on each change of working tree, status loaded before the change is not valid anymore. */
+        final AtomicLong    version;
+        final AtomicBoolean refreshScheduled;
+        final Object        catFileLock;
+
+        volatile CachedStatus        status;
+        private  CatFileBatchProcess catFile;
+
+        Repository(File workTree, Path gitDir) {
+            this.workTree = workTree;
+            this.workTreePrefix = workTree.getPath() + File.separator;
+            this.gitDir = gitDir;
+            this.refreshGit = new NativeGit(workTree, null, null, null);
+            this.version = new AtomicLong();
+            this.refreshScheduled = new AtomicBoolean();
+            this.catFileLock = new Object();
+        }
+
+        /** Attributes of files which 'git status' result depends on, besides working tree. */
+        List<Object> stamp() {
+            final Path head = gitDir.resolve("HEAD");
+            String headContent;
+            try {
+                headContent = new String(Files.readAllBytes(head), StandardCharsets.UTF_8).trim();
+            } catch (IOException e) {
+                headContent = "";
+            }
+            final Object branchStamp = headContent.startsWith("ref: ")
+                                       ? stampOf(gitDir.resolve(headContent.substring(5)))
+                                       : headContent;
+            return Arrays.asList(stampOf(gitDir.resolve("index")),
+                                 headContent,
+                                 branchStamp,
+                                 stampOf(gitDir.resolve("packed-refs")));
+        }
+
+        boolean isValid(CachedStatus status, List<Object> stamp) {
+            return status != null && status.version == version.get() && status.stamp.equals(stamp);
+        }
+
+        CachedStatus load(NativeGit nativeGit, boolean refreshIndex) throws GitException {
+            synchronized (this) {
+                final List<Object> before = stamp();
+                if (isValid(status, before)) {
+                    return status;
+                }
+                final long startVersion = version.get();
+                if (refreshIndex) {
+                    try {
+                        nativeGit.createEmptyGitCommand()
+                                 .setNextParameter("update-index")
+                                 .setNextParameter("-q")
+                                 .setNextParameter("--refresh")
+                                 .execute();
+                    } catch (GitException e) {
+                        // e.g. index is locked by another git process, status refreshes it anyway
+                        LOG.debug("Unable to refresh index of {}: {}", workTree, e.getMessage());
+                    }
+                }
+                CachedStatus loaded = null;
+                for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+                    // stamp is taken before status, so a change made by any other git process while status runs
+                    // is either seen by status or makes the stamps differ
+                    final List<Object> stampBefore = stamp();
+                    final String branch = NativeGitConnection.getCurrentBranch(nativeGit);
+                    final StatusCommand statusCommand = nativeGit.createStatusCommand().setFormat(StatusFormat.PORCELAIN);
+                    // don't let status rewrite index with refreshed stat info, otherwise stamps never match while
+                    // index has racily clean entries, git older than 2.15 ignores it and the next attempt is made
+                    statusCommand.setCommandEnvironment("GIT_OPTIONAL_LOCKS", "0");
+                    final List<String> porcelain = statusCommand.execute();
+                    loads.incrementAndGet();
+                    loaded = new CachedStatus(branch, porcelain, stampBefore, startVersion);
+                    if (stampBefore.equals(stamp())) {
+                        status = loaded;
+                        break;
+                    }
+                }
+                return loaded;
+            }
+        }
+
+        void scheduleRefresh() {
+            // nothing to refresh until status is requested at least once
+            if (status == null || refresher.isShutdown() || !refreshScheduled.compareAndSet(false, true)) {
+                return;
+            }
+            refresher.schedule(() -> {
+                refreshScheduled.set(false);
+                try {
+                    load(refreshGit, true);
+                } catch (Exception e) {
+                    LOG.debug("Unable to refresh status of {}: {}", workTree, e.getMessage());
+                }
+            }, REFRESH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+
+        CatFileBatchProcess catFile() throws IOException {
+            synchronized (catFileLock) {
+                if (catFile == null || !catFile.isAlive()) {
+                    catFile = new CatFileBatchProcess(workTree);
+                }
+                return catFile;
+            }
+        }
+
+        void closeCatFile() {
+            synchronized (catFileLock) {
+                if (catFile != null) {
+                    catFile.close();
+                    catFile = null;
+                }
+            }
+        }
+    }
+}
@@ -54,6 +54,8 @@ public class NativeGitStatusImpl implements Status, InfoPage {
     
     private String repositoryState;
 
+    private List<String> porcelain;
+
     /**
      * @param branchName
      *         current repository branch name
@@ -71,9 +73,31 @@ public class NativeGitStatusImpl implements Status, InfoPage {
         load();
     }
 
+    /**
+     * @param branchName
+     *         current repository branch name
+     * @param nativeGit
+     *         git commands factory
+     * @param format
+     *         the output format for the status
+     * @param porcelain
+     *         already loaded output of 'git status --porcelain', it is used instead of running the command again
+     */
+    public NativeGitStatusImpl(String branchName, NativeGit nativeGit, StatusFormat format, List<String> porcelain) {
+        this.branchName = branchName;
+        this.format = format;
+        this.nativeGit = nativeGit;
+        parse(porcelain);
+    }
+
     /** @see InfoPage#writeTo(java.io.OutputStream) */
     @Override
     public void writeTo(OutputStream out) throws IOException {
+        if (format == StatusFormat.PORCELAIN && porcelain != null) {
+            // the same as StatusCommand#getText(): lines separated with '\n' without trailing line separator
+            out.write(String.join("\n", porcelain).getBytes());
+            return;
+        }
         StatusCommand status = nativeGit.createStatusCommand().setFormat(format);
         try {
             status.execute();
@@ -259,7 +283,11 @@ public class NativeGitStatusImpl implements Status, InfoPage {
      */
     public void load() throws GitException {
         StatusCommand status = nativeGit.createStatusCommand().setFormat(StatusFormat.PORCELAIN);
-        List<String> statusOutput = status.execute();
+        parse(status.execute());
+    }
+
+    private void parse(List<String> statusOutput) {
+        porcelain = statusOutput;
         setClean(statusOutput.size() == 0);
         if (!isClean()) {
             added = new ArrayList<>();
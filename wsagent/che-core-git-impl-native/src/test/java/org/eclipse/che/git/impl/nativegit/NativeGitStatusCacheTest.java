@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.git.impl.nativegit;
+
+import com.google.common.io.Files;
+
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.git.CredentialsLoader;
+import org.eclipse.che.api.git.GitConnection;
+import org.eclipse.che.api.git.GitException;
+import org.eclipse.che.api.git.GitUserResolver;
+import org.eclipse.che.api.git.shared.AddRequest;
+import org.eclipse.che.api.git.shared.CommitRequest;
+import org.eclipse.che.api.git.shared.ShowFileContentRequest;
+import org.eclipse.che.api.git.shared.Status;
+import org.eclipse.che.api.git.shared.StatusFormat;
+import org.eclipse.che.api.project.server.notification.ProjectItemModifiedEvent;
+import org.eclipse.che.api.project.shared.dto.event.FileWatcherEventType;
+import org.eclipse.che.api.vfs.Path;
+import org.eclipse.che.api.vfs.VirtualFile;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationHandler;
+import org.eclipse.che.api.vfs.impl.file.FileWatcherNotificationListener;
+import org.eclipse.che.git.impl.GitTestUtil;
+import org.eclipse.che.git.impl.nativegit.commands.StatusCommand;
+import org.eclipse.che.plugin.ssh.key.script.SshScriptProvider;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link NativeGitStatusCache}.
+ */
+public class NativeGitStatusCacheTest {
+
+    private FileWatcherNotificationHandler  fileWatcherNotificationHandler;
+    private FileWatcherNotificationListener listener;
+    private EventService                    eventService;
+    private NativeGitStatusCache            cache;
+    private GitConnection                   connection;
+    private File                            repository;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        fileWatcherNotificationHandler = mock(FileWatcherNotificationHandler.class);
+        eventService = new EventService();
+        repository = Files.createTempDir();
+        cache = new NativeGitStatusCache(fileWatcherNotificationHandler, eventService, repository.getParentFile());
+        cache.start();
+        final ArgumentCaptor<FileWatcherNotificationListener> captor = ArgumentCaptor.forClass(FileWatcherNotificationListener.class);
+        verify(fileWatcherNotificationHandler).addNotificationListener(captor.capture());
+        listener = captor.getValue();
+
+        final GitUserResolver resolver = mock(GitUserResolver.class);
+        when(resolver.getUser()).thenReturn(GitTestUtil.getTestGitUser());
+        final NativeGitConnectionFactory connectionFactory = new NativeGitConnectionFactory(mock(CredentialsLoader.class),
+                                                                                            new SshScriptProvider(host -> new byte[0]),
+                                                                                            resolver,
+                                                                                            cache);
+        connection = GitTestUtil.connectToGitRepositoryWithContent(connectionFactory, repository);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        cache.stop();
+        GitTestUtil.cleanupTestRepo(repository);
+    }
+
+    @Test
+    public void shouldRunGitStatusOnlyOnceWhileRepositoryIsNotChanged() throws Exception {
+        final Status first = connection.status(StatusFormat.SHORT);
+        final Status second = connection.status(StatusFormat.SHORT);
+
+        assertTrue(first.isClean());
+        assertTrue(second.isClean());
+        assertEquals(second.getBranchName(), "master");
+        assertEquals(cache.getLoadCount(), 1);
+        assertEquals(cache.getHitCount(), 1);
+    }
+
+    @Test
+    public void shouldReloadStatusWhenIndexIsChangedWithoutAnyEvents() throws Exception {
+        connection.status(StatusFormat.SHORT);
+        GitTestUtil.addFile(connection, "a.txt", "a");
+        connection.add(newDto(AddRequest.class).withFilepattern(singletonList("a.txt")));
+
+        final Status status = connection.status(StatusFormat.SHORT);
+
+        assertEquals(status.getAdded(), singletonList("a.txt"));
+        assertEquals(cache.getLoadCount(), 2);
+    }
+
+    @Test
+    public void shouldReloadStatusWhenWorkingTreeIsChanged() throws Exception {
+        connection.status(StatusFormat.SHORT);
+        final File file = GitTestUtil.addFile(connection, "README.txt", "changed");
+
+        final VirtualFile virtualFile = mockVirtualFile(Path.of("/project/README.txt"), file);
+        assertTrue(listener.shouldBeNotifiedFor(virtualFile));
+        listener.onFileWatcherEvent(virtualFile, FileWatcherEventType.MODIFIED);
+
+        final Status status = connection.status(StatusFormat.SHORT);
+
+        assertEquals(status.getModified(), singletonList("README.txt"));
+    }
+
+    @Test
+    public void shouldReloadStatusRightAfterFileIsUpdatedWithProjectApi() throws Exception {
+        connection.status(StatusFormat.SHORT);
+        GitTestUtil.addFile(connection, "README.txt", "changed");
+
+        // file watcher notifies only after a couple of seconds, project API does it before response is sent
+        eventService.publish(new ProjectItemModifiedEvent(ProjectItemModifiedEvent.EventType.UPDATED,
+                                                          "workspace",
+                                                          repository.getName(),
+                                                          "/" + repository.getName() + "/README.txt",
+                                                          false));
+        final Status status = connection.status(StatusFormat.SHORT);
+
+        assertEquals(status.getModified(), singletonList("README.txt"));
+        assertEquals(cache.getLoadCount(), 2);
+    }
+
+    @Test
+    public void shouldIgnoreChangesInGitDirectory() throws Exception {
+        final VirtualFile virtualFile = mockVirtualFile(Path.of("/project/.git/index"), new File(repository, ".git/index"));
+
+        connection.status(StatusFormat.SHORT);
+
+        assertFalse(listener.shouldBeNotifiedFor(virtualFile));
+    }
+
+    @Test
+    public void shouldReadFileContentWithPersistentCatFileProcess() throws Exception {
+        GitTestUtil.addFile(connection, "b.txt", "first\nsecond\n");
+        connection.add(newDto(AddRequest.class).withFilepattern(singletonList("b.txt")));
+        connection.commit(newDto(CommitRequest.class).withMessage("add b"));
+
+        final String readme = connection.showFileContent(newDto(ShowFileContentRequest.class).withFile("README.txt")
+                                                                                             .withVersion("HEAD~1"))
+                                        .getContent();
+        final String b = connection.showFileContent(newDto(ShowFileContentRequest.class).withFile("b.txt")
+                                                                                        .withVersion("HEAD"))
+                                   .getContent();
+
+        assertEquals(readme, GitTestUtil.CONTENT.trim());
+        assertEquals(b, "first" + System.lineSeparator() + "second");
+        assertEquals(cache.getBlobReadCount(), 2);
+    }
+
+    @Test(expectedExceptions = GitException.class)
+    public void shouldFailToShowContentOfMissingFile() throws Exception {
+        connection.showFileContent(newDto(ShowFileContentRequest.class).withFile("unknown.txt").withVersion("HEAD"));
+    }
+
+    @Test
+    public void shouldNotKeepStatusWhenIndexIsChangedWhileStatusIsLoaded() throws Exception {
+        GitTestUtil.addFile(connection, "a.txt", "a");
+        // another git process adds file to index right after 'git status' is completed
+        final NativeGit nativeGit = new NativeGit(repository, null, null, null) {
+            private boolean indexChanged;
+
+            @Override
+            public StatusCommand createStatusCommand() {
+                return new StatusCommand(repository) {
+                    @Override
+                    public List<String> execute() throws GitException {
+                        final List<String> porcelain = super.execute();
+                        if (!indexChanged) {
+                            indexChanged = true;
+                            connection.add(newDto(AddRequest.class).withFilepattern(singletonList("a.txt")));
+                        }
+                        return porcelain;
+                    }
+                };
+            }
+        };
+        cache.getStatus(nativeGit);
+
+        final Status status = connection.status(StatusFormat.SHORT);
+
+        assertEquals(status.getAdded(), singletonList("a.txt"));
+        assertTrue(status.getUntracked().isEmpty());
+    }
+
+    @Test
+    public void shouldWriteCachedPorcelainStatusAsGitStatusCommandDoes() throws Exception {
+        GitTestUtil.addFile(connection, "README.txt", "changed");
+        GitTestUtil.addFile(connection, "a.txt", "a");
+        final StatusCommand statusCommand = new NativeGit(repository, null, null, null).createStatusCommand()
+                                                                                   .setFormat(StatusFormat.PORCELAIN);
+        statusCommand.execute();
+
+        final ByteArrayOutputStream cached = new ByteArrayOutputStream();
+        ((NativeGitStatusImpl)connection.status(StatusFormat.PORCELAIN)).writeTo(cached);
+
+        assertEquals(cached.toString(), statusCommand.getText());
+        assertEquals(cache.getLoadCount(), 1);
+    }
+
+    @Test
+    public void shouldRemoveListenerOnStop() throws Exception {
+        cache.stop();
+
+        verify(fileWatcherNotificationHandler).removeNotificationListener(listener);
+    }
+
+    private VirtualFile mockVirtualFile(Path path, File ioFile) {
+        final VirtualFile virtualFile = mock(VirtualFile.class);
+        when(virtualFile.getPath()).thenReturn(path);
+        when(virtualFile.toIoFile()).thenReturn(ioFile);
+        return virtualFile;
+    }
+}
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che;
+
+import com.google.common.collect.ImmutableMap;
+
+import org.eclipse.che.api.core.ApiException;
+import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
+import org.eclipse.che.api.machine.shared.WsAgentStartedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import javax.ws.rs.HttpMethod;
+import java.io.IOException;
+
+/**
+ * Announces start of WS agent to the event bus of API, so API doesn't need to wait for the next ping of WS agent.
+ *
+ * <p>Failure of announcement is not fatal, API finds out that WS agent is started by pinging it anyway.
+ */
+@Singleton
+public class WsAgentStartNotifier {
+    private static final Logger LOG = LoggerFactory.getLogger(WsAgentStartNotifier.class);
+
+    private final String                 eventBusEndpoint;
+    private final HttpJsonRequestFactory httpJsonRequestFactory;
+
+    @Inject
+    public WsAgentStartNotifier(@Named("api.endpoint") String apiEndpoint, HttpJsonRequestFactory httpJsonRequestFactory) {
+        this.eventBusEndpoint = (apiEndpoint.endsWith("/") ? apiEndpoint : apiEndpoint + "/") + "event-bus";
+        this.httpJsonRequestFactory = httpJsonRequestFactory;
+    }
+
+    @PostConstruct
+    public void start() {
+        final String workspaceId = WorkspaceIdProvider.getWorkspaceId();
+        try {
+            // format of event bus client message, see org.eclipse.che.api.core.notification.WSocketEventBusServer
+            httpJsonRequestFactory.fromUrl(eventBusEndpoint)
+                                  .setMethod(HttpMethod.POST)
+                                  .setTimeout(2000)
+                                  .setBody(ImmutableMap.of("$type", WsAgentStartedEvent.class.getName(),
+                                                           "workspaceId", workspaceId))
+                                  .request();
+        } catch (ApiException | IOException e) {
+            LOG.warn("Unable to notify API about start of WS agent of workspace {}. {}", workspaceId, e.getLocalizedMessage());
+        }
+    }
+}
@@ -15,11 +15,15 @@ import org.eclipse.che.api.core.ConflictException;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 
 /** Class to hold image information such as data, name, media type */
 public class FactoryImage {
     private byte[] imageData;
+    private Path   imageFile;
     private String mediaType;
     private String name;
 
@@ -32,12 +36,34 @@ public class FactoryImage {
         setImageData(data);
     }
 
+    /**
+     * Returns image data. Data of image which is backed by file is read from file on first call.
+     *
+     * @throws UncheckedIOException
+     *         if image is backed by file and file can't be read
+     */
     public byte[] getImageData() {
+        if (imageData == null && imageFile != null) {
+            try {
+                imageData = Files.readAllBytes(imageFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
         return imageData;
     }
 
     public void setImageData(byte[] imageData) throws IOException {
         this.imageData = imageData;
+        this.imageFile = null;
+    }
+
+    /**
+     * Returns file which contains data of image or {@code null} if data of image is kept in memory. Content of file
+     * may be sent to client directly without reading it with {@link #getImageData()}.
+     */
+    public Path getImageFile() {
+        return imageFile;
     }
 
     public String getMediaType() {
@@ -68,7 +94,7 @@ public class FactoryImage {
     }
 
     public boolean hasContent() {
-        return imageData != null && imageData.length > 0;
+        return imageFile != null || imageData != null && imageData.length > 0;
     }
 
     @Override
@@ -78,7 +104,7 @@ public class FactoryImage {
 
         FactoryImage that = (FactoryImage)o;
 
-        if (!Arrays.equals(imageData, that.imageData)) return false;
+        if (!Arrays.equals(getImageData(), that.getImageData())) return false;
         if (mediaType != null ? !mediaType.equals(that.mediaType) : that.mediaType != null) return false;
         if (name != null ? !name.equals(that.name) : that.name != null) return false;
 
@@ -87,12 +113,32 @@ public class FactoryImage {
 
     @Override
     public int hashCode() {
-        int result = imageData != null ? Arrays.hashCode(imageData) : 0;
+        int result = getImageData() != null ? Arrays.hashCode(getImageData()) : 0;
         result = 31 * result + (mediaType != null ? mediaType.hashCode() : 0);
         result = 31 * result + (name != null ? name.hashCode() : 0);
         return result;
     }
 
+    /**
+     * Creates {@code FactoryImage} which data is stored in file. File is not read until data of image is requested.
+     *
+     * @param file
+     *         - file with image data, must not be empty
+     * @param mediaType
+     *         - media type of image
+     * @param name
+     *         - image name
+     * @throws IOException
+     *         if media type is unsupported
+     */
+    public static FactoryImage fromFile(Path file, String mediaType, String name) throws IOException {
+        final FactoryImage image = new FactoryImage();
+        image.setMediaType(mediaType);
+        image.setName(name);
+        image.imageFile = file;
+        return image;
+    }
+
     /**
      * Creates {@code FactoryImage}.
      * InputStream should be closed manually.
@@ -56,11 +56,17 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -74,6 +80,7 @@ import java.util.function.Predicate;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static java.util.stream.Collectors.toList;
 import static javax.ws.rs.core.HttpHeaders.CONTENT_DISPOSITION;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_LENGTH;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.MULTIPART_FORM_DATA;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
@@ -462,19 +469,18 @@ public class FactoryService extends Service {
                              String id,
                              @ApiParam(value = "Image id", required = true)
                              @QueryParam("imgId")
-                             String imageId) throws NotFoundException {
+                             String imageId) throws NotFoundException, ServerException {
         final Set<FactoryImage> factoryImages = factoryStore.getFactoryImages(id, null);
         if (isNullOrEmpty(imageId)) {
             if (factoryImages.isEmpty()) {
                 LOG.warn("Default image for factory {} is not found.", id);
                 throw new NotFoundException("Default image for factory " + id + " is not found.");
             }
-            final FactoryImage image = factoryImages.iterator().next();
-            return Response.ok(image.getImageData(), image.getMediaType()).build();
+            return imageResponse(factoryImages.iterator().next());
         }
         for (FactoryImage image : factoryImages) {
             if (imageId.equals(image.getName())) {
-                return Response.ok(image.getImageData(), image.getMediaType()).build();
+                return imageResponse(image);
             }
         }
         LOG.warn("Image with id {} is not found.", imageId);
@@ -653,6 +659,35 @@ public class FactoryService extends Service {
         return factory;
     }
 
+    /**
+     * Creates response with image content. Content of image which is stored in file is transferred from file
+     * channel directly to response output without loading it into memory.
+     */
+    private Response imageResponse(FactoryImage image) throws ServerException {
+        final java.nio.file.Path imageFile = image.getImageFile();
+        if (imageFile == null) {
+            return Response.ok(image.getImageData(), image.getMediaType()).build();
+        }
+        final long size;
+        try {
+            size = Files.size(imageFile);
+        } catch (IOException e) {
+            throw new ServerException(e.getLocalizedMessage(), e);
+        }
+        final StreamingOutput content = output -> {
+            try (FileChannel channel = FileChannel.open(imageFile, StandardOpenOption.READ)) {
+                final WritableByteChannel target = Channels.newChannel(output);
+                long position = 0;
+                while (position < size) {
+                    position += channel.transferTo(position, size - position, target);
+                }
+            }
+        };
+        return Response.ok(content, image.getMediaType())
+                       .header(CONTENT_LENGTH, size)
+                       .build();
+    }
+
     /**
      * Creates factory links.
      *
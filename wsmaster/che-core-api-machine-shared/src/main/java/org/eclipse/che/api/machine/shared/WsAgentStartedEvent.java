@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.machine.shared;
+
+/**
+ * Sent by ws agent to the event bus of the api server when ws agent application is started.
+ *
+ * <p>It is a hint for ws agent launcher of the api server that ws agent should respond to ping now,
+ * so it is not trusted as is and ws agent is pinged after receiving of this event.
+ */
+public class WsAgentStartedEvent {
+    private String workspaceId;
+
+    public WsAgentStartedEvent(String workspaceId) {
+        this.workspaceId = workspaceId;
+    }
+
+    public WsAgentStartedEvent() {
+    }
+
+    public String getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public void setWorkspaceId(String workspaceId) {
+        this.workspaceId = workspaceId;
+    }
+
+    @Override
+    public String toString() {
+        return "WsAgentStartedEvent{" +
+               "workspaceId='" + workspaceId + '\'' +
+               '}';
+    }
+}
@@ -369,6 +369,10 @@ public class MachineService extends Service {
      * @param overwrite
      *         If "false" then it will be an error if unpacking the given content would cause
      *         an existing directory to be replaced with a non-directory and vice versa.
+     * @param includes
+     *         glob patterns of paths relative to source path of files which should be copied, all files are copied if empty
+     * @param excludes
+     *         glob patterns of paths relative to source path of files and directories which should not be copied
      * @throws MachineException
      *         if any error occurs when files are being copied
      * @throws NotFoundException
@@ -397,7 +401,13 @@ public class MachineService extends Service {
                                          @ApiParam(value = "Is files overwriting allowed")
                                          @QueryParam("overwrite")
                                          @DefaultValue("false")
-                                         Boolean overwrite)
+                                         Boolean overwrite,
+                                         @ApiParam(value = "Glob patterns of paths relative to source path which should be copied")
+                                         @QueryParam("include")
+                                         List<String> includes,
+                                         @ApiParam(value = "Glob patterns of paths relative to source path which should not be copied")
+                                         @QueryParam("exclude")
+                                         List<String> excludes)
             throws NotFoundException,
                    ServerException,
                    ForbiddenException,
@@ -410,7 +420,7 @@ public class MachineService extends Service {
 
         final Instance sourceMachine = machineManager.getInstance(sourceMachineId);
         final Instance targetMachine = machineManager.getInstance(targetMachineId);
-        targetMachine.copy(sourceMachine, sourcePath, targetPath, overwrite);
+        targetMachine.copy(sourceMachine, sourcePath, targetPath, overwrite, includes, excludes);
     }
 
     private void addLogsToResponse(Reader logsReader, HttpServletResponse httpServletResponse) throws IOException {
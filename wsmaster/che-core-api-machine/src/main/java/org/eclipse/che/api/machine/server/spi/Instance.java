@@ -125,6 +125,33 @@ public interface Instance extends Machine {
      */
     void copy(Instance sourceMachine, String sourcePath, String targetPath, boolean overwriteDirNonDir) throws MachineException;
 
+    /**
+     * Copies files which match filters from specified machine into current machine.
+     *
+     * @param sourceMachine
+     *         source machine
+     * @param sourcePath
+     *         path to file or directory inside specified machine
+     * @param targetPath
+     *         path to destination file or directory inside machine
+     * @param overwriteDirNonDir
+     *         If "false" then it will be an error if unpacking the given content would cause
+     *         an existing directory to be replaced with a non-directory and vice versa.
+     * @param includes
+     *         glob patterns of paths relative to {@code sourcePath} of files which should be copied,
+     *         if empty all files are copied
+     * @param excludes
+     *         glob patterns of paths relative to {@code sourcePath} of files and directories which should not be copied
+     * @throws MachineException
+     *         if any error occurs when files are being copied
+     */
+    void copy(Instance sourceMachine,
+              String sourcePath,
+              String targetPath,
+              boolean overwriteDirNonDir,
+              List<String> includes,
+              List<String> excludes) throws MachineException;
+
     /**
      * Copies files from CHE server into current machine.
      *
@@ -12,10 +12,13 @@ package org.eclipse.che.api.machine.server.spi.impl;
 
 import org.eclipse.che.api.core.model.machine.Machine;
 import org.eclipse.che.api.core.model.machine.MachineStatus;
+import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineRuntimeInfoImpl;
 import org.eclipse.che.api.machine.server.spi.Instance;
 
+import java.util.List;
+
 /**
  * @author Alexander Garagatyi
  */
@@ -36,4 +39,21 @@ public abstract class AbstractInstance extends MachineImpl implements Instance {
 
     @Override
     public abstract MachineRuntimeInfoImpl getRuntime();
+
+    /**
+     * Copies all files with {@link #copy(Instance, String, String, boolean)},
+     * implementations which support filtering should override this method.
+     */
+    @Override
+    public void copy(Instance sourceMachine,
+                     String sourcePath,
+                     String targetPath,
+                     boolean overwriteDirNonDir,
+                     List<String> includes,
+                     List<String> excludes) throws MachineException {
+        if ((includes != null && !includes.isEmpty()) || (excludes != null && !excludes.isEmpty())) {
+            throw new MachineException("Copying with filters is not supported by machine implementation");
+        }
+        copy(sourceMachine, sourcePath, targetPath, overwriteDirNonDir);
+    }
 }
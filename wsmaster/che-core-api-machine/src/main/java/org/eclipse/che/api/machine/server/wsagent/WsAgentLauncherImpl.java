@@ -10,10 +10,14 @@
  *******************************************************************************/
 package org.eclipse.che.api.machine.server.wsagent;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 import org.eclipse.che.api.core.ApiException;
 import org.eclipse.che.api.core.BadRequestException;
 import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.model.machine.Machine;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.core.rest.HttpJsonRequest;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
 import org.eclipse.che.api.core.rest.HttpJsonResponse;
@@ -21,9 +25,12 @@ import org.eclipse.che.api.machine.server.MachineManager;
 import org.eclipse.che.api.machine.server.exception.MachineException;
 import org.eclipse.che.api.machine.server.model.impl.CommandImpl;
 import org.eclipse.che.api.machine.shared.Constants;
+import org.eclipse.che.api.machine.shared.WsAgentStartedEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Provider;
@@ -31,10 +38,25 @@ import javax.inject.Singleton;
 import javax.ws.rs.HttpMethod;
 import java.io.IOException;
 import java.net.HttpURLConnection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 /**
  * Starts ws agent in the machine and waits until ws agent sends notification about its start
  *
+ * <p>Ws agent sends {@link WsAgentStartedEvent} to the event bus of the api server when it is started.
+ * Launcher pings ws agent immediately after receiving of such event and a few more times with short delay
+ * since ws agent may need some time to open its http connector. Ws agent is also pinged periodically
+ * in case the event is lost or ws agent can't reach api server.
+ * Pings of all starting ws agents are performed by a small scheduled pool, so no thread waits for ws agent start.
+ *
  * @author Alexander Garagatyi
  */
 @Singleton
@@ -45,18 +67,26 @@ public class WsAgentLauncherImpl implements WsAgentLauncher {
     protected static final Logger LOG = LoggerFactory.getLogger(WsAgentLauncherImpl.class);
 
     private static final String WS_AGENT_PROCESS_OUTPUT_CHANNEL = "workspace:%s:ext-server:output";
+    private static final int    PING_THREADS                    = 4;
+    private static final long   ANNOUNCED_PING_DELAY_MS         = 100;
+    private static final int    ANNOUNCED_PINGS                 = 20;
 
-    private final Provider<MachineManager> machineManagerProvider;
-    private final HttpJsonRequestFactory   httpJsonRequestFactory;
-    private final String                   wsAgentStartCommandLine;
-    private final long                     wsAgentMaxStartTimeMs;
-    private final long                     wsAgentPingDelayMs;
-    private final int                      wsAgentPingConnectionTimeoutMs;
-    private final String                   pingTimedOutErrorMessage;
+    private final Provider<MachineManager>             machineManagerProvider;
+    private final HttpJsonRequestFactory               httpJsonRequestFactory;
+    private final EventService                         eventService;
+    private final String                               wsAgentStartCommandLine;
+    private final long                                 wsAgentMaxStartTimeMs;
+    private final long                                 wsAgentPingDelayMs;
+    private final int                                  wsAgentPingConnectionTimeoutMs;
+    private final String                               pingTimedOutErrorMessage;
+    private final ScheduledExecutorService             scheduler;
+    private final ConcurrentMap<String, WsAgentStart>  starts;
+    private final EventSubscriber<WsAgentStartedEvent> startedEventSubscriber;
 
     @Inject
     public WsAgentLauncherImpl(Provider<MachineManager> machineManagerProvider,
                                HttpJsonRequestFactory httpJsonRequestFactory,
+                               EventService eventService,
                                @Named(WS_AGENT_PROCESS_START_COMMAND) String wsAgentStartCommandLine,
                                @Named("machine.ws_agent.max_start_time_ms") long wsAgentMaxStartTimeMs,
                                @Named("machine.ws_agent.ping_delay_ms") long wsAgentPingDelayMs,
@@ -64,44 +94,73 @@ public class WsAgentLauncherImpl implements WsAgentLauncher {
                                @Named("machine.ws_agent.ping_timed_out_error_msg") String pingTimedOutErrorMessage) {
         this.machineManagerProvider = machineManagerProvider;
         this.httpJsonRequestFactory = httpJsonRequestFactory;
+        this.eventService = eventService;
         this.wsAgentStartCommandLine = wsAgentStartCommandLine;
         this.wsAgentMaxStartTimeMs = wsAgentMaxStartTimeMs;
         this.wsAgentPingDelayMs = wsAgentPingDelayMs;
         this.wsAgentPingConnectionTimeoutMs = wsAgentPingConnectionTimeoutMs;
         this.pingTimedOutErrorMessage = pingTimedOutErrorMessage;
+        final ScheduledThreadPoolExecutor scheduler =
+                new ScheduledThreadPoolExecutor(PING_THREADS, new ThreadFactoryBuilder().setNameFormat("WsAgentLauncher-%d")
+                                                                                        .setDaemon(true)
+                                                                                        .build());
+        // start timeouts are cancelled in most cases, don't keep them in the queue
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler = scheduler;
+        this.starts = new ConcurrentHashMap<>();
+        this.startedEventSubscriber = new WsAgentStartedEventSubscriber();
     }
 
     public static String getWsAgentProcessOutputChannel(String workspaceId) {
         return String.format(WS_AGENT_PROCESS_OUTPUT_CHANNEL, workspaceId);
     }
 
+    @PostConstruct
+    public void subscribe() {
+        eventService.subscribe(startedEventSubscriber);
+    }
+
+    @PreDestroy
+    public void stop() {
+        eventService.unsubscribe(startedEventSubscriber);
+        scheduler.shutdownNow();
+    }
+
     @Override
     public void startWsAgent(String workspaceId) throws NotFoundException, MachineException, InterruptedException {
+        final CompletableFuture<Void> started = startWsAgentAsync(workspaceId);
+        try {
+            started.get();
+        } catch (InterruptedException e) {
+            started.cancel(false);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof MachineException) {
+                throw (MachineException)e.getCause();
+            }
+            throw new MachineException(e.getCause().getLocalizedMessage(), e.getCause());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> startWsAgentAsync(String workspaceId) throws NotFoundException, MachineException {
         final Machine devMachine = getMachineManager().getDevMachine(workspaceId);
-        final HttpJsonRequest wsAgentPingRequest = createPingRequest(devMachine);
-        final String wsAgentPingUrl = wsAgentPingRequest.getUrl();
+        final WsAgentStart start = new WsAgentStart(workspaceId, createPingRequest(devMachine));
+        // ws agent may announce its start before exec returns
+        starts.put(workspaceId, start);
         try {
             getMachineManager().exec(devMachine.getId(),
                                      new CommandImpl(WS_AGENT_PROCESS_NAME, wsAgentStartCommandLine, "Arbitrary"),
                                      getWsAgentProcessOutputChannel(workspaceId));
-            final long pingStartTimestamp = System.currentTimeMillis();
-            LOG.debug("Starts pinging ws agent. Workspace ID:{}. Url:{}. Timestamp:{}",
-                      workspaceId,
-                      wsAgentPingUrl,
-                      pingStartTimestamp);
-
-            while (System.currentTimeMillis() - pingStartTimestamp < wsAgentMaxStartTimeMs) {
-                if (pingWsAgent(wsAgentPingRequest)) {
-                    return;
-                } else {
-                    Thread.sleep(wsAgentPingDelayMs);
-                }
-            }
         } catch (BadRequestException wsAgentLaunchingExc) {
+            starts.remove(workspaceId, start);
             throw new MachineException(wsAgentLaunchingExc.getLocalizedMessage(), wsAgentLaunchingExc);
+        } catch (NotFoundException | MachineException | RuntimeException e) {
+            starts.remove(workspaceId, start);
+            throw e;
         }
-        LOG.error("Fail pinging ws agent. Workspace ID:{}. Url:{}. Timestamp:{}", workspaceId, wsAgentPingUrl);
-        throw new MachineException(pingTimedOutErrorMessage);
+        start.begin();
+        return start.started;
     }
 
     // forms the ping request based on information about the machine.
@@ -134,4 +193,110 @@ public class WsAgentLauncherImpl implements WsAgentLauncher {
     private MachineManager getMachineManager() {
         return machineManagerProvider.get();
     }
+
+    private class WsAgentStartedEventSubscriber implements EventSubscriber<WsAgentStartedEvent> {
+        @Override
+        public void onEvent(WsAgentStartedEvent event) {
+            final WsAgentStart start = starts.get(event.getWorkspaceId());
+            if (start != null) {
+                start.announced();
+            }
+        }
+    }
+
+    /**
+     * State of a single ws agent start.
+     *
+     * <p>At most one ping of ws agent is either scheduled or running at any moment,
+     * so ping request is never used concurrently.
+     */
+    private class WsAgentStart {
+        final CompletableFuture<Void> started;
+
+        private final String          workspaceId;
+        private final HttpJsonRequest pingRequest;
+
+        private ScheduledFuture<?> nextPing;
+        private ScheduledFuture<?> timeout;
+        private boolean            pinging;
+        private int                announcedPings;
+
+        WsAgentStart(String workspaceId, HttpJsonRequest pingRequest) {
+            this.workspaceId = workspaceId;
+            this.pingRequest = pingRequest;
+            this.started = new CompletableFuture<>();
+        }
+
+        synchronized void begin() {
+            LOG.debug("Starts pinging ws agent. Workspace ID:{}. Url:{}. Timestamp:{}",
+                      workspaceId,
+                      pingRequest.getUrl(),
+                      System.currentTimeMillis());
+            started.whenComplete((ignored, error) -> finish());
+            timeout = scheduler.schedule(this::timedOut, wsAgentMaxStartTimeMs, MILLISECONDS);
+            nextPing = scheduler.schedule(this::ping, 0, MILLISECONDS);
+        }
+
+        /**
+         * Pings ws agent as soon as possible since it has announced its start.
+         * If pinging is not begun yet, the announcement is only recorded and the first ping is done by {@link #begin()}.
+         */
+        synchronized void announced() {
+            if (started.isDone()) {
+                return;
+            }
+            announcedPings = ANNOUNCED_PINGS;
+            // running ping reschedules itself with short delay
+            if (nextPing != null && !pinging && nextPing.cancel(false)) {
+                nextPing = scheduler.schedule(this::ping, 0, MILLISECONDS);
+            }
+        }
+
+        void ping() {
+            synchronized (this) {
+                if (started.isDone() || pinging) {
+                    return;
+                }
+                pinging = true;
+            }
+            boolean isStarted = false;
+            try {
+                isStarted = pingWsAgent(pingRequest);
+            } catch (Exception e) {
+                LOG.debug(e.getLocalizedMessage(), e);
+            } finally {
+                synchronized (this) {
+                    pinging = false;
+                    if (!isStarted && !started.isDone()) {
+                        final long delay;
+                        if (announcedPings > 0) {
+                            announcedPings--;
+                            delay = Math.min(ANNOUNCED_PING_DELAY_MS, wsAgentPingDelayMs);
+                        } else {
+                            delay = wsAgentPingDelayMs;
+                        }
+                        nextPing = scheduler.schedule(this::ping, delay, MILLISECONDS);
+                    }
+                }
+            }
+            if (isStarted) {
+                started.complete(null);
+            }
+        }
+
+        void timedOut() {
+            if (started.completeExceptionally(new MachineException(pingTimedOutErrorMessage))) {
+                LOG.error("Fail pinging ws agent. Workspace ID:{}. Url:{}. Timestamp:{}",
+                          workspaceId,
+                          pingRequest.getUrl(),
+                          System.currentTimeMillis());
+            }
+        }
+
+        synchronized void finish() {
+            starts.remove(workspaceId, this);
+            timeout.cancel(false);
+            nextPing.cancel(false);
+        }
+    }
 }
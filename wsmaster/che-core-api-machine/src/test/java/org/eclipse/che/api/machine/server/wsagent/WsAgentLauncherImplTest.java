@@ -15,6 +15,8 @@ import org.eclipse.che.api.core.NotFoundException;
 import org.eclipse.che.api.core.ServerException;
 import org.eclipse.che.api.core.model.machine.Command;
 import org.eclipse.che.api.core.model.machine.Server;
+import org.eclipse.che.api.core.notification.EventService;
+import org.eclipse.che.api.core.notification.EventSubscriber;
 import org.eclipse.che.api.core.rest.HttpJsonRequest;
 import org.eclipse.che.api.core.rest.HttpJsonRequestFactory;
 import org.eclipse.che.api.core.rest.HttpJsonResponse;
@@ -25,9 +27,12 @@ import org.eclipse.che.api.machine.server.model.impl.MachineImpl;
 import org.eclipse.che.api.machine.server.model.impl.MachineRuntimeInfoImpl;
 import org.eclipse.che.api.machine.server.model.impl.ServerImpl;
 import org.eclipse.che.api.machine.shared.Constants;
+import org.eclipse.che.api.machine.shared.WsAgentStartedEvent;
 import org.eclipse.che.commons.test.SelfReturningAnswer;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.testng.MockitoTestNGListener;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Listeners;
 import org.testng.annotations.Test;
@@ -37,15 +42,23 @@ import javax.ws.rs.core.UriBuilder;
 import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 @Listeners(MockitoTestNGListener.class)
 public class WsAgentLauncherImplTest {
@@ -77,17 +90,21 @@ public class WsAgentLauncherImplTest {
     private MachineRuntimeInfoImpl machineRuntime;
 
     private HttpJsonRequest     pingRequest;
+    private EventService        eventService;
     private WsAgentLauncherImpl wsAgentLauncher;
 
     @BeforeMethod
     public void setUp() throws Exception {
+        eventService = new EventService();
         wsAgentLauncher = new WsAgentLauncherImpl(() -> machineManager,
                                                   requestFactory,
+                                                  eventService,
                                                   WS_AGENT_START_CMD_LINE,
                                                   WS_AGENT_MAX_START_TIME_MS,
                                                   WS_AGENT_PING_DELAY_MS,
                                                   WS_AGENT_PING_CONN_TIMEOUT_MS,
                                                   WS_AGENT_TIMED_OUT_MESSAGE);
+        wsAgentLauncher.subscribe();
         pingRequest = mock(HttpJsonRequest.class, new SelfReturningAnswer());
         when(machineManager.getDevMachine(WS_ID)).thenReturn(machine);
         when(machine.getId()).thenReturn(MACHINE_ID);
@@ -98,6 +115,11 @@ public class WsAgentLauncherImplTest {
         when(pingResponse.getResponseCode()).thenReturn(HttpURLConnection.HTTP_OK);
     }
 
+    @AfterMethod
+    public void tearDown() {
+        wsAgentLauncher.stop();
+    }
+
     @Test
     public void shouldStartWsAgentUsingMachineExec() throws Exception {
         wsAgentLauncher.startWsAgent(WS_ID);
@@ -219,4 +241,85 @@ public class WsAgentLauncherImplTest {
 
         wsAgentLauncher.startWsAgent(WS_ID);
     }
+
+    @Test(timeOut = 5000)
+    public void shouldPingWsAgentImmediatelyWhenWsAgentAnnouncesStart() throws Exception {
+        wsAgentLauncher = createLauncher(10_000, 60_000);
+        when(pingRequest.request()).thenThrow(new ServerException(""))
+                                   .thenReturn(pingResponse);
+
+        final CompletableFuture<Void> started = wsAgentLauncher.startWsAgentAsync(WS_ID);
+        verify(pingRequest, timeout(1000)).request();
+        assertFalse(started.isDone());
+
+        eventService.publish(new WsAgentStartedEvent(WS_ID));
+
+        started.get(1, TimeUnit.SECONDS);
+        verify(pingRequest, times(2)).request();
+    }
+
+    @Test(timeOut = 5000)
+    public void shouldPingWsAgentFrequentlyWhenWsAgentAnnouncesStartBeforeExecReturns() throws Exception {
+        // event service swallows failures of subscribers, so subscriber is notified directly
+        eventService = mock(EventService.class);
+        wsAgentLauncher = createLauncher(10_000, 60_000);
+        final ArgumentCaptor<EventSubscriber> subscriberCaptor = ArgumentCaptor.forClass(EventSubscriber.class);
+        verify(eventService).subscribe(subscriberCaptor.capture());
+        when(machineManager.exec(anyString(), any(Command.class), anyString())).thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            final EventSubscriber<WsAgentStartedEvent> subscriber = subscriberCaptor.getValue();
+            subscriber.onEvent(new WsAgentStartedEvent(WS_ID));
+            return null;
+        });
+        when(pingRequest.request()).thenThrow(new ServerException(""))
+                                   .thenReturn(pingResponse);
+
+        wsAgentLauncher.startWsAgentAsync(WS_ID).get(1, TimeUnit.SECONDS);
+
+        verify(pingRequest, times(2)).request();
+    }
+
+    @Test(timeOut = 5000)
+    public void shouldIgnoreStartAnnouncementOfWsAgentOfAnotherWorkspace() throws Exception {
+        wsAgentLauncher = createLauncher(10_000, 60_000);
+        when(pingRequest.request()).thenThrow(new ServerException(""))
+                                   .thenReturn(pingResponse);
+
+        final CompletableFuture<Void> started = wsAgentLauncher.startWsAgentAsync(WS_ID);
+        verify(pingRequest, timeout(1000)).request();
+        eventService.publish(new WsAgentStartedEvent("anotherWsId"));
+
+        Thread.sleep(200);
+        assertFalse(started.isDone());
+        verify(pingRequest).request();
+    }
+
+    @Test(timeOut = 5000)
+    public void shouldCompleteStartExceptionallyIfWsAgentDoesNotStartInTime() throws Exception {
+        when(pingRequest.request()).thenThrow(new ServerException(""));
+
+        final CompletableFuture<Void> started = wsAgentLauncher.startWsAgentAsync(WS_ID);
+
+        try {
+            started.get();
+            fail("Start of ws agent must fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof MachineException);
+            assertEquals(e.getCause().getMessage(), WS_AGENT_TIMED_OUT_MESSAGE);
+        }
+    }
+
+    private WsAgentLauncherImpl createLauncher(long maxStartTimeMs, long pingDelayMs) {
+        wsAgentLauncher.stop();
+        final WsAgentLauncherImpl launcher = new WsAgentLauncherImpl(() -> machineManager,
+                                                                     requestFactory,
+                                                                     eventService,
+                                                                     WS_AGENT_START_CMD_LINE,
+                                                                     maxStartTimeMs,
+                                                                     pingDelayMs,
+                                                                     WS_AGENT_PING_CONN_TIMEOUT_MS,
+                                                                     WS_AGENT_TIMED_OUT_MESSAGE);
+        launcher.subscribe();
+        return launcher;
+    }
 }
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.workspace.shared.dto;
+
+import org.eclipse.che.dto.shared.DTO;
+
+import java.util.List;
+
+/**
+ * Changes of workspace projects which are applied together.
+ */
+@DTO
+public interface ProjectsUpdateDto {
+
+    /**
+     * Returns configurations of added or updated projects,
+     * existing project with the same path is replaced.
+     */
+    List<ProjectConfigDto> getUpdated();
+
+    void setUpdated(List<ProjectConfigDto> updated);
+
+    ProjectsUpdateDto withUpdated(List<ProjectConfigDto> updated);
+
+    /** Returns paths of removed projects. */
+    List<String> getRemoved();
+
+    void setRemoved(List<String> removed);
+
+    ProjectsUpdateDto withRemoved(List<String> removed);
+}
@@ -38,6 +38,7 @@ import org.eclipse.che.api.workspace.server.model.impl.ProjectConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.api.workspace.shared.dto.EnvironmentDto;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
+import org.eclipse.che.api.workspace.shared.dto.ProjectsUpdateDto;
 import org.eclipse.che.api.workspace.shared.dto.WorkspaceConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.WorkspaceDto;
 import org.eclipse.che.commons.env.EnvironmentContext;
@@ -57,8 +58,11 @@ import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static java.lang.String.format;
@@ -638,6 +642,49 @@ public class WorkspaceService extends Service {
         return linksInjector.injectLinks(asDto(workspaceManager.updateWorkspace(id, workspace)), getServiceContext());
     }
 
+    @POST
+    @Path("/{id}/project/batch")
+    @Consumes(APPLICATION_JSON)
+    @Produces(APPLICATION_JSON)
+    @ApiOperation(value = "Adds, updates and removes workspace projects at once",
+                  notes = "Updated projects replace existing projects with the same path, " +
+                          "projects which don't exist are added. " +
+                          "This operation can be performed only by the workspace owner")
+    @ApiResponses({@ApiResponse(code = 200, message = "The projects successfully updated"),
+                   @ApiResponse(code = 400, message = "Missed required parameters, parameters are not valid"),
+                   @ApiResponse(code = 403, message = "The user does not have access to update the projects"),
+                   @ApiResponse(code = 404, message = "The workspace not found"),
+                   @ApiResponse(code = 409, message = "Any conflict error occurs"),
+                   @ApiResponse(code = 500, message = "Internal server error occurred")})
+    public WorkspaceDto updateProjects(@ApiParam("The workspace id")
+                                       @PathParam("id")
+                                       String id,
+                                       @ApiParam(value = "The projects update", required = true)
+                                       ProjectsUpdateDto update) throws ServerException,
+                                                                        BadRequestException,
+                                                                        NotFoundException,
+                                                                        ConflictException,
+                                                                        ForbiddenException {
+        requiredNotNull(update, "Projects update");
+        final WorkspaceImpl workspace = workspaceManager.getWorkspace(id);
+        final List<ProjectConfigImpl> projects = workspace.getConfig().getProjects();
+        final Set<String> replaced = new HashSet<>();
+        for (String path : update.getRemoved()) {
+            replaced.add(path.startsWith("/") ? path : '/' + path);
+        }
+        final List<ProjectConfigImpl> updated = new ArrayList<>(update.getUpdated().size());
+        for (ProjectConfigDto project : update.getUpdated()) {
+            final ProjectConfigImpl config = new ProjectConfigImpl(project);
+            config.setPath(project.getPath().startsWith("/") ? project.getPath() : '/' + project.getPath());
+            replaced.add(config.getPath());
+            updated.add(config);
+        }
+        projects.removeIf(project -> replaced.contains(project.getPath()));
+        projects.addAll(updated);
+        validator.validateConfig(workspace.getConfig());
+        return linksInjector.injectLinks(asDto(workspaceManager.updateWorkspace(id, workspace)), getServiceContext());
+    }
+
     @DELETE
     @Path("/{id}/project/{path:.*}")
     @ApiOperation(value = "Remove the project from the workspace",
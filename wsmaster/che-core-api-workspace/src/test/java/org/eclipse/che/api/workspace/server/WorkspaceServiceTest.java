@@ -34,11 +34,13 @@ import org.eclipse.che.api.machine.server.model.impl.ServerImpl;
 import org.eclipse.che.api.machine.server.model.impl.SnapshotImpl;
 import org.eclipse.che.api.machine.shared.dto.CommandDto;
 import org.eclipse.che.api.workspace.server.model.impl.EnvironmentImpl;
+import org.eclipse.che.api.workspace.server.model.impl.ProjectConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceConfigImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceImpl;
 import org.eclipse.che.api.workspace.server.model.impl.WorkspaceRuntimeImpl;
 import org.eclipse.che.api.workspace.shared.dto.EnvironmentDto;
 import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
+import org.eclipse.che.api.workspace.shared.dto.ProjectsUpdateDto;
 import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
 import org.eclipse.che.api.workspace.shared.dto.WorkspaceConfigDto;
 import org.eclipse.che.api.workspace.shared.dto.WorkspaceDto;
@@ -97,6 +99,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
@@ -617,6 +620,62 @@ public class WorkspaceServiceTest {
         verify(wsManager).updateWorkspace(any(), any());
     }
 
+    @Test
+    public void shouldUpdateProjectsWithSingleWorkspaceUpdate() throws Exception {
+        final WorkspaceImpl workspace = createWorkspace(createConfigDto());
+        when(wsManager.getWorkspace(workspace.getId())).thenReturn(workspace);
+        when(wsManager.updateWorkspace(any(), any())).thenReturn(workspace);
+        final String removedPath = workspace.getConfig().getProjects().iterator().next().getPath();
+        final ProjectConfigDto projectDto = createProjectDto().withPath("/new/project");
+        final ProjectsUpdateDto update = newDto(ProjectsUpdateDto.class).withUpdated(singletonList(projectDto))
+                                                                        .withRemoved(singletonList(removedPath));
+
+        final Response response = given().auth()
+                                         .basic(ADMIN_USER_NAME, ADMIN_USER_PASSWORD)
+                                         .contentType("application/json")
+                                         .body(update)
+                                         .when()
+                                         .post(SECURE_PATH + "/workspace/" + workspace.getId() + "/project/batch");
+
+        assertEquals(response.getStatusCode(), 200);
+        final List<String> paths = workspace.getConfig()
+                                            .getProjects()
+                                            .stream()
+                                            .map(ProjectConfigImpl::getPath)
+                                            .collect(toList());
+        assertTrue(paths.contains(projectDto.getPath()));
+        assertFalse(paths.contains(removedPath));
+        verify(validator).validateConfig(workspace.getConfig());
+        verify(wsManager).updateWorkspace(any(), any());
+    }
+
+    @Test
+    public void shouldReplaceProjectWhenPathOfUpdatedProjectIsNotAbsolute() throws Exception {
+        final WorkspaceImpl workspace = createWorkspace(createConfigDto());
+        when(wsManager.getWorkspace(workspace.getId())).thenReturn(workspace);
+        when(wsManager.updateWorkspace(any(), any())).thenReturn(workspace);
+        final ProjectConfigImpl existing = workspace.getConfig().getProjects().iterator().next();
+        final ProjectConfigDto projectDto = createProjectDto().withPath(existing.getPath().substring(1))
+                                                              .withDescription("updated");
+        final ProjectsUpdateDto update = newDto(ProjectsUpdateDto.class).withUpdated(singletonList(projectDto));
+
+        final Response response = given().auth()
+                                         .basic(ADMIN_USER_NAME, ADMIN_USER_PASSWORD)
+                                         .contentType("application/json")
+                                         .body(update)
+                                         .when()
+                                         .post(SECURE_PATH + "/workspace/" + workspace.getId() + "/project/batch");
+
+        assertEquals(response.getStatusCode(), 200);
+        final List<ProjectConfigImpl> projects = workspace.getConfig()
+                                                          .getProjects()
+                                                          .stream()
+                                                          .filter(project -> project.getPath().equals(existing.getPath()))
+                                                          .collect(toList());
+        assertEquals(projects.size(), 1);
+        assertEquals(projects.get(0).getDescription(), "updated");
+    }
+
     @Test
     public void testWorkspaceLinks() throws Exception {
         // given
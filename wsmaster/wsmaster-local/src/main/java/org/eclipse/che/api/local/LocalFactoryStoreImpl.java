@@ -0,0 +1,425 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.TypeToken;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.core.ServerException;
+import org.eclipse.che.api.factory.server.FactoryImage;
+import org.eclipse.che.api.factory.server.FactoryStore;
+import org.eclipse.che.api.factory.shared.dto.Factory;
+import org.eclipse.che.api.local.storage.ContentAddressedStorage;
+import org.eclipse.che.api.local.storage.LocalStorage;
+import org.eclipse.che.api.local.storage.LocalStorageFactory;
+import org.eclipse.che.commons.lang.NameGenerator;
+import org.eclipse.che.commons.lang.Pair;
+import org.eclipse.che.dto.server.DtoFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Local implementation of {@link FactoryStore}.
+ * <p>
+ * Factories are searched by their attributes, which are paths of factory JSON properties, e.g. 'creator.userId' or
+ * 'workspace.projects.source.location'. Attributes from {@link #INDEXED_ATTRIBUTES} are indexed, so search by them
+ * doesn't check every factory. Images of factories are kept in {@link ContentAddressedStorage}, so an image which is
+ * used by several factories is stored once, and they are read from file only when their data is requested.
+ */
+@Singleton
+public class LocalFactoryStoreImpl implements FactoryStore {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LocalFactoryStoreImpl.class);
+
+    /** Attributes which are most often used for searching factories. */
+    static final Set<String> INDEXED_ATTRIBUTES = ImmutableSet.of("name",
+                                                                  "creator.userId",
+                                                                  "creator.email",
+                                                                  "workspace.projects.source.location",
+                                                                  "workspace.projects.source.type");
+
+    private final LocalStorage                                    factoryStorage;
+    private final ContentAddressedStorage                         imageStorage;
+    private final Map<String, StoredFactory>                      factories;
+    /** Attribute name -> attribute value -> ids of factories in order they were added. */
+    private final Map<String, Map<String, LinkedHashSet<String>>> indexes;
+    private final ReadWriteLock                                   lock;
+
+    @Inject
+    public LocalFactoryStoreImpl(LocalStorageFactory storageFactory,
+                                 @Named("che.conf.storage") String pathToStorage) throws IOException {
+        this.factoryStorage = storageFactory.create("factories.json");
+        this.imageStorage = new ContentAddressedStorage(Paths.get(pathToStorage, "factory-images"));
+        this.factories = new LinkedHashMap<>();
+        this.indexes = new HashMap<>();
+        for (String attribute : INDEXED_ATTRIBUTES) {
+            indexes.put(attribute, new HashMap<>());
+        }
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    @PostConstruct
+    public void loadFactories() throws IOException {
+        lock.writeLock().lock();
+        try {
+            final Map<String, StoredFactory> stored = factoryStorage.loadMap(new TypeToken<Map<String, StoredFactory>>() {});
+            for (Map.Entry<String, StoredFactory> entry : stored.entrySet()) {
+                final StoredFactory factory = entry.getValue();
+                if (factory.images == null) {
+                    factory.images = new ArrayList<>();
+                }
+                factory.images.removeIf(image -> {
+                    if (!imageStorage.contains(image.hash)) {
+                        LOG.error("Image '{}' of factory '{}' is not found in storage", image.name, entry.getKey());
+                        return true;
+                    }
+                    return false;
+                });
+                factories.put(entry.getKey(), factory);
+                index(entry.getKey(), factory);
+            }
+            imageStorage.retainAll(usedImages());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void saveFactories() throws IOException {
+        lock.writeLock().lock();
+        try {
+            factoryStorage.store(factories);
+            imageStorage.retainAll(usedImages());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public String saveFactory(Factory factory, Set<FactoryImage> images) throws ConflictException, ServerException {
+        requireNonNull(factory, "Factory required");
+        lock.writeLock().lock();
+        try {
+            checkNameIsUnique(null, factory);
+            String id;
+            do {
+                id = NameGenerator.generate("factory", 16);
+            } while (factories.containsKey(id));
+
+            final Factory copy = DtoFactory.getInstance().clone(factory).withId(id);
+            final StoredFactory stored = new StoredFactory(toJson(copy), new ArrayList<>());
+            if (images != null) {
+                for (FactoryImage image : images) {
+                    if (image.hasContent()) {
+                        stored.images.add(new StoredImage(image.getName(),
+                                                          image.getMediaType(),
+                                                          imageStorage.put(image.getImageData())));
+                    }
+                }
+            }
+            factories.put(id, stored);
+            index(id, stored);
+            return id;
+        } catch (IOException e) {
+            throw new ServerException(e.getLocalizedMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeFactory(String factoryId) throws NotFoundException, ServerException {
+        requireNonNull(factoryId, "Factory id required");
+        lock.writeLock().lock();
+        try {
+            final StoredFactory removed = factories.remove(factoryId);
+            if (removed == null) {
+                throw new NotFoundException(format("Factory with id '%s' was not found", factoryId));
+            }
+            unindex(factoryId, removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Factory getFactory(String factoryId) throws NotFoundException, ServerException {
+        requireNonNull(factoryId, "Factory id required");
+        lock.readLock().lock();
+        try {
+            return toFactory(getStoredFactory(factoryId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Factory> findByAttribute(int maxItems, int skipCount, List<Pair<String, String>> attributes)
+            throws IllegalArgumentException {
+        if (skipCount < 0) {
+            throw new IllegalArgumentException("'skipCount' parameter is negative.");
+        }
+        lock.readLock().lock();
+        try {
+            Collection<String> candidates = null;
+            final List<Pair<String, String>> notIndexed = new ArrayList<>();
+            for (Pair<String, String> attribute : attributes) {
+                final Map<String, LinkedHashSet<String>> index = indexes.get(attribute.first);
+                if (index == null) {
+                    notIndexed.add(attribute);
+                    continue;
+                }
+                final Set<String> ids = index.get(attribute.second);
+                if (ids == null) {
+                    return new ArrayList<>();
+                }
+                if (candidates == null) {
+                    candidates = new LinkedHashSet<>(ids);
+                } else {
+                    candidates.retainAll(ids);
+                }
+            }
+            if (candidates == null) {
+                candidates = factories.keySet();
+            }
+
+            final List<Factory> result = new ArrayList<>();
+            int skipped = 0;
+            for (String id : candidates) {
+                if (maxItems > 0 && result.size() >= maxItems) {
+                    break;
+                }
+                final StoredFactory factory = factories.get(id);
+                if (!notIndexed.isEmpty() && !matches(factory.getAttributes(), notIndexed)) {
+                    continue;
+                }
+                if (skipped < skipCount) {
+                    skipped++;
+                    continue;
+                }
+                result.add(toFactory(factory));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<FactoryImage> getFactoryImages(String factoryId, String imageId) throws NotFoundException {
+        requireNonNull(factoryId, "Factory id required");
+        lock.readLock().lock();
+        try {
+            final Set<FactoryImage> result = new LinkedHashSet<>();
+            for (StoredImage image : getStoredFactory(factoryId).images) {
+                if (imageId == null || imageId.equals(image.name)) {
+                    result.add(FactoryImage.fromFile(imageStorage.getPath(image.hash), image.mediaType, image.name));
+                }
+            }
+            return result;
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getLocalizedMessage(), e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String updateFactory(String factoryId, Factory factory) throws NotFoundException, ConflictException {
+        requireNonNull(factoryId, "Factory id required");
+        requireNonNull(factory, "Factory required");
+        lock.writeLock().lock();
+        try {
+            final StoredFactory existing = getStoredFactory(factoryId);
+            checkNameIsUnique(factoryId, factory);
+            final Factory copy = DtoFactory.getInstance().clone(factory).withId(factoryId);
+            final StoredFactory updated = new StoredFactory(toJson(copy), existing.images);
+            unindex(factoryId, existing);
+            factories.put(factoryId, updated);
+            index(factoryId, updated);
+            return factoryId;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private StoredFactory getStoredFactory(String factoryId) throws NotFoundException {
+        final StoredFactory factory = factories.get(factoryId);
+        if (factory == null) {
+            throw new NotFoundException(format("Factory with id '%s' was not found", factoryId));
+        }
+        return factory;
+    }
+
+    /** Factory name must be unique among factories of the same creator. */
+    private void checkNameIsUnique(String factoryId, Factory factory) throws ConflictException {
+        if (factory.getName() == null || factory.getCreator() == null || factory.getCreator().getUserId() == null) {
+            return;
+        }
+        final Set<String> sameName = indexes.get("name").get(factory.getName());
+        if (sameName == null) {
+            return;
+        }
+        final Set<String> sameCreator = indexes.get("creator.userId").get(factory.getCreator().getUserId());
+        if (sameCreator == null) {
+            return;
+        }
+        for (String id : sameName) {
+            if (!id.equals(factoryId) && sameCreator.contains(id)) {
+                throw new ConflictException(format("Factory with name '%s' already exists for user '%s'",
+                                                   factory.getName(), factory.getCreator().getUserId()));
+            }
+        }
+    }
+
+    private void index(String id, StoredFactory factory) {
+        final Map<String, Set<String>> attributes = factory.getAttributes();
+        for (Map.Entry<String, Map<String, LinkedHashSet<String>>> index : indexes.entrySet()) {
+            final Set<String> values = attributes.get(index.getKey());
+            if (values != null) {
+                for (String value : values) {
+                    index.getValue().computeIfAbsent(value, key -> new LinkedHashSet<>()).add(id);
+                }
+            }
+        }
+    }
+
+    private void unindex(String id, StoredFactory factory) {
+        final Map<String, Set<String>> attributes = factory.getAttributes();
+        for (Map.Entry<String, Map<String, LinkedHashSet<String>>> index : indexes.entrySet()) {
+            final Set<String> values = attributes.get(index.getKey());
+            if (values != null) {
+                for (String value : values) {
+                    final Set<String> ids = index.getValue().get(value);
+                    if (ids != null) {
+                        ids.remove(id);
+                        if (ids.isEmpty()) {
+                            index.getValue().remove(value);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean matches(Map<String, Set<String>> attributes, List<Pair<String, String>> query) {
+        for (Pair<String, String> attribute : query) {
+            final Set<String> values = attributes.get(attribute.first);
+            if (values == null || !values.contains(attribute.second)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Set<String> usedImages() {
+        final Set<String> used = new HashSet<>();
+        for (StoredFactory factory : factories.values()) {
+            for (StoredImage image : factory.images) {
+                used.add(image.hash);
+            }
+        }
+        return used;
+    }
+
+    private static JsonObject toJson(Factory factory) {
+        return new JsonParser().parse(DtoFactory.getInstance().toJson(factory)).getAsJsonObject();
+    }
+
+    private static Factory toFactory(StoredFactory factory) {
+        return DtoFactory.getInstance().createDtoFromJson(factory.factory.toString(), Factory.class);
+    }
+
+    /**
+     * Collects values of all JSON properties by their paths, values of array elements are collected under path of
+     * array, e.g. 'workspace.projects.source.location' contains locations of all projects.
+     */
+    private static void collectAttributes(String path, JsonElement element, Map<String, Set<String>> attributes) {
+        if (element == null || element.isJsonNull()) {
+            return;
+        }
+        if (element.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> property : element.getAsJsonObject().entrySet()) {
+                collectAttributes(path.isEmpty() ? property.getKey() : path + '.' + property.getKey(),
+                                  property.getValue(),
+                                  attributes);
+            }
+        } else if (element.isJsonArray()) {
+            for (JsonElement item : element.getAsJsonArray()) {
+                collectAttributes(path, item, attributes);
+            }
+        } else {
+            attributes.computeIfAbsent(path, key -> new HashSet<>()).add(element.getAsString());
+        }
+    }
+
+    /** Persisted form of factory, factory is kept as JSON and images as references to content of image storage. */
+    private static class StoredFactory {
+        JsonObject        factory;
+        List<StoredImage> images;
+
+        transient Map<String, Set<String>> attributes;
+
+        StoredFactory(JsonObject factory, List<StoredImage> images) {
+            this.factory = factory;
+            this.images = images;
+        }
+
+        /** Attributes are collected when factory is indexed, i.e. under write lock. */
+        Map<String, Set<String>> getAttributes() {
+            if (attributes == null) {
+                final Map<String, Set<String>> collected = new HashMap<>();
+                collectAttributes("", factory, collected);
+                attributes = collected;
+            }
+            return attributes;
+        }
+    }
+
+    private static class StoredImage {
+        String name;
+        String mediaType;
+        String hash;
+
+        StoredImage(String name, String mediaType, String hash) {
+            this.name = name;
+            this.mediaType = mediaType;
+            this.hash = hash;
+        }
+    }
+}
@@ -13,6 +13,7 @@ package org.eclipse.che.api.local;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 
+import org.eclipse.che.api.factory.server.FactoryStore;
 import org.eclipse.che.api.local.storage.LocalStorageFactory;
 import org.eclipse.che.api.machine.server.dao.RecipeDao;
 import org.eclipse.che.api.machine.server.dao.SnapshotDao;
@@ -41,6 +42,7 @@ public class LocalInfrastructureModule extends AbstractModule {
         bind(TokenValidator.class).to(DummyTokenValidator.class);
         bind(RecipeDao.class).to(LocalRecipeDaoImpl.class);
         bind(StackDao.class).to(LocalStackDaoImpl.class);
+        bind(FactoryStore.class).to(LocalFactoryStoreImpl.class);
         bind(LocalStorageFactory.class);
     }
 
@@ -25,13 +25,12 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static java.lang.String.format;
 
@@ -43,19 +42,29 @@ import static java.lang.String.format;
 public class LocalRecipeDaoImpl implements RecipeDao {
 
     private final Map<String, RecipeImpl> recipes;
+    private final TagIndex                tagIndex;
     private final ReadWriteLock           lock;
     private final LocalStorage            recipeStorage;
 
     @Inject
     public LocalRecipeDaoImpl(LocalStorageFactory storageFactory) throws IOException {
         this.recipeStorage = storageFactory.create("recipes.json");
-        this.recipes = new HashMap<>();
+        this.recipes = new LinkedHashMap<>();
+        this.tagIndex = new TagIndex();
         this.lock = new ReentrantReadWriteLock();
     }
 
     @PostConstruct
     public void loadRecipes() {
-        recipes.putAll(recipeStorage.loadMap(new TypeToken<Map<String, RecipeImpl>>() {}));
+        lock.writeLock().lock();
+        try {
+            recipes.putAll(recipeStorage.loadMap(new TypeToken<Map<String, RecipeImpl>>() {}));
+            for (RecipeImpl recipe : recipes.values()) {
+                tagIndex.put(recipe.getId(), recipe.getTags(), recipe.getType());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @PreDestroy
@@ -71,6 +80,7 @@ public class LocalRecipeDaoImpl implements RecipeDao {
                 throw new ConflictException(format("Recipe with id %s already exists", recipe.getId()));
             }
             recipes.put(recipe.getId(), recipe);
+            tagIndex.put(recipe.getId(), recipe.getTags(), recipe.getType());
         } finally {
             lock.writeLock().unlock();
         }
@@ -102,6 +112,7 @@ public class LocalRecipeDaoImpl implements RecipeDao {
             if (update.getAcl() != null && !update.getAcl().isEmpty()) {
                 target.setAcl(update.getAcl());
             }
+            tagIndex.put(target.getId(), target.getTags(), target.getType());
 
             return new RecipeImpl(target);
         } finally {
@@ -114,6 +125,7 @@ public class LocalRecipeDaoImpl implements RecipeDao {
         lock.writeLock().lock();
         try {
             recipes.remove(id);
+            tagIndex.remove(id);
         } finally {
             lock.writeLock().unlock();
         }
@@ -137,15 +149,10 @@ public class LocalRecipeDaoImpl implements RecipeDao {
     public List<RecipeImpl> search(String user, List<String> tags, String type, int skipCount, int maxItems) throws ServerException {
         lock.readLock().lock();
         try {
-            Stream<RecipeImpl> recipesStream = recipes.values()
-                                                      .stream()
-                                                      .filter(recipe -> (tags == null || recipe.getTags().containsAll(tags))
-                                                                        && (type == null || type.equals(recipe.getType())))
-                                                      .skip(skipCount);
-            if (maxItems != 0) {
-                recipesStream = recipesStream.limit(maxItems);
-            }
-            return recipesStream.collect(Collectors.toList());
+            return tagIndex.find(tags, type, skipCount, maxItems)
+                           .stream()
+                           .map(recipes::get)
+                           .collect(Collectors.toList());
         } finally {
             lock.readLock().unlock();
         }
@@ -30,7 +30,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Stream;
 
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -46,20 +45,28 @@ public class LocalStackDaoImpl implements StackDao {
 
     private final StackLocalStorage      stackStorage;
     private final Map<String, StackImpl> stacks;
+    private final TagIndex               tagIndex;
     private final ReadWriteLock          lock;
 
     @Inject
     public LocalStackDaoImpl(StackLocalStorage stackLocalStorage) throws IOException {
         this.stackStorage = stackLocalStorage;
         this.stacks = new LinkedHashMap<>();
+        this.tagIndex = new TagIndex();
         this.lock = new ReentrantReadWriteLock();
     }
 
     @PostConstruct
     public void start() {
-        lock.readLock().lock();
-        stacks.putAll(stackStorage.loadMap());
-        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            stacks.putAll(stackStorage.loadMap());
+            for (StackImpl stack : stacks.values()) {
+                tagIndex.put(stack.getId(), stack.getTags(), null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     @PreDestroy
@@ -78,6 +85,7 @@ public class LocalStackDaoImpl implements StackDao {
                 throw new ConflictException(format("Stack with id %s is already exist", stack.getId()));
             }
             stacks.put(stack.getId(), stack);
+            tagIndex.put(stack.getId(), stack.getTags(), null);
         } finally {
             lock.writeLock().unlock();
         }
@@ -104,6 +112,7 @@ public class LocalStackDaoImpl implements StackDao {
         lock.writeLock().lock();
         try {
             stacks.remove(id);
+            tagIndex.remove(id);
         } finally {
             lock.writeLock().unlock();
         }
@@ -120,6 +129,7 @@ public class LocalStackDaoImpl implements StackDao {
                 throw new NotFoundException(format("Stack with id %s was not found", updateId));
             }
             stacks.replace(updateId, update);
+            tagIndex.put(updateId, update.getTags(), null);
             return new StackImpl(update);
         } finally {
             lock.writeLock().unlock();
@@ -130,17 +140,10 @@ public class LocalStackDaoImpl implements StackDao {
     public List<StackImpl> searchStacks(String user, @Nullable List<String> tags, int skipCount, int maxItems) {
         lock.readLock().lock();
         try {
-            Stream<StackImpl> stacksStream = stacks.values()
-                                                   .stream()
-                                                   .skip(skipCount)
-                                                   .filter(decoratedStack -> tags == null ||
-                                                                             decoratedStack.getTags().containsAll(tags));
-            if (maxItems != 0) {
-                stacksStream = stacksStream.limit(maxItems);
-            }
-
-            return stacksStream.map(StackImpl::new)
-                               .collect(toList());
+            return tagIndex.find(tags, null, skipCount, maxItems)
+                           .stream()
+                           .map(id -> new StackImpl(stacks.get(id)))
+                           .collect(toList());
         } finally {
             lock.readLock().unlock();
         }
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import org.eclipse.che.commons.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from tags and type of items to their identifiers, used for searching in local storages.
+ * <p>
+ * Each item gets a slot number in order it was added, every tag and type is mapped to the {@link BitSet} of slots of
+ * items which have this tag or type. Search by several tags is an intersection of their bit sets, so results are
+ * returned in the order items were added and paging is stable. Slots of removed items are reused only after
+ * compaction, which preserves the order.
+ * <p>
+ * Index is not thread-safe, it is expected to be guarded by the lock of storage which uses it.
+ */
+class TagIndex {
+
+    /** Compaction is not performed until there are at least this many slots of removed items. */
+    private static final int MIN_COMPACTION_GAP = 1024;
+
+    private final Map<String, Integer> slots;
+    private final List<Entry>          entries;
+    private final Map<String, BitSet>  tagSlots;
+    private final Map<String, BitSet>  typeSlots;
+    private final BitSet               occupied;
+
+    TagIndex() {
+        this.slots = new HashMap<>();
+        this.entries = new ArrayList<>();
+        this.tagSlots = new HashMap<>();
+        this.typeSlots = new HashMap<>();
+        this.occupied = new BitSet();
+    }
+
+    /**
+     * Adds item to the index or updates tags and type of already indexed item. Updated item keeps its position.
+     *
+     * @param id
+     *         identifier of item
+     * @param tags
+     *         tags of item, may be {@code null}
+     * @param type
+     *         type of item, may be {@code null}
+     */
+    void put(String id, @Nullable Collection<String> tags, @Nullable String type) {
+        Integer slot = slots.get(id);
+        if (slot == null) {
+            slot = entries.size();
+            slots.put(id, slot);
+            entries.add(null);
+            occupied.set(slot);
+        } else {
+            unindex(slot);
+        }
+        final Entry entry = new Entry(id, tags == null ? new LinkedHashSet<>() : new LinkedHashSet<>(tags), type);
+        entries.set(slot, entry);
+        for (String tag : entry.tags) {
+            tagSlots.computeIfAbsent(tag, key -> new BitSet()).set(slot);
+        }
+        if (type != null) {
+            typeSlots.computeIfAbsent(type, key -> new BitSet()).set(slot);
+        }
+    }
+
+    /**
+     * Removes item from the index. Does nothing if item is not indexed.
+     */
+    void remove(String id) {
+        final Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        unindex(slot);
+        entries.set(slot, null);
+        occupied.clear(slot);
+        final int gap = entries.size() - slots.size();
+        if (gap >= MIN_COMPACTION_GAP && gap > slots.size()) {
+            compact();
+        }
+    }
+
+    /** Removes all items from the index. */
+    void clear() {
+        slots.clear();
+        entries.clear();
+        tagSlots.clear();
+        typeSlots.clear();
+        occupied.clear();
+    }
+
+    /** Number of indexed items. */
+    int size() {
+        return slots.size();
+    }
+
+    /**
+     * Finds identifiers of items which have all the specified tags and the specified type.
+     *
+     * @param tags
+     *         required tags, {@code null} or empty list means any tags
+     * @param type
+     *         required type, {@code null} means any type
+     * @param skipCount
+     *         number of found items to skip
+     * @param maxItems
+     *         max number of items to return, 0 means no limit
+     * @return identifiers of found items in the order they were added
+     */
+    List<String> find(@Nullable Collection<String> tags, @Nullable String type, int skipCount, int maxItems) {
+        final BitSet found = (BitSet)occupied.clone();
+        if (type != null) {
+            and(found, typeSlots.get(type));
+        }
+        if (tags != null) {
+            for (String tag : tags) {
+                if (found.isEmpty()) {
+                    break;
+                }
+                and(found, tagSlots.get(tag));
+            }
+        }
+
+        final List<String> result = new ArrayList<>();
+        int skipped = 0;
+        for (int slot = found.nextSetBit(0); slot >= 0; slot = found.nextSetBit(slot + 1)) {
+            if (skipped < skipCount) {
+                skipped++;
+                continue;
+            }
+            if (maxItems != 0 && result.size() >= maxItems) {
+                break;
+            }
+            result.add(entries.get(slot).id);
+        }
+        return result;
+    }
+
+    private static void and(BitSet target, BitSet other) {
+        if (other == null) {
+            target.clear();
+        } else {
+            target.and(other);
+        }
+    }
+
+    private void unindex(int slot) {
+        final Entry entry = entries.get(slot);
+        for (String tag : entry.tags) {
+            clear(tagSlots, tag, slot);
+        }
+        if (entry.type != null) {
+            clear(typeSlots, entry.type, slot);
+        }
+    }
+
+    private static void clear(Map<String, BitSet> index, String key, int slot) {
+        final BitSet bits = index.get(key);
+        if (bits != null) {
+            bits.clear(slot);
+            if (bits.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /** Renumbers slots of indexed items removing gaps left by removed items. Order of items is preserved. */
+    private void compact() {
+        final List<Entry> live = new ArrayList<>(slots.size());
+        for (Entry entry : entries) {
+            if (entry != null) {
+                live.add(entry);
+            }
+        }
+        clear();
+        for (Entry entry : live) {
+            put(entry.id, entry.tags, entry.type);
+        }
+    }
+
+    private static class Entry {
+        final String      id;
+        final Set<String> tags;
+        final String      type;
+
+        Entry(String id, Set<String> tags, String type) {
+            this.id = id;
+            this.tags = tags;
+            this.type = type;
+        }
+    }
+}
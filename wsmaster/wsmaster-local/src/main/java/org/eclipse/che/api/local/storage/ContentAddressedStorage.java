@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local.storage;
+
+import com.google.common.hash.Hashing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+/**
+ * File system storage of binary content, e.g. images, where each content is stored in file named by SHA-256 hash of
+ * content. The same content is stored only once regardless of how many times it was put to the storage.
+ * <p>
+ * Files of storage are never modified once created, so they may be read without any locking.
+ */
+public class ContentAddressedStorage {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ContentAddressedStorage.class);
+
+    private static final String TEMP_SUFFIX      = ".tmp";
+    /** Temporary file which is older than this is left by interrupted {@link #put(byte[])} and may be removed. */
+    private static final long   TEMP_FILE_TTL_MS = TimeUnit.HOURS.toMillis(1);
+
+    private final Path rootDir;
+
+    public ContentAddressedStorage(Path rootDir) throws IOException {
+        this.rootDir = rootDir;
+        Files.createDirectories(rootDir);
+    }
+
+    /**
+     * Stores content if there is no the same content in the storage yet.
+     *
+     * @param content
+     *         content to store
+     * @return hash of content which identifies it in the storage
+     * @throws IOException
+     *         if content can't be written
+     */
+    public String put(byte[] content) throws IOException {
+        final String hash = Hashing.sha256().hashBytes(content).toString();
+        final Path file = getPath(hash);
+        if (Files.exists(file)) {
+            return hash;
+        }
+        final Path temp = Files.createTempFile(rootDir, hash, TEMP_SUFFIX);
+        try {
+            Files.write(temp, content);
+            Files.move(temp, file, ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // the same content is stored concurrently
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return hash;
+    }
+
+    /**
+     * Returns path of file with content which has the specified hash. File doesn't exist if there is no such content.
+     */
+    public Path getPath(String hash) {
+        return rootDir.resolve(hash);
+    }
+
+    /** Checks whether content with the specified hash exists in the storage. */
+    public boolean contains(String hash) {
+        return Files.isRegularFile(getPath(hash));
+    }
+
+    /**
+     * Removes all content except content with the specified hashes.
+     * Temporary files of content which is being stored concurrently are kept.
+     *
+     * @param hashes
+     *         hashes of content to keep
+     */
+    public void retainAll(Set<String> hashes) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(rootDir)) {
+            for (Path file : files) {
+                final String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX) ? isStale(file) : !hashes.contains(name)) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        LOG.warn("Unable to remove unused content {}: {}", file, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isStale(Path tempFile) {
+        try {
+            return Files.getLastModifiedTime(tempFile).toMillis() < System.currentTimeMillis() - TEMP_FILE_TTL_MS;
+        } catch (IOException e) {
+            // removed by put
+            return false;
+        }
+    }
+}
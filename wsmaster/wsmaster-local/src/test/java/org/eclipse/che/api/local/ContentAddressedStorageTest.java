@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import org.eclipse.che.api.local.storage.ContentAddressedStorage;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singleton;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link ContentAddressedStorage}.
+ */
+public class ContentAddressedStorageTest {
+
+    private Path                    rootDir;
+    private ContentAddressedStorage storage;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        rootDir = Files.createTempDirectory("content-storage");
+        storage = new ContentAddressedStorage(rootDir.resolve("blobs"));
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        IoUtil.deleteRecursive(rootDir.toFile());
+    }
+
+    @Test
+    public void shouldStoreSameContentOnlyOnce() throws Exception {
+        final String first = storage.put("image".getBytes());
+        final String second = storage.put("image".getBytes());
+
+        assertEquals(first, second);
+        assertTrue(storage.contains(first));
+        assertEquals(Files.readAllBytes(storage.getPath(first)), "image".getBytes());
+        assertEquals(Files.list(rootDir.resolve("blobs")).count(), 1);
+    }
+
+    @Test
+    public void shouldStoreDifferentContentInDifferentFiles() throws Exception {
+        assertNotEquals(storage.put("image1".getBytes()), storage.put("image2".getBytes()));
+        assertEquals(Files.list(rootDir.resolve("blobs")).count(), 2);
+    }
+
+    @Test
+    public void shouldRemoveContentWhichIsNotRetained() throws Exception {
+        final String retained = storage.put("image1".getBytes());
+        final String removed = storage.put("image2".getBytes());
+
+        storage.retainAll(singleton(retained));
+
+        assertTrue(storage.contains(retained));
+        assertFalse(storage.contains(removed));
+    }
+
+    @Test
+    public void shouldNotRemoveTemporaryFileOfContentWhichIsBeingStored() throws Exception {
+        final Path writing = Files.createTempFile(rootDir.resolve("blobs"), "hash", ".tmp");
+        final Path abandoned = Files.createTempFile(rootDir.resolve("blobs"), "hash", ".tmp");
+        Files.setLastModifiedTime(abandoned, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1)));
+
+        storage.retainAll(singleton(storage.put("image".getBytes())));
+
+        assertTrue(Files.exists(writing));
+        assertFalse(Files.exists(abandoned));
+    }
+}
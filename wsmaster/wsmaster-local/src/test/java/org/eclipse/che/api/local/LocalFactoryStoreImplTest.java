@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import org.eclipse.che.api.core.ConflictException;
+import org.eclipse.che.api.core.NotFoundException;
+import org.eclipse.che.api.factory.server.FactoryImage;
+import org.eclipse.che.api.factory.shared.dto.Author;
+import org.eclipse.che.api.factory.shared.dto.Factory;
+import org.eclipse.che.api.local.storage.LocalStorageFactory;
+import org.eclipse.che.api.workspace.shared.dto.ProjectConfigDto;
+import org.eclipse.che.api.workspace.shared.dto.SourceStorageDto;
+import org.eclipse.che.api.workspace.shared.dto.WorkspaceConfigDto;
+import org.eclipse.che.commons.lang.IoUtil;
+import org.eclipse.che.commons.lang.Pair;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.eclipse.che.dto.server.DtoFactory.newDto;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link LocalFactoryStoreImpl}.
+ */
+public class LocalFactoryStoreImplTest {
+    private static final byte[] IMAGE       = {(byte)0x89, 'P', 'N', 'G', 1, 2, 3};
+    private static final byte[] OTHER_IMAGE = {(byte)0x89, 'P', 'N', 'G', 4, 5, 6};
+
+    private Path                  storageRoot;
+    private LocalFactoryStoreImpl factoryStore;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        storageRoot = Files.createTempDirectory("factories");
+        factoryStore = createStore();
+    }
+
+    @AfterMethod
+    public void cleanUp() {
+        IoUtil.deleteRecursive(storageRoot.toFile());
+    }
+
+    @Test
+    public void shouldSaveAndGetFactory() throws Exception {
+        final String id = factoryStore.saveFactory(createFactory("factory1", "user1", "https://host/repo1.git"), null);
+
+        final Factory factory = factoryStore.getFactory(id);
+
+        assertEquals(factory.getId(), id);
+        assertEquals(factory.getName(), "factory1");
+        assertEquals(factory.getCreator().getUserId(), "user1");
+        assertEquals(factory.getWorkspace().getProjects().get(0).getSource().getLocation(), "https://host/repo1.git");
+    }
+
+    @Test
+    public void shouldUpdateFactoryAndItsIndexedAttributes() throws Exception {
+        final String id = factoryStore.saveFactory(createFactory("factory1", "user1", "https://host/repo1.git"),
+                                                   singleton(new FactoryImage(IMAGE, "image/png", "logo")));
+
+        factoryStore.updateFactory(id, createFactory("renamed", "user1", "https://host/repo2.git"));
+
+        assertEquals(factoryStore.getFactory(id).getName(), "renamed");
+        assertTrue(find(new Pair<>("name", "factory1")).isEmpty());
+        assertTrue(find(new Pair<>("workspace.projects.source.location", "https://host/repo1.git")).isEmpty());
+        assertEquals(find(new Pair<>("name", "renamed")), singletonList(id));
+        assertEquals(factoryStore.getFactoryImages(id, null).iterator().next().getImageData(), IMAGE);
+    }
+
+    @Test(expectedExceptions = NotFoundException.class)
+    public void shouldRemoveFactory() throws Exception {
+        final String id = factoryStore.saveFactory(createFactory("factory1", "user1", "https://host/repo1.git"), null);
+
+        factoryStore.removeFactory(id);
+
+        assertTrue(find(new Pair<>("creator.userId", "user1")).isEmpty());
+        factoryStore.getFactory(id);
+    }
+
+    @Test(expectedExceptions = ConflictException.class)
+    public void shouldNotSaveFactoryWithTheSameNameOfTheSameCreator() throws Exception {
+        factoryStore.saveFactory(createFactory("factory1", "user1", "https://host/repo1.git"), null);
+
+        factoryStore.saveFactory(createFactory("factory1", "user1", "https://host/repo2.git"), null);
+    }
+
+    @Test
+    public void shouldFindFactoriesByIndexedAndNotIndexedAttributes() throws Exception {
+        final String first = factoryStore.saveFactory(createFactory("factory1", "user1", "https://host/repo1.git"), null);
+        final String second = factoryStore.saveFactory(createFactory("factory2", "user1", "https://host/repo2.git"), null);
+        final String third = factoryStore.saveFactory(createFactory("factory3", "user1", "https://host/repo1.git"), null);
+        factoryStore.saveFactory(createFactory("factory4", "user2", "https://host/repo1.git"), null);
+
+        assertEquals(find(new Pair<>("creator.userId", "user1")), asList(first, second, third));
+        assertEquals(find(new Pair<>("creator.userId", "user1"),
+                          new Pair<>("workspace.projects.source.location", "https://host/repo1.git")),
+                     asList(first, third));
+        // attribute which is not indexed is checked for factories found by index
+        assertEquals(find(new Pair<>("creator.userId", "user1"), new Pair<>("creator.email", "user1@host"),
+                          new Pair<>("workspace.name", "factory2-ws")),
+                     singletonList(second));
+        assertEquals(factoryStore.findByAttribute(1, 1, singletonList(new Pair<>("creator.userId", "user1")))
+                                 .get(0)
+                                 .getId(),
+                     second);
+        assertTrue(find(new Pair<>("creator.userId", "user3")).isEmpty());
+    }
+
+    @Test
+    public void shouldStoreImageWhichIsUsedByManyFactoriesOnce() throws Exception {
+        final String first = factoryStore.saveFactory(createFactory("factory1", "user1", "https://host/repo1.git"),
+                                                      singleton(new FactoryImage(IMAGE, "image/png", "logo")));
+        final String second = factoryStore.saveFactory(createFactory("factory2", "user1", "https://host/repo2.git"),
+                                                       singleton(new FactoryImage(IMAGE, "image/png", "icon")));
+
+        assertEquals(storedImages().size(), 1);
+        assertEquals(factoryStore.getFactoryImages(first, "logo").iterator().next().getImageData(), IMAGE);
+        assertEquals(factoryStore.getFactoryImages(second, "icon").iterator().next().getImageData(), IMAGE);
+        assertTrue(factoryStore.getFactoryImages(second, "logo").isEmpty());
+    }
+
+    @Test
+    public void shouldRemoveImagesWhichAreNotUsedAnymoreWhenFactoriesAreSavedAndLoaded() throws Exception {
+        final String kept = factoryStore.saveFactory(createFactory("factory1", "user1", "https://host/repo1.git"),
+                                                     singleton(new FactoryImage(IMAGE, "image/png", "logo")));
+        final String removed = factoryStore.saveFactory(createFactory("factory2", "user1", "https://host/repo2.git"),
+                                                        singleton(new FactoryImage(OTHER_IMAGE, "image/png", "logo")));
+        factoryStore.removeFactory(removed);
+        assertEquals(storedImages().size(), 2);
+
+        factoryStore.saveFactories();
+        assertEquals(storedImages().size(), 1);
+
+        final LocalFactoryStoreImpl loaded = createStore();
+        loaded.loadFactories();
+
+        assertEquals(loaded.getFactory(kept).getName(), "factory1");
+        final Set<FactoryImage> images = loaded.getFactoryImages(kept, null);
+        assertEquals(images.size(), 1);
+        assertEquals(images.iterator().next().getImageData(), IMAGE);
+        assertEquals(loaded.findByAttribute(0, 0, singletonList(new Pair<>("name", "factory1"))).get(0).getId(), kept);
+        assertEquals(storedImages().size(), 1);
+    }
+
+    private LocalFactoryStoreImpl createStore() throws Exception {
+        return new LocalFactoryStoreImpl(new LocalStorageFactory(storageRoot.toString()), storageRoot.toString());
+    }
+
+    @SafeVarargs
+    private final List<String> find(Pair<String, String>... attributes) {
+        return factoryStore.findByAttribute(0, 0, asList(attributes))
+                           .stream()
+                           .map(Factory::getId)
+                           .collect(Collectors.toList());
+    }
+
+    private List<Path> storedImages() throws Exception {
+        final Path images = storageRoot.resolve("factory-images");
+        try (Stream<Path> files = Files.walk(images)) {
+            return files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+    }
+
+    private static Factory createFactory(String name, String userId, String location) {
+        return newDto(Factory.class).withV("4.0")
+                                    .withName(name)
+                                    .withCreator(newDto(Author.class).withUserId(userId)
+                                                                     .withEmail(userId + "@host"))
+                                    .withWorkspace(newDto(WorkspaceConfigDto.class)
+                                                           .withName(name + "-ws")
+                                                           .withProjects(singletonList(
+                                                                   newDto(ProjectConfigDto.class)
+                                                                           .withName("project")
+                                                                           .withPath("/project")
+                                                                           .withSource(newDto(SourceStorageDto.class)
+                                                                                               .withType("git")
+                                                                                               .withLocation(location)))));
+    }
+}
@@ -38,6 +38,7 @@ import java.util.Map;
 import static java.nio.file.Files.readAllBytes;
 import static java.nio.file.Files.write;
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
 
@@ -104,11 +105,46 @@ public class LocalStackDaoTest {
         assertEquals(result, stack);
     }
 
+    @Test
+    public void shouldApplySkipCountToFoundStacks() throws Exception {
+        stackDao.create(createStack("stack1", asList("java", "maven")));
+        stackDao.create(createStack("stack2", asList("php")));
+        stackDao.create(createStack("stack3", asList("java")));
+        stackDao.create(createStack("stack4", asList("java", "maven")));
+
+        List<StackImpl> result = stackDao.searchStacks("user", singletonList("java"), 1, 1);
+
+        assertEquals(result.size(), 1);
+        assertEquals(result.get(0).getId(), "stack3");
+    }
+
+    @Test
+    public void shouldFindStacksByUpdatedTags() throws Exception {
+        stackDao.create(createStack("stack1", asList("java", "maven")));
+        stackDao.create(createStack("stack2", asList("java")));
+
+        stackDao.update(createStack("stack1", asList("php")));
+        stackDao.remove("stack2");
+
+        assertEquals(stackDao.searchStacks("user", singletonList("java"), 0, 0).size(), 0);
+        assertEquals(stackDao.searchStacks("user", singletonList("php"), 0, 0).get(0).getId(), "stack1");
+    }
+
     private void createStackIcon() throws IOException {
         Files.createDirectories(parentIconFolder);
         Files.write(pathToIcon, SVG_ICON.getBytes());
     }
 
+    private static StackImpl createStack(String id, List<String> tags) {
+        return StackImpl.builder().setId(id)
+                        .setName(id)
+                        .setScope("general")
+                        .setCreator("user")
+                        .setTags(tags)
+                        .setSource(new StackSourceImpl("image", "codenvy/ubuntu_jdk8"))
+                        .build();
+    }
+
     private static StackImpl createStack() {
         StackComponentImpl javaComponent = new StackComponentImpl("java", "1.8.45");
         StackComponentImpl mavenComponent = new StackComponentImpl("maven", "3.3.9");
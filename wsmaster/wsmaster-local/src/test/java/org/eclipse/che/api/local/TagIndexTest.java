@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2012-2016 Codenvy, S.A.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Codenvy, S.A. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.che.api.local;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests for {@link TagIndex}.
+ */
+public class TagIndexTest {
+    private static final Logger LOG = LoggerFactory.getLogger(TagIndexTest.class);
+
+    private TagIndex index;
+
+    @BeforeMethod
+    public void setUp() {
+        index = new TagIndex();
+        index.put("1", asList("java", "maven"), "dockerfile");
+        index.put("2", asList("php"), "dockerfile");
+        index.put("3", asList("java"), "compose");
+        index.put("4", asList("java", "maven", "ubuntu"), "dockerfile");
+    }
+
+    @Test
+    public void shouldFindItemsWhichHaveAllTags() {
+        assertEquals(index.find(asList("java", "maven"), null, 0, 0), asList("1", "4"));
+    }
+
+    @Test
+    public void shouldFindAllItemsWhenTagsAreNotSpecified() {
+        assertEquals(index.find(null, null, 0, 0), asList("1", "2", "3", "4"));
+        assertEquals(index.find(emptyList(), null, 0, 0), asList("1", "2", "3", "4"));
+    }
+
+    @Test
+    public void shouldFindItemsByTagsAndType() {
+        assertEquals(index.find(singletonList("java"), "dockerfile", 0, 0), asList("1", "4"));
+        assertEquals(index.find(null, "compose", 0, 0), singletonList("3"));
+        assertEquals(index.find(null, "unknown", 0, 0), emptyList());
+    }
+
+    @Test
+    public void shouldNotFindItemsByUnknownTag() {
+        assertEquals(index.find(asList("java", "unknown"), null, 0, 0), emptyList());
+    }
+
+    @Test
+    public void shouldApplySkipCountAndMaxItemsToFoundItems() {
+        assertEquals(index.find(singletonList("java"), null, 1, 1), singletonList("3"));
+        assertEquals(index.find(singletonList("java"), null, 2, 0), singletonList("4"));
+        assertEquals(index.find(singletonList("java"), null, 3, 10), emptyList());
+    }
+
+    @Test
+    public void shouldKeepPositionOfUpdatedItem() {
+        index.put("1", singletonList("php"), "compose");
+
+        assertEquals(index.find(singletonList("php"), null, 0, 0), asList("1", "2"));
+        assertEquals(index.find(singletonList("maven"), null, 0, 0), singletonList("4"));
+        assertEquals(index.size(), 4);
+    }
+
+    @Test
+    public void shouldNotFindRemovedItem() {
+        index.remove("1");
+        index.remove("unknown");
+
+        assertEquals(index.find(singletonList("java"), null, 0, 0), asList("3", "4"));
+        assertEquals(index.size(), 3);
+    }
+
+    @Test
+    public void shouldPreserveOrderOfItemsAfterCompaction() {
+        for (int i = 0; i < 5000; i++) {
+            index.put("tmp" + i, singletonList("java"), null);
+        }
+        index.put("5", singletonList("java"), null);
+        for (int i = 0; i < 5000; i++) {
+            index.remove("tmp" + i);
+        }
+
+        assertEquals(index.find(singletonList("java"), null, 0, 0), asList("1", "3", "4", "5"));
+    }
+
+    @Test
+    public void shouldFindSameItemsAsFullScanOfTenThousandItems() {
+        final Random random = new Random(42);
+        final List<String> tags = asList("java", "maven", "ubuntu", "debian", "php", "node", "go", "python");
+        final List<String> types = asList("dockerfile", "compose");
+        final Map<String, List<String>> itemTags = new LinkedHashMap<>();
+        final Map<String, String> itemTypes = new LinkedHashMap<>();
+        index.clear();
+        for (int i = 0; i < 10_000; i++) {
+            final List<String> shuffled = new ArrayList<>(tags);
+            Collections.shuffle(shuffled, random);
+            final List<String> tagsOfItem = shuffled.subList(0, 1 + random.nextInt(4));
+            final String type = types.get(random.nextInt(types.size()));
+            itemTags.put("item" + i, tagsOfItem);
+            itemTypes.put("item" + i, type);
+            index.put("item" + i, tagsOfItem, type);
+        }
+        final List<String> query = asList("java", "ubuntu");
+
+        long start = System.nanoTime();
+        List<String> scanned = null;
+        for (int i = 0; i < 100; i++) {
+            scanned = itemTags.entrySet()
+                              .stream()
+                              .filter(entry -> entry.getValue().containsAll(query)
+                                               && "dockerfile".equals(itemTypes.get(entry.getKey())))
+                              .skip(10)
+                              .limit(30)
+                              .map(Map.Entry::getKey)
+                              .collect(Collectors.toList());
+        }
+        final long scanTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        List<String> found = null;
+        for (int i = 0; i < 100; i++) {
+            found = index.find(query, "dockerfile", 10, 30);
+        }
+        final long indexTime = System.nanoTime() - start;
+
+        LOG.info("100 searches in 10000 items: full scan {} ms, index {} ms",
+                 TimeUnit.NANOSECONDS.toMillis(scanTime), TimeUnit.NANOSECONDS.toMillis(indexTime));
+        assertEquals(found, scanned);
+        assertTrue(found.size() > 0);
+    }
+}